@@ -4,6 +4,10 @@ export default defineNuxtConfig({
   devtools: { enabled: true },
   modules: ['@nuxtjs/tailwindcss'],
   ssr: false,
+  nitro: {
+    // Emit .gz / .br next to every compressible asset; the backend serves them as-is instead of compressing at runtime
+    compressPublicAssets: { gzip: true, brotli: true }
+  },
   runtimeConfig: {
     public: {
       apiBase:  ''
@@ -1,9 +1,33 @@
-import { defineConfig } from 'vite'
+import { defineConfig, type Plugin } from 'vite'
 import vue from '@vitejs/plugin-vue'
 import { resolve } from 'path'
+import { readFileSync, writeFileSync } from 'fs'
+import { brotliCompressSync, constants, gzipSync } from 'zlib'
+
+// Write feedback.js.gz / feedback.js.br next to the bundle so the backend never compresses the widget at runtime
+function precompress(): Plugin {
+  return {
+    name: 'precompress',
+    apply: 'build',
+    writeBundle(options, bundle) {
+      for (const fileName of Object.keys(bundle)) {
+        if (!/\.(js|css)$/.test(fileName)) continue
+        const file = resolve(options.dir ?? 'dist-widget', fileName)
+        const source = readFileSync(file)
+        writeFileSync(`${file}.gz`, gzipSync(source, { level: 9 }))
+        writeFileSync(`${file}.br`, brotliCompressSync(source, {
+          params: {
+            [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+            [constants.BROTLI_PARAM_SIZE_HINT]: source.length
+          }
+        }))
+      }
+    }
+  }
+}
 
 export default defineConfig({
-  plugins: [vue()],
+  plugins: [vue(), precompress()],
   define: {
     'process.env.NODE_ENV': '"production"'
   },
@@ -0,0 +1,136 @@
+package com.ideaflow.feedbacklinklite.bench;
+
+import com.ideaflow.feedbacklinklite.attachment.Attachment;
+import com.ideaflow.feedbacklinklite.attachment.AttachmentStore;
+import com.ideaflow.feedbacklinklite.attachment.MultipartReader;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 并发上传吞吐：multipart 流式解析 + SHA-256 + 写盘 + 原子移动
+ * unique 每次上传的内容都不同，每次都落盘，上传后立即删除以免占满磁盘（删除耗时计入结果）；duplicate 每次上传相同内容，走去重分支。
+ * 加 -prof gc 可观察 gc.alloc.rate.norm：每次上传的分配量是固定的缓冲区，与文件大小无关。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttachmentUploadBenchmark {
+    private static final String BOUNDARY = "----FeedbackBenchBoundary";
+
+    @Param({"262144", "4194304"})
+    private int fileBytes;
+
+    @Param({"unique", "duplicate"})
+    private String content;
+
+    private Path dir;
+    private AttachmentStore store;
+
+    @State(Scope.Thread)
+    public static class Upload {
+        private byte[] body;
+        private int fileOffset;
+        private long counter;
+
+        @Setup
+        public void setup(AttachmentUploadBenchmark benchmark) throws IOException {
+            byte[] file = new byte[benchmark.fileBytes];
+            new Random(42).nextBytes(file);
+            byte[] magic = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+            System.arraycopy(magic, 0, file, 0, magic.length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(file.length + 512);
+            out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"message\"\r\n\r\n"
+                    + "截图里的按钮点不动\r\n--" + BOUNDARY
+                    + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"screenshot.png\"\r\n"
+                    + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            fileOffset = out.size();
+            out.write(file);
+            out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            body = out.toByteArray();
+            counter = Thread.currentThread().threadId() << 32;
+        }
+
+        /**
+         * 在文件头之后写入递增计数，使每次上传的内容不同
+         */
+        private void mutate() {
+            long value = counter++;
+            for (int i = 0; i < 8; i++) {
+                body[fileOffset + 8 + i] = (byte) (value >>> (i * 8));
+            }
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("attachment-bench");
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getAttachments().setDir(dir.toString());
+        properties.getAttachments().setMaxFileBytes(fileBytes);
+        store = new AttachmentStore(new FeedbackConfigHolder(properties), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Attachment singleUploader(Upload upload) throws IOException {
+        return upload(upload);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Attachment concurrentUploaders(Upload upload) throws IOException {
+        return upload(upload);
+    }
+
+    private Attachment upload(Upload upload) throws IOException {
+        if ("unique".equals(content)) {
+            upload.mutate();
+        }
+        MultipartReader reader = new MultipartReader(new ByteArrayInputStream(upload.body), BOUNDARY);
+        Attachment stored = null;
+        for (MultipartReader.Part part = reader.next(); part != null; part = reader.next()) {
+            if (part.filename() != null) {
+                stored = store.store(part.body());
+            }
+        }
+        if ("unique".equals(content) && stored != null) {
+            Files.deleteIfExists(store.resolve(stored.fileName()));
+        }
+        return stored;
+    }
+}
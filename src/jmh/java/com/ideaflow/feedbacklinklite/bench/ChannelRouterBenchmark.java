@@ -0,0 +1,98 @@
+package com.ideaflow.feedbacklinklite.bench;
+
+import com.ideaflow.feedbacklinklite.channel.ChannelResilienceRegistry;
+import com.ideaflow.feedbacklinklite.channel.ChannelResult;
+import com.ideaflow.feedbacklinklite.channel.MessageChannel;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.OutboundScheduler;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.service.ChannelRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 路由本身的开销：桩渠道立即返回（instant）或模拟 200µs 的网络调用（remote），
+ * 对比顺序与并发两种路由模式在 1 / 3 个渠道下的耗时，包含重试熔断包装与指标记录。
+ * 桩渠道实现同步 send，经 MessageChannel 默认的 sendAsync 在虚拟线程中执行。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelRouterBenchmark {
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    private FeedbackProperties.Routing.Mode mode;
+
+    @Param({"1", "3"})
+    private int channels;
+
+    @Param({"instant", "remote"})
+    private String latency;
+
+    private ChannelRouter router;
+    private MessageContext context;
+
+    @Setup
+    public void setup() {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getRouting().setMode(mode);
+        FeedbackConfigHolder config = new FeedbackConfigHolder(properties);
+        long delayNanos = "remote".equals(latency) ? TimeUnit.MICROSECONDS.toNanos(200) : 0;
+        List<MessageChannel> stubs = new ArrayList<>();
+        for (int i = 0; i < channels; i++) {
+            stubs.add(new StubChannel("stub-" + i, delayNanos));
+        }
+        FeedbackMetrics metrics = new FeedbackMetrics();
+        // 桩渠道没有配置发送额度，出站调度直接放行
+        ChannelResilienceRegistry registry = new ChannelResilienceRegistry(config, new OutboundScheduler(config, metrics));
+        router = new ChannelRouter(stubs, config, registry, metrics);
+        context = MessageContext.builder()
+                .message("页面按钮点不动了，提交后提示 error-500")
+                .contact("13800138000")
+                .pageUrl("https://example.com/orders?id=42")
+                .build();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RouteResult route1() {
+        return router.route(context);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public RouteResult route8() {
+        return router.route(context);
+    }
+
+    private record StubChannel(String name, long delayNanos) implements MessageChannel {
+        @Override
+        public ChannelResult send(MessageContext context) {
+            if (delayNanos > 0) {
+                LockSupport.parkNanos(delayNanos);
+            }
+            return ChannelResult.ok();
+        }
+    }
+}
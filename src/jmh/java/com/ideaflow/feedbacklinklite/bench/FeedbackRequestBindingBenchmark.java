@@ -0,0 +1,70 @@
+package com.ideaflow.feedbacklinklite.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ideaflow.feedbacklinklite.model.FeedbackRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提交请求体绑定为 {@link FeedbackRequest} 的耗时：ObjectMapper.readValue 对比预先创建的 ObjectReader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedbackRequestBindingBenchmark {
+
+    @Param({"short", "10k"})
+    private String size;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+    private byte[] body;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper();
+        reader = objectMapper.readerFor(FeedbackRequest.class);
+        FeedbackRequest request = new FeedbackRequest();
+        request.setMessage("short".equals(size) ? "页面按钮点不动了 (Chrome 120)，提交后提示 error-500！" : randomText(10 * 1024));
+        request.setContact("someone@example.com");
+        request.setPageUrl("https://example.com/orders?id=42");
+        request.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/120.0 Safari/537.36");
+        body = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public FeedbackRequest objectMapper() throws Exception {
+        return objectMapper.readValue(body, FeedbackRequest.class);
+    }
+
+    @Benchmark
+    public FeedbackRequest objectReader() throws Exception {
+        return reader.readValue(body);
+    }
+
+    private static String randomText(int length) {
+        String words = "反馈 feedback \"quoted\" \\ a.b (x) [y] #1 - ok!  \n";
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(words.charAt(random.nextInt(words.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ideaflow.feedbacklinklite.bench;
+
+import com.ideaflow.feedbacklinklite.channel.MarkdownEscaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次遍历的 MarkdownEscaper 与早期 regex + 链式 replace 实现的对比，分别覆盖短消息和 10 KB 消息
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownEscaperBenchmark {
+
+    @Param({"short", "10k"})
+    private String size;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        if ("short".equals(size)) {
+            input = "页面按钮点不动了 (Chrome 120)，提交后提示 error-500！请尽快处理。";
+            return;
+        }
+        String words = "反馈 feedback a.b (x) [y] #1 - ok!  \n";
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(10 * 1024);
+        while (sb.length() < 10 * 1024) {
+            sb.append(words.charAt(random.nextInt(words.length())));
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return MarkdownEscaper.escape(input);
+    }
+
+    @Benchmark
+    public String legacyReplaceChain() {
+        return legacyEscape(input);
+    }
+
+    /**
+     * 早期 DingTalkChannel.escapeMarkdownContent 的原样拷贝
+     */
+    static String legacyEscape(String content) {
+        if (content == null) {
+            return "";
+        }
+        content = content.replace("\r\n", "\n").replace("\r", "\n");
+        content = content.replaceAll(" {2,}", " ");
+        content = content.replace("\\", "\\\\");
+        content = content.replace("`", "\\`");
+        content = content.replace("*", "\\*");
+        content = content.replace("_", "\\_");
+        content = content.replace("{", "\\{");
+        content = content.replace("}", "\\}");
+        content = content.replace("[", "\\[");
+        content = content.replace("]", "\\]");
+        content = content.replace("(", "\\(");
+        content = content.replace(")", "\\)");
+        content = content.replace("#", "\\#");
+        content = content.replace("+", "\\+");
+        content = content.replace("-", "\\-");
+        content = content.replace(".", "\\.");
+        content = content.replace("!", "\\!");
+        content = content.replace("~", "\\~");
+        content = content.replace("|", "\\|");
+        content = content.replace("\n", "  \n");
+        return content;
+    }
+}
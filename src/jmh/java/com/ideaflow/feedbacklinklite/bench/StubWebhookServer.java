@@ -0,0 +1,50 @@
+package com.ideaflow.feedbacklinklite.bench;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * 基准测试用的本地 webhook 桩服务，读取请求体后返回钉钉风格的成功响应
+ */
+public final class StubWebhookServer implements AutoCloseable {
+    private static final byte[] OK = "{\"errcode\":0,\"errmsg\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+
+    private StubWebhookServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static StubWebhookServer start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext("/robot/send", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, OK.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(OK);
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return new StubWebhookServer(server);
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/robot/send?access_token=bench";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
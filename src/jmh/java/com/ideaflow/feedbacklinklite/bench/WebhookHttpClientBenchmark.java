@@ -0,0 +1,76 @@
+package com.ideaflow.feedbacklinklite.bench;
+
+import com.ideaflow.feedbacklinklite.channel.WebhookHttpClient;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次 webhook 发送延迟：共享连接池的 {@link WebhookHttpClient} 对比每次发送新建客户端（每次都重新建立 TCP 连接）。
+ * 桩服务走本地回环且不启用 TLS，真实环境下复用连接还能省去 TLS 握手，差距会更大。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookHttpClientBenchmark {
+    private StubWebhookServer server;
+    private WebhookHttpClient pooled;
+    private String url;
+    private byte[] body;
+
+    @Setup
+    public void setup() throws Exception {
+        server = StubWebhookServer.start();
+        url = server.url();
+        pooled = new WebhookHttpClient(new FeedbackConfigHolder(new FeedbackProperties()), new FeedbackMetrics());
+        body = "{\"msgtype\":\"markdown\",\"markdown\":{\"title\":\"收到新的用户反馈\",\"text\":\"### 🔔 收到新的用户反馈\\n\\n**内容**:\\n> bench\"}}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooled.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public int pooledKeepAlive() throws Exception {
+        return pooled.postJson(url, body).status();
+    }
+
+    @Benchmark
+    public int freshConnectionPerSend() throws Exception {
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(3))
+                .build()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+}
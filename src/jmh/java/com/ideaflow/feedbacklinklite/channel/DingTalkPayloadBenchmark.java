@@ -0,0 +1,86 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 钉钉消息体的渲染（转义 + 模板 + JSON 编码）与加签耗时，分别覆盖短消息、10 KB 消息和 10 条合并消息。
+ * 渲染方法仅包内可见，所以该基准放在 channel 包下。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DingTalkPayloadBenchmark {
+    private static final String WEBHOOK = "https://oapi.dingtalk.com/robot/send?access_token=0123456789abcdef";
+
+    @Param({"short", "10k"})
+    private String size;
+
+    private DingTalkChannel channel;
+    private DingTalkSigner signer;
+    private MessageContext context;
+    private List<MessageContext> digest;
+
+    @Setup
+    public void setup() throws Exception {
+        channel = new DingTalkChannel(new FeedbackConfigHolder(new FeedbackProperties()), null);
+        signer = new DingTalkSigner("SEC0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcd");
+        String message = "short".equals(size)
+                ? "页面按钮点不动了 (Chrome 120)，提交后提示 error-500！请尽快处理。"
+                : randomText(10 * 1024);
+        context = MessageContext.builder()
+                .message(message)
+                .contact("13800138000")
+                .pageUrl("https://example.com/orders?id=42")
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/120.0 Safari/537.36")
+                .build();
+        digest = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            digest.add(context);
+        }
+    }
+
+    @Benchmark
+    public byte[] renderSingle() {
+        return channel.renderSingle(context);
+    }
+
+    @Benchmark
+    public byte[] renderDigest10() {
+        return channel.renderDigest(digest);
+    }
+
+    @Benchmark
+    public String sign() throws Exception {
+        return signer.sign(WEBHOOK, System.currentTimeMillis());
+    }
+
+    private static String randomText(int length) {
+        String words = "反馈 feedback a.b (x) [y] #1 - ok!  \n";
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(words.charAt(random.nextInt(words.length())));
+        }
+        return sb.toString();
+    }
+}
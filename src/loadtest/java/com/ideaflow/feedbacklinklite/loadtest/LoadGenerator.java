@@ -0,0 +1,174 @@
+package com.ideaflow.feedbacklinklite.loadtest;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测：按固定到达率发起 POST /api/feedback，不等待上一个请求返回。
+ * 延迟从计划发送时刻开始计算，发送线程落后于计划时排队的时间也计入延迟，避免协调遗漏（coordinated omission）。
+ * <p>
+ * Linux 上整个 127.0.0.0/8 都是回环地址，每个虚拟 IP 使用一个绑定到 127.10.x.y 的 HttpClient，
+ * 服务端看到的 remoteAddr 各不相同，限流按真实的多 IP 场景计数。
+ */
+final class LoadGenerator {
+    private static final String[] WORDS = {
+            "页面", "按钮", "点击", "没有", "反应", "提交", "失败", "加载", "很慢", "图片", "显示", "错误",
+            "login", "order", "checkout", "timeout", "error", "blank", "crash", "retry", "chrome", "safari"
+    };
+
+    private final URI target;
+    private final HttpClient[] clients;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    LoadGenerator(URI target, int ips, Duration timeout, int maxInFlight) throws UnknownHostException {
+        this.target = target;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.clients = new HttpClient[ips];
+        for (int i = 0; i < ips; i++) {
+            int n = i + 1;
+            InetAddress local = InetAddress.getByAddress(new byte[]{127, 10, (byte) (n >> 8), (byte) n});
+            clients[i] = HttpClient.newBuilder()
+                    .localAddress(local)
+                    .connectTimeout(timeout)
+                    .executor(executor)
+                    .build();
+        }
+    }
+
+    /**
+     * 以 rate 次/秒的速率持续 duration，返回期间所有请求的结果
+     */
+    Result run(int rate, Duration duration) throws InterruptedException {
+        int total = (int) Math.max(1, rate * duration.toMillis() / 1000);
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        Result result = new Result(total);
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intended = start + i * periodNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                // 未完成的请求过多，说明服务已无法跟上到达率，记为丢弃而不是无限堆积
+                result.dropped.increment();
+                continue;
+            }
+            HttpClient client = clients[i % clients.length];
+            executor.execute(() -> {
+                try {
+                    send(client, intended, result);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // 取回全部许可即表示最后一批请求都已完成
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void send(HttpClient client, long intended, Result result) {
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body()))
+                .build();
+        String outcome;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            outcome = response.statusCode() == 200 ? status(response.body()) : "HTTP_" + response.statusCode();
+        } catch (HttpTimeoutException e) {
+            outcome = "CLIENT_TIMEOUT";
+        } catch (Exception e) {
+            outcome = "CLIENT_ERROR";
+        }
+        result.record(System.nanoTime() - intended, outcome);
+    }
+
+    /**
+     * 随机词组成的消息，彼此相似度较低；仍有少量（约 4%）会被重复检测判为相似，压测时由 LoadTest 关闭重复检测
+     */
+    private String body() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder message = new StringBuilder("压测 #").append(sequence.incrementAndGet());
+        for (int i = 0; i < 16; i++) {
+            message.append(' ').append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000));
+        }
+        return "{\"message\":\"" + message + "\",\"contact\":\"loadtest\",\"pageUrl\":\"https://example.com/p/"
+                + random.nextInt(100) + "\",\"userAgent\":\"loadtest\"}";
+    }
+
+    private static String status(String body) {
+        int key = body.indexOf("\"status\"");
+        if (key < 0) {
+            return "UNKNOWN";
+        }
+        int start = body.indexOf('"', body.indexOf(':', key) + 1) + 1;
+        int end = body.indexOf('"', start);
+        return start > 0 && end > start ? body.substring(start, end) : "UNKNOWN";
+    }
+
+    void close() {
+        executor.shutdownNow();
+        for (HttpClient client : clients) {
+            client.shutdownNow();
+        }
+    }
+
+    /**
+     * 一轮压测的原始结果
+     */
+    static final class Result {
+        final int offered;
+        final long[] latencies;
+        final AtomicInteger completed = new AtomicInteger();
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        final LongAdder dropped = new LongAdder();
+        long elapsedNanos;
+
+        Result(int offered) {
+            this.offered = offered;
+            this.latencies = new long[offered];
+        }
+
+        void record(long latencyNanos, String outcome) {
+            int index = completed.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = latencyNanos;
+            }
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(completed.get(), latencies.length));
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
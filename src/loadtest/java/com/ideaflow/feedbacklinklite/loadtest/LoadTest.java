@@ -0,0 +1,356 @@
+package com.ideaflow.feedbacklinklite.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端压测入口：./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="--rate=500 --duration=60 ..."
+ * <p>
+ * 默认在子进程中启动服务（数据目录放在临时目录，钉钉地址指向本地桩服务），预热后按固定到达率压测，
+ * 期间每秒抓取一次服务的 /metrics 记录堆内存与线程数，最后输出吞吐、延迟分位数和各状态计数，
+ * 并写出 JSON 报告。设置了阈值且未达标时以退出码 1 结束，使构建失败。
+ * <p>
+ * 参数（--name=value）：
+ * <ul>
+ *     <li>rate 到达率（次/秒），duration 与 warmup 压测与预热时长（秒），ips 虚拟客户端 IP 数量</li>
+ *     <li>timeout 客户端超时（毫秒），max-in-flight 未完成请求上限</li>
+ *     <li>stub-latency、stub-jitter（毫秒）、stub-error-rate、stub-rate-limit（每分钟条数，0 不限）</li>
+ *     <li>target 压测已运行的实例而不是启动子进程，此时桩服务仅供该实例手动配置使用</li>
+ *     <li>max-p99-ms、min-throughput、max-error-rate 通过阈值，未设置的不检查</li>
+ *     <li>report JSON 报告路径；其余以 --feedback. --server. --spring. --logging. 开头的参数原样传给服务</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--feedback.") || arg.startsWith("--server.")
+                    || arg.startsWith("--spring.") || arg.startsWith("--logging.")) {
+                appArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("unrecognized argument: " + arg);
+            }
+        }
+        int rate = intOption(options, "rate", 200);
+        Duration duration = Duration.ofSeconds(intOption(options, "duration", 60));
+        Duration warmup = Duration.ofSeconds(intOption(options, "warmup", 10));
+        int ips = intOption(options, "ips", 256);
+        Duration timeout = Duration.ofMillis(intOption(options, "timeout", 10_000));
+        int maxInFlight = intOption(options, "max-in-flight", 10_000);
+        StubDingTalkServer.Behavior behavior = new StubDingTalkServer.Behavior(
+                intOption(options, "stub-latency", 50),
+                intOption(options, "stub-jitter", 0),
+                Double.parseDouble(options.getOrDefault("stub-error-rate", "0")),
+                intOption(options, "stub-rate-limit", 0));
+        Path reportPath = Paths.get(options.getOrDefault("report", "target/loadtest-report.json"));
+
+        Process app = null;
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        LoadGenerator generator = null;
+        try (StubDingTalkServer stub = StubDingTalkServer.start(behavior)) {
+            URI base;
+            if (options.containsKey("target")) {
+                base = URI.create(options.get("target"));
+                System.out.println("stub webhook: " + stub.url());
+            } else {
+                int port = freePort();
+                app = startApp(port, stub.url(), appArgs);
+                base = URI.create("http://127.0.0.1:" + port);
+            }
+            ServerStats stats = new ServerStats(base.resolve("/metrics"));
+            stats.awaitReady(Duration.ofSeconds(120), app);
+
+            generator = new LoadGenerator(base.resolve("/api/feedback"), ips, timeout, maxInFlight);
+            System.out.printf("warmup %ds at %d req/s ...%n", warmup.toSeconds(), rate);
+            if (!warmup.isZero()) {
+                generator.run(rate, warmup);
+            }
+            sampler.scheduleAtFixedRate(stats::sample, 0, 1, TimeUnit.SECONDS);
+            System.out.printf("measuring %ds at %d req/s from %d client IPs ...%n", duration.toSeconds(), rate, ips);
+            LoadGenerator.Result result = generator.run(rate, duration);
+            sampler.shutdownNow();
+            stats.sample();
+
+            Map<String, Object> report = report(rate, ips, behavior, result, stub, stats);
+            print(report);
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            Files.writeString(reportPath, toJson(report));
+            System.out.println("report written to " + reportPath.toAbsolutePath());
+
+            List<String> failures = check(options, report);
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            if (!failures.isEmpty()) {
+                System.exit(1);
+            }
+        } finally {
+            sampler.shutdownNow();
+            if (generator != null) {
+                generator.close();
+            }
+            if (app != null) {
+                app.destroy();
+                app.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static Process startApp(int port, String webhook, List<String> appArgs) throws IOException {
+        Path dataDir = Files.createTempDirectory("feedback-loadtest");
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.ideaflow.feedbacklinklite.ServiceLinkLiteApplication");
+        command.add("--server.port=" + port);
+        command.add("--feedback.config-path=" + dataDir.resolve("feedback_config.json"));
+        command.add("--feedback.ding-talk.webhook=" + webhook);
+        // 压测关注吞吐，默认放开单 IP 与网段限额；需要验证限流时通过 --feedback.rate-limit.* 覆盖
+        command.add("--feedback.rate-limit.max-requests=1000000");
+        command.add("--feedback.rate-limit.subnet.max-requests=1000000");
+        // 出站限频排队会让同步提交等待渠道额度，压测的是服务自身的吞吐，默认关闭；需要验证时通过 --feedback.outbound.* 覆盖
+        command.add("--feedback.outbound.enabled=false");
+        // 随机生成的消息仍有一小部分会被判为相似而折叠，不经过渠道，会让测得的吞吐偏高；需要验证时通过 --feedback.dedup.* 覆盖
+        command.add("--feedback.dedup.enabled=false");
+        command.addAll(appArgs);
+        Path log = Paths.get("target", "loadtest-app.log").toAbsolutePath();
+        Files.createDirectories(log.getParent());
+        System.out.println("starting service on port " + port + ", log: " + log + ", data: " + dataDir);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, Object> report(int rate, int ips, StubDingTalkServer.Behavior behavior,
+                                              LoadGenerator.Result result, StubDingTalkServer stub, ServerStats stats) {
+        long[] sorted = result.sortedLatencies();
+        double seconds = result.elapsedNanos / 1e9;
+        Map<String, Long> outcomes = new TreeMap<>();
+        result.outcomes.forEach((key, count) -> outcomes.put(key, count.sum()));
+        long errors = outcomes.entrySet().stream()
+                .filter(entry -> isError(entry.getKey()))
+                .mapToLong(Map.Entry::getValue)
+                .sum() + result.dropped.sum();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("offeredRate", rate);
+        report.put("clientIps", ips);
+        report.put("stub", ordered(
+                "latencyMillis", behavior.latencyMillis(),
+                "jitterMillis", behavior.jitterMillis(),
+                "errorRate", behavior.errorRate(),
+                "rateLimitPerMinute", behavior.rateLimitPerMinute()));
+        report.put("requests", result.offered);
+        report.put("completed", sorted.length);
+        report.put("dropped", result.dropped.sum());
+        report.put("durationSeconds", round(seconds));
+        report.put("throughput", round(sorted.length / seconds));
+        report.put("errorRate", round((double) errors / Math.max(1, result.offered)));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(percentile(sorted, 0.50)));
+        latency.put("p90", millis(percentile(sorted, 0.90)));
+        latency.put("p99", millis(percentile(sorted, 0.99)));
+        latency.put("p999", millis(percentile(sorted, 0.999)));
+        latency.put("max", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        report.put("latencyMillis", latency);
+        report.put("outcomes", outcomes);
+        report.put("webhook", ordered(
+                "received", stub.received(),
+                "failed", stub.failed(),
+                "rateLimited", stub.rateLimited()));
+        report.put("server", ordered(
+                "heapUsedMaxBytes", stats.heapUsedMax(),
+                "heapCommittedMaxBytes", stats.heapCommittedMax(),
+                "threadsMax", stats.threadsMax(),
+                "threadsLast", stats.threadsLast()));
+        return report;
+    }
+
+    /**
+     * 超时、连接失败、非 200 响应以及服务端失败状态计为错误；限流属于正常业务结果
+     */
+    private static boolean isError(String outcome) {
+        return switch (outcome) {
+            case "SUCCESS", "ACCEPTED", "TOO_FREQUENT" -> false;
+            default -> true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> check(Map<String, String> options, Map<String, Object> report) {
+        List<String> failures = new ArrayList<>();
+        double p99 = (double) ((Map<String, Object>) report.get("latencyMillis")).get("p99");
+        double throughput = (double) report.get("throughput");
+        double errorRate = (double) report.get("errorRate");
+        if (options.containsKey("max-p99-ms") && p99 > Double.parseDouble(options.get("max-p99-ms"))) {
+            failures.add("p99 " + p99 + "ms > " + options.get("max-p99-ms") + "ms");
+        }
+        if (options.containsKey("min-throughput") && throughput < Double.parseDouble(options.get("min-throughput"))) {
+            failures.add("throughput " + throughput + "/s < " + options.get("min-throughput") + "/s");
+        }
+        if (options.containsKey("max-error-rate") && errorRate > Double.parseDouble(options.get("max-error-rate"))) {
+            failures.add("error rate " + errorRate + " > " + options.get("max-error-rate"));
+        }
+        return failures;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static Map<String, Object> ordered(Object... pairs) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            map.put((String) pairs[i], pairs[i + 1]);
+        }
+        return map;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static void print(Map<String, Object> report) {
+        System.out.println();
+        report.forEach((key, value) -> System.out.printf("%-16s %s%n", key, value));
+        System.out.println();
+    }
+
+    private static String toJson(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            StringBuilder out = new StringBuilder("{");
+            map.forEach((key, item) -> {
+                if (out.length() > 1) {
+                    out.append(',');
+                }
+                out.append('"').append(key).append("\":").append(toJson(item));
+            });
+            return out.append('}').toString();
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return "\"" + String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * 通过服务的 /metrics 采集 JVM 堆内存和线程数
+     */
+    private static final class ServerStats {
+        private final URI metrics;
+        private final HttpClient client = HttpClient.newHttpClient();
+        private volatile long heapUsedMax;
+        private volatile long heapCommittedMax;
+        private volatile long threadsMax;
+        private volatile long threadsLast;
+
+        private ServerStats(URI metrics) {
+            this.metrics = metrics;
+        }
+
+        void awaitReady(Duration timeout, Process app) throws Exception {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (app != null && !app.isAlive()) {
+                    throw new IllegalStateException("service exited with code " + app.exitValue() + ", see target/loadtest-app.log");
+                }
+                if (scrape() != null) {
+                    return;
+                }
+                Thread.sleep(500);
+            }
+            throw new IllegalStateException("service not ready after " + timeout.toSeconds() + "s: " + metrics);
+        }
+
+        synchronized void sample() {
+            String text = scrape();
+            if (text == null) {
+                return;
+            }
+            heapUsedMax = Math.max(heapUsedMax, gauge(text, "jvm_heap_used_bytes"));
+            heapCommittedMax = Math.max(heapCommittedMax, gauge(text, "jvm_heap_committed_bytes"));
+            threadsLast = gauge(text, "jvm_threads_live");
+            threadsMax = Math.max(threadsMax, threadsLast);
+        }
+
+        private String scrape() {
+            try {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(metrics)
+                        .timeout(Duration.ofSeconds(2)).build(), HttpResponse.BodyHandlers.ofString());
+                return response.statusCode() == 200 ? response.body() : null;
+            } catch (IOException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        private static long gauge(String text, String name) {
+            for (String line : text.split("\n")) {
+                if (line.startsWith(name + " ")) {
+                    return (long) Double.parseDouble(line.substring(name.length() + 1).trim());
+                }
+            }
+            return 0;
+        }
+
+        long heapUsedMax() {
+            return heapUsedMax;
+        }
+
+        long heapCommittedMax() {
+            return heapCommittedMax;
+        }
+
+        long threadsMax() {
+            return threadsMax;
+        }
+
+        long threadsLast() {
+            return threadsLast;
+        }
+    }
+}
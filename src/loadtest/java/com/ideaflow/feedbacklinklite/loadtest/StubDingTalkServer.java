@@ -0,0 +1,126 @@
+package com.ideaflow.feedbacklinklite.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模拟钉钉机器人 webhook 的本地桩服务
+ * 可配置固定延迟加随机抖动、按比例返回 5xx，以及钉钉的频率限制：
+ * 每分钟超过上限后仍返回 HTTP 200，但响应体为 errcode 130101，与真实接口一致。
+ */
+final class StubDingTalkServer implements AutoCloseable {
+    private static final byte[] OK = json("{\"errcode\":0,\"errmsg\":\"ok\"}");
+    private static final byte[] TOO_FAST = json("{\"errcode\":130101,\"errmsg\":\"send too fast, exceed 20 times per minute\"}");
+    private static final byte[] BUSY = json("{\"errcode\":-1,\"errmsg\":\"系统繁忙\"}");
+
+    private final HttpServer server;
+    private final Behavior behavior;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private long windowStart;
+    private int windowCount;
+
+    /**
+     * @param latencyMillis      每次响应的固定延迟
+     * @param jitterMillis       在固定延迟之上叠加 [0, jitter) 的随机延迟
+     * @param errorRate          返回 HTTP 500 的比例
+     * @param rateLimitPerMinute 每分钟允许的消息数，超出后返回 errcode 130101；0 表示不限制
+     */
+    record Behavior(long latencyMillis, long jitterMillis, double errorRate, int rateLimitPerMinute) {
+    }
+
+    private StubDingTalkServer(HttpServer server, Behavior behavior) {
+        this.server = server;
+        this.behavior = behavior;
+    }
+
+    static StubDingTalkServer start(Behavior behavior) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        StubDingTalkServer stub = new StubDingTalkServer(server, behavior);
+        server.createContext("/robot/send", stub::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return stub;
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/robot/send?access_token=loadtest";
+    }
+
+    long received() {
+        return received.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long rateLimited() {
+        return rateLimited.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        received.increment();
+        long delay = behavior.latencyMillis()
+                + (behavior.jitterMillis() > 0 ? ThreadLocalRandom.current().nextLong(behavior.jitterMillis()) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (ThreadLocalRandom.current().nextDouble() < behavior.errorRate()) {
+            failed.increment();
+            respond(exchange, 500, BUSY);
+        } else if (!acquire()) {
+            rateLimited.increment();
+            respond(exchange, 200, TOO_FAST);
+        } else {
+            respond(exchange, 200, OK);
+        }
+    }
+
+    private synchronized boolean acquire() {
+        if (behavior.rateLimitPerMinute() <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= 60_000) {
+            windowStart = now;
+            windowCount = 0;
+        }
+        return ++windowCount <= behavior.rateLimitPerMinute();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
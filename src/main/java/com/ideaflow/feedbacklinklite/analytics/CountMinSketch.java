@@ -0,0 +1,60 @@
+package com.ideaflow.feedbacklinklite.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch
+ * depth 行、每行 width 个计数器，每个键在每行命中一个计数器，估计值取各行的最小值：只会高估、不会低估，
+ * 高估量以大概率不超过 总数 * e / width。计数器是 AtomicLongArray，累加不加锁，内存与键的数量无关。
+ */
+final class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width 每行的计数器个数，必须是 2 的幂
+     */
+    CountMinSketch(int depth, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two: " + width);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.mask = width - 1;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * 累加并返回累加后的估计值
+     */
+    long add(long hash, long count) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.addAndGet(index(hash, row), count));
+        }
+        return min;
+    }
+
+    long estimate(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(hash, row)));
+        }
+        return min;
+    }
+
+    long memoryBytes() {
+        return (long) depth * width * Long.BYTES;
+    }
+
+    /**
+     * 由一个 64 位哈希的高低两半派生各行的位置（Kirsch-Mitzenmacher），不必为每行单独计算哈希
+     */
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & mask);
+    }
+}
@@ -0,0 +1,214 @@
+package com.ideaflow.feedbacklinklite.analytics;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.model.AnalyticsReport;
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 反馈量统计
+ * 按小时分桶，每个桶包含：按页面计数的 Count-Min Sketch、统计不同客户端的 HyperLogLog 和高频页面列表。
+ * 所有结构在创建时分配好固定大小，内存只与保留的小时数有关，与页面数、客户端数和请求量无关；客户端只以哈希进入寄存器，不保存 IP。
+ * 记录时只有原子累加和 CAS，不加锁，不阻塞提交线程。时间桶以环形数组轮转，进入新的小时时用 CAS 换上新桶。
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedbackAnalytics {
+    static final long HOUR_MILLIS = 60 * 60 * 1000;
+    private static final int MAX_RETENTION_HOURS = 168;
+    // 页面次数的高估量以约 98% 的概率不超过当小时总数的 e / 1024（约 0.27%）
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1024;
+    private static final int CLIENT_PRECISION = 12;
+    private static final int PAGE_CLIENT_PRECISION = 10;
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(MAX_RETENTION_HOURS);
+
+    /**
+     * 记录一次提交
+     *
+     * @param pageUrl 来源页面，为空时只计入小时总量
+     */
+    public void record(String pageUrl, String ip) {
+        record(pageUrl, ip, System.currentTimeMillis());
+    }
+
+    void record(String pageUrl, String ip, long now) {
+        FeedbackProperties.Analytics cfg = feedbackConfig.current().getAnalytics();
+        if (!cfg.isEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket(Math.floorDiv(now, HOUR_MILLIS), cfg);
+        if (bucket == null) {
+            return;
+        }
+        long client = KeyHashing.hash(ip == null ? "" : ip);
+        bucket.total.increment();
+        bucket.clients.add(client);
+        if (pageUrl == null || pageUrl.isBlank()) {
+            return;
+        }
+        String page = KeyHashing.pageKey(pageUrl);
+        long pageHash = KeyHashing.hash(page);
+        long estimate = bucket.pages.add(pageHash, 1);
+        bucket.topPages.offer(page, pageHash, estimate, client, bucket.pages);
+    }
+
+    /**
+     * 最近若干小时的统计，含当前小时
+     *
+     * @param hours 小时数，不超过保留时长
+     * @param top   每个时间桶及汇总中返回的高频页面个数
+     */
+    public AnalyticsReport report(int hours, int top) {
+        return report(hours, top, System.currentTimeMillis());
+    }
+
+    AnalyticsReport report(int hours, int top, long now) {
+        FeedbackProperties.Analytics cfg = feedbackConfig.current().getAnalytics();
+        int span = Math.clamp(hours, 1, retention(cfg));
+        int limit = Math.clamp(top, 1, 100);
+        long current = Math.floorDiv(now, HOUR_MILLIS);
+        AnalyticsReport report = new AnalyticsReport();
+        report.setFrom((current - span + 1) * HOUR_MILLIS);
+        report.setTo((current + 1) * HOUR_MILLIS);
+        report.setBucketMinutes(60);
+        byte[] clients = new byte[1 << CLIENT_PRECISION];
+        // 跨小时汇总页面：次数为各小时估计值之和，不同客户端为各小时候选期间的并集
+        Map<String, PageTotal> pages = new LinkedHashMap<>();
+        List<Bucket> present = new ArrayList<>();
+        for (long hour = current - span + 1; hour <= current; hour++) {
+            Bucket bucket = existing(hour);
+            if (bucket == null) {
+                report.getBuckets().add(new AnalyticsReport.Bucket(hour * HOUR_MILLIS, 0, 0, new ArrayList<>()));
+                continue;
+            }
+            present.add(bucket);
+            long count = bucket.total.sum();
+            report.setTotal(report.getTotal() + count);
+            report.setMemoryBytes(report.getMemoryBytes() + bucket.memoryBytes());
+            bucket.clients.mergeInto(clients);
+            List<AnalyticsReport.Page> bucketPages = new ArrayList<>();
+            for (Map.Entry<String, PageTotal> entry : topOf(bucket).entrySet()) {
+                PageTotal total = entry.getValue();
+                bucketPages.add(new AnalyticsReport.Page(entry.getKey(), total.count, HyperLogLog.estimate(total.clients)));
+                PageTotal merged = pages.computeIfAbsent(entry.getKey(), page -> new PageTotal(total.hash));
+                merged.merge(total.clients);
+            }
+            bucketPages.sort(Comparator.comparingLong(AnalyticsReport.Page::getCount).reversed());
+            report.getBuckets().add(new AnalyticsReport.Bucket(hour * HOUR_MILLIS, count, bucket.clients.estimate(),
+                    new ArrayList<>(bucketPages.subList(0, Math.min(limit, bucketPages.size())))));
+        }
+        report.setDistinctClients(HyperLogLog.estimate(clients));
+        for (Map.Entry<String, PageTotal> entry : pages.entrySet()) {
+            long count = 0;
+            for (Bucket bucket : present) {
+                count += bucket.pages.estimate(entry.getValue().hash);
+            }
+            report.getTopPages().add(new AnalyticsReport.Page(entry.getKey(), count,
+                    HyperLogLog.estimate(entry.getValue().clients)));
+        }
+        report.getTopPages().sort(Comparator.comparingLong(AnalyticsReport.Page::getCount).reversed());
+        if (report.getTopPages().size() > limit) {
+            report.setTopPages(new ArrayList<>(report.getTopPages().subList(0, limit)));
+        }
+        return report;
+    }
+
+    /**
+     * 单个时间桶的高频页面，并发写入造成的重复候选在这里合并
+     */
+    private static Map<String, PageTotal> topOf(Bucket bucket) {
+        Map<String, PageTotal> pages = new LinkedHashMap<>();
+        for (HeavyHitters.Slot slot : bucket.topPages.slots()) {
+            PageTotal total = pages.computeIfAbsent(slot.page(), page -> new PageTotal(slot.hash()));
+            total.count = bucket.pages.estimate(slot.hash());
+            slot.clients().mergeInto(total.clients);
+        }
+        return pages;
+    }
+
+    private Bucket bucket(long hour, FeedbackProperties.Analytics cfg) {
+        int index = (int) Math.floorMod(hour, (long) MAX_RETENTION_HOURS);
+        while (true) {
+            Bucket current = buckets.get(index);
+            if (current != null && current.hour == hour) {
+                return current;
+            }
+            if (current != null && current.hour > hour) {
+                // 时钟回拨时旧小时的数据不再记录
+                return null;
+            }
+            Bucket created = new Bucket(hour, Math.clamp(cfg.getTopPages(), 1, 100));
+            if (buckets.compareAndSet(index, current, created)) {
+                expire(hour, retention(cfg));
+                return created;
+            }
+        }
+    }
+
+    private Bucket existing(long hour) {
+        Bucket bucket = buckets.get((int) Math.floorMod(hour, (long) MAX_RETENTION_HOURS));
+        return bucket != null && bucket.hour == hour ? bucket : null;
+    }
+
+    /**
+     * 进入新的小时时释放超出保留时长的桶，保留时长调小后多余的桶同样在这里释放
+     */
+    private void expire(long currentHour, int retention) {
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.hour <= currentHour - retention) {
+                buckets.compareAndSet(i, bucket, null);
+            }
+        }
+    }
+
+    private static int retention(FeedbackProperties.Analytics cfg) {
+        return Math.clamp(cfg.getRetentionHours(), 1, MAX_RETENTION_HOURS);
+    }
+
+    private static final class Bucket {
+        private final long hour;
+        private final LongAdder total = new LongAdder();
+        private final CountMinSketch pages = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        private final HyperLogLog clients = new HyperLogLog(CLIENT_PRECISION);
+        private final HeavyHitters topPages;
+
+        private Bucket(long hour, int topPages) {
+            this.hour = hour;
+            this.topPages = new HeavyHitters(topPages, PAGE_CLIENT_PRECISION);
+        }
+
+        private long memoryBytes() {
+            return pages.memoryBytes() + clients.memoryBytes() + topPages.memoryBytes();
+        }
+    }
+
+    private static final class PageTotal {
+        private final long hash;
+        private final byte[] clients = new byte[1 << PAGE_CLIENT_PRECISION];
+        private long count;
+
+        private PageTotal(long hash) {
+            this.hash = hash;
+        }
+
+        private void merge(byte[] other) {
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = (byte) Math.max(clients[i], other[i]);
+            }
+        }
+    }
+}
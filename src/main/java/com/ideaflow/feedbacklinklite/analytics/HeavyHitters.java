@@ -0,0 +1,90 @@
+package com.ideaflow.feedbacklinklite.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 固定容量的高频页面列表
+ * 页面的次数来自同一时间桶的 {@link CountMinSketch}，这里只保存候选页面本身：
+ * 估计值超过当前候选中的最小值时，用 CAS 替换掉最小的那个。每个候选附带一个 HyperLogLog 统计不同客户端数，
+ * 从入选时开始计数，因此是下限。
+ * 并发替换时可能短暂出现同一页面占两个位置，或者某次替换因 CAS 失败被放弃，查询时按页面合并，结果是近似的。
+ */
+final class HeavyHitters {
+    private final AtomicReferenceArray<Slot> slots;
+    private final int clientPrecision;
+    // 入选所需估计值的下限：小于等于它的页面不可能挤掉任何候选，跳过最小值的查找
+    private volatile long floor;
+
+    record Slot(String page, long hash, HyperLogLog clients) {
+    }
+
+    HeavyHitters(int capacity, int clientPrecision) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.clientPrecision = clientPrecision;
+    }
+
+    /**
+     * @param estimate 本次累加后该页面的估计次数
+     */
+    void offer(String page, long hash, long estimate, long client, CountMinSketch counts) {
+        int empty = -1;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot == null) {
+                if (empty < 0) {
+                    empty = i;
+                }
+            } else if (slot.hash() == hash && slot.page().equals(page)) {
+                slot.clients().add(client);
+                return;
+            }
+        }
+        if (empty >= 0) {
+            slots.compareAndSet(empty, null, newSlot(page, hash, client));
+            return;
+        }
+        if (estimate <= floor) {
+            return;
+        }
+        int victimIndex = -1;
+        Slot victim = null;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            long count = counts.estimate(slot.hash());
+            if (count < min) {
+                min = count;
+                victimIndex = i;
+                victim = slot;
+            }
+        }
+        // 计数只增不减，最小值始终是下限
+        floor = min;
+        if (estimate > min) {
+            slots.compareAndSet(victimIndex, victim, newSlot(page, hash, client));
+        }
+    }
+
+    List<Slot> slots() {
+        List<Slot> current = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null) {
+                current.add(slot);
+            }
+        }
+        return current;
+    }
+
+    long memoryBytes() {
+        return (long) slots.length() * (1L << clientPrecision);
+    }
+
+    private Slot newSlot(String page, long hash, long client) {
+        Slot slot = new Slot(page, hash, new HyperLogLog(clientPrecision));
+        slot.clients().add(client);
+        return slot;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ideaflow.feedbacklinklite.analytics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * HyperLogLog 基数估计
+ * 2^precision 个寄存器，每个寄存器记录落入该桶的哈希中前导零个数的最大值，标准误差约 1.04 / sqrt(2^precision)。
+ * 寄存器只需 6 位，每 4 个寄存器打包进一个 int，更新时对所在的 int 做 CAS，只在寄存器变大时写入，不加锁。
+ * 同精度的多个实例可以按寄存器取最大值合并，得到并集的基数。
+ */
+final class HyperLogLog {
+    private final int precision;
+    private final int registerCount;
+    private final AtomicIntegerArray registers;
+
+    HyperLogLog(int precision) {
+        if (precision < 7 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 7 and 16: " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.registers = new AtomicIntegerArray(registerCount / 4);
+    }
+
+    /**
+     * @param hash 均匀分布的 64 位哈希
+     */
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 剩余位的前导零个数加一；末尾补一个哨兵位，保证结果不超过 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int slot = index >>> 2;
+        int shift = (index & 3) * 8;
+        while (true) {
+            int word = registers.get(slot);
+            if (((word >>> shift) & 0xFF) >= rank) {
+                return;
+            }
+            int updated = (word & ~(0xFF << shift)) | (rank << shift);
+            if (registers.compareAndSet(slot, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    long estimate() {
+        byte[] merged = new byte[registerCount];
+        mergeInto(merged);
+        return estimate(merged);
+    }
+
+    int precision() {
+        return precision;
+    }
+
+    /**
+     * 按寄存器取最大值合并到 target，target 的长度必须为 2^precision
+     */
+    void mergeInto(byte[] target) {
+        for (int slot = 0; slot < registers.length(); slot++) {
+            int word = registers.get(slot);
+            for (int i = 0; i < 4; i++) {
+                int index = slot * 4 + i;
+                target[index] = (byte) Math.max(target[index], (word >>> (i * 8)) & 0xFF);
+            }
+        }
+    }
+
+    long memoryBytes() {
+        return registerCount;
+    }
+
+    /**
+     * 由寄存器值估计基数；基数较小、仍有空寄存器时改用线性计数
+     */
+    static long estimate(byte[] registers) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+/**
+ * 已保存的附件
+ *
+ * @param hash      内容的 SHA-256（十六进制），同时是存储文件名
+ * @param extension 按文件头识别出的扩展名
+ * @param duplicate 相同内容此前已保存过，本次未再占用磁盘
+ */
+public record Attachment(String hash, String extension, String contentType, long size, boolean duplicate) {
+
+    public String fileName() {
+        return hash + "." + extension;
+    }
+}
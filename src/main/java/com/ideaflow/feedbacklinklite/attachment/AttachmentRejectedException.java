@@ -0,0 +1,12 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+import java.io.IOException;
+
+/**
+ * 附件超过大小上限或类型不被允许，已写入的临时文件已删除
+ */
+public class AttachmentRejectedException extends IOException {
+    public AttachmentRejectedException(String message) {
+        super(message);
+    }
+}
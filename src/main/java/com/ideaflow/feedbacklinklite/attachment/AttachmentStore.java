@@ -0,0 +1,255 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigStorage;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 按内容寻址的附件存储
+ * 上传内容边读边写入临时文件并计算 SHA-256，每次只占用一个固定大小的缓冲区，超过大小上限时立即中止；
+ * 写完后以哈希为文件名原子移动到 {@code <目录>/<哈希前两位>/<哈希>.<扩展名>}，相同内容只保存一份。
+ * 提交流程中先 {@link #receive} 写入临时文件，整条反馈通过校验后再 {@link #publish}，被拒绝的提交 {@link #discard}。
+ * 文件类型按文件头识别，不信任客户端声明的 Content-Type。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttachmentStore {
+    private static final int BUFFER_SIZE = 8192;
+    // 识别文件类型所需的文件头长度
+    private static final int SNIFF_BYTES = 12;
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z]{2,4}");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "png", "image/png",
+            "jpg", "image/jpeg",
+            "gif", "image/gif",
+            "webp", "image/webp",
+            "pdf", "application/pdf");
+    // 崩溃或断电遗留的临时文件在清理时删除
+    private static final Duration STALE_UPLOAD = Duration.ofHours(1);
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackConfigStorage feedbackConfigStorage;
+
+    /**
+     * 保存一个附件，读到流结束为止
+     *
+     * @throws AttachmentRejectedException 超过大小上限、为空或类型不被允许
+     */
+    public Attachment store(InputStream body) throws IOException {
+        return publish(receive(body));
+    }
+
+    /**
+     * 把附件写入临时文件并计算哈希，读到流结束为止；发布前附件不能通过链接访问
+     *
+     * @throws AttachmentRejectedException 超过大小上限、为空或类型不被允许
+     */
+    public PendingAttachment receive(InputStream body) throws IOException {
+        FeedbackProperties.Attachments cfg = feedbackConfig.current().getAttachments();
+        Path tmpDir = Files.createDirectories(root().resolve("tmp"));
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        String extension;
+        long size = 0;
+        MessageDigest digest = sha256();
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n = body.readNBytes(buffer, 0, SNIFF_BYTES);
+            extension = sniff(buffer, n);
+            if (n == 0) {
+                throw new AttachmentRejectedException("Empty attachment");
+            }
+            if (extension == null || !cfg.getAllowedTypes().contains(CONTENT_TYPES.get(extension))) {
+                throw new AttachmentRejectedException("Unsupported attachment type");
+            }
+            while (n > 0) {
+                size += n;
+                if (size > cfg.getMaxFileBytes()) {
+                    throw new AttachmentRejectedException("Attachment exceeds " + cfg.getMaxFileBytes() + " bytes");
+                }
+                digest.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+                n = body.read(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new PendingAttachment(tmp, HexFormat.of().formatHex(digest.digest()), extension, size);
+    }
+
+    /**
+     * 把临时文件移动到按内容寻址的位置，之后可以通过链接访问
+     */
+    public Attachment publish(PendingAttachment pending) throws IOException {
+        String hash = pending.hash();
+        Path target = root().resolve(hash.substring(0, 2)).resolve(pending.fileName());
+        boolean duplicate = Files.exists(target);
+        if (!duplicate) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(pending.file(), target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // 相同内容被并发上传
+                duplicate = true;
+            }
+        }
+        if (duplicate) {
+            Files.deleteIfExists(pending.file());
+            // 刷新修改时间，避免仍被引用的附件按保留期清理
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        String extension = pending.extension();
+        return new Attachment(hash, extension, CONTENT_TYPES.get(extension), pending.size(), duplicate);
+    }
+
+    /**
+     * 删除未发布的临时文件；已发布的附件不受影响，可以重复调用
+     */
+    public void discard(PendingAttachment pending) {
+        try {
+            Files.deleteIfExists(pending.file());
+        } catch (IOException e) {
+            // 遗留的临时文件由定时清理删除
+            log.warn("删除临时附件失败 {}: {}", pending.file(), e.getMessage());
+        }
+    }
+
+    /**
+     * 按文件名查找已保存的附件
+     *
+     * @param fileName {@code <哈希>.<扩展名>}
+     * @return 文件名非法或不存在时返回 null
+     */
+    public Path resolve(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches() || contentType(fileName) == null) {
+            return null;
+        }
+        Path path = root().resolve(fileName.substring(0, 2)).resolve(fileName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * 按扩展名返回附件的 Content-Type，不是可识别的附件类型时返回 null
+     */
+    public static String contentType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? null : CONTENT_TYPES.get(fileName.substring(dot + 1));
+    }
+
+    /**
+     * 删除超过保留期的附件和遗留的临时文件
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void cleanup() {
+        FeedbackProperties.Attachments cfg = feedbackConfig.current().getAttachments();
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                boolean tmp = dir.getFileName().toString().equals("tmp");
+                if (!tmp && cfg.getRetentionDays() <= 0) {
+                    continue;
+                }
+                long maxAgeMillis = tmp ? STALE_UPLOAD.toMillis() : Duration.ofDays(cfg.getRetentionDays()).toMillis();
+                removed += removeOlderThan(dir, now - maxAgeMillis);
+            }
+        } catch (IOException e) {
+            log.warn("附件清理失败: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("已清理过期附件 {} 个", removed);
+        }
+    }
+
+    private static int removeOlderThan(Path dir, long cutoffMillis) throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoffMillis && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private Path root() {
+        FeedbackProperties config = feedbackConfig.current();
+        FeedbackProperties.Attachments cfg = config.getAttachments();
+        return StringUtils.hasText(cfg.getDir())
+                ? Paths.get(cfg.getDir()).toAbsolutePath().normalize()
+                : feedbackConfigStorage.resolveDataDir(config).resolve("attachments");
+    }
+
+    /**
+     * 按文件头识别类型
+     *
+     * @return 扩展名，无法识别时返回 null
+     */
+    static String sniff(byte[] head, int length) {
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(head, length, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(head, length, 'R', 'I', 'F', 'F') && length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        if (startsWith(head, length, '%', 'P', 'D', 'F', '-')) {
+            return "pdf";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+import java.io.IOException;
+
+/**
+ * multipart 请求体格式错误或被截断
+ */
+public class MalformedMultipartException extends IOException {
+    public MalformedMultipartException(String message) {
+        super(message);
+    }
+}
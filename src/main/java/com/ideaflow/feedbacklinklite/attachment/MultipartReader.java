@@ -0,0 +1,291 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * multipart/form-data 请求体的流式解析器
+ * 使用固定大小的缓冲区扫描分隔符，每个 part 的内容以 InputStream 交给调用方边读边处理，
+ * 解析器自身的内存占用与请求体大小无关。读取下一个 part 时，当前 part 未读完的内容会被跳过。
+ */
+public final class MultipartReader {
+    private static final int BUFFER_SIZE = 8192;
+    // 单个 part 的头部总长度上限
+    private static final int MAX_HEADER_BYTES = 4096;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean eof;
+    private PartStream current;
+    private boolean finished;
+
+    /**
+     * 一个 part
+     *
+     * @param filename 文件字段的文件名，普通表单字段为 null；未选择文件时浏览器会发送空文件名
+     * @param body     part 内容，读到分隔符处结束
+     */
+    public record Part(String name, String filename, String contentType, InputStream body) {
+    }
+
+    public MultipartReader(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+        // 请求体以 --boundary 开头，预置 CRLF 后与其余分隔符统一处理，首个分隔符之前的内容作为前导 part 跳过
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+        current = new PartStream();
+    }
+
+    /**
+     * 从 Content-Type 中取出 boundary 参数
+     *
+     * @return 不是 multipart 或缺少 boundary 时返回 null
+     */
+    public static String boundary(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        String boundary = param(contentType, "boundary");
+        return boundary == null || boundary.isEmpty() || boundary.length() > 70 ? null : boundary;
+    }
+
+    /**
+     * 读取下一个 part 的头部
+     *
+     * @return 已到达结束分隔符时返回 null
+     */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        current.skipRemaining();
+        if (!ensure(2)) {
+            throw new MalformedMultipartException("Unexpected end of multipart body");
+        }
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        // 分隔符所在行的剩余部分（允许尾随空白）
+        if (!readLine().isBlank()) {
+            throw new MalformedMultipartException("Malformed multipart delimiter");
+        }
+        String disposition = null;
+        String contentType = null;
+        int headerBytes = 0;
+        for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new MalformedMultipartException("Multipart headers too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (name.equals("content-disposition")) {
+                disposition = value;
+            } else if (name.equals("content-type")) {
+                contentType = value;
+            }
+        }
+        if (disposition == null) {
+            throw new MalformedMultipartException("Missing Content-Disposition");
+        }
+        current = new PartStream();
+        return new Part(param(disposition, "name"), param(disposition, "filename"), contentType, current);
+    }
+
+    /**
+     * 读取一行（以 CRLF 结尾），按 UTF-8 解码；浏览器对文件名中的非 ASCII 字符直接以 UTF-8 发送
+     */
+    private String readLine() throws IOException {
+        int scanned = 0;
+        while (true) {
+            for (int i = head + scanned; i < tail - 1; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String line = new String(buffer, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            scanned = Math.max(0, tail - head - 1);
+            if (tail - head >= buffer.length) {
+                throw new MalformedMultipartException("Multipart header line too long");
+            }
+            if (eof) {
+                throw new MalformedMultipartException("Unexpected end of multipart body");
+            }
+            fill();
+        }
+    }
+
+    /**
+     * 保证缓冲区中至少有 n 个未读字节
+     *
+     * @return 流已结束且不足 n 个字节时返回 false
+     */
+    private boolean ensure(int n) throws IOException {
+        while (tail - head < n && !eof) {
+            fill();
+        }
+        return tail - head >= n;
+    }
+
+    private void fill() throws IOException {
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int n = in.read(buffer, tail, buffer.length - tail);
+        if (n < 0) {
+            eof = true;
+        } else {
+            tail += n;
+        }
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            if (buffer[i] != delimiter[0]) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 取出头部中的参数值，如 Content-Disposition 的 name、filename 或 Content-Type 的 boundary
+     */
+    static String param(String header, String name) {
+        int pos = header.indexOf(';');
+        while (pos >= 0 && pos < header.length()) {
+            int start = pos + 1;
+            while (start < header.length() && header.charAt(start) == ' ') {
+                start++;
+            }
+            int eq = header.indexOf('=', start);
+            if (eq < 0) {
+                return null;
+            }
+            String key = header.substring(start, eq).trim();
+            String value;
+            int end;
+            if (eq + 1 < header.length() && header.charAt(eq + 1) == '"') {
+                StringBuilder sb = new StringBuilder();
+                end = eq + 2;
+                while (end < header.length() && header.charAt(end) != '"') {
+                    char c = header.charAt(end);
+                    if (c == '\\' && end + 1 < header.length()) {
+                        c = header.charAt(++end);
+                    }
+                    sb.append(c);
+                    end++;
+                }
+                value = sb.toString();
+                end = header.indexOf(';', end);
+            } else {
+                end = header.indexOf(';', eq);
+                value = (end < 0 ? header.substring(eq + 1) : header.substring(eq + 1, end)).trim();
+            }
+            if (key.equalsIgnoreCase(name)) {
+                return value;
+            }
+            pos = end;
+        }
+        return null;
+    }
+
+    /**
+     * 单个 part 的内容，读到分隔符时结束；分隔符可能跨越两次读取，因此缓冲区末尾不足一个分隔符长度的字节留到下次再判断
+     */
+    private final class PartStream extends InputStream {
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            return advance(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                int step = advance(null, 0, (int) Math.min(Integer.MAX_VALUE, n - skipped));
+                if (step < 0) {
+                    break;
+                }
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return ended ? 0 : Math.max(0, tail - head - delimiter.length + 1);
+        }
+
+        void skipRemaining() throws IOException {
+            while (advance(null, 0, Integer.MAX_VALUE) >= 0) {
+                // 丢弃
+            }
+        }
+
+        /**
+         * 读取或跳过（b 为 null 时）最多 len 个字节
+         */
+        private int advance(byte[] b, int off, int len) throws IOException {
+            if (ended) {
+                return -1;
+            }
+            while (true) {
+                int found = indexOfDelimiter();
+                int available = found >= 0 ? found - head : tail - head - (delimiter.length - 1);
+                if (found == head) {
+                    head += delimiter.length;
+                    ended = true;
+                    return -1;
+                }
+                if (available > 0) {
+                    int n = Math.min(len, available);
+                    if (b != null) {
+                        System.arraycopy(buffer, head, b, off, n);
+                    }
+                    head += n;
+                    return n;
+                }
+                if (eof) {
+                    throw new MalformedMultipartException("Unexpected end of multipart body");
+                }
+                fill();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+import java.nio.file.Path;
+
+/**
+ * 已写入临时文件、尚未发布的附件
+ * 发布前不能通过附件链接访问；提交被拒绝时丢弃，不会在存储目录中留下文件。
+ *
+ * @param file      临时文件
+ * @param hash      内容的 SHA-256（十六进制），发布后的存储文件名
+ * @param extension 按文件头识别出的扩展名
+ */
+public record PendingAttachment(Path file, String hash, String extension, long size) {
+
+    public String fileName() {
+        return hash + "." + extension;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 钉钉、飞书、企业微信与通用 JSON webhook 渠道的公共部分
+ * 按配置编译并缓存消息模板，经共享的 {@link WebhookHttpClient} 异步投递，再把响应映射为 {@link ChannelResult}；
+ * 对端以 HTTP 200 返回业务错误码的，由子类通过 {@link #businessError} 识别为失败，再按错误码由 {@link #isTransient} 决定能否重试。
+ */
+@Slf4j
+abstract class AbstractWebhookChannel implements MessageChannel {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    protected final FeedbackConfigHolder feedbackConfig;
+    protected final WebhookHttpClient webhookHttpClient;
+
+    private volatile ChannelTemplate template;
+
+    protected AbstractWebhookChannel(FeedbackConfigHolder feedbackConfig, WebhookHttpClient webhookHttpClient) {
+        this.feedbackConfig = feedbackConfig;
+        this.webhookHttpClient = webhookHttpClient;
+    }
+
+    @Override
+    public ChannelResult send(MessageContext context) {
+        return sendAsync(context).toCompletableFuture().join();
+    }
+
+    /**
+     * 日志与失败信息中使用的渠道显示名
+     */
+    protected abstract String label();
+
+    /**
+     * 从 2xx 响应体中识别业务错误
+     *
+     * @return 解析出的错误，成功时返回 null
+     */
+    protected BusinessError businessError(String body) {
+        return null;
+    }
+
+    /**
+     * 该业务错误码是否为限流、繁忙等稍后重试即可恢复的错误；默认都不重试
+     */
+    protected boolean isTransient(long code) {
+        return false;
+    }
+
+    protected CompletableFuture<ChannelResult> post(String url, byte[] payload, Map<String, String> headers) {
+        return webhookHttpClient.postJsonAsync(url, payload, headers).handle((response, ex) -> {
+            if (ex != null) {
+                return WebhookResults.fromFailure(label(), ex);
+            }
+            if (response.is2xx()) {
+                BusinessError error = businessError(response.body());
+                if (error != null) {
+                    log.warn("{} send rejected: {}", label(), error.description());
+                    String message = label() + " send failed: " + error.description();
+                    return isTransient(error.code()) ? ChannelResult.retryableFail(message) : ChannelResult.fail(message);
+                }
+            }
+            return WebhookResults.fromResponse(label(), response);
+        });
+    }
+
+    /**
+     * 读取响应体中的错误码字段，不为 0 时返回错误码与 "code=... msg=..." 描述；响应体不是 JSON 或没有该字段时视为成功
+     */
+    protected static BusinessError errorCode(String body, String codeField, String messageField) {
+        if (body == null || body.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode root = OBJECT_MAPPER.readTree(body);
+            JsonNode code = root.get(codeField);
+            if (code == null || code.asLong() == 0) {
+                return null;
+            }
+            return new BusinessError(code.asLong(),
+                    codeField + "=" + code.asText() + " " + messageField + "=" + root.path(messageField).asText());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 当前配置对应的已编译模板，配置变化后重新编译；模板有误时退回默认模板
+     */
+    protected ChannelTemplate template(FeedbackProperties.Template cfg) {
+        if (cfg == null) {
+            cfg = new FeedbackProperties.Template();
+        }
+        ChannelTemplate current = template;
+        if (current != null && current.isCompiledFrom(cfg)) {
+            return current;
+        }
+        try {
+            current = ChannelTemplate.compile(cfg);
+        } catch (IllegalArgumentException ex) {
+            log.warn("Invalid {} template, falling back to default: {}", label(), ex.getMessage());
+            current = ChannelTemplate.fallback(cfg);
+        }
+        template = current;
+        return current;
+    }
+
+    /**
+     * 响应体中的业务错误：数值错误码及用于日志与失败信息的描述
+     */
+    protected record BusinessError(long code, String description) {
+    }
+}
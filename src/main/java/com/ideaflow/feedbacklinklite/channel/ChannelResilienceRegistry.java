@@ -0,0 +1,46 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按渠道名维护 {@link ResilientChannel} 包装实例，使熔断状态和统计在多次路由之间共享
+ * 包装顺序为 重试熔断 -> 出站调度 -> 渠道，每次重试同样受渠道发送额度约束
+ */
+@Component
+@RequiredArgsConstructor
+public class ChannelResilienceRegistry {
+    private final FeedbackConfigHolder feedbackConfig;
+    private final OutboundScheduler outboundScheduler;
+    private final Map<String, ResilientChannel> wrappers = new ConcurrentHashMap<>();
+
+    public MessageChannel decorate(MessageChannel channel) {
+        return wrappers.computeIfAbsent(channel.name(), name -> new ResilientChannel(outboundScheduler.wrap(channel), feedbackConfig));
+    }
+
+    public List<ChannelStats> stats() {
+        List<ChannelStats> stats = new ArrayList<>();
+        wrappers.values().forEach(wrapper -> stats.add(wrapper.stats()));
+        return stats;
+    }
+
+    /**
+     * 手动关闭指定渠道的熔断器
+     *
+     * @return false 表示渠道不存在
+     */
+    public boolean reset(String name) {
+        ResilientChannel wrapper = wrappers.get(name);
+        if (wrapper == null) {
+            return false;
+        }
+        wrapper.reset();
+        return true;
+    }
+}
@@ -10,13 +10,24 @@ import lombok.NoArgsConstructor;
 public class ChannelResult {
     private boolean success;
     private String message;
+    /**
+     * 失败是否为暂时性的（超时、连接失败、5xx），只有这类失败会重试并计入熔断
+     */
+    private boolean retryable;
+    /**
+     * 实际发送次数（含重试）
+     */
+    private int attempts = 1;
 
     public static ChannelResult ok() {
-        return new ChannelResult(true, null);
+        return new ChannelResult(true, null, false, 1);
     }
 
     public static ChannelResult fail(String message) {
-        return new ChannelResult(false, message);
+        return new ChannelResult(false, message, false, 1);
     }
-}
 
+    public static ChannelResult retryableFail(String message) {
+        return new ChannelResult(false, message, true, 1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 渠道熔断与重试统计，供管理端查看
+ */
+@Value
+@Builder
+public class ChannelStats {
+    String name;
+    CircuitBreaker.State state;
+    int consecutiveFailures;
+    long openedAt;
+    long calls;
+    long successes;
+    long failures;
+    long retries;
+    long shortCircuited;
+    long budgetExhausted;
+    double retryBudgetAvailable;
+    String lastError;
+}
@@ -0,0 +1,94 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一组编译好的渠道消息模板：标题、标题行、可选字段行与正文
+ * 单条消息渲染为 标题行 + 字段行 + 正文；字段行引用的字段全部有值时才输出，并在末尾追加换行。
+ */
+public final class ChannelTemplate {
+    private static final byte[] NEWLINE = JsonBytesWriter.encode("\n");
+
+    private final FeedbackProperties.Template source;
+    private final MessageTemplate title;
+    private final MessageTemplate heading;
+    private final List<MessageTemplate> fields;
+    private final MessageTemplate body;
+
+    private ChannelTemplate(FeedbackProperties.Template source, MessageTemplate title, MessageTemplate heading,
+                            List<MessageTemplate> fields, MessageTemplate body) {
+        this.source = source;
+        this.title = title;
+        this.heading = heading;
+        this.fields = fields;
+        this.body = body;
+    }
+
+    /**
+     * 编译模板配置
+     *
+     * @throws IllegalArgumentException 模板语法错误
+     */
+    public static ChannelTemplate compile(FeedbackProperties.Template cfg) {
+        List<MessageTemplate> fields = new ArrayList<>();
+        if (cfg.getFields() != null) {
+            for (String field : cfg.getFields()) {
+                fields.add(MessageTemplate.compile(field));
+            }
+        }
+        return new ChannelTemplate(cfg.copy(), MessageTemplate.compile(cfg.getTitle()), MessageTemplate.compile(cfg.getHeading()),
+                List.copyOf(fields), MessageTemplate.compile(cfg.getBody()));
+    }
+
+    /**
+     * 配置的模板有误时使用的默认模板，以出错的配置作为来源缓存，配置不变时不再重复编译和告警
+     */
+    public static ChannelTemplate fallback(FeedbackProperties.Template invalid) {
+        ChannelTemplate defaults = compile(new FeedbackProperties.Template());
+        return new ChannelTemplate(invalid.copy(), defaults.title, defaults.heading, defaults.fields, defaults.body);
+    }
+
+    /**
+     * 是否由给定配置编译而来，配置未变化时可直接复用
+     */
+    public boolean isCompiledFrom(FeedbackProperties.Template cfg) {
+        return source.equals(cfg);
+    }
+
+    public String renderTitle(MessageContext context) {
+        StringBuilder out = new StringBuilder();
+        title.writeText(out, context, null);
+        return out.toString();
+    }
+
+    public void writeHeading(JsonBytesWriter out, MessageContext context, String title) {
+        heading.writeJson(out, context, title);
+    }
+
+    public void writeEntry(JsonBytesWriter out, MessageContext context) {
+        for (MessageTemplate field : fields) {
+            if (field.hasValues(context)) {
+                field.writeJson(out, context, null);
+                out.writeRaw(NEWLINE);
+            }
+        }
+        body.writeJson(out, context, null);
+    }
+
+    public void writeHeading(StringBuilder out, MessageContext context, String title) {
+        heading.writeText(out, context, title);
+    }
+
+    public void writeEntry(StringBuilder out, MessageContext context) {
+        for (MessageTemplate field : fields) {
+            if (field.hasValues(context)) {
+                field.writeText(out, context, null);
+                out.append('\n');
+            }
+        }
+        body.writeText(out, context, null);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个渠道的熔断器（closed / open / half-open）
+ * 连续暂时性失败达到阈值后打开，打开期间直接拒绝调用；冷却时间过后放行一次试探调用，成功则关闭，失败则重新打开。
+ * 状态转换全部基于 CAS，不加锁，打开状态下的判断只需读取两个原子变量。
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * 一次放行的类型：PROBE 是半开状态下唯一的试探调用，只有持有它的调用才能交还试探机会
+     */
+    public enum Permit {
+        DENIED,
+        CALL,
+        PROBE
+    }
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    /**
+     * 判断本次调用是否允许执行
+     */
+    public boolean tryAcquire(long openMillis) {
+        return acquire(openMillis) != Permit.DENIED;
+    }
+
+    /**
+     * 判断本次调用是否允许执行，并区分普通调用和试探调用
+     */
+    public Permit acquire(long openMillis) {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return Permit.CALL;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt.get() >= openMillis) {
+            // 冷却结束，只有一个线程能够转入半开状态执行试探调用
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN) ? Permit.PROBE : Permit.DENIED;
+        }
+        return Permit.DENIED;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    public void onFailure(int failureThreshold) {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            // 先写打开时间再切换状态，其他线程看到 OPEN 时冷却计时已经生效
+            openedAt.set(System.currentTimeMillis());
+            state.compareAndSet(current, State.OPEN);
+        }
+    }
+
+    /**
+     * 试探调用被取消、没有得到结果时交还试探机会：重新打开并开始新的冷却，否则熔断器会一直停在半开状态拒绝所有调用
+     * 只能由 {@link #acquire} 返回 {@link Permit#PROBE} 的调用使用，半开前已放行的普通调用被取消时不应调用
+     */
+    public void release() {
+        if (state.get() == State.HALF_OPEN) {
+            openedAt.set(System.currentTimeMillis());
+            state.compareAndSet(State.HALF_OPEN, State.OPEN);
+        }
+    }
+
+    public void reset() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getOpenedAt() {
+        return openedAt.get();
+    }
+}
@@ -1,70 +1,154 @@
 package com.ideaflow.feedbacklinklite.channel;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
 import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
+/**
+ * 钉钉自定义机器人，以 markdown 消息发送；开启摘要合并时同一窗口内的多条反馈合并为一条消息
+ * 钉钉对签名错误、关键词不匹配、限流等都返回 HTTP 200 + 非 0 errcode，其中限流与系统繁忙可稍后重试。
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class DingTalkChannel implements MessageChannel {
-    private final FeedbackProperties feedbackProperties;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+@Order(1)
+public class DingTalkChannel extends AbstractWebhookChannel {
+    // markdown 消息的固定 JSON 骨架，模板渲染结果直接写在 title 与 text 之间
+    private static final byte[] PAYLOAD_PREFIX = "{\"msgtype\":\"markdown\",\"markdown\":{\"title\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_TEXT = "\",\"text\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_SUFFIX = "\"}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DIGEST_SEPARATOR = JsonBytesWriter.encode("\n\n---\n\n");
+    // 130101：发送过于频繁（机器人每分钟 20 条）；-1：系统繁忙。两者稍后重试即可恢复
+    private static final long ERR_SEND_TOO_FAST = 130101;
+    private static final long ERR_SYSTEM_BUSY = -1;
+
+    private final MessageCoalescer coalescer = new MessageCoalescer(this::sendBatch);
+
+    private volatile DingTalkSigner signer;
+
+    public DingTalkChannel(FeedbackConfigHolder feedbackConfig, WebhookHttpClient webhookHttpClient) {
+        super(feedbackConfig, webhookHttpClient);
+    }
 
     @Override
-    public ChannelResult send(MessageContext context) {
-        String webhook = feedbackProperties.getDingTalk().getWebhook();
-        if (!StringUtils.hasText(webhook)) {
-            return ChannelResult.fail("DingTalk webhook not configured");
+    protected String label() {
+        return "DingTalk";
+    }
+
+    @Override
+    public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+        FeedbackProperties config = feedbackConfig.current();
+        FeedbackProperties.DingTalk cfg = config.getDingTalk();
+        if (!StringUtils.hasText(cfg.getWebhook())) {
+            return CompletableFuture.completedFuture(ChannelResult.fail("DingTalk webhook not configured"));
         }
-        try {
-            String url = appendSignatureIfNeeded(webhook, feedbackProperties.getDingTalk().getSecret());
-            ObjectNode payload = objectMapper.createObjectNode();
-            payload.put("msgtype", "markdown");
-            ObjectNode markdown = payload.putObject("markdown");
-            markdown.put("title", "收到新的用户反馈");
-
-            StringBuilder content = new StringBuilder();
-            content.append("### 🔔 收到新的用户反馈\n\n");
-            if (StringUtils.hasText(context.getPageUrl())) {
-                content.append("- **页面**: ").append(escapeMarkdownContent(context.getPageUrl())).append("\n");
-            }
-            if (StringUtils.hasText(context.getContact())) {
-                content.append("- **联系**: ").append(context.getContact()).append("\n");
-            }
-            content.append("\n**内容**:\n> ").append(escapeMarkdownContent(context.getMessage()));
+        FeedbackProperties.DingTalk.Digest digest = cfg.getDigest();
+        if (digest == null || !digest.isEnabled() || outboundBatching(config)) {
+            return postAsync(renderSingle(context));
+        }
+        // 合并模式：进入当前窗口，所在批次发送完成时结束；合并器内部不会异常完成，直接返回以便取消时撤出窗口
+        return coalescer.submit(context, digest.getWindowMillis(), digest.getMaxItems());
+    }
+
+    /**
+     * 出站调度为本渠道排队时由它负责合并：积压的消息经 {@link #sendBatchAsync} 成批发出，这里不再另开合并窗口
+     */
+    private boolean outboundBatching(FeedbackProperties config) {
+        FeedbackProperties.Outbound outbound = config.getOutbound();
+        return outbound.isEnabled() && outbound.budgetFor(name()) > 0;
+    }
 
-            markdown.put("text", content.toString());
+    /**
+     * 开启摘要合并时，出站调度积压的消息按摘要条数上限成批交给 {@link #sendBatchAsync}
+     */
+    @Override
+    public int maxBatchSize() {
+        FeedbackProperties.DingTalk.Digest digest = feedbackConfig.current().getDingTalk().getDigest();
+        return digest != null && digest.isEnabled() ? Math.max(1, digest.getMaxItems()) : 1;
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(payload.toString(), headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                return ChannelResult.ok();
+    /**
+     * 出站调度已经按批出队，直接合并为一条摘要发送，不再经过合并窗口
+     */
+    @Override
+    public CompletionStage<ChannelResult> sendBatchAsync(List<MessageContext> contexts) {
+        if (contexts.size() == 1) {
+            return postAsync(renderSingle(contexts.get(0)));
+        }
+        log.info("DingTalk digest flushed items={}", contexts.size());
+        return postAsync(renderDigest(contexts));
+    }
+
+    private ChannelResult sendBatch(List<MessageContext> contexts) {
+        return sendBatchAsync(contexts).toCompletableFuture().join();
+    }
+
+    byte[] renderSingle(MessageContext context) {
+        ChannelTemplate current = template();
+        String title = current.renderTitle(context);
+        JsonBytesWriter out = startPayload(title, 512);
+        current.writeHeading(out, context, title);
+        current.writeEntry(out, context);
+        out.writeRaw(PAYLOAD_SUFFIX);
+        return out.toByteArray();
+    }
+
+    byte[] renderDigest(List<MessageContext> contexts) {
+        ChannelTemplate current = template();
+        // 沿用配置的模板标题（以首条反馈渲染），附上本批条数
+        String title = current.renderTitle(contexts.get(0)) + "（" + contexts.size() + " 条）";
+        JsonBytesWriter out = startPayload(title, contexts.size() * 256);
+        current.writeHeading(out, contexts.get(0), title);
+        for (int i = 0; i < contexts.size(); i++) {
+            if (i > 0) {
+                out.writeRaw(DIGEST_SEPARATOR);
             }
-            log.warn("DingTalk send failed status={} body={}", response.getStatusCode(), response.getBody());
-            return ChannelResult.fail("DingTalk send failed");
-        } catch (Exception ex) {
-            log.error("DingTalk send exception", ex);
-            return ChannelResult.fail("DingTalk send exception: " + ex.getMessage());
+            out.writeEscaped("#### " + (i + 1) + ".\n\n");
+            current.writeEntry(out, contexts.get(i));
+        }
+        out.writeRaw(PAYLOAD_SUFFIX);
+        return out.toByteArray();
+    }
+
+    private static JsonBytesWriter startPayload(String title, int sizeHint) {
+        JsonBytesWriter out = new JsonBytesWriter(sizeHint);
+        out.writeRaw(PAYLOAD_PREFIX);
+        out.writeEscaped(title);
+        out.writeRaw(PAYLOAD_TEXT);
+        return out;
+    }
+
+    private ChannelTemplate template() {
+        return template(feedbackConfig.current().getDingTalk().getTemplate());
+    }
+
+    private CompletableFuture<ChannelResult> postAsync(byte[] payload) {
+        // 地址与密钥取自同一份配置快照，避免修改配置时用旧密钥签新地址
+        FeedbackProperties.DingTalk cfg = feedbackConfig.current().getDingTalk();
+        String webhook = cfg.getWebhook();
+        if (!StringUtils.hasText(webhook)) {
+            return CompletableFuture.completedFuture(ChannelResult.fail("DingTalk webhook not configured"));
         }
+        return post(appendSignatureIfNeeded(webhook, cfg.getSecret()), payload, Map.of());
+    }
+
+    @Override
+    protected BusinessError businessError(String body) {
+        return errorCode(body, "errcode", "errmsg");
+    }
+
+    @Override
+    protected boolean isTransient(long code) {
+        return code == ERR_SEND_TOO_FAST || code == ERR_SYSTEM_BUSY;
     }
 
     @Override
@@ -80,60 +164,20 @@ public class DingTalkChannel implements MessageChannel {
         return contact.substring(0, keep) + "***";
     }
 
-    // 更新方法：转义 Markdown 特殊字符，同时保留换行符
-    private String escapeMarkdownContent(String content) {
-        if (content == null) {
-            return "";
-        }
-        
-        // 先处理换行符，将其标准化为 \n
-        content = content.replace("\r\n", "\n").replace("\r", "\n");
-        
-        // 处理多个连续空格，但保留有意义的空格
-        content = content.replaceAll(" {2,}", " ");
-        
-        // 转义 Markdown 特殊字符，但不转义换行符
-        content = content.replace("\\", "\\\\"); // 反斜杠
-        content = content.replace("`", "\\`"); // 反引号
-        content = content.replace("*", "\\*"); // 星号
-        content = content.replace("_", "\\_"); // 下划线
-        content = content.replace("{", "\\{"); // 花括号
-        content = content.replace("}", "\\}"); // 花括号
-        content = content.replace("[", "\\["); // 方括号
-        content = content.replace("]", "\\]"); // 方括号
-        content = content.replace("(", "\\("); // 圆括号
-        content = content.replace(")", "\\)"); // 圆括号
-        content = content.replace("#", "\\#"); // 井号
-        content = content.replace("+", "\\+"); // 加号
-        content = content.replace("-", "\\-"); // 减号
-        content = content.replace(".", "\\."); // 点号
-        content = content.replace("!", "\\!"); // 感叹号
-        content = content.replace("~", "\\~"); // 波浪号
-        content = content.replace("|", "\\|"); // 竖线
-        
-        // 在 Markdown 中，要实现真正的换行，通常需要在行尾加两个空格加换行
-        // 或者使用 <br> 标签，但考虑到安全性和兼容性，我们直接保留换行
-        content = content.replace("\n", "  \n"); // 在每行末尾添加两个空格和换行符，使 Markdown 正确渲染换行
-        
-        return content;
-    }
-
     private String appendSignatureIfNeeded(String webhook, String secret) {
         if (!StringUtils.hasText(secret)) {
             return webhook;
         }
-        long timestamp = System.currentTimeMillis();
         try {
-            String stringToSign = timestamp + "\n" + secret;
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] signData = mac.doFinal(stringToSign.getBytes(StandardCharsets.UTF_8));
-            String sign = URLEncoder.encode(Base64.getEncoder().encodeToString(signData), StandardCharsets.UTF_8);
-            String connector = webhook.contains("?") ? "&" : "?";
-            return webhook + connector + "timestamp=" + timestamp + "&sign=" + sign;
-        } catch (Exception e) {
+            DingTalkSigner current = signer;
+            if (current == null || !current.matches(secret)) {
+                current = new DingTalkSigner(secret);
+                signer = current;
+            }
+            return current.sign(webhook, System.currentTimeMillis());
+        } catch (GeneralSecurityException e) {
             log.warn("Failed to sign DingTalk request", e);
             return webhook;
         }
     }
-}
\ No newline at end of file
+}
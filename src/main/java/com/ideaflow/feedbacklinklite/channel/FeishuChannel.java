@@ -0,0 +1,95 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 飞书自定义机器人，以消息卡片发送：模板标题作为卡片标题，字段与正文作为 markdown 内容
+ * 配置了签名密钥时在请求体中附带 timestamp 与 sign；飞书以 HTTP 200 + 非 0 code 表示失败。
+ */
+@Component
+@Order(2)
+public class FeishuChannel extends AbstractWebhookChannel {
+    private static final byte[] PAYLOAD_PREFIX = "{\"msg_type\":\"interactive\",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_CARD = "\"card\":{\"header\":{\"title\":{\"tag\":\"plain_text\",\"content\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_CONTENT = "\"}},\"elements\":[{\"tag\":\"markdown\",\"content\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_SUFFIX = "\"}]}}".getBytes(StandardCharsets.UTF_8);
+
+    public FeishuChannel(FeedbackConfigHolder feedbackConfig, WebhookHttpClient webhookHttpClient) {
+        super(feedbackConfig, webhookHttpClient);
+    }
+
+    @Override
+    public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+        FeedbackProperties.Feishu cfg = feedbackConfig.current().getFeishu();
+        if (!StringUtils.hasText(cfg.getWebhook())) {
+            return CompletableFuture.completedFuture(ChannelResult.fail("Feishu webhook not configured"));
+        }
+        byte[] payload;
+        try {
+            payload = render(context, cfg, System.currentTimeMillis() / 1000);
+        } catch (GeneralSecurityException e) {
+            return CompletableFuture.completedFuture(ChannelResult.fail("Feishu sign failed: " + e.getMessage()));
+        }
+        return post(cfg.getWebhook(), payload, Map.of());
+    }
+
+    byte[] render(MessageContext context, FeedbackProperties.Feishu cfg, long timestampSeconds) throws GeneralSecurityException {
+        ChannelTemplate current = template(cfg.getTemplate());
+        JsonBytesWriter out = new JsonBytesWriter(512);
+        out.writeRaw(PAYLOAD_PREFIX);
+        if (StringUtils.hasText(cfg.getSecret())) {
+            out.writeRaw(("\"timestamp\":\"" + timestampSeconds + "\",\"sign\":\"").getBytes(StandardCharsets.UTF_8));
+            out.writeEscaped(sign(cfg.getSecret(), timestampSeconds));
+            out.writeRaw("\",".getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeRaw(PAYLOAD_CARD);
+        out.writeEscaped(current.renderTitle(context));
+        out.writeRaw(PAYLOAD_CONTENT);
+        current.writeEntry(out, context);
+        out.writeRaw(PAYLOAD_SUFFIX);
+        return out.toByteArray();
+    }
+
+    /**
+     * 飞书签名：以 "timestamp\nsecret" 为密钥对空串做 HmacSHA256，再 Base64
+     */
+    static String sign(String secret, long timestampSeconds) throws GeneralSecurityException {
+        String key = timestampSeconds + "\n" + secret;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(new byte[0]));
+    }
+
+    @Override
+    protected BusinessError businessError(String body) {
+        return errorCode(body, "code", "msg");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return feedbackConfig.current().getFeishu().isEnabled();
+    }
+
+    @Override
+    protected String label() {
+        return "Feishu";
+    }
+
+    @Override
+    public String name() {
+        return "feishu";
+    }
+}
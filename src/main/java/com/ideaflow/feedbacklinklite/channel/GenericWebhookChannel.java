@@ -0,0 +1,98 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 通用 JSON webhook，便于接入自建系统
+ * 请求体包含按模板渲染的 title/text（markdown）以及原始字段（有附件时含 attachments 地址数组），可配置附加请求头（如鉴权）；任意 2xx 视为成功。
+ */
+@Component
+@Order(4)
+public class GenericWebhookChannel extends AbstractWebhookChannel {
+    private static final byte[] PAYLOAD_PREFIX = "{\"title\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_TEXT = "\",\"text\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] QUOTE = "\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ATTACHMENTS = ",\"attachments\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMMA = ",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+
+    public GenericWebhookChannel(FeedbackConfigHolder feedbackConfig, WebhookHttpClient webhookHttpClient) {
+        super(feedbackConfig, webhookHttpClient);
+    }
+
+    @Override
+    public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+        FeedbackProperties.Webhook cfg = feedbackConfig.current().getWebhook();
+        if (!StringUtils.hasText(cfg.getUrl())) {
+            return CompletableFuture.completedFuture(ChannelResult.fail("Webhook url not configured"));
+        }
+        Map<String, String> headers = cfg.getHeaders() == null ? Map.of() : cfg.getHeaders();
+        return post(cfg.getUrl(), render(context, cfg, System.currentTimeMillis()), headers);
+    }
+
+    byte[] render(MessageContext context, FeedbackProperties.Webhook cfg, long timestamp) {
+        ChannelTemplate current = template(cfg.getTemplate());
+        String title = current.renderTitle(context);
+        JsonBytesWriter out = new JsonBytesWriter(512);
+        out.writeRaw(PAYLOAD_PREFIX);
+        out.writeEscaped(title);
+        out.writeRaw(PAYLOAD_TEXT);
+        current.writeHeading(out, context, title);
+        current.writeEntry(out, context);
+        out.writeRaw(QUOTE);
+        field(out, "message", context.getMessage());
+        field(out, "contact", context.getContact());
+        field(out, "pageUrl", context.getPageUrl());
+        field(out, "userAgent", context.getUserAgent());
+        if (context.getAttachments() != null && !context.getAttachments().isEmpty()) {
+            out.writeRaw(ATTACHMENTS);
+            for (int i = 0; i < context.getAttachments().size(); i++) {
+                if (i > 0) {
+                    out.writeRaw(COMMA);
+                }
+                out.writeRaw(QUOTE);
+                out.writeEscaped(context.getAttachments().get(i));
+                out.writeRaw(QUOTE);
+            }
+            out.writeRaw(ARRAY_END);
+        }
+        out.writeRaw((",\"timestamp\":" + timestamp + "}").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static void field(JsonBytesWriter out, String name, String value) {
+        out.writeRaw((",\"" + name + "\":").getBytes(StandardCharsets.UTF_8));
+        if (value == null) {
+            out.writeRaw(NULL);
+            return;
+        }
+        out.writeRaw(QUOTE);
+        out.writeEscaped(value);
+        out.writeRaw(QUOTE);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return feedbackConfig.current().getWebhook().isEnabled();
+    }
+
+    @Override
+    protected String label() {
+        return "Webhook";
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+}
@@ -0,0 +1,139 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 直接输出 UTF-8 JSON 字节的轻量写入器
+ * 只负责字符串转义和字节拼接，结构（括号、引号、字段名）由调用方以预先编码好的字节写入，
+ * 用于渲染渠道消息时跳过 JsonNode 树和中间 String。
+ */
+public final class JsonBytesWriter {
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buf;
+    private int size;
+
+    public JsonBytesWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(64, initialCapacity)];
+    }
+
+    public JsonBytesWriter writeRaw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    /**
+     * 写入 JSON 字符串内容（不含两侧引号），转义引号、反斜杠、控制字符和孤立代理字符，其余字符按 UTF-8 编码
+     */
+    public JsonBytesWriter writeEscaped(CharSequence text) {
+        if (text == null) {
+            return this;
+        }
+        int length = text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                writeAscii(c);
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[size++] = (byte) (0xC0 | (c >> 6));
+                buf[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // 与早期 ObjectNode.toString() 发出的请求体一致：成对的代理字符（emoji 等）按 UTF-8 四字节输出
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                ensure(4);
+                buf[size++] = (byte) (0xF0 | (cp >> 18));
+                buf[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[size++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 孤立的代理字符无法编码为 UTF-8，输出为 unicode 转义
+                writeUnicodeEscape(c);
+            } else {
+                ensure(3);
+                buf[size++] = (byte) (0xE0 | (c >> 12));
+                buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    private void writeAscii(char c) {
+        ensure(6);
+        switch (c) {
+            case '"' -> {
+                buf[size++] = '\\';
+                buf[size++] = '"';
+            }
+            case '\\' -> {
+                buf[size++] = '\\';
+                buf[size++] = '\\';
+            }
+            case '\n' -> {
+                buf[size++] = '\\';
+                buf[size++] = 'n';
+            }
+            case '\r' -> {
+                buf[size++] = '\\';
+                buf[size++] = 'r';
+            }
+            case '\t' -> {
+                buf[size++] = '\\';
+                buf[size++] = 't';
+            }
+            case '\b' -> {
+                buf[size++] = '\\';
+                buf[size++] = 'b';
+            }
+            case '\f' -> {
+                buf[size++] = '\\';
+                buf[size++] = 'f';
+            }
+            default -> {
+                if (c < 0x20) {
+                    writeUnicodeEscape(c);
+                } else {
+                    buf[size++] = (byte) c;
+                }
+            }
+        }
+    }
+
+    private void writeUnicodeEscape(char c) {
+        ensure(6);
+        buf[size++] = '\\';
+        buf[size++] = 'u';
+        buf[size++] = HEX[(c >> 12) & 0xF];
+        buf[size++] = HEX[(c >> 8) & 0xF];
+        buf[size++] = HEX[(c >> 4) & 0xF];
+        buf[size++] = HEX[c & 0xF];
+    }
+
+    /**
+     * 预先把一段文本编码为 JSON 字符串内容字节，供模板字面量复用
+     */
+    public static byte[] encode(CharSequence text) {
+        JsonBytesWriter writer = new JsonBytesWriter(text.length() * 3);
+        writer.writeEscaped(text);
+        return writer.toByteArray();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, size + extra));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+/**
+ * Markdown 转义工具
+ * 单次遍历完成换行标准化（\r\n、\r 转为 \n）、连续空格折叠、特殊字符转义，以及在换行前补两个空格以保证 Markdown 正确换行，
+ * 输出与早期逐个 replace 的实现逐字节一致，但只分配一次预估容量的缓冲区。
+ */
+public final class MarkdownEscaper {
+
+    private MarkdownEscaper() {
+    }
+
+    /**
+     * 转义 Markdown 特殊字符，同时保留换行符，null 返回空字符串
+     */
+    public static String escape(String content) {
+        if (content == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(content.length() + (content.length() >> 3) + 16);
+        appendEscaped(out, content);
+        return out.toString();
+    }
+
+    /**
+     * 将转义结果直接追加到调用方的缓冲区，避免产生中间字符串
+     */
+    public static void appendEscaped(StringBuilder out, CharSequence content) {
+        if (content == null) {
+            return;
+        }
+        int length = content.length();
+        boolean previousSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            switch (c) {
+                case '\r' -> {
+                    // \r\n 由后面的 \n 处理，单独的 \r 视为换行
+                    if (i + 1 < length && content.charAt(i + 1) == '\n') {
+                        continue;
+                    }
+                    out.append("  \n");
+                    previousSpace = false;
+                }
+                case '\n' -> {
+                    // 行尾两个空格加换行，使 Markdown 正确渲染换行
+                    out.append("  \n");
+                    previousSpace = false;
+                }
+                case ' ' -> {
+                    // 多个连续空格折叠为一个
+                    if (!previousSpace) {
+                        out.append(' ');
+                        previousSpace = true;
+                    }
+                }
+                case '\\', '`', '*', '_', '{', '}', '[', ']', '(', ')', '#', '+', '-', '.', '!', '~', '|' -> {
+                    out.append('\\').append(c);
+                    previousSpace = false;
+                }
+                default -> {
+                    out.append(c);
+                    previousSpace = false;
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,42 @@
 package com.ideaflow.feedbacklinklite.channel;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 public interface MessageChannel {
     ChannelResult send(MessageContext context);
 
+    /**
+     * 非阻塞发送，由 ChannelRouter 调用
+     * 默认在虚拟线程中执行 {@link #send}；基于 {@link WebhookHttpClient} 的渠道直接返回出站请求的 future，
+     * 等待响应期间不占用任何线程。
+     */
+    default CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+        return CompletableFuture.supplyAsync(() -> send(context), task -> Thread.ofVirtual().start(task));
+    }
+
+    /**
+     * 单次请求最多合并的消息条数
+     * 大于 1 时，出站调度在消息积压时按批出队，经 {@link #sendBatchAsync} 以一次请求发出，一批只占用一次发送额度。
+     */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * 把多条消息合并为一次请求发送，所有消息共享同一个结果；仅在 {@link #maxBatchSize()} 大于 1 时由出站调度调用
+     */
+    default CompletionStage<ChannelResult> sendBatchAsync(List<MessageContext> contexts) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException(name() + " does not support batch send"));
+    }
+
+    /**
+     * 是否参与路由，未启用的渠道不会被调用，也不影响路由策略的判定
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
     String name();
 }
-
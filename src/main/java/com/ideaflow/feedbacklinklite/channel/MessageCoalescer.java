@@ -0,0 +1,115 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 消息合并器
+ * 在时间窗口内缓冲消息，窗口到期或条数达到上限时一次性交给 sender 发送，所有被合并的消息共享同一个发送结果。
+ * 用于在突发流量下把多条反馈合并为一条摘要，减少对限频 webhook 的调用次数。
+ * 调用方取消返回的 Future（如路由截止时间到达）时，该消息从当前窗口中移除，不再随批次发出。
+ * <p>
+ * 只在未启用出站调度时使用：启用后由 {@link OutboundScheduler} 在积压时按批出队合并，渠道不再另开合并窗口。
+ */
+@Slf4j
+public class MessageCoalescer {
+    private final Function<List<MessageContext>, ChannelResult> sender;
+
+    private final Object lock = new Object();
+    private List<Pending> buffer = new ArrayList<>();
+    // 每次 flush 后递增，防止旧窗口的定时器提前发送新窗口的数据
+    private long generation;
+
+    public MessageCoalescer(Function<List<MessageContext>, ChannelResult> sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * 加入当前窗口，返回的 Future 在所在批次发送完成后完成
+     */
+    public CompletableFuture<ChannelResult> submit(MessageContext context, long windowMillis, int maxItems) {
+        Pending pending = new Pending(context, new CompletableFuture<>());
+        pending.result.whenComplete((ignored, error) -> {
+            if (pending.result.isCancelled()) {
+                withdraw(pending);
+            }
+        });
+        List<Pending> ready = null;
+        long scheduleGeneration = -1;
+        synchronized (lock) {
+            buffer.add(pending);
+            if (buffer.size() >= Math.max(1, maxItems)) {
+                ready = swap();
+            } else if (buffer.size() == 1) {
+                scheduleGeneration = generation;
+            }
+        }
+        if (ready != null) {
+            List<Pending> batch = ready;
+            Thread.ofVirtual().name("coalescer-flush").start(() -> send(batch));
+        } else if (scheduleGeneration >= 0) {
+            long expected = scheduleGeneration;
+            Thread.ofVirtual().name("coalescer-timer").start(() -> flushAfter(expected, windowMillis));
+        }
+        return pending.result;
+    }
+
+    private void withdraw(Pending pending) {
+        synchronized (lock) {
+            buffer.removeIf(candidate -> candidate == pending);
+        }
+    }
+
+    private void flushAfter(long expectedGeneration, long windowMillis) {
+        try {
+            Thread.sleep(Math.max(0, windowMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending> batch;
+        synchronized (lock) {
+            if (generation != expectedGeneration || buffer.isEmpty()) {
+                return;
+            }
+            batch = swap();
+        }
+        send(batch);
+    }
+
+    private List<Pending> swap() {
+        List<Pending> batch = buffer;
+        buffer = new ArrayList<>();
+        generation++;
+        return batch;
+    }
+
+    private void send(List<Pending> ready) {
+        // 出窗口后、发送前被取消的消息同样跳过
+        List<Pending> batch = ready.stream().filter(pending -> !pending.result.isDone()).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<MessageContext> contexts = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            contexts.add(pending.context);
+        }
+        ChannelResult result;
+        try {
+            result = sender.apply(contexts);
+        } catch (Exception ex) {
+            log.error("Coalesced send exception", ex);
+            result = ChannelResult.retryableFail("Coalesced send exception: " + ex.getMessage());
+        }
+        for (Pending pending : batch) {
+            // 每条消息拿到独立的结果对象，避免重试计数等字段互相影响
+            pending.result.complete(new ChannelResult(result.isSuccess(), result.getMessage(), result.isRetryable(), 1));
+        }
+    }
+
+    private record Pending(MessageContext context, CompletableFuture<ChannelResult> result) {
+    }
+}
@@ -3,6 +3,8 @@ package com.ideaflow.feedbacklinklite.channel;
 import lombok.Builder;
 import lombok.Value;
 
+import java.util.List;
+
 @Value
 @Builder
 public class MessageContext {
@@ -10,5 +12,9 @@ public class MessageContext {
     String contact;
     String pageUrl;
     String userAgent;
+    /**
+     * 附件的访问地址，没有附件时为 null 或空
+     */
+    List<String> attachments;
 }
 
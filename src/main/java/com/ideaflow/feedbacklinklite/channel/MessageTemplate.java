@@ -0,0 +1,205 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 预编译的消息模板
+ * 模板文本在配置加载或变更时解析一次，拆分为字面量片段（已编码为 JSON 字符串字节）和占位符片段，
+ * 渲染时按顺序直接写入 {@link JsonBytesWriter}，不再构建中间字符串。
+ * <p>
+ * 占位符语法：{@code ${message}}、{@code ${contact}}、{@code ${pageUrl}}、{@code ${userAgent}}、{@code ${title}}，
+ * 追加 {@code :md} 表示按 Markdown 转义，例如 {@code ${message:md}}。
+ * {@code ${attachments}} 输出附件的 Markdown 链接（[附件1](url) [附件2](url)），没有附件时视为无值。
+ */
+public final class MessageTemplate {
+
+    /**
+     * 模板可引用的字段
+     */
+    public enum Field {
+        MESSAGE("message", MessageContext::getMessage),
+        CONTACT("contact", MessageContext::getContact),
+        PAGE_URL("pageUrl", MessageContext::getPageUrl),
+        USER_AGENT("userAgent", MessageContext::getUserAgent),
+        ATTACHMENTS("attachments", MessageTemplate::attachmentLinks),
+        /**
+         * 标题由渠道在渲染时传入，不来自 MessageContext
+         */
+        TITLE("title", context -> null);
+
+        private final String key;
+        private final Function<MessageContext, String> extractor;
+
+        Field(String key, Function<MessageContext, String> extractor) {
+            this.key = key;
+            this.extractor = extractor;
+        }
+
+        private static final Map<String, Field> BY_KEY = new HashMap<>();
+
+        static {
+            for (Field field : values()) {
+                BY_KEY.put(field.key, field);
+            }
+        }
+    }
+
+    private final String source;
+    private final Segment[] segments;
+    private final Set<Field> fields;
+
+    private MessageTemplate(String source, Segment[] segments, Set<Field> fields) {
+        this.source = source;
+        this.segments = segments;
+        this.fields = fields;
+    }
+
+    /**
+     * 解析模板文本
+     *
+     * @throws IllegalArgumentException 占位符未闭合或引用了未知字段
+     */
+    public static MessageTemplate compile(String source) {
+        String text = source == null ? "" : source;
+        List<Segment> segments = new ArrayList<>();
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        int pos = 0;
+        while (pos < text.length()) {
+            int start = text.indexOf("${", pos);
+            if (start < 0) {
+                segments.add(Segment.literal(text.substring(pos)));
+                break;
+            }
+            if (start > pos) {
+                segments.add(Segment.literal(text.substring(pos, start)));
+            }
+            int end = text.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + text);
+            }
+            String expression = text.substring(start + 2, end).trim();
+            boolean markdown = expression.endsWith(":md");
+            String key = markdown ? expression.substring(0, expression.length() - 3).trim() : expression;
+            Field field = Field.BY_KEY.get(key);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown placeholder ${" + expression + "} in template: " + text);
+            }
+            fields.add(field);
+            segments.add(Segment.placeholder(field, markdown));
+            pos = end + 1;
+        }
+        return new MessageTemplate(text, segments.toArray(new Segment[0]), fields);
+    }
+
+    /**
+     * 模板引用的所有 MessageContext 字段是否都有值，用于决定可选行（如页面、联系方式）是否输出
+     */
+    public boolean hasValues(MessageContext context) {
+        for (Field field : fields) {
+            if (field != Field.TITLE && isBlank(field.extractor.apply(context))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 渲染为 JSON 字符串内容写入 out（不含两侧引号）
+     */
+    public void writeJson(JsonBytesWriter out, MessageContext context, String title) {
+        StringBuilder scratch = null;
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                out.writeRaw(segment.literal);
+                continue;
+            }
+            String value = segment.field == Field.TITLE ? title : segment.field.extractor.apply(context);
+            if (value == null) {
+                continue;
+            }
+            if (segment.markdown) {
+                if (scratch == null) {
+                    scratch = new StringBuilder(value.length() + 16);
+                } else {
+                    scratch.setLength(0);
+                }
+                MarkdownEscaper.appendEscaped(scratch, value);
+                out.writeEscaped(scratch);
+            } else {
+                out.writeEscaped(value);
+            }
+        }
+    }
+
+    /**
+     * 渲染为普通文本，供不需要 JSON 输出的场景使用
+     */
+    public void writeText(StringBuilder out, MessageContext context, String title) {
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                out.append(segment.text);
+                continue;
+            }
+            String value = segment.field == Field.TITLE ? title : segment.field.extractor.apply(context);
+            if (value == null) {
+                continue;
+            }
+            if (segment.markdown) {
+                MarkdownEscaper.appendEscaped(out, value);
+            } else {
+                out.append(value);
+            }
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    private static String attachmentLinks(MessageContext context) {
+        List<String> urls = context.getAttachments();
+        if (urls == null || urls.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < urls.size(); i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append("[附件").append(i + 1).append("](").append(urls.get(i)).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static final class Segment {
+        private final String text;
+        private final byte[] literal;
+        private final Field field;
+        private final boolean markdown;
+
+        private Segment(String text, byte[] literal, Field field, boolean markdown) {
+            this.text = text;
+            this.literal = literal;
+            this.field = field;
+            this.markdown = markdown;
+        }
+
+        private static Segment literal(String text) {
+            return new Segment(text, JsonBytesWriter.encode(text), null, false);
+        }
+
+        private static Segment placeholder(Field field, boolean markdown) {
+            return new Segment(null, null, field, markdown);
+        }
+    }
+}
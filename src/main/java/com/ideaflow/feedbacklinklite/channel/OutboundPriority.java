@@ -0,0 +1,43 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 出站优先级，按声明顺序严格优先：排在前面的级别有积压时，后面的级别不出队
+ */
+public enum OutboundPriority {
+    /**
+     * 内容命中配置的关键词
+     */
+    URGENT("urgent"),
+    /**
+     * 留了联系方式，通常需要回复
+     */
+    CONTACT("contact"),
+    NORMAL("normal");
+
+    private final String label;
+
+    OutboundPriority(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static OutboundPriority classify(MessageContext context, List<String> keywords) {
+        if (keywords != null && !keywords.isEmpty() && context.getMessage() != null) {
+            String message = context.getMessage().toLowerCase(Locale.ROOT);
+            for (String keyword : keywords) {
+                if (StringUtils.hasText(keyword) && message.contains(keyword.toLowerCase(Locale.ROOT))) {
+                    return URGENT;
+                }
+            }
+        }
+        return StringUtils.hasText(context.getContact()) ? CONTACT : NORMAL;
+    }
+}
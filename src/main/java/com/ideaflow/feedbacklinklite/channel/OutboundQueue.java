@@ -0,0 +1,161 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 单个渠道的出站队列
+ * 优先级之间严格优先；同一优先级内按来源页面分流，用差额轮询（DRR）出队：
+ * 每轮每个页面可以发出与权重相同的条数，再轮到下一个页面，单个页面积压再多也只占自己的份额。
+ * 已被调用方提前结束（超时、撤回）的消息在出队时丢弃，不占用发送额度。
+ * 非线程安全，由调用方加锁。
+ */
+final class OutboundQueue {
+    private static final OutboundPriority[] PRIORITIES = OutboundPriority.values();
+
+    private final Lane[] lanes = new Lane[PRIORITIES.length];
+    private int size;
+    private long dropped;
+
+    /**
+     * 一条排队中的消息
+     *
+     * @param flow     来源页面，见 {@link KeyHashing#pageKey}
+     * @param weight   所在页面的出队权重
+     * @param enqueued 入队时间（System.nanoTime）
+     */
+    record Item(MessageContext context, OutboundPriority priority, String flow, int weight, long enqueued,
+                CompletableFuture<ChannelResult> result) {
+    }
+
+    OutboundQueue() {
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    void offer(Item item) {
+        Lane lane = lanes[item.priority().ordinal()];
+        Flow flow = lane.flows.get(item.flow());
+        if (flow == null) {
+            flow = new Flow(item.flow());
+            lane.flows.put(item.flow(), flow);
+            lane.active.addLast(flow);
+        }
+        // 权重以最新一条为准，配置热更新后逐步生效
+        flow.weight = item.weight();
+        flow.items.addLast(item);
+        lane.size++;
+        size++;
+    }
+
+    /**
+     * 取出下一条仍在等待的消息
+     *
+     * @return 队列中没有仍在等待的消息时返回 null
+     */
+    Item poll() {
+        for (Lane lane : lanes) {
+            Item item = lane.poll();
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 清除已结束的消息，队列满时调用
+     */
+    void removeDone() {
+        for (Lane lane : lanes) {
+            Iterator<Flow> it = lane.active.iterator();
+            while (it.hasNext()) {
+                Flow flow = it.next();
+                int before = flow.items.size();
+                flow.items.removeIf(item -> item.result().isDone());
+                int removed = before - flow.items.size();
+                lane.size -= removed;
+                size -= removed;
+                dropped += removed;
+                if (flow.items.isEmpty()) {
+                    it.remove();
+                    lane.flows.remove(flow.key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 排队条数，含已结束但尚未清除的消息
+     */
+    int size() {
+        return size;
+    }
+
+    int size(OutboundPriority priority) {
+        return lanes[priority.ordinal()].size;
+    }
+
+    /**
+     * 累计丢弃的已结束消息条数
+     */
+    long dropped() {
+        return dropped;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private final class Lane {
+        private final Map<String, Flow> flows = new HashMap<>();
+        // 有积压的页面，按轮询顺序排列
+        private final ArrayDeque<Flow> active = new ArrayDeque<>();
+        private int size;
+
+        private Item poll() {
+            while (!active.isEmpty()) {
+                Flow flow = active.peekFirst();
+                Item item = flow.items.pollFirst();
+                size--;
+                OutboundQueue.this.size--;
+                if (flow.items.isEmpty()) {
+                    active.pollFirst();
+                    flows.remove(flow.key);
+                    flow.deficit = 0;
+                }
+                if (item.result().isDone()) {
+                    dropped++;
+                    continue;
+                }
+                if (flow.deficit <= 0) {
+                    // 轮到该页面时补充一轮的额度
+                    flow.deficit = flow.weight;
+                }
+                flow.deficit--;
+                if (flow.deficit <= 0 && !flow.items.isEmpty()) {
+                    active.addLast(active.pollFirst());
+                }
+                return item;
+            }
+            return null;
+        }
+    }
+
+    private static final class Flow {
+        private final String key;
+        private final ArrayDeque<Item> items = new ArrayDeque<>();
+        private int weight = 1;
+        private int deficit;
+
+        private Flow(String key) {
+            this.key = key;
+        }
+    }
+}
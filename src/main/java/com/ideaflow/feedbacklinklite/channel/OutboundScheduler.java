@@ -0,0 +1,367 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 出站调度器
+ * 渠道 webhook 有每分钟配额（钉钉机器人 20 条/分钟），超出的请求会被直接拒绝。
+ * 调度器在每个渠道前维护一个 {@link OutboundQueue}：额度充足且没有积压时直接发送，
+ * 否则排队等待，由该渠道的投递线程在额度空出时按优先级和来源页面公平地逐条发出。
+ * 额度按实际请求计算：支持合并发送的渠道（{@link MessageChannel#maxBatchSize()} 大于 1）积压时按批出队，一批只占一次额度。
+ * 排队期间不占用调用方线程；排队超过 maxWaitMillis 或队列已满时以失败返回，由上层转入死信。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboundScheduler {
+    // 投递线程单次等待额度的最长时间，额度上限热更新后最迟在这之后生效
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackMetrics feedbackMetrics;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * 为渠道加上出站调度，由 {@link ChannelResilienceRegistry} 调用，重试同样经过调度
+     */
+    public MessageChannel wrap(MessageChannel channel) {
+        Lane lane = lanes.computeIfAbsent(channel.name(), name -> new Lane(channel));
+        return new MessageChannel() {
+            @Override
+            public ChannelResult send(MessageContext context) {
+                return sendAsync(context).toCompletableFuture().join();
+            }
+
+            @Override
+            public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+                return submit(lane, context);
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return channel.isEnabled();
+            }
+
+            @Override
+            public String name() {
+                return channel.name();
+            }
+        };
+    }
+
+    public List<OutboundStats> stats() {
+        List<OutboundStats> stats = new ArrayList<>();
+        lanes.values().forEach(lane -> stats.add(lane.stats()));
+        return stats;
+    }
+
+    /**
+     * 各渠道各优先级的排队条数，供指标导出
+     */
+    public Map<String, Map<OutboundPriority, Integer>> queued() {
+        Map<String, Map<OutboundPriority, Integer>> queued = new LinkedHashMap<>();
+        lanes.forEach((name, lane) -> queued.put(name, lane.queuedByPriority()));
+        return queued;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(Lane::stop);
+    }
+
+    private CompletionStage<ChannelResult> submit(Lane lane, MessageContext context) {
+        FeedbackProperties config = feedbackConfig.current();
+        FeedbackProperties.Outbound cfg = config.getOutbound();
+        if (!cfg.isEnabled() || (cfg.budgetFor(lane.channel.name()) <= 0 && lane.idle())) {
+            return lane.channel.sendAsync(context);
+        }
+        String flow = KeyHashing.pageKey(context.getPageUrl());
+        OutboundQueue.Item item = new OutboundQueue.Item(context,
+                OutboundPriority.classify(context, cfg.getPriorityKeywords()), flow, cfg.weightFor(flow),
+                System.nanoTime(), new CompletableFuture<>());
+        return lane.enqueue(item, cfg, lane.maxWaitMillis(config));
+    }
+
+    /**
+     * 单个渠道的队列、发送额度和投递线程
+     */
+    private final class Lane {
+        private final MessageChannel channel;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final OutboundQueue queue = new OutboundQueue();
+        private final SendWindow window = new SendWindow();
+        private Thread worker;
+        private boolean stopped;
+        // 已告警过的 max-wait 配置值，避免每条消息重复告警
+        private volatile long warnedMaxWait = -1;
+
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder[] sentByPriority = new LongAdder[OutboundPriority.values().length];
+        private final LongAdder[] waitNanos = new LongAdder[OutboundPriority.values().length];
+        private final LongAccumulator[] maxWaitNanos = new LongAccumulator[OutboundPriority.values().length];
+
+        private Lane(MessageChannel channel) {
+            this.channel = channel;
+            for (int i = 0; i < sentByPriority.length; i++) {
+                sentByPriority[i] = new LongAdder();
+                waitNanos[i] = new LongAdder();
+                maxWaitNanos[i] = new LongAccumulator(Math::max, 0);
+            }
+        }
+
+        private CompletableFuture<ChannelResult> enqueue(OutboundQueue.Item item, FeedbackProperties.Outbound cfg, long maxWaitMillis) {
+            boolean direct = false;
+            lock.lock();
+            try {
+                if (stopped) {
+                    return CompletableFuture.completedFuture(ChannelResult.fail(channel.name() + " outbound scheduler stopped"));
+                }
+                if (queue.isEmpty() && window.nanosUntilAvailable(item.enqueued(), cfg.budgetFor(channel.name())) == 0) {
+                    // 没有积压且额度充足，直接发送，不经过投递线程
+                    window.record(item.enqueued(), cfg.budgetFor(channel.name()));
+                    direct = true;
+                } else {
+                    if (queue.size() >= cfg.getQueueCapacity()) {
+                        queue.removeDone();
+                    }
+                    if (queue.size() >= Math.max(1, cfg.getQueueCapacity())) {
+                        rejected.increment();
+                        return CompletableFuture.completedFuture(ChannelResult.fail(channel.name() + " outbound queue full"));
+                    }
+                    queue.offer(item);
+                    startWorker();
+                    changed.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (direct) {
+                dispatch(List.of(item), item.enqueued());
+            } else if (maxWaitMillis > 0) {
+                item.result().completeOnTimeout(ChannelResult.fail(channel.name() + " outbound budget wait exceeded "
+                        + maxWaitMillis + "ms"), maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+            return item.result();
+        }
+
+        /**
+         * 实际生效的排队时限
+         * PARALLEL 路由到达渠道截止时间后已经按失败处理（可能已写入死信），消息不能再留在队列里等到之后发出，
+         * 因此 max-wait 超过截止时间（或不限）时按截止时间生效。
+         */
+        private long maxWaitMillis(FeedbackProperties config) {
+            long maxWait = config.getOutbound().getMaxWaitMillis();
+            FeedbackProperties.Routing routing = config.getRouting();
+            if (routing.getMode() != FeedbackProperties.Routing.Mode.PARALLEL) {
+                return maxWait;
+            }
+            long deadline = routing.timeoutFor(channel.name());
+            if (deadline <= 0 || (maxWait > 0 && maxWait <= deadline)) {
+                return maxWait;
+            }
+            if (warnedMaxWait != maxWait) {
+                warnedMaxWait = maxWait;
+                log.warn("渠道 {} 的出站排队时限 max-wait-millis={} 超过并行路由的截止时间 {}ms，按截止时间生效",
+                        channel.name(), maxWait, deadline);
+            }
+            return deadline;
+        }
+
+        private void startWorker() {
+            if (worker == null) {
+                worker = Thread.ofVirtual().name("outbound-" + channel.name()).start(this::drainLoop);
+            }
+        }
+
+        private void drainLoop() {
+            try {
+                while (true) {
+                    List<OutboundQueue.Item> batch;
+                    long now;
+                    lock.lock();
+                    try {
+                        while (true) {
+                            if (stopped) {
+                                return;
+                            }
+                            if (queue.isEmpty()) {
+                                changed.await();
+                                continue;
+                            }
+                            // 每轮重新读取配置，额度上限热更新后随即生效
+                            FeedbackProperties.Outbound cfg = feedbackConfig.current().getOutbound();
+                            int budget = cfg.isEnabled() ? cfg.budgetFor(channel.name()) : 0;
+                            now = System.nanoTime();
+                            long wait = window.nanosUntilAvailable(now, budget);
+                            if (wait > 0) {
+                                changed.awaitNanos(Math.min(wait, MAX_PARK_NANOS));
+                                continue;
+                            }
+                            batch = pollBatch(Math.max(1, channel.maxBatchSize()));
+                            if (!batch.isEmpty()) {
+                                // 一批只发出一次请求，只占用一次额度
+                                window.record(now, budget);
+                                break;
+                            }
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    dispatch(batch, now);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 按出队顺序取出最多 maxItems 条仍在等待的消息，调用方持有锁
+         */
+        private List<OutboundQueue.Item> pollBatch(int maxItems) {
+            List<OutboundQueue.Item> batch = new ArrayList<>(Math.min(maxItems, queue.size()));
+            while (batch.size() < maxItems) {
+                OutboundQueue.Item item = queue.poll();
+                if (item == null) {
+                    break;
+                }
+                batch.add(item);
+            }
+            return batch;
+        }
+
+        private void dispatch(List<OutboundQueue.Item> batch, long now) {
+            for (OutboundQueue.Item item : batch) {
+                int priority = item.priority().ordinal();
+                long waited = now - item.enqueued();
+                sent.increment();
+                sentByPriority[priority].increment();
+                waitNanos[priority].add(waited);
+                maxWaitNanos[priority].accumulate(waited);
+                feedbackMetrics.recordOutboundWait(item.priority().label(), waited);
+            }
+            try {
+                CompletionStage<ChannelResult> call = batch.size() == 1
+                        ? channel.sendAsync(batch.get(0).context())
+                        : channel.sendBatchAsync(batch.stream().map(OutboundQueue.Item::context).toList());
+                call.whenComplete((outcome, ex) -> {
+                    for (OutboundQueue.Item item : batch) {
+                        if (ex != null) {
+                            item.result().completeExceptionally(ex);
+                        } else if (batch.size() == 1) {
+                            item.result().complete(outcome);
+                        } else {
+                            // 每条消息拿到独立的结果对象，避免重试计数等字段互相影响
+                            item.result().complete(new ChannelResult(outcome.isSuccess(), outcome.getMessage(),
+                                    outcome.isRetryable(), 1));
+                        }
+                    }
+                });
+            } catch (Exception ex) {
+                batch.forEach(item -> item.result().completeExceptionally(ex));
+            }
+        }
+
+        private boolean idle() {
+            lock.lock();
+            try {
+                return queue.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Map<OutboundPriority, Integer> queuedByPriority() {
+            Map<OutboundPriority, Integer> queued = new LinkedHashMap<>();
+            lock.lock();
+            try {
+                for (OutboundPriority priority : OutboundPriority.values()) {
+                    queued.put(priority, queue.size(priority));
+                }
+            } finally {
+                lock.unlock();
+            }
+            return queued;
+        }
+
+        private OutboundStats stats() {
+            FeedbackProperties.Outbound cfg = feedbackConfig.current().getOutbound();
+            int budget = cfg.isEnabled() ? cfg.budgetFor(channel.name()) : 0;
+            int queued;
+            long expired;
+            int available;
+            Map<OutboundPriority, Integer> byPriority = queuedByPriority();
+            lock.lock();
+            try {
+                queued = queue.size();
+                expired = queue.dropped();
+                available = budget > 0 ? window.available(System.nanoTime(), budget) : 0;
+            } finally {
+                lock.unlock();
+            }
+            Map<String, OutboundStats.PriorityStats> priorities = new LinkedHashMap<>();
+            for (OutboundPriority priority : OutboundPriority.values()) {
+                int i = priority.ordinal();
+                long count = sentByPriority[i].sum();
+                priorities.put(priority.label(), OutboundStats.PriorityStats.builder()
+                        .queued(byPriority.get(priority))
+                        .sent(count)
+                        .avgWaitMillis(count == 0 ? 0 : waitNanos[i].sum() / 1e6 / count)
+                        .maxWaitMillis(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos[i].get()))
+                        .build());
+            }
+            return OutboundStats.builder()
+                    .name(channel.name())
+                    .budgetPerMinute(budget)
+                    .budgetAvailable(available)
+                    .queued(queued)
+                    .sent(sent.sum())
+                    .expired(expired)
+                    .rejected(rejected.sum())
+                    .priorities(priorities)
+                    .build();
+        }
+
+        /**
+         * 停机时结束投递线程，仍在排队的消息以失败返回
+         */
+        private void stop() {
+            List<OutboundQueue.Item> pending = new ArrayList<>();
+            lock.lock();
+            try {
+                stopped = true;
+                for (OutboundQueue.Item item = queue.poll(); item != null; item = queue.poll()) {
+                    pending.add(item);
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            pending.forEach(item -> item.result().complete(ChannelResult.fail(channel.name() + " outbound scheduler stopped")));
+            if (!pending.isEmpty()) {
+                log.warn("出站调度器停止，渠道 {} 仍有 {} 条未发送", channel.name(), pending.size());
+            }
+        }
+    }
+}
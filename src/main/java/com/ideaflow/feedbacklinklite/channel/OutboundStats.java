@@ -0,0 +1,46 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * 单个渠道的出站队列统计，供管理端查看
+ */
+@Value
+@Builder
+public class OutboundStats {
+    String name;
+    /**
+     * 当前生效的每分钟上限，0 表示不限
+     */
+    int budgetPerMinute;
+    /**
+     * 当前窗口内还可以立即发送的条数
+     */
+    int budgetAvailable;
+    int queued;
+    long sent;
+    /**
+     * 排队超时或被调用方撤回的条数
+     */
+    long expired;
+    /**
+     * 队列已满被拒绝的条数
+     */
+    long rejected;
+    /**
+     * 按优先级（urgent / contact / normal）统计的排队情况
+     */
+    Map<String, PriorityStats> priorities;
+
+    @Value
+    @Builder
+    public static class PriorityStats {
+        int queued;
+        long sent;
+        double avgWaitMillis;
+        long maxWaitMillis;
+    }
+}
@@ -0,0 +1,182 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 为任意渠道增加重试与熔断
+ * 暂时性失败按指数退避加随机抖动重试，重试次数同时受单次上限和全局重试预算约束；
+ * 熔断打开后直接返回失败，不再发起网络调用。
+ * 发送与退避都是异步的，等待重试期间不占用线程。
+ */
+@Slf4j
+public class ResilientChannel implements MessageChannel {
+    private final MessageChannel delegate;
+    private final FeedbackConfigHolder feedbackConfig;
+    private final CircuitBreaker breaker = new CircuitBreaker();
+    private final RetryBudget retryBudget;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private volatile String lastError;
+
+    public ResilientChannel(MessageChannel delegate, FeedbackConfigHolder feedbackConfig) {
+        this.delegate = delegate;
+        this.feedbackConfig = feedbackConfig;
+        this.retryBudget = new RetryBudget(feedbackConfig.current().getResilience().getRetryBudgetMax());
+    }
+
+    @Override
+    public ChannelResult send(MessageContext context) {
+        return sendAsync(context).toCompletableFuture().join();
+    }
+
+    /**
+     * 返回的 future 由调用方提前完成（如路由截止时间到达）时，放弃剩余重试
+     */
+    @Override
+    public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+        FeedbackProperties.Resilience cfg = feedbackConfig.current().getResilience();
+        if (!cfg.isEnabled()) {
+            return invoke(context);
+        }
+        calls.increment();
+        CircuitBreaker.Permit permit = breaker.acquire(cfg.getOpenMillis());
+        if (permit == CircuitBreaker.Permit.DENIED) {
+            shortCircuited.increment();
+            failures.increment();
+            return CompletableFuture.completedFuture(ChannelResult.fail(name() + " circuit open"));
+        }
+        retryBudget.deposit(cfg.getRetryBudgetRatio(), cfg.getRetryBudgetMax());
+        CompletableFuture<ChannelResult> promise = new CompletableFuture<>();
+        attempt(context, cfg, 1, permit == CircuitBreaker.Permit.PROBE, promise);
+        return promise;
+    }
+
+    /**
+     * @param probe 本次尝试是否为半开状态下的试探调用；试探调用失败后熔断器重新打开，不会再有后续尝试
+     */
+    private void attempt(MessageContext context, FeedbackProperties.Resilience cfg, int attempt, boolean probe,
+                         CompletableFuture<ChannelResult> promise) {
+        CompletableFuture<ChannelResult> call = invoke(context).toCompletableFuture();
+        // 截止时间先到达时撤回仍在出站队列中排队的发送，不再占用渠道额度
+        promise.whenComplete((ignored, error) -> call.cancel(false));
+        call.whenComplete((outcome, ex) -> {
+            if (ex instanceof CancellationException) {
+                // 被撤回的调用没有结果，不计入熔断；只有试探调用需要交还试探机会，
+                // 半开之前放行的普通调用被撤回时不能改变半开状态，否则会打断正在进行的试探
+                if (probe) {
+                    breaker.release();
+                }
+                return;
+            }
+            ChannelResult result = ex == null ? outcome
+                    : ChannelResult.retryableFail(name() + " send exception: " + unwrap(ex).getMessage());
+            if (result.isSuccess() || !result.isRetryable()) {
+                // 非暂时性失败说明对端可达，不计入熔断
+                breaker.onSuccess();
+                finish(promise, result, attempt);
+                return;
+            }
+            breaker.onFailure(cfg.getFailureThreshold());
+            if (attempt >= cfg.getMaxAttempts() || breaker.getState() != CircuitBreaker.State.CLOSED || promise.isDone()) {
+                finish(promise, result, attempt);
+                return;
+            }
+            if (!retryBudget.tryWithdraw()) {
+                budgetExhausted.increment();
+                finish(promise, result, attempt);
+                return;
+            }
+            retries.increment();
+            // 退避期间不占用线程，到期后在新的虚拟线程上发起下一次尝试
+            Executor delayed = CompletableFuture.delayedExecutor(backoffMillis(attempt, cfg), TimeUnit.MILLISECONDS,
+                    task -> Thread.ofVirtual().start(task));
+            delayed.execute(() -> {
+                if (promise.isDone()) {
+                    finish(promise, result, attempt);
+                } else {
+                    attempt(context, cfg, attempt + 1, false, promise);
+                }
+            });
+        });
+    }
+
+    private void finish(CompletableFuture<ChannelResult> promise, ChannelResult result, int attempt) {
+        result.setAttempts(attempt);
+        if (result.isSuccess()) {
+            successes.increment();
+        } else {
+            failures.increment();
+            lastError = result.getMessage();
+        }
+        promise.complete(result);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    public void reset() {
+        breaker.reset();
+    }
+
+    public ChannelStats stats() {
+        return ChannelStats.builder()
+                .name(name())
+                .state(breaker.getState())
+                .consecutiveFailures(breaker.getConsecutiveFailures())
+                .openedAt(breaker.getOpenedAt())
+                .calls(calls.sum())
+                .successes(successes.sum())
+                .failures(failures.sum())
+                .retries(retries.sum())
+                .shortCircuited(shortCircuited.sum())
+                .budgetExhausted(budgetExhausted.sum())
+                .retryBudgetAvailable(retryBudget.available())
+                .lastError(lastError)
+                .build();
+    }
+
+    private CompletionStage<ChannelResult> invoke(MessageContext context) {
+        try {
+            return delegate.sendAsync(context);
+        } catch (Exception ex) {
+            log.warn("Channel {} send exception", name(), ex);
+            return CompletableFuture.completedFuture(ChannelResult.retryableFail(name() + " send exception: " + ex.getMessage()));
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * 指数退避 + 全抖动：在 [0, min(max, base * 2^(attempt-1))] 内随机取值
+     */
+    private static long backoffMillis(int attempt, FeedbackProperties.Resilience cfg) {
+        long ceiling = cfg.getBaseDelayMillis() << Math.min(attempt - 1, 20);
+        ceiling = Math.min(cfg.getMaxDelayMillis(), Math.max(1, ceiling));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算
+ * 每次正常调用按比例存入额度，每次重试消耗一个完整额度，额度不足时不再重试。
+ * 这样重试流量最多为正常流量的固定比例，渠道整体故障时不会因重试放大请求量。
+ */
+public class RetryBudget {
+    // 以千分之一为单位存储额度，避免浮点 CAS
+    private static final long UNIT = 1000;
+
+    private final AtomicLong tokens;
+
+    public RetryBudget(int maxRetries) {
+        this.tokens = new AtomicLong(Math.max(0, maxRetries) * UNIT);
+    }
+
+    /**
+     * 正常调用时存入 ratio 个额度，上限为 maxRetries
+     */
+    public void deposit(double ratio, int maxRetries) {
+        long amount = (long) (ratio * UNIT);
+        long cap = Math.max(0, maxRetries) * UNIT;
+        tokens.accumulateAndGet(amount, (current, add) -> Math.min(cap, current + add));
+    }
+
+    /**
+     * 尝试消耗一次重试额度
+     */
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = tokens.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前剩余的可重试次数
+     */
+    public double available() {
+        return tokens.get() / (double) UNIT;
+    }
+}
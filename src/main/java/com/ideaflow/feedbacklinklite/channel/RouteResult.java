@@ -0,0 +1,34 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次路由的汇总结果
+ * success/message 为按路由策略聚合后的结果，channelResults 按渠道名记录每个渠道各自的发送结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteResult {
+    private boolean success;
+    private String message;
+    private Map<String, ChannelResult> channelResults = new LinkedHashMap<>();
+
+    public static RouteResult ok(Map<String, ChannelResult> channelResults) {
+        return new RouteResult(true, null, channelResults);
+    }
+
+    public static RouteResult fail(String message) {
+        return new RouteResult(false, message, Collections.emptyMap());
+    }
+
+    public static RouteResult fail(String message, Map<String, ChannelResult> channelResults) {
+        return new RouteResult(false, message, channelResults);
+    }
+}
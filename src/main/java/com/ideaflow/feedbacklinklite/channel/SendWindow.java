@@ -0,0 +1,83 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个渠道的发送额度：记录最近 limit 次发送的时间，保证任意 60 秒内的发送数不超过 limit
+ * 与令牌桶相比，空闲后可以立即发出 limit 条，又不会像“桶容量 + 补充速率”那样在窗口内超出 webhook 的配额。
+ * 非线程安全，由调用方加锁。
+ */
+final class SendWindow {
+    static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // 环形缓冲区，满时 next 指向最早的一次发送
+    private long[] sent = new long[0];
+    private int next;
+    private int count;
+
+    /**
+     * 距离下一次可以发送还需等待的时间
+     *
+     * @param limit 每分钟上限，小于等于 0 表示不限
+     * @return 0 表示现在即可发送
+     */
+    long nanosUntilAvailable(long now, int limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        resize(limit);
+        if (count < limit) {
+            return 0;
+        }
+        return Math.max(0, sent[next] + WINDOW_NANOS - now);
+    }
+
+    /**
+     * 记录一次发送，调用前应确认 {@link #nanosUntilAvailable} 为 0
+     */
+    void record(long now, int limit) {
+        if (limit <= 0) {
+            return;
+        }
+        resize(limit);
+        sent[next] = now;
+        next = (next + 1) % sent.length;
+        count = Math.min(count + 1, sent.length);
+    }
+
+    /**
+     * 当前窗口内还可以发送的条数
+     */
+    int available(long now, int limit) {
+        if (limit <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        resize(limit);
+        int recent = 0;
+        for (int i = 0; i < count; i++) {
+            if (sent[i] + WINDOW_NANOS > now) {
+                recent++;
+            }
+        }
+        return limit - recent;
+    }
+
+    /**
+     * 上限被热更新时按新容量重建，保留最近的发送记录
+     */
+    private void resize(int limit) {
+        if (sent.length == limit) {
+            return;
+        }
+        int keep = Math.min(count, limit);
+        long[] resized = new long[limit];
+        // 从最早到最新依次取出，只保留最新的 keep 条
+        int oldest = count < sent.length ? 0 : next;
+        for (int i = 0; i < keep; i++) {
+            resized[i] = sent[(oldest + count - keep + i) % sent.length];
+        }
+        sent = resized;
+        count = keep;
+        next = keep % limit;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 企业微信群机器人，以 markdown 消息发送；企业微信以 HTTP 200 + 非 0 errcode 表示失败（如 45009 频率超限）
+ */
+@Component
+@Order(3)
+public class WeComChannel extends AbstractWebhookChannel {
+    private static final byte[] PAYLOAD_PREFIX = "{\"msgtype\":\"markdown\",\"markdown\":{\"content\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_SUFFIX = "\"}}".getBytes(StandardCharsets.UTF_8);
+
+    public WeComChannel(FeedbackConfigHolder feedbackConfig, WebhookHttpClient webhookHttpClient) {
+        super(feedbackConfig, webhookHttpClient);
+    }
+
+    @Override
+    public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+        FeedbackProperties.WeCom cfg = feedbackConfig.current().getWeCom();
+        if (!StringUtils.hasText(cfg.getWebhook())) {
+            return CompletableFuture.completedFuture(ChannelResult.fail("WeCom webhook not configured"));
+        }
+        return post(cfg.getWebhook(), render(context, cfg), Map.of());
+    }
+
+    byte[] render(MessageContext context, FeedbackProperties.WeCom cfg) {
+        ChannelTemplate current = template(cfg.getTemplate());
+        JsonBytesWriter out = new JsonBytesWriter(512);
+        out.writeRaw(PAYLOAD_PREFIX);
+        current.writeHeading(out, context, current.renderTitle(context));
+        current.writeEntry(out, context);
+        out.writeRaw(PAYLOAD_SUFFIX);
+        return out.toByteArray();
+    }
+
+    @Override
+    protected BusinessError businessError(String body) {
+        return errorCode(body, "errcode", "errmsg");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return feedbackConfig.current().getWeCom().isEnabled();
+    }
+
+    @Override
+    protected String label() {
+        return "WeCom";
+    }
+
+    @Override
+    public String name() {
+        return "weCom";
+    }
+}
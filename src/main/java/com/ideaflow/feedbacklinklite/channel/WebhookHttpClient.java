@@ -0,0 +1,249 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 所有 webhook 渠道共用的出站 HTTP 客户端
+ * 基于 JDK HttpClient：连接池与 keep-alive 复用 TCP/TLS 连接，可选 HTTP/2；
+ * 连接、读取（等待响应头）和整体超时均可配置，避免异常 webhook 长时间占用线程。
+ * 请求以异步方式发出，各渠道共用同一个客户端和连接池，增加渠道不会增加等待响应的线程。
+ * 连接数上限和空闲保活只作用于本客户端，不修改 JVM 全局参数：同时在途的请求不超过 maxConnections，超出的请求排队等待；
+ * 空闲超过 keepAliveSeconds 后下一次调用换用新客户端，并关闭旧客户端的空闲连接。
+ * HTTP 配置变更后在下一次调用时重建客户端。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebhookHttpClient {
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackMetrics feedbackMetrics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile Holder holder;
+
+    /**
+     * 以 JSON 形式 POST 请求体，阻塞等待响应
+     *
+     * @throws HttpTimeoutException 连接、读取或整体超时
+     * @throws IOException          网络异常
+     */
+    public WebhookResponse postJson(String url, byte[] body) throws IOException, InterruptedException {
+        try {
+            return postJsonAsync(url, body, Map.of()).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * 以 JSON 形式 POST 请求体，不阻塞调用线程
+     * 超时以 {@link HttpTimeoutException}、网络异常以 {@link IOException} 结束返回的 future；
+     * 地址或请求头非法时以 {@link IllegalArgumentException} 结束。
+     *
+     * @param headers 附加请求头，Content-Type 固定为 JSON
+     */
+    public CompletableFuture<WebhookResponse> postJsonAsync(String url, byte[] body, Map<String, String> headers) {
+        FeedbackProperties.Http cfg = feedbackConfig.current().getHttp();
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(cfg.getReadTimeoutMillis()))
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            headers.forEach(builder::header);
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Holder current = holder(cfg);
+        CompletableFuture<HttpResponse<String>> exchange = new CompletableFuture<>();
+        current.acquire(() -> {
+            if (exchange.isDone()) {
+                // 排队期间已经整体超时，不再发出
+                current.release();
+                return;
+            }
+            current.client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+                current.release();
+                if (ex != null) {
+                    exchange.completeExceptionally(ex);
+                } else {
+                    exchange.complete(response);
+                }
+            });
+        });
+        // 整体超时包含排队等待连接的时间
+        return exchange
+                .orTimeout(cfg.getTotalTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, ex) -> {
+                    if (ex == null) {
+                        if (response.statusCode() >= 500) {
+                            feedbackMetrics.recordHttpError(FeedbackMetrics.HttpError.STATUS_5XX);
+                        } else if (response.statusCode() >= 400) {
+                            feedbackMetrics.recordHttpError(FeedbackMetrics.HttpError.STATUS_4XX);
+                        }
+                        return new WebhookResponse(response.statusCode(), response.body());
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        feedbackMetrics.recordHttpError(FeedbackMetrics.HttpError.TIMEOUT);
+                        throw new CompletionException(new HttpTimeoutException(
+                                "request exceeded total timeout " + cfg.getTotalTimeoutMillis() + "ms"));
+                    }
+                    if (cause instanceof HttpTimeoutException) {
+                        feedbackMetrics.recordHttpError(FeedbackMetrics.HttpError.TIMEOUT);
+                        throw new CompletionException(cause);
+                    }
+                    feedbackMetrics.recordHttpError(FeedbackMetrics.HttpError.IO);
+                    throw new CompletionException(cause instanceof IOException ? cause : new IOException(cause));
+                });
+    }
+
+    private Holder holder(FeedbackProperties.Http cfg) {
+        Holder current = holder;
+        if (current != null && current.config.equals(cfg) && !current.idleBeyond(cfg.getKeepAliveSeconds())) {
+            return current;
+        }
+        synchronized (this) {
+            current = holder;
+            if (current == null || !current.config.equals(cfg)) {
+                current = new Holder(copyOf(cfg), build(cfg));
+                holder = current;
+            } else if (current.idleBeyond(cfg.getKeepAliveSeconds())) {
+                // 空闲超过保活时间：旧客户端的连接不再复用，没有在途请求时关闭它以释放空闲连接
+                Holder idle = current;
+                current = new Holder(idle.config, build(cfg));
+                holder = current;
+                idle.closeIfIdle();
+            }
+            return current;
+        }
+    }
+
+    private HttpClient build(FeedbackProperties.Http cfg) {
+        log.info("创建出站 HTTP 客户端 http2={} connectTimeout={}ms maxConnections={}",
+                cfg.isHttp2(), cfg.getConnectTimeoutMillis(), cfg.getMaxConnections());
+        return HttpClient.newBuilder()
+                .version(cfg.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(cfg.getConnectTimeoutMillis()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    private static FeedbackProperties.Http copyOf(FeedbackProperties.Http cfg) {
+        FeedbackProperties.Http copy = new FeedbackProperties.Http();
+        copy.setConnectTimeoutMillis(cfg.getConnectTimeoutMillis());
+        copy.setReadTimeoutMillis(cfg.getReadTimeoutMillis());
+        copy.setTotalTimeoutMillis(cfg.getTotalTimeoutMillis());
+        copy.setHttp2(cfg.isHttp2());
+        copy.setMaxConnections(cfg.getMaxConnections());
+        copy.setKeepAliveSeconds(cfg.getKeepAliveSeconds());
+        return copy;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * webhook 响应
+     */
+    public record WebhookResponse(int status, String body) {
+        public boolean is2xx() {
+            return status >= 200 && status < 300;
+        }
+
+        public boolean is5xx() {
+            return status >= 500;
+        }
+    }
+
+    /**
+     * 一份配置对应的客户端，以及它的在途请求计数
+     * HTTP/1.1 下每个在途请求独占一条连接，限制在途数量即限制了连接数
+     */
+    private static final class Holder {
+        private final FeedbackProperties.Http config;
+        private final HttpClient client;
+        private final int maxConnections;
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+        private int inFlight;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private Holder(FeedbackProperties.Http config, HttpClient client) {
+            this.config = config;
+            this.client = client;
+            this.maxConnections = Math.max(1, config.getMaxConnections());
+        }
+
+        /**
+         * 有空闲名额时立即执行，否则排队，由先完成的请求交还名额时执行
+         */
+        void acquire(Runnable send) {
+            lastUsedNanos = System.nanoTime();
+            synchronized (this) {
+                if (inFlight >= maxConnections) {
+                    waiting.add(send);
+                    return;
+                }
+                inFlight++;
+            }
+            send.run();
+        }
+
+        void release() {
+            lastUsedNanos = System.nanoTime();
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            // 名额直接转给排队的请求
+            next.run();
+        }
+
+        boolean idleBeyond(int keepAliveSeconds) {
+            return System.nanoTime() - lastUsedNanos > TimeUnit.SECONDS.toNanos(Math.max(1, keepAliveSeconds));
+        }
+
+        synchronized void closeIfIdle() {
+            if (inFlight == 0 && waiting.isEmpty()) {
+                client.shutdown();
+            }
+        }
+    }
+}
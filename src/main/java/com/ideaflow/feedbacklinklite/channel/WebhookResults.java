@@ -0,0 +1,38 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * webhook 响应与异常到 {@link ChannelResult} 的统一映射
+ * 5xx、超时与连接失败属于暂时性故障，交给重试与熔断处理；4xx 与请求构造错误不重试。
+ */
+@Slf4j
+final class WebhookResults {
+
+    private WebhookResults() {
+    }
+
+    static ChannelResult fromResponse(String label, WebhookHttpClient.WebhookResponse response) {
+        if (response.is2xx()) {
+            return ChannelResult.ok();
+        }
+        log.warn("{} send failed status={} body={}", label, response.status(), response.body());
+        if (response.is5xx()) {
+            return ChannelResult.retryableFail(label + " send failed status=" + response.status());
+        }
+        return ChannelResult.fail(label + " send failed");
+    }
+
+    static ChannelResult fromFailure(String label, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof IOException) {
+            log.warn("{} send transient failure: {}", label, cause.toString());
+            return ChannelResult.retryableFail(label + " send exception: " + cause.getMessage());
+        }
+        log.error("{} send exception", label, cause);
+        return ChannelResult.fail(label + " send exception: " + cause.getMessage());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ideaflow.feedbacklinklite.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * 外部配置文件热加载
+ * 监听配置文件所在目录（编辑器和 {@link FeedbackConfigStorage#save} 都是写临时文件再改名，直接监听文件本身会丢失通知），
+ * 目标文件变化后稍等片刻合并连续的写入，再重新读取并整体替换当前配置快照。
+ * 内容与本进程最近一次读写的相同时忽略，管理后台保存配置不会触发重复加载。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfigFileWatcher implements CommandLineRunner, Ordered {
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackConfigStorage feedbackConfigStorage;
+
+    private volatile WatchService watchService;
+
+    @Override
+    public int getOrder() {
+        // 所有组件按启动时的配置初始化完成后再开始监听
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    @Override
+    public void run(String... args) {
+        FeedbackProperties.HotReload cfg = feedbackConfig.current().getHotReload();
+        if (cfg == null || !cfg.isEnabled()) {
+            return;
+        }
+        Path path = feedbackConfigStorage.resolveConfigPath(feedbackConfig.current());
+        try {
+            Files.createDirectories(path.getParent());
+            WatchService service = FileSystems.getDefault().newWatchService();
+            path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+            Thread.ofPlatform().daemon().name("config-watcher")
+                    .start(() -> watch(service, path.getFileName(), cfg.getDebounceMillis()));
+            log.info("开始监听外部配置文件: {}", path);
+        } catch (IOException e) {
+            log.warn("外部配置文件监听启动失败，修改配置文件后需要重启: {}", path, e);
+        }
+    }
+
+    private void watch(WatchService service, Path fileName, long debounceMillis) {
+        try {
+            while (true) {
+                if (!isTargetChanged(service.take(), fileName)) {
+                    continue;
+                }
+                Thread.sleep(debounceMillis);
+                // 等待期间的后续通知一并丢弃，只加载一次
+                WatchKey pending;
+                while ((pending = service.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // 应用关闭
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isTargetChanged(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // OVERFLOW 表示通知丢失，无法确定目标文件是否变化，按变化处理
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            JsonNode external = feedbackConfigStorage.loadIfChanged(feedbackConfig.current());
+            if (external != null) {
+                feedbackConfig.reload(external);
+                log.info("外部配置文件已变更，已重新加载");
+            }
+        } catch (Exception e) {
+            log.error("重新加载外部配置失败，保留当前配置", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ideaflow.feedbacklinklite.config;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -19,7 +20,7 @@ import java.nio.file.Paths;
 @RequiredArgsConstructor
 public class ConfigInitializer implements CommandLineRunner, Ordered {
 
-    private final FeedbackProperties feedbackProperties;
+    private final FeedbackConfigHolder feedbackConfig;
     private final FeedbackConfigStorage feedbackConfigStorage;
 
     @Override
@@ -34,9 +35,9 @@ public class ConfigInitializer implements CommandLineRunner, Ordered {
             log.info("开始加载外部配置文件...");
 
             // 加载外部配置，如果存在则覆盖内存配置
-            FeedbackProperties external = feedbackConfigStorage.loadIfExists(feedbackProperties);
+            JsonNode external = feedbackConfigStorage.loadIfExists(feedbackConfig.current());
             if (external != null) {
-                feedbackProperties.copyFrom(external);
+                feedbackConfig.reload(external);
                 log.info("外部配置加载完成");
             } else {
                 log.info("未找到外部配置文件，继续使用默认配置");
@@ -0,0 +1,93 @@
+package com.ideaflow.feedbacklinklite.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 当前生效配置的唯一入口
+ * 配置以不可变快照的形式发布：每次修改都先复制当前快照、在副本上修改，再通过一次 volatile 写整体替换。
+ * 读取方无需加锁，一次请求内只调用一次 {@link #current()} 即可得到前后一致的配置，不会读到修改到一半的状态。
+ * <p>
+ * 快照发布后不允许再修改，需要变更时使用 {@link #update} 或 {@link #reload}。
+ * 依赖配置构建的组件（消息模板、HTTP 客户端、Redis 连接等）在使用时比较自己所用的那一段配置，只有该段变化时才重建。
+ */
+@Component
+public class FeedbackConfigHolder {
+    private static final ObjectMapper OVERLAY = overlayMapper();
+
+    // application.yml 绑定的原始值，重新加载外部文件时以它为基础
+    private final FeedbackProperties defaults;
+    private volatile FeedbackProperties current;
+
+    public FeedbackConfigHolder(FeedbackProperties bound) {
+        this.defaults = copyOf(bound);
+        this.current = bound;
+    }
+
+    /**
+     * 当前配置快照，只读
+     */
+    public FeedbackProperties current() {
+        return current;
+    }
+
+    /**
+     * 在当前快照的副本上应用修改并发布
+     *
+     * @return 新发布的快照
+     */
+    public synchronized FeedbackProperties update(Consumer<FeedbackProperties> changes) {
+        FeedbackProperties next = copyOf(current);
+        changes.accept(next);
+        current = next;
+        return next;
+    }
+
+    /**
+     * 当前配置的独立副本，供需要把配置交给外部（如管理接口序列化返回）的场景使用，修改副本不影响已发布的快照
+     */
+    public FeedbackProperties copy() {
+        return copyOf(current);
+    }
+
+    /**
+     * 用外部配置文件覆盖 application.yml 的值，生成新快照并发布
+     * 只覆盖文件中出现的字段，文件里没有的配置段（例如升级后新增的配置）保留 application.yml 的值。
+     *
+     * @param external 外部配置文件的 JSON 内容
+     * @return 新发布的快照
+     * @throws IOException 字段名或取值与配置不匹配，此时不发布新快照
+     */
+    public synchronized FeedbackProperties reload(JsonNode external) throws IOException {
+        FeedbackProperties next = OVERLAY.readerForUpdating(copyOf(defaults)).readValue(external);
+        if (next.getConfigPath() == null) {
+            // 外部文件未记录路径时沿用启动参数，避免后续保存写到别处
+            next.setConfigPath(defaults.getConfigPath());
+        }
+        current = next;
+        return next;
+    }
+
+    /**
+     * 嵌套的配置段逐字段合并；列表和 Map 按整体替换，避免与 application.yml 中的元素拼接
+     */
+    private static ObjectMapper overlayMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setDefaultMergeable(true);
+        mapper.configOverride(List.class).setMergeable(false);
+        mapper.configOverride(Map.class).setMergeable(false);
+        return mapper;
+    }
+
+    static FeedbackProperties copyOf(FeedbackProperties source) {
+        FeedbackProperties copy = new FeedbackProperties();
+        copy.copyFrom(source);
+        return copy;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ideaflow.feedbacklinklite.config;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,13 +11,19 @@ import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 
 /**
  * 负责将 Feedback 配置持久化到 JSON，并在启动时尝试加载外部文件覆盖 application.yml。
  * 支持容器挂载，通过 feedback.config-path 或环境变量 FEEDBACK_CONFIG_PATH 指定路径。
+ * <p>
+ * 读取时以 JSON 树的形式交给 {@link FeedbackConfigHolder#reload} 逐字段覆盖，
+ * 文件中没有出现的配置段和字段（例如升级后新增的配置）继续使用 application.yml 的值。
  */
 @Slf4j
 @Component
@@ -25,6 +32,8 @@ public class FeedbackConfigStorage {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Environment environment;
+    // 最近一次读取或写入的文件内容，用于识别文件是否真的发生了变化
+    private volatile byte[] lastContent;
 
     /**
      * 根据配置或环境变量解析外部文件路径。
@@ -41,9 +50,16 @@ public class FeedbackConfigStorage {
     }
 
     /**
-     * 启动时读取外部 JSON，若存在则返回，异常时返回 null。
+     * 数据目录，即外部配置文件所在目录，日志等运行期数据与配置文件放在一起便于容器挂载。
      */
-    public FeedbackProperties loadIfExists(FeedbackProperties properties) {
+    public Path resolveDataDir(FeedbackProperties properties) {
+        return resolveConfigPath(properties).getParent();
+    }
+
+    /**
+     * 启动时读取外部 JSON，若存在则返回其内容，异常时返回 null。
+     */
+    public JsonNode loadIfExists(FeedbackProperties properties) {
         Path path = resolveConfigPath(properties);
         File file = path.toFile();
         if (!file.exists()) {
@@ -52,7 +68,8 @@ public class FeedbackConfigStorage {
         }
         try {
             byte[] bytes = Files.readAllBytes(path);
-            FeedbackProperties loaded = objectMapper.readValue(bytes, FeedbackProperties.class);
+            JsonNode loaded = parse(bytes);
+            lastContent = bytes;
             log.info("已加载外部配置: {}", path);
             return loaded;
         } catch (IOException e) {
@@ -61,14 +78,54 @@ public class FeedbackConfigStorage {
         }
     }
 
+    /**
+     * 文件监听触发时重新读取外部 JSON。
+     * 内容与最近一次读取或写入的完全相同时返回 null，本进程自己保存引起的通知因此被忽略；
+     * 文件不存在或内容不完整（编辑器尚未写完）时也返回 null，保留当前配置。
+     */
+    public JsonNode loadIfChanged(FeedbackProperties properties) {
+        Path path = resolveConfigPath(properties);
+        try {
+            if (!Files.exists(path)) {
+                return null;
+            }
+            byte[] bytes = Files.readAllBytes(path);
+            if (Arrays.equals(bytes, lastContent)) {
+                return null;
+            }
+            JsonNode loaded = parse(bytes);
+            lastContent = bytes;
+            return loaded;
+        } catch (IOException e) {
+            log.warn("重新读取外部配置失败，保留当前配置: {}", path, e);
+            return null;
+        }
+    }
+
+    private JsonNode parse(byte[] bytes) throws IOException {
+        JsonNode root = objectMapper.readTree(bytes);
+        if (root == null || !root.isObject()) {
+            throw new IOException("外部配置不是 JSON 对象");
+        }
+        return root;
+    }
+
     /**
      * 保存当前内存配置到外部 JSON，不存在则创建，存在则覆盖。
+     * 先写临时文件再原子替换，进程中途退出或文件监听方读取时都不会看到写了一半的文件。
      */
     public void save(FeedbackProperties properties) throws IOException {
         Path path = resolveConfigPath(properties);
         Files.createDirectories(path.getParent());
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), properties);
+        byte[] bytes = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(properties);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, bytes);
+        lastContent = bytes;
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
         log.info("配置已写入外部文件: {}", path);
     }
 }
-
@@ -3,13 +3,36 @@ package com.ideaflow.feedbacklinklite.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Data
 @ConfigurationProperties(prefix = "feedback")
 public class FeedbackProperties {
     private boolean enabled = true;
     private DingTalk dingTalk = new DingTalk();
+    private Feishu feishu = new Feishu();
+    private WeCom weCom = new WeCom();
+    private Webhook webhook = new Webhook();
     private RateLimit rateLimit = new RateLimit();
     private Auth auth = new Auth();
+    private Delivery delivery = new Delivery();
+    private Journal journal = new Journal();
+    private DeadLetter deadLetter = new DeadLetter();
+    private Routing routing = new Routing();
+    private Resilience resilience = new Resilience();
+    private Outbound outbound = new Outbound();
+    private Http http = new Http();
+    private Dedup dedup = new Dedup();
+    private History history = new History();
+    private HotReload hotReload = new HotReload();
+    private Metrics metrics = new Metrics();
+    private Batch batch = new Batch();
+    private Assets assets = new Assets();
+    private Attachments attachments = new Attachments();
+    private Analytics analytics = new Analytics();
     /**
      * 外部配置文件路径，支持通过环境变量 FEEDBACK_CONFIG_PATH 或 feedback.config-path 覆盖
      * 默认指向工作目录下的 data/feedback_config.json，便于容器挂载
@@ -17,7 +40,7 @@ public class FeedbackProperties {
     private String configPath ;
 
     /**
-     * 将另一个配置实例的值复制到当前对象，用于启动时加载外部 JSON 覆盖 application.yml
+     * 将另一个配置实例的值复制到当前对象，用于加载外部 JSON 覆盖 application.yml，以及生成配置快照的副本
      */
     public void copyFrom(FeedbackProperties source) {
         if (source == null) {
@@ -27,17 +50,168 @@ public class FeedbackProperties {
         if (source.getDingTalk() != null) {
             this.dingTalk.setWebhook(source.getDingTalk().getWebhook());
             this.dingTalk.setSecret(source.getDingTalk().getSecret());
+            if (source.getDingTalk().getDigest() != null) {
+                this.dingTalk.getDigest().setEnabled(source.getDingTalk().getDigest().isEnabled());
+                this.dingTalk.getDigest().setWindowMillis(source.getDingTalk().getDigest().getWindowMillis());
+                this.dingTalk.getDigest().setMaxItems(source.getDingTalk().getDigest().getMaxItems());
+            }
+            if (source.getDingTalk().getTemplate() != null) {
+                this.dingTalk.setTemplate(source.getDingTalk().getTemplate().copy());
+            }
+        }
+        if (source.getFeishu() != null) {
+            this.feishu.setEnabled(source.getFeishu().isEnabled());
+            this.feishu.setWebhook(source.getFeishu().getWebhook());
+            this.feishu.setSecret(source.getFeishu().getSecret());
+            if (source.getFeishu().getTemplate() != null) {
+                this.feishu.setTemplate(source.getFeishu().getTemplate().copy());
+            }
+        }
+        if (source.getWeCom() != null) {
+            this.weCom.setEnabled(source.getWeCom().isEnabled());
+            this.weCom.setWebhook(source.getWeCom().getWebhook());
+            if (source.getWeCom().getTemplate() != null) {
+                this.weCom.setTemplate(source.getWeCom().getTemplate().copy());
+            }
+        }
+        if (source.getWebhook() != null) {
+            this.webhook.setEnabled(source.getWebhook().isEnabled());
+            this.webhook.setUrl(source.getWebhook().getUrl());
+            this.webhook.setHeaders(source.getWebhook().getHeaders() == null
+                    ? new LinkedHashMap<>() : new LinkedHashMap<>(source.getWebhook().getHeaders()));
+            if (source.getWebhook().getTemplate() != null) {
+                this.webhook.setTemplate(source.getWebhook().getTemplate().copy());
+            }
         }
         if (source.getRateLimit() != null) {
             this.rateLimit.setEnabled(source.getRateLimit().isEnabled());
             this.rateLimit.setMaxRequests(source.getRateLimit().getMaxRequests());
             this.rateLimit.setWindowMinutes(source.getRateLimit().getWindowMinutes());
+            this.rateLimit.setAlgorithm(source.getRateLimit().getAlgorithm());
+            this.rateLimit.setMaxKeys(source.getRateLimit().getMaxKeys());
+            this.rateLimit.setIpv6PrefixLength(source.getRateLimit().getIpv6PrefixLength());
+            if (source.getRateLimit().getSubnet() != null) {
+                this.rateLimit.getSubnet().setEnabled(source.getRateLimit().getSubnet().isEnabled());
+                this.rateLimit.getSubnet().setIpv4PrefixLength(source.getRateLimit().getSubnet().getIpv4PrefixLength());
+                this.rateLimit.getSubnet().setIpv6PrefixLength(source.getRateLimit().getSubnet().getIpv6PrefixLength());
+                this.rateLimit.getSubnet().setMaxRequests(source.getRateLimit().getSubnet().getMaxRequests());
+            }
+            this.rateLimit.setBackend(source.getRateLimit().getBackend());
+            if (source.getRateLimit().getSnapshot() != null) {
+                this.rateLimit.getSnapshot().setEnabled(source.getRateLimit().getSnapshot().isEnabled());
+                this.rateLimit.getSnapshot().setIntervalSeconds(source.getRateLimit().getSnapshot().getIntervalSeconds());
+                this.rateLimit.getSnapshot().setFile(source.getRateLimit().getSnapshot().getFile());
+            }
+            if (source.getRateLimit().getRedis() != null) {
+                this.rateLimit.setRedis(source.getRateLimit().getRedis().copy());
+            }
         }
         if (source.getAuth() != null) {
             this.auth.setUsername(source.getAuth().getUsername());
             this.auth.setPassword(source.getAuth().getPassword());
             this.auth.setToken(source.getAuth().getToken());
         }
+        if (source.getDelivery() != null) {
+            this.delivery.setMode(source.getDelivery().getMode());
+            this.delivery.setQueueCapacity(source.getDelivery().getQueueCapacity());
+            this.delivery.setWorkers(source.getDelivery().getWorkers());
+        }
+        if (source.getJournal() != null) {
+            this.journal.setEnabled(source.getJournal().isEnabled());
+            this.journal.setDir(source.getJournal().getDir());
+            this.journal.setSegmentBytes(source.getJournal().getSegmentBytes());
+            this.journal.setMaxSegments(source.getJournal().getMaxSegments());
+        }
+        if (source.getDeadLetter() != null) {
+            this.deadLetter.setEnabled(source.getDeadLetter().isEnabled());
+            this.deadLetter.setDir(source.getDeadLetter().getDir());
+            this.deadLetter.setSegmentBytes(source.getDeadLetter().getSegmentBytes());
+            this.deadLetter.setMaxSegments(source.getDeadLetter().getMaxSegments());
+            this.deadLetter.setMaxEntries(source.getDeadLetter().getMaxEntries());
+            this.deadLetter.setReplayPerMinute(source.getDeadLetter().getReplayPerMinute());
+            this.deadLetter.setReplayBatchSize(source.getDeadLetter().getReplayBatchSize());
+        }
+        if (source.getRouting() != null) {
+            this.routing.setMode(source.getRouting().getMode());
+            this.routing.setPolicy(source.getRouting().getPolicy());
+            this.routing.setChannelTimeoutMillis(source.getRouting().getChannelTimeoutMillis());
+            this.routing.setChannelTimeouts(new LinkedHashMap<>(source.getRouting().getChannelTimeouts()));
+        }
+        if (source.getResilience() != null) {
+            this.resilience.setEnabled(source.getResilience().isEnabled());
+            this.resilience.setMaxAttempts(source.getResilience().getMaxAttempts());
+            this.resilience.setBaseDelayMillis(source.getResilience().getBaseDelayMillis());
+            this.resilience.setMaxDelayMillis(source.getResilience().getMaxDelayMillis());
+            this.resilience.setRetryBudgetRatio(source.getResilience().getRetryBudgetRatio());
+            this.resilience.setRetryBudgetMax(source.getResilience().getRetryBudgetMax());
+            this.resilience.setFailureThreshold(source.getResilience().getFailureThreshold());
+            this.resilience.setOpenMillis(source.getResilience().getOpenMillis());
+        }
+        if (source.getOutbound() != null) {
+            this.outbound.setEnabled(source.getOutbound().isEnabled());
+            this.outbound.setDefaultPerMinute(source.getOutbound().getDefaultPerMinute());
+            this.outbound.setChannelBudgets(new LinkedHashMap<>(source.getOutbound().getChannelBudgets()));
+            this.outbound.setQueueCapacity(source.getOutbound().getQueueCapacity());
+            this.outbound.setMaxWaitMillis(source.getOutbound().getMaxWaitMillis());
+            this.outbound.setPriorityKeywords(source.getOutbound().getPriorityKeywords() == null
+                    ? new ArrayList<>() : new ArrayList<>(source.getOutbound().getPriorityKeywords()));
+            this.outbound.setPageWeights(new LinkedHashMap<>(source.getOutbound().getPageWeights()));
+        }
+        if (source.getHttp() != null) {
+            this.http.setConnectTimeoutMillis(source.getHttp().getConnectTimeoutMillis());
+            this.http.setReadTimeoutMillis(source.getHttp().getReadTimeoutMillis());
+            this.http.setTotalTimeoutMillis(source.getHttp().getTotalTimeoutMillis());
+            this.http.setHttp2(source.getHttp().isHttp2());
+            this.http.setMaxConnections(source.getHttp().getMaxConnections());
+            this.http.setKeepAliveSeconds(source.getHttp().getKeepAliveSeconds());
+        }
+        if (source.getDedup() != null) {
+            this.dedup.setEnabled(source.getDedup().isEnabled());
+            this.dedup.setMode(source.getDedup().getMode());
+            this.dedup.setSimilarity(source.getDedup().getSimilarity());
+            this.dedup.setWindowSeconds(source.getDedup().getWindowSeconds());
+            this.dedup.setCapacity(source.getDedup().getCapacity());
+            this.dedup.setMinLength(source.getDedup().getMinLength());
+            this.dedup.setFlushIntervalSeconds(source.getDedup().getFlushIntervalSeconds());
+        }
+        if (source.getHistory() != null) {
+            this.history.setEnabled(source.getHistory().isEnabled());
+            this.history.setDir(source.getHistory().getDir());
+            this.history.setQueueCapacity(source.getHistory().getQueueCapacity());
+            this.history.setFlushDocs(source.getHistory().getFlushDocs());
+            this.history.setSegmentBytes(source.getHistory().getSegmentBytes());
+            this.history.setMaxIndexSegments(source.getHistory().getMaxIndexSegments());
+        }
+        if (source.getHotReload() != null) {
+            this.hotReload.setEnabled(source.getHotReload().isEnabled());
+            this.hotReload.setDebounceMillis(source.getHotReload().getDebounceMillis());
+        }
+        if (source.getMetrics() != null) {
+            this.metrics.setEnabled(source.getMetrics().isEnabled());
+        }
+        if (source.getBatch() != null) {
+            this.batch.setMaxItems(source.getBatch().getMaxItems());
+            this.batch.setMaxBytes(source.getBatch().getMaxBytes());
+        }
+        if (source.getAssets() != null) {
+            this.assets.setMaxAgeSeconds(source.getAssets().getMaxAgeSeconds());
+            this.assets.setGzipMinBytes(source.getAssets().getGzipMinBytes());
+        }
+        if (source.getAttachments() != null) {
+            this.attachments.setEnabled(source.getAttachments().isEnabled());
+            this.attachments.setDir(source.getAttachments().getDir());
+            this.attachments.setMaxFileBytes(source.getAttachments().getMaxFileBytes());
+            this.attachments.setMaxFiles(source.getAttachments().getMaxFiles());
+            this.attachments.setAllowedTypes(source.getAttachments().getAllowedTypes() == null
+                    ? new ArrayList<>() : new ArrayList<>(source.getAttachments().getAllowedTypes()));
+            this.attachments.setPublicBaseUrl(source.getAttachments().getPublicBaseUrl());
+            this.attachments.setRetentionDays(source.getAttachments().getRetentionDays());
+        }
+        if (source.getAnalytics() != null) {
+            this.analytics.setEnabled(source.getAnalytics().isEnabled());
+            this.analytics.setRetentionHours(source.getAnalytics().getRetentionHours());
+            this.analytics.setTopPages(source.getAnalytics().getTopPages());
+        }
         // 同步外部配置路径，保证后续保存使用同一路径
         this.configPath = source.getConfigPath();
     }
@@ -46,6 +220,66 @@ public class FeedbackProperties {
     public static class DingTalk {
         private String webhook;
         private String secret;
+        private Digest digest = new Digest();
+        /**
+         * 消息模板，默认与最初硬编码的消息格式一致
+         */
+        private Template template = new Template();
+
+        @Data
+        public static class Digest {
+            /**
+             * 是否合并发送：窗口内的多条反馈合并为一条 Markdown 摘要，减少触发钉钉机器人限频（约 20 条/分钟）
+             * 启用出站调度且钉钉有发送额度时不再使用合并窗口，改由出站调度在积压时按 maxItems 成批合并
+             */
+            private boolean enabled = false;
+            /**
+             * 合并窗口（毫秒），窗口内第一条反馈到达后开始计时，应小于渠道截止时间
+             */
+            private long windowMillis = 5_000;
+            /**
+             * 单条摘要最多包含的反馈条数，达到后立即发送
+             */
+            private int maxItems = 10;
+        }
+    }
+
+    @Data
+    public static class Feishu {
+        /**
+         * 是否启用飞书机器人渠道，未启用时不参与路由
+         */
+        private boolean enabled = false;
+        private String webhook;
+        /**
+         * 签名校验密钥，机器人未开启签名校验时留空
+         */
+        private String secret;
+        private Template template = new Template();
+    }
+
+    @Data
+    public static class WeCom {
+        /**
+         * 是否启用企业微信群机器人渠道，未启用时不参与路由
+         */
+        private boolean enabled = false;
+        private String webhook;
+        private Template template = new Template();
+    }
+
+    @Data
+    public static class Webhook {
+        /**
+         * 是否启用通用 JSON webhook 渠道，未启用时不参与路由
+         */
+        private boolean enabled = false;
+        private String url;
+        /**
+         * 附加请求头，例如 Authorization
+         */
+        private Map<String, String> headers = new LinkedHashMap<>();
+        private Template template = new Template();
     }
 
     @Data
@@ -59,6 +293,115 @@ public class FeedbackProperties {
          * Time window in minutes.
          */
         private int windowMinutes = 60;
+        /**
+         * 限流算法，默认保持原有的滑动窗口
+         */
+        private Algorithm algorithm = Algorithm.SLIDING_WINDOW;
+        /**
+         * 最多记录的 key 数量，达到上限后淘汰旧记录（重启生效）
+         */
+        private int maxKeys = 100_000;
+        /**
+         * IPv6 按前缀聚合为一个 key，同一个 /64 通常属于同一个用户
+         */
+        private int ipv6PrefixLength = 64;
+        private Subnet subnet = new Subnet();
+        /**
+         * 限流状态存储后端：local（进程内，默认）或 redis（多副本共享）
+         */
+        private String backend = "local";
+        private Redis redis = new Redis();
+        private Snapshot snapshot = new Snapshot();
+
+        public enum Algorithm {
+            /**
+             * 记录窗口内每次请求的时间戳，精确限制任意窗口内的请求数，内存随 maxRequests 增长
+             */
+            SLIDING_WINDOW,
+            /**
+             * GCRA（漏桶的虚拟调度形式），每个 key 只保存一个 long，CAS 更新，无锁无分配
+             * 长期速率相同，但额度匀速恢复：突发 maxRequests 次后同一窗口内还能陆续放行，任意窗口内最多约 2 * maxRequests - 1 次
+             */
+            GCRA
+        }
+
+        /**
+         * 网段级别的聚合限流，限制同一网段内所有地址的请求总数，窗口与单个 IP 相同
+         */
+        @Data
+        public static class Subnet {
+            private boolean enabled = false;
+            private int ipv4PrefixLength = 24;
+            private int ipv6PrefixLength = 48;
+            private int maxRequests = 30;
+        }
+
+        /**
+         * 本地限流状态快照，重启后恢复，避免每次发布都重置所有客户端的额度
+         */
+        @Data
+        public static class Snapshot {
+            private boolean enabled = true;
+            /**
+             * 定时保存间隔（重启生效）
+             */
+            private int intervalSeconds = 60;
+            /**
+             * 快照文件，默认为数据目录下的 ratelimit.snapshot
+             */
+            private String file;
+        }
+
+        /**
+         * 兼容 Redis 协议的共享存储
+         */
+        @Data
+        public static class Redis {
+            private String host = "127.0.0.1";
+            private int port = 6379;
+            private String password;
+            private int database = 0;
+            private String keyPrefix = "feedback:rl:";
+            /**
+             * 单次检查等待存储响应的上限，超时后本次退回本地限流
+             */
+            private long timeoutMillis = 50;
+            private int connectTimeoutMillis = 500;
+            private int ioTimeoutMillis = 1000;
+            /**
+             * 连接失败后多久再尝试重连，期间全部使用本地限流
+             */
+            private long reconnectMillis = 5000;
+            /**
+             * 一次批量发送的最大命令数
+             */
+            private int maxBatch = 128;
+            /**
+             * 每次从存储领取的额度数，大于 1 时同一副本上的后续请求可在本地放行；
+             * 额度会被一个副本暂时占用，限额较小（如每小时 5 次）时建议保持 1
+             */
+            private int leaseSize = 1;
+            private long leaseMillis = 1000;
+            private int nearCacheSize = 65536;
+
+            public Redis copy() {
+                Redis copy = new Redis();
+                copy.setHost(host);
+                copy.setPort(port);
+                copy.setPassword(password);
+                copy.setDatabase(database);
+                copy.setKeyPrefix(keyPrefix);
+                copy.setTimeoutMillis(timeoutMillis);
+                copy.setConnectTimeoutMillis(connectTimeoutMillis);
+                copy.setIoTimeoutMillis(ioTimeoutMillis);
+                copy.setReconnectMillis(reconnectMillis);
+                copy.setMaxBatch(maxBatch);
+                copy.setLeaseSize(leaseSize);
+                copy.setLeaseMillis(leaseMillis);
+                copy.setNearCacheSize(nearCacheSize);
+                return copy;
+            }
+        }
     }
 
     @Data
@@ -76,4 +419,431 @@ public class FeedbackProperties {
          */
         private String token;
     }
+
+    @Data
+    public static class Delivery {
+        /**
+         * 投递模式：SYNC 在请求线程内等待渠道发送结果；ASYNC 入队后立即返回 ACCEPTED，由后台线程投递
+         */
+        private Mode mode = Mode.SYNC;
+        /**
+         * ASYNC 模式下内存队列的最大长度，队列满时返回 SERVER_BUSY（重启后生效）
+         */
+        private int queueCapacity = 1000;
+        /**
+         * ASYNC 模式下消费队列的虚拟线程数量（重启后生效）
+         */
+        private int workers = 4;
+
+        public enum Mode {
+            SYNC,
+            ASYNC
+        }
+    }
+
+    @Data
+    public static class Journal {
+        /**
+         * ASYNC 模式下是否将已受理的反馈写入磁盘日志，投递成功后标记完成，重启时重放未完成的记录
+         * 受理时只把记录交给日志写线程，不等待 fsync；投递线程等到落盘后再发送。SYNC 模式下日志不会打开
+         */
+        private boolean enabled = true;
+        /**
+         * 日志目录，为空时使用外部配置文件所在目录下的 journal 子目录
+         */
+        private String dir;
+        /**
+         * 单个分段文件的大小上限（字节），超出后滚动到新分段
+         */
+        private long segmentBytes = 16L * 1024 * 1024;
+        /**
+         * 保留的封存分段数量上限，超出后将最旧分段中未投递的记录迁移到当前分段并删除旧文件
+         */
+        private int maxSegments = 8;
+    }
+
+    @Data
+    public static class DeadLetter {
+        /**
+         * 路由失败（含异步投递失败）的反馈是否写入死信，可在管理接口中查看、清除和重放
+         */
+        private boolean enabled = true;
+        /**
+         * 死信目录，为空时使用外部配置文件所在目录下的 dead-letter 子目录
+         */
+        private String dir;
+        /**
+         * 单个分段文件的大小上限（字节），仅在首次打开时生效
+         */
+        private long segmentBytes = 4L * 1024 * 1024;
+        /**
+         * 保留的封存分段数量上限，超出后将最旧分段中仍存活的死信迁移到当前分段
+         */
+        private int maxSegments = 8;
+        /**
+         * 保留的死信条数上限，超出时淘汰最旧的死信；存活的死信不会随分段压缩删除，磁盘与内存占用由该上限约束
+         */
+        private int maxEntries = 10_000;
+        /**
+         * 重放时每分钟最多发出的条数，应低于 webhook 自身的限频（钉钉约 20 条/分钟）
+         */
+        private int replayPerMinute = 18;
+        /**
+         * 每批最多同时在途的条数，整批完成后再开始下一批；整批全部失败时停止重放
+         */
+        private int replayBatchSize = 10;
+    }
+
+    @Data
+    public static class Routing {
+        /**
+         * SEQUENTIAL 依次发送各渠道；PARALLEL 在虚拟线程上并发发送，整体耗时约等于最慢的渠道
+         */
+        private Mode mode = Mode.SEQUENTIAL;
+        /**
+         * 多渠道结果的聚合策略
+         */
+        private Policy policy = Policy.ALL;
+        /**
+         * PARALLEL 模式下每个渠道的默认截止时间（毫秒），超时视为该渠道失败
+         */
+        private long channelTimeoutMillis = 10_000;
+        /**
+         * 按渠道名单独设置的截止时间（毫秒），例如 dingTalk: 5000
+         */
+        private Map<String, Long> channelTimeouts = new LinkedHashMap<>();
+
+        public long timeoutFor(String channel) {
+            Long timeout = channelTimeouts.get(channel);
+            return timeout != null && timeout > 0 ? timeout : channelTimeoutMillis;
+        }
+
+        public enum Mode {
+            SEQUENTIAL,
+            PARALLEL
+        }
+
+        public enum Policy {
+            /**
+             * 所有渠道都成功才算成功，任一渠道失败立即返回失败
+             */
+            ALL,
+            /**
+             * 任一渠道成功即返回成功，全部失败才算失败
+             */
+            ANY,
+            /**
+             * 尝试所有渠道并等待结果，单个渠道失败只记录不影响整体结果
+             */
+            BEST_EFFORT
+        }
+    }
+
+    @Data
+    public static class Resilience {
+        /**
+         * 是否为渠道发送启用重试与熔断
+         */
+        private boolean enabled = true;
+        /**
+         * 单次发送的最大尝试次数（含首次）
+         */
+        private int maxAttempts = 3;
+        /**
+         * 退避基准时间（毫秒），第 n 次重试的等待上限为 base * 2^(n-1)
+         */
+        private long baseDelayMillis = 200;
+        /**
+         * 单次退避等待的上限（毫秒）
+         */
+        private long maxDelayMillis = 5_000;
+        /**
+         * 重试预算比例：每次正常调用积累的重试额度，0.2 表示重试量最多为正常调用量的 20%
+         */
+        private double retryBudgetRatio = 0.2;
+        /**
+         * 重试预算可积累的最大重试次数
+         */
+        private int retryBudgetMax = 10;
+        /**
+         * 连续暂时性失败多少次后打开熔断
+         */
+        private int failureThreshold = 5;
+        /**
+         * 熔断打开后的冷却时间（毫秒），之后放行一次试探调用
+         */
+        private long openMillis = 30_000;
+    }
+
+    @Data
+    public static class Outbound {
+        /**
+         * 是否在渠道前启用出站调度：按渠道限频排队，按优先级和来源页面公平出队。
+         * 排队期间调用方一直等待发送结果，SYNC 投递下提交请求会被阻塞最长 max-wait-millis，建议只在 ASYNC 投递下开启
+         */
+        private boolean enabled = false;
+        /**
+         * 未单独配置的渠道每分钟最多发送的条数，0 表示不限
+         */
+        private int defaultPerMinute = 0;
+        /**
+         * 按渠道名设置的每分钟发送上限，任意 60 秒内的请求数不超过该值；钉钉和企业微信机器人为 20 条/分钟。
+         * 按实际请求计算：钉钉开启摘要合并时，积压的消息按 digest.max-items 成批出队，一条摘要只占一次额度
+         */
+        private Map<String, Integer> channelBudgets = new LinkedHashMap<>(Map.of(
+                "dingTalk", 20, "weCom", 20, "feishu", 100));
+        /**
+         * 每个渠道最多排队的条数，超过时直接以失败返回（转入死信）
+         */
+        private int queueCapacity = 1000;
+        /**
+         * 单条消息最长排队时间（毫秒），0 表示不限。超时后该条以失败返回并转入死信，不会继续等待限频额度再发出，
+         * 因此应大于积压在预算内消化所需的时间；PARALLEL 路由下不超过该渠道的截止时间，超过的部分按截止时间生效
+         */
+        private long maxWaitMillis = 120_000;
+        /**
+         * 内容命中任一关键词（不区分大小写）的反馈优先发送，其次是留了联系方式的反馈
+         */
+        private List<String> priorityKeywords = new ArrayList<>();
+        /**
+         * 按来源页面前缀（不含协议和查询参数，如 example.com/checkout）设置的出队权重，默认 1；
+         * 同一优先级内各页面按权重轮流出队，单个页面的突发反馈不会挤占其他页面
+         */
+        private Map<String, Integer> pageWeights = new LinkedHashMap<>();
+
+        public int budgetFor(String channel) {
+            Integer budget = channelBudgets.get(channel);
+            return budget != null ? budget : defaultPerMinute;
+        }
+
+        /**
+         * 最长匹配前缀的权重，限制在 1 到 100 之间
+         */
+        public int weightFor(String page) {
+            int weight = 1;
+            int matched = -1;
+            for (Map.Entry<String, Integer> entry : pageWeights.entrySet()) {
+                if (entry.getValue() != null && page.startsWith(entry.getKey()) && entry.getKey().length() > matched) {
+                    matched = entry.getKey().length();
+                    weight = entry.getValue();
+                }
+            }
+            return Math.clamp(weight, 1, 100);
+        }
+    }
+
+    @Data
+    public static class Http {
+        /**
+         * 建立 TCP/TLS 连接的超时时间（毫秒）
+         */
+        private long connectTimeoutMillis = 3_000;
+        /**
+         * 发出请求后等待响应头的超时时间（毫秒）
+         */
+        private long readTimeoutMillis = 5_000;
+        /**
+         * 单次请求从发出到读完响应体的整体超时时间（毫秒）
+         */
+        private long totalTimeoutMillis = 8_000;
+        /**
+         * 是否优先使用 HTTP/2（对端不支持时自动回退到 HTTP/1.1）
+         */
+        private boolean http2 = false;
+        /**
+         * 同时在途的请求数上限，超出的请求排队等待，排队时间计入整体超时；HTTP/1.1 下即最大连接数
+         */
+        private int maxConnections = 16;
+        /**
+         * 空闲保活时间（秒）：客户端超过该时间没有请求时，下一次调用换用新客户端并关闭旧的空闲连接
+         */
+        private int keepAliveSeconds = 60;
+    }
+
+    /**
+     * 近似重复检测：窗口内内容相似的反馈只投递第一条
+     */
+    @Data
+    public static class Dedup {
+        /**
+         * 默认关闭：归一化只保留字母和数字，短文本之间容易误判为相似，开启前应按实际流量调好阈值和最短长度
+         */
+        private boolean enabled = false;
+        private Mode mode = Mode.FOLD;
+        /**
+         * 相似度阈值（0-1，按三字分组的 Jaccard 相似度估计），不低于该值视为相似；1 表示只合并归一化后完全相同的内容
+         */
+        private double similarity = 0.7;
+        /**
+         * 相似判断窗口，从第一条消息到达时开始计算
+         */
+        private int windowSeconds = 600;
+        /**
+         * 最多保留的指纹数量，应大于一个窗口内的不同消息数
+         */
+        private int capacity = 4096;
+        /**
+         * 归一化（去掉空白、标点和表情）后少于该字符数的反馈不做重复检测，避免“👍”“？？？”这类短内容互相折叠
+         */
+        private int minLength = 10;
+        /**
+         * FOLD 模式汇报已结束窗口的间隔（重启生效）
+         */
+        private int flushIntervalSeconds = 10;
+
+        public enum Mode {
+            /**
+             * 直接丢弃相似消息
+             */
+            SUPPRESS,
+            /**
+             * 丢弃相似消息并计数，窗口结束后发送一条汇总
+             */
+            FOLD
+        }
+    }
+
+    /**
+     * 反馈历史记录，供管理后台检索（重启生效）
+     */
+    @Data
+    public static class History {
+        private boolean enabled = true;
+        /**
+         * 存储目录，为空时使用外部配置文件所在目录下的 history 子目录
+         */
+        private String dir;
+        /**
+         * 等待后台写入的记录上限，满了之后丢弃新记录，不阻塞提交请求
+         */
+        private int queueCapacity = 10_000;
+        /**
+         * 内存中累积多少条记录后写成一个索引分段
+         */
+        private int flushDocs = 10_000;
+        /**
+         * 单个数据文件的大小上限（字节），超出后滚动到新文件
+         */
+        private long segmentBytes = 64L * 1024 * 1024;
+        /**
+         * 索引分段数量上限，超出后合并相邻的小分段
+         */
+        private int maxIndexSegments = 16;
+    }
+
+    @Data
+    public static class HotReload {
+        /**
+         * 监听外部配置文件，文件被修改后自动重新加载，无需重启
+         */
+        private boolean enabled = true;
+        /**
+         * 收到变更通知后等待的时间（毫秒），合并编辑器保存时的多次写入
+         */
+        private long debounceMillis = 500;
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * 是否开放 /metrics（Prometheus 文本格式），关闭后返回 404；指标本身始终记录
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * 单次批量提交的最大条数，超出部分不再处理
+         */
+        private int maxItems = 100;
+        /**
+         * 批量请求体的最大字节数
+         */
+        private long maxBytes = 1024 * 1024;
+    }
+
+    @Data
+    public static class Assets {
+        /**
+         * feedback.js 等固定地址资源的浏览器缓存时间（秒），过期后凭 ETag 协商；带哈希的资源始终长期缓存
+         */
+        private long maxAgeSeconds = 600;
+        /**
+         * 小于该字节数的资源不生成 gzip 变体，仅在资源首次加载时生效
+         */
+        private int gzipMinBytes = 1024;
+    }
+
+    @Data
+    public static class Attachments {
+        /**
+         * 是否接受 multipart 提交中的截图等附件
+         */
+        private boolean enabled = true;
+        /**
+         * 附件目录，为空时使用外部配置文件所在目录下的 attachments 子目录
+         */
+        private String dir;
+        /**
+         * 单个附件的大小上限（字节），在写盘过程中检查，超出后立即中止
+         */
+        private long maxFileBytes = 5L * 1024 * 1024;
+        /**
+         * 单次提交最多附带的文件数
+         */
+        private int maxFiles = 3;
+        /**
+         * 允许的类型，按文件头识别；可选 image/png、image/jpeg、image/gif、image/webp、application/pdf
+         */
+        private List<String> allowedTypes = new ArrayList<>(List.of("image/png", "image/jpeg", "image/gif", "image/webp"));
+        /**
+         * 消息中附件链接的地址前缀，如 https://feedback.example.com；为空时只给出相对路径，收件人无法直接打开。
+         * 链接不会根据提交请求的 Host 头生成
+         */
+        private String publicBaseUrl;
+        /**
+         * 附件保留天数，最近一次上传相同内容后开始计算；0 表示不清理
+         */
+        private int retentionDays = 90;
+    }
+
+    @Data
+    public static class Analytics {
+        /**
+         * 是否统计各页面、各小时的反馈量与不同客户端数
+         */
+        private boolean enabled = true;
+        /**
+         * 保留最近多少个小时的统计，最多 168；每小时固定占用约 56KB
+         */
+        private int retentionHours = 24;
+        /**
+         * 每小时记录的高频页面个数
+         */
+        private int topPages = 20;
+    }
+
+    /**
+     * 渠道消息模板
+     * 占位符：${message}、${contact}、${pageUrl}、${userAgent}，标题行中可用 ${title}；追加 :md 表示按 Markdown 转义。
+     * 单条消息 = heading + 各字段行 + body，字段行只有在引用的字段都有值时才输出。
+     */
+    @Data
+    public static class Template {
+        private String title = "收到新的用户反馈";
+        private String heading = "### 🔔 ${title}\n\n";
+        private List<String> fields = new ArrayList<>(List.of("- **页面**: ${pageUrl:md}", "- **联系**: ${contact}",
+                "- **附件**: ${attachments}"));
+        private String body = "\n**内容**:\n> ${message:md}";
+
+        public Template copy() {
+            Template copy = new Template();
+            copy.setTitle(title);
+            copy.setHeading(heading);
+            copy.setFields(fields == null ? new ArrayList<>() : new ArrayList<>(fields));
+            copy.setBody(body);
+            return copy;
+        }
+    }
 }
@@ -16,7 +16,7 @@ public class WebConfig implements WebMvcConfigurer {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(authInterceptor)
-                .addPathPatterns("/api/config/**");
+                .addPathPatterns("/api/config/**", "/api/feedback/history/**");
     }
 
     /**
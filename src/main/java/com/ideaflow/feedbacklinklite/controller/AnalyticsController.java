@@ -0,0 +1,28 @@
+package com.ideaflow.feedbacklinklite.controller;
+
+import com.ideaflow.feedbacklinklite.analytics.FeedbackAnalytics;
+import com.ideaflow.feedbacklinklite.model.AnalyticsReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 反馈量统计（需登录）
+ */
+@RestController
+@RequestMapping("/api/config/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    private final FeedbackAnalytics feedbackAnalytics;
+
+    /**
+     * 最近若干小时每小时的反馈量、不同客户端数和高频页面
+     */
+    @GetMapping
+    public AnalyticsReport report(@RequestParam(defaultValue = "24") int hours,
+                                  @RequestParam(defaultValue = "10") int top) {
+        return feedbackAnalytics.report(hours, top);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ideaflow.feedbacklinklite.controller;
+
+import com.ideaflow.feedbacklinklite.attachment.AttachmentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 附件下载，链接随渠道消息发出，无需登录
+ * 文件名即内容的 SHA-256，无法枚举；内容不会变化，可长期缓存
+ */
+@RestController
+@RequestMapping("/api/feedback/attachments")
+@RequiredArgsConstructor
+public class AttachmentController {
+    private final AttachmentStore attachmentStore;
+
+    @GetMapping("/{name}")
+    public ResponseEntity<Resource> get(@PathVariable String name) {
+        Path path = attachmentStore.resolve(name);
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(AttachmentStore.contentType(name)))
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .eTag(name.substring(0, name.indexOf('.')))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(name).build().toString())
+                .header("X-Content-Type-Options", "nosniff")
+                .body(new FileSystemResource(path));
+    }
+}
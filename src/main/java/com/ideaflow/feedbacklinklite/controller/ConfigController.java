@@ -1,48 +1,63 @@
 package com.ideaflow.feedbacklinklite.controller;
 
+import com.ideaflow.feedbacklinklite.channel.ChannelResilienceRegistry;
+import com.ideaflow.feedbacklinklite.channel.ChannelStats;
+import com.ideaflow.feedbacklinklite.channel.OutboundScheduler;
+import com.ideaflow.feedbacklinklite.channel.OutboundStats;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
 import com.ideaflow.feedbacklinklite.config.FeedbackConfigStorage;
 import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/config")
 @RequiredArgsConstructor
 @Slf4j
 public class ConfigController {
-    private final FeedbackProperties feedbackProperties;
+    private final FeedbackConfigHolder feedbackConfig;
     private final FeedbackConfigStorage feedbackConfigStorage;
+    private final ChannelResilienceRegistry channelResilienceRegistry;
+    private final OutboundScheduler outboundScheduler;
 
+    /**
+     * 返回当前配置的副本，不把已发布的快照交给序列化等外部代码
+     */
     @GetMapping
     public FeedbackProperties getConfig() {
-        return feedbackProperties;
+        return feedbackConfig.copy();
     }
 
     @PostMapping
     public ResponseEntity<Boolean> update(@RequestBody FeedbackProperties updated) {
-        // For simplicity first version: overwrite in-memory properties
-        feedbackProperties.setEnabled(updated.isEnabled());
-        feedbackProperties.getDingTalk().setWebhook(updated.getDingTalk().getWebhook());
-        feedbackProperties.getDingTalk().setSecret(updated.getDingTalk().getSecret());
-        feedbackProperties.getRateLimit().setEnabled(updated.getRateLimit().isEnabled());
-        feedbackProperties.getRateLimit().setMaxRequests(updated.getRateLimit().getMaxRequests());
-
-        // Update Authentication settings
-        if (updated.getAuth() != null) {
-            feedbackProperties.getAuth().setUsername(updated.getAuth().getUsername());
-            feedbackProperties.getAuth().setPassword(updated.getAuth().getPassword());
-            feedbackProperties.getAuth().setToken(updated.getAuth().getToken());
-        }
+        // 在当前配置的副本上修改后整体替换，处理中的请求仍使用修改前的完整配置
+        FeedbackProperties saved = feedbackConfig.update(next -> {
+            next.setEnabled(updated.isEnabled());
+            next.getDingTalk().setWebhook(updated.getDingTalk().getWebhook());
+            next.getDingTalk().setSecret(updated.getDingTalk().getSecret());
+            next.getRateLimit().setEnabled(updated.getRateLimit().isEnabled());
+            next.getRateLimit().setMaxRequests(updated.getRateLimit().getMaxRequests());
+
+            // Update Authentication settings
+            if (updated.getAuth() != null) {
+                next.getAuth().setUsername(updated.getAuth().getUsername());
+                next.getAuth().setPassword(updated.getAuth().getPassword());
+                next.getAuth().setToken(updated.getAuth().getToken());
+            }
+        });
 
         // windowMinutes is not configurable via API
         try {
-            feedbackConfigStorage.save(feedbackProperties);
+            feedbackConfigStorage.save(saved);
             return ResponseEntity.ok(true);
         } catch (Exception e) {
             log.error("保存外部配置失败", e);
@@ -50,4 +65,31 @@ public class ConfigController {
             return ResponseEntity.ok(true);
         }
     }
+
+    /**
+     * 查看各渠道的熔断状态与重试统计
+     */
+    @GetMapping("/channels")
+    public List<ChannelStats> channels() {
+        return channelResilienceRegistry.stats();
+    }
+
+    /**
+     * 查看各渠道的出站额度、排队条数和各优先级的等待时间
+     */
+    @GetMapping("/channels/outbound")
+    public List<OutboundStats> outbound() {
+        return outboundScheduler.stats();
+    }
+
+    /**
+     * 手动关闭指定渠道的熔断器
+     */
+    @PostMapping("/channels/{name}/reset")
+    public ResponseEntity<Boolean> resetChannel(@PathVariable String name) {
+        if (!channelResilienceRegistry.reset(name)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(true);
+    }
 }
@@ -0,0 +1,83 @@
+package com.ideaflow.feedbacklinklite.controller;
+
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import com.ideaflow.feedbacklinklite.model.DeadLetter;
+import com.ideaflow.feedbacklinklite.model.DeadLetterPage;
+import com.ideaflow.feedbacklinklite.model.ReplayStatus;
+import com.ideaflow.feedbacklinklite.service.DeadLetterReplayer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 死信查看、清除与重放（需登录）
+ */
+@RestController
+@RequestMapping("/api/config/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+    private final DeadLetterStore deadLetterStore;
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    /**
+     * 按失败时间倒序分页；翻页时把上一页返回的 nextCursor 作为 cursor 传入
+     */
+    @GetMapping
+    public DeadLetterPage list(@RequestParam(required = false) Long cursor,
+                               @RequestParam(defaultValue = "20") int limit) {
+        return deadLetterStore.list(cursor, limit);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<DeadLetter> get(@PathVariable long id) {
+        DeadLetter letter = deadLetterStore.get(id);
+        if (letter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(letter);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Boolean> delete(@PathVariable long id) {
+        if (!deadLetterStore.remove(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(true);
+    }
+
+    /**
+     * 清除全部死信
+     */
+    @DeleteMapping
+    public Map<String, Integer> purge() {
+        return Map.of("purged", deadLetterStore.purge());
+    }
+
+    /**
+     * 在后台按配置的速率分批重放，立即返回任务进度；请求体为要重放的 id 数组，省略时重放全部
+     */
+    @PostMapping("/replay")
+    public ReplayStatus replay(@RequestBody(required = false) List<Long> ids) {
+        return deadLetterReplayer.start(ids);
+    }
+
+    @GetMapping("/replay")
+    public ReplayStatus replayStatus() {
+        return deadLetterReplayer.status();
+    }
+
+    @DeleteMapping("/replay")
+    public ReplayStatus cancelReplay() {
+        return deadLetterReplayer.cancel();
+    }
+}
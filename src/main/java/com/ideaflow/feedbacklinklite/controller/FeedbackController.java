@@ -1,68 +1,87 @@
 package com.ideaflow.feedbacklinklite.controller;
 
-import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.attachment.MultipartReader;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.model.BatchFeedbackResponse;
 import com.ideaflow.feedbacklinklite.model.FeedbackRequest;
 import com.ideaflow.feedbacklinklite.model.FeedbackResponse;
 import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
-import com.ideaflow.feedbacklinklite.service.ChannelRouter;
-import com.ideaflow.feedbacklinklite.service.RateLimiterService;
+import com.ideaflow.feedbacklinklite.service.FeedbackSubmissionService;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-@Slf4j
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/feedback")
 @RequiredArgsConstructor
 public class FeedbackController {
-    private final ChannelRouter channelRouter;
-    private final RateLimiterService rateLimiterService;
+    private final FeedbackSubmissionService feedbackSubmissionService;
+    private final FeedbackConfigHolder feedbackConfig;
 
+    /**
+     * 字段校验在 FeedbackSubmissionService 中进行，校验失败与 multipart、批量提交一样返回 200 和 FAILED
+     */
     @PostMapping
-    public ResponseEntity<FeedbackResponse> submit(@Valid @RequestBody FeedbackRequest request,
+    public ResponseEntity<FeedbackResponse> submit(@RequestBody FeedbackRequest request,
                                                    HttpServletRequest servletRequest) {
-        String ip = servletRequest.getRemoteAddr();
-        if (!rateLimiterService.allowed(ip)) {
-            return ResponseEntity.ok(FeedbackResponse.of(FeedbackStatus.TOO_FREQUENT));
+        return ResponseEntity.ok(feedbackSubmissionService.submit(request, servletRequest.getRemoteAddr()));
+    }
+
+    /**
+     * 带截图等附件的提交，请求体为 multipart/form-data；文本字段与 JSON 提交相同，文件边接收边写盘
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<FeedbackResponse> submitMultipart(HttpServletRequest servletRequest) throws IOException {
+        String boundary = MultipartReader.boundary(servletRequest.getContentType());
+        if (boundary == null) {
+            return ResponseEntity.badRequest().body(FeedbackResponse.of(FeedbackStatus.FAILED, "Missing multipart boundary"));
         }
-        MessageContext context = MessageContext.builder()
-                .message(request.getMessage())
-                .contact(request.getContact())
-                .pageUrl(request.getPageUrl())
-                .userAgent(request.getUserAgent())
-                .build();
-        var result = channelRouter.route(context);
-        if (result.isSuccess()) {
-            return ResponseEntity.ok(FeedbackResponse.of(FeedbackStatus.SUCCESS));
+        long maxBytes = feedbackSubmissionService.maxMultipartBytes();
+        if (servletRequest.getContentLengthLong() > maxBytes) {
+            return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE)
+                    .body(FeedbackResponse.of(FeedbackStatus.FAILED, "Request exceeds " + maxBytes + " bytes"));
         }
-        String msg = result.getMessage();
-        FeedbackStatus status = mapErrorToStatus(msg);
-        return ResponseEntity.ok(FeedbackResponse.of(status, msg));
+        return ResponseEntity.ok(feedbackSubmissionService.submitMultipart(servletRequest.getInputStream(), boundary,
+                servletRequest.getRemoteAddr(), attachmentBaseUrl(servletRequest)));
     }
 
-    private FeedbackStatus mapErrorToStatus(String msg) {
-        if (msg == null) {
-            return FeedbackStatus.SERVER_ERROR;
+    /**
+     * 批量提交，请求体为 FeedbackRequest 的 JSON 数组或 NDJSON（每行一个对象）
+     * 每一条单独校验和限流，results 按顺序给出每一条的处理结果
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchFeedbackResponse> submitBatch(HttpServletRequest servletRequest) throws IOException {
+        long maxBytes = feedbackConfig.current().getBatch().getMaxBytes();
+        if (servletRequest.getContentLengthLong() > maxBytes) {
+            return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE)
+                    .body(BatchFeedbackResponse.ofError("Batch exceeds " + maxBytes + " bytes"));
         }
-        String lower = msg.toLowerCase();
-        if (lower.contains("disabled")) {
-            return FeedbackStatus.CHANNEL_DISABLED;
+        BatchFeedbackResponse response = feedbackSubmissionService.submitBatch(servletRequest.getInputStream(),
+                servletRequest.getRemoteAddr());
+        if (response.getResults().isEmpty() && response.getError() != null) {
+            return ResponseEntity.badRequest().body(response);
         }
-        if (lower.contains("not configured")) {
-            if (lower.contains("webhook")) {
-                return FeedbackStatus.ENDPOINT_NOT_CONFIGURED;
-            }
-            return FeedbackStatus.CHANNEL_NOT_CONFIGURED;
-        }
-        if (lower.contains("frequent")) {
-            return FeedbackStatus.TOO_FREQUENT;
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 附件链接的地址前缀只取自配置，不使用请求的 Host 头，避免伪造 Host 把消息中的链接指向任意站点；
+     * 未配置时退回应用自身的 context path，消息中只给出相对路径
+     */
+    private String attachmentBaseUrl(HttpServletRequest servletRequest) {
+        String configured = feedbackConfig.current().getAttachments().getPublicBaseUrl();
+        if (StringUtils.hasText(configured)) {
+            return configured.endsWith("/") ? configured.substring(0, configured.length() - 1) : configured;
         }
-        return FeedbackStatus.FAILED;
+        return servletRequest.getContextPath();
     }
 }
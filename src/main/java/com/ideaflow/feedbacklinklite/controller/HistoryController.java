@@ -0,0 +1,47 @@
+package com.ideaflow.feedbacklinklite.controller;
+
+import com.ideaflow.feedbacklinklite.history.FeedbackHistory;
+import com.ideaflow.feedbacklinklite.history.HistoryQuery;
+import com.ideaflow.feedbacklinklite.model.HistoryItem;
+import com.ideaflow.feedbacklinklite.model.HistoryPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * 历史反馈查询（需登录）
+ */
+@RestController
+@RequestMapping("/api/feedback/history")
+@RequiredArgsConstructor
+public class HistoryController {
+    private final FeedbackHistory feedbackHistory;
+
+    /**
+     * 按关键字、页面地址和时间范围查询，按时间倒序分页；翻页时把上一页返回的 nextCursor 作为 cursor 传入
+     */
+    @GetMapping
+    public HistoryPage search(@RequestParam(required = false) String q,
+                              @RequestParam(required = false) String pageUrl,
+                              @RequestParam(required = false) Long from,
+                              @RequestParam(required = false) Long to,
+                              @RequestParam(required = false) Long cursor,
+                              @RequestParam(defaultValue = "20") int limit) throws IOException {
+        return feedbackHistory.search(new HistoryQuery(q, pageUrl, from, to, cursor, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<HistoryItem> get(@PathVariable long id) throws IOException {
+        HistoryItem item = feedbackHistory.get(id);
+        if (item == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(item);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ideaflow.feedbacklinklite.controller;
 
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
 import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +20,7 @@ import java.util.Map;
 public class LoginController {
 
     // 注入配置属性类，用于获取预设的用户名和密码
-    private final FeedbackProperties feedbackProperties;
+    private final FeedbackConfigHolder feedbackConfig;
 
     /**
      * 登录接口
@@ -30,14 +31,16 @@ public class LoginController {
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+        // 用户名、密码和 Token 取自同一份配置快照
+        FeedbackProperties.Auth auth = feedbackConfig.current().getAuth();
         // 简单鉴权逻辑：检查用户名和密码是否非空，且匹配配置文件中的设定值
         if (request.getUsername() != null && request.getPassword() != null &&
-            request.getUsername().equals(feedbackProperties.getAuth().getUsername()) &&
-            request.getPassword().equals(feedbackProperties.getAuth().getPassword())) {
+            request.getUsername().equals(auth.getUsername()) &&
+            request.getPassword().equals(auth.getPassword())) {
 
             // 验证通过，返回配置的 Token
             // 使用 Map 封装返回数据，格式为 { "token": "..." }
-            return ResponseEntity.ok(Collections.singletonMap("token", feedbackProperties.getAuth().getToken()));
+            return ResponseEntity.ok(Collections.singletonMap("token", auth.getToken()));
         }
 
         // 验证失败，返回 401 Unauthorized 状态码
@@ -0,0 +1,63 @@
+package com.ideaflow.feedbacklinklite.controller;
+
+import com.ideaflow.feedbacklinklite.channel.OutboundPriority;
+import com.ideaflow.feedbacklinklite.channel.OutboundScheduler;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.metrics.PrometheusWriter;
+import com.ideaflow.feedbacklinklite.service.LocalRateLimitBackend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Prometheus 抓取入口
+ */
+@RestController
+@RequiredArgsConstructor
+public class MetricsController {
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackMetrics feedbackMetrics;
+    private final LocalRateLimitBackend localRateLimitBackend;
+    private final OutboundScheduler outboundScheduler;
+
+    @GetMapping(value = "/metrics", produces = PrometheusWriter.CONTENT_TYPE)
+    public ResponseEntity<String> metrics() {
+        if (!feedbackConfig.current().getMetrics().isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        PrometheusWriter out = new PrometheusWriter();
+        feedbackMetrics.writeTo(out);
+        out.header("feedback_rate_limit_tracked_keys", "gauge", "Keys tracked by the in-process rate limiter");
+        out.sample("feedback_rate_limit_tracked_keys", PrometheusWriter.labels("scope", "ip"),
+                localRateLimitBackend.trackedKeys());
+        out.sample("feedback_rate_limit_tracked_keys", PrometheusWriter.labels("scope", "subnet"),
+                localRateLimitBackend.trackedSubnets());
+        out.header("feedback_outbound_queued", "gauge", "Messages waiting for channel send budget");
+        outboundScheduler.queued().forEach((channel, byPriority) -> {
+            for (Map.Entry<OutboundPriority, Integer> entry : byPriority.entrySet()) {
+                out.sample("feedback_outbound_queued",
+                        PrometheusWriter.labels("channel", channel, "priority", entry.getKey().label()), entry.getValue());
+            }
+        });
+        writeJvm(out);
+        return ResponseEntity.ok(out.toString());
+    }
+
+    /**
+     * 进程级资源，压测时据此观察服务自身的内存与线程占用
+     */
+    private static void writeJvm(PrometheusWriter out) {
+        Runtime runtime = Runtime.getRuntime();
+        out.header("jvm_heap_used_bytes", "gauge", "Used heap memory")
+                .sample("jvm_heap_used_bytes", "", runtime.totalMemory() - runtime.freeMemory());
+        out.header("jvm_heap_committed_bytes", "gauge", "Committed heap memory")
+                .sample("jvm_heap_committed_bytes", "", runtime.totalMemory());
+        out.header("jvm_threads_live", "gauge", "Live platform threads")
+                .sample("jvm_threads_live", "", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
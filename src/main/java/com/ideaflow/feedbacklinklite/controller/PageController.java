@@ -1,32 +1,101 @@
 package com.ideaflow.feedbacklinklite.controller;
 
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.service.StaticAsset;
+import com.ideaflow.feedbacklinklite.service.StaticAssetStore;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
  * 页面路由控制器，用于处理前端页面请求
+ * 页面、feedback.js 与前端构建产物直接从 {@link StaticAssetStore} 输出，按 Accept-Encoding 选择预压缩变体，
+ * 携带 ETag 并支持 304，不再逐次 forward 到静态资源处理器。
  */
 @Controller
+@RequiredArgsConstructor
 public class PageController {
+    private static final String NO_CACHE = "no-cache";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // 构建清单的文件名固定，内容随每次构建变化
+    private static final String NUXT_BUILDS = "_nuxt/builds/";
 
-    @GetMapping("/")
-    public String index() {
-        return "forward:/index.html";
+    private final StaticAssetStore staticAssetStore;
+    private final FeedbackConfigHolder feedbackConfig;
+
+    @GetMapping({"/", "/config"})
+    public ResponseEntity<byte[]> index(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("index.html", NO_CACHE, acceptEncoding, ifNoneMatch);
+    }
+
+    @GetMapping({"/login", "/static/login"})
+    public ResponseEntity<byte[]> login(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("login/index.html", NO_CACHE, acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * 嵌入脚本的地址固定，默认短时缓存后凭 ETag 协商；
+     * 以 ?v=内容哈希 引用时（哈希见响应头 X-Content-Hash）内容不会再变，可长期缓存
+     */
+    @GetMapping("/feedback.js")
+    public ResponseEntity<byte[]> widget(@RequestParam(required = false) String v,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        StaticAsset asset = staticAssetStore.get("feedback.js");
+        String cacheControl = asset != null && asset.hash().equals(v) ? IMMUTABLE : widgetCacheControl();
+        return serve("feedback.js", cacheControl, acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * 前端构建产物的文件名带内容哈希，可长期缓存
+     */
+    @GetMapping("/_nuxt/**")
+    public ResponseEntity<byte[]> nuxt(HttpServletRequest request,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + 1);
+        return serve(path, path.startsWith(NUXT_BUILDS) ? NO_CACHE : IMMUTABLE, acceptEncoding, ifNoneMatch);
     }
 
-    @GetMapping("/login")
-    public String login() {
-        return "forward:/login/index.html";
+    @GetMapping("/favicon.ico")
+    public ResponseEntity<byte[]> favicon(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("favicon.ico", widgetCacheControl(), acceptEncoding, ifNoneMatch);
     }
 
-    @GetMapping("/static/login")
-    public String staticLogin() {
-        return "forward:/login/index.html";
+    private String widgetCacheControl() {
+        FeedbackProperties.Assets cfg = feedbackConfig.current().getAssets();
+        return "public, max-age=" + cfg.getMaxAgeSeconds();
     }
 
-    @GetMapping("/config")
-    public String config() {
-        return "forward:/index.html";
+    private ResponseEntity<byte[]> serve(String path, String cacheControl, String acceptEncoding, String ifNoneMatch) {
+        StaticAsset asset = staticAssetStore.get(path);
+        if (asset == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StaticAsset.Variant variant = asset.select(acceptEncoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(variant.etag());
+        headers.setCacheControl(cacheControl);
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        headers.set("X-Content-Hash", asset.hash());
+        if (asset.matches(ifNoneMatch)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.set(HttpHeaders.CONTENT_TYPE, asset.contentType());
+        if (variant.encoding() != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+        }
+        headers.setContentLength(variant.body().length);
+        return new ResponseEntity<>(variant.body(), headers, HttpStatus.OK);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.ideaflow.feedbacklinklite.history;
+
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigStorage;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.model.HistoryItem;
+import com.ideaflow.feedbacklinklite.model.HistoryPage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 反馈历史记录
+ * 提交请求只把反馈放入写入队列，落盘与建索引都在后台线程完成，不影响提交耗时。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedbackHistory implements CommandLineRunner, Ordered {
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackConfigStorage feedbackConfigStorage;
+
+    private volatile HistoryStore store;
+
+    @Override
+    public int getOrder() {
+        // 在 ConfigInitializer 之后启动，使用外部配置中的目录
+        return Ordered.HIGHEST_PRECEDENCE + 4;
+    }
+
+    @Override
+    public void run(String... args) {
+        FeedbackProperties config = feedbackConfig.current();
+        FeedbackProperties.History cfg = config.getHistory();
+        if (cfg == null || !cfg.isEnabled()) {
+            return;
+        }
+        Path dir = StringUtils.hasText(cfg.getDir())
+                ? Paths.get(cfg.getDir()).toAbsolutePath().normalize()
+                : feedbackConfigStorage.resolveDataDir(config).resolve("history");
+        HistoryStore opened = new HistoryStore(dir, cfg.getSegmentBytes(), cfg.getFlushDocs(),
+                cfg.getMaxIndexSegments(), cfg.getQueueCapacity());
+        try {
+            opened.open();
+            store = opened;
+        } catch (IOException e) {
+            log.error("历史记录打开失败，本次运行不记录历史 dir={}", dir, e);
+        }
+    }
+
+    /**
+     * 记录一条已受理的反馈，不阻塞；队列满时丢弃
+     */
+    public void record(MessageContext context) {
+        HistoryStore current = store;
+        if (current != null) {
+            current.offer(System.currentTimeMillis(), context);
+        }
+    }
+
+    public HistoryPage search(HistoryQuery query) throws IOException {
+        HistoryStore current = store;
+        return current == null ? new HistoryPage() : current.search(query);
+    }
+
+    public HistoryItem get(long id) throws IOException {
+        HistoryStore current = store;
+        return current == null ? null : current.get(id);
+    }
+
+    @PreDestroy
+    public void close() {
+        HistoryStore current = store;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
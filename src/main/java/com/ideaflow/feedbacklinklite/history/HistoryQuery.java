@@ -0,0 +1,14 @@
+package com.ideaflow.feedbacklinklite.history;
+
+/**
+ * 历史反馈查询条件，均可为空
+ *
+ * @param keyword 关键字，多个关键字用空格分隔，需全部出现在反馈内容中
+ * @param pageUrl 页面地址，忽略协议、参数和锚点后精确匹配
+ * @param from    起始时间（含，毫秒时间戳）
+ * @param to      结束时间（含，毫秒时间戳）
+ * @param cursor  上一页返回的 nextCursor，只返回比它更早的记录
+ * @param limit   每页条数
+ */
+public record HistoryQuery(String keyword, String pageUrl, Long from, Long to, Long cursor, int limit) {
+}
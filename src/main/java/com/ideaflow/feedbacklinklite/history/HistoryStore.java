@@ -0,0 +1,741 @@
+package com.ideaflow.feedbacklinklite.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.model.HistoryItem;
+import com.ideaflow.feedbacklinklite.model.HistoryPage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * 反馈历史存储
+ * 记录追加写入数据文件（docs-*.dat），docs.idx 按 id 顺序保存每条记录的时间与位置（定长 24 字节），
+ * 按 id 读取只需一次定位；时间单调递增，按时间范围查询在 docs.idx 上二分查找即可。
+ * <p>
+ * 反馈内容和页面地址的倒排索引先在内存表中累积，达到 flushDocs 条后写成不可变的 {@link IndexSegment}，
+ * 分段过多时合并相邻的小分段。各分段覆盖的 id 范围互不重叠，查询从最新的分段往前，凑满一页即停止。
+ * <p>
+ * 所有写入由单个后台线程完成，提交请求只把记录放入有界队列，队列满时丢弃记录而不阻塞请求。
+ */
+@Slf4j
+public class HistoryStore implements Closeable {
+    public static final int MAX_LIMIT = 100;
+
+    // [long 时间][int 数据文件编号][long 偏移][int 记录长度]
+    private static final int ENTRY_BYTES = 24;
+    // [int 长度][long id][long 时间][payload][int crc32c]
+    private static final int RECORD_OVERHEAD = 4 + 8 + 8 + 4;
+    private static final int MAX_BATCH = 512;
+    private static final String DOCS_INDEX = "docs.idx";
+    private static final String DATA_PREFIX = "docs-";
+    private static final String DATA_SUFFIX = ".dat";
+    private static final String INDEX_PREFIX = "index-";
+    private static final String INDEX_SUFFIX = ".seg";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final int flushDocs;
+    private final int maxIndexSegments;
+    private final BlockingQueue<Op> ops;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Integer, FileChannel> dataFiles = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // 保护 segments 与 memTable 的切换，查询在同一把锁下取快照
+    private final Object lock = new Object();
+    private volatile List<IndexSegment> segments = List.of();
+    private MemTable memTable = new MemTable();
+
+    private FileChannel docsIndex;
+    private FileChannel active;
+    private int activeNo;
+    private long activeSize;
+    private long lastTimestamp;
+    private volatile long committedId;
+    private Thread writer;
+    private volatile boolean closed;
+
+    public HistoryStore(Path dir, long segmentBytes, int flushDocs, int maxIndexSegments, int queueCapacity) {
+        this.dir = dir;
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.flushDocs = Math.max(1, flushDocs);
+        this.maxIndexSegments = Math.max(1, maxIndexSegments);
+        this.ops = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    /**
+     * 打开存储目录，截掉不完整的尾部记录，并为尚未写入索引分段的记录重建内存表
+     */
+    public void open() throws IOException {
+        Files.createDirectories(dir);
+        deleteTempFiles();
+        List<Long> dataNumbers = list(DATA_PREFIX, DATA_SUFFIX);
+        for (Long no : dataNumbers) {
+            dataFiles.put(no.intValue(), FileChannel.open(dataPath(no.intValue()), StandardOpenOption.READ));
+        }
+        docsIndex = FileChannel.open(dir.resolve(DOCS_INDEX), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long count = docsIndex.size() / ENTRY_BYTES;
+        while (count > 0 && !isValidEntry(count)) {
+            count--;
+        }
+        docsIndex.truncate(count * ENTRY_BYTES);
+        committedId = count;
+        lastTimestamp = count > 0 ? timestampOf(count) : 0;
+        // 每次启动都写入新的数据文件，避免在可能残缺的旧文件尾部继续追加
+        openActive(dataNumbers.isEmpty() ? 1 : dataNumbers.getLast().intValue() + 1);
+
+        long indexed = loadSegments(count);
+        for (long id = indexed + 1; id <= count; id++) {
+            HistoryItem item = read(id);
+            if (item != null) {
+                addToMemTable(id, item.getMessage(), item.getPageUrl());
+            }
+            if (memTable.docs >= flushDocs) {
+                flushMemTable();
+            }
+        }
+        writer = Thread.ofPlatform().daemon().name("history-writer").start(this::writeLoop);
+        log.info("历史记录已打开 dir={} records={} indexSegments={} reindexed={}", dir, count, segments.size(), count - indexed);
+    }
+
+    /**
+     * 放入一条记录等待后台写入，不阻塞
+     *
+     * @return false 表示队列已满或存储已关闭，记录被丢弃
+     */
+    public boolean offer(long timestamp, MessageContext context) {
+        if (closed || !ops.offer(new Op(Op.Kind.RECORD, timestamp, context, null))) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 等待此前放入的记录全部写入并可被查询
+     */
+    public void sync() throws InterruptedException {
+        awaitOp(Op.Kind.SYNC);
+    }
+
+    /**
+     * 把内存表立即写成索引分段
+     */
+    void flush() throws InterruptedException {
+        awaitOp(Op.Kind.FLUSH);
+    }
+
+    public HistoryPage search(HistoryQuery query) throws IOException {
+        int limit = Math.clamp(query.limit(), 1, MAX_LIMIT);
+        long upper = committedId;
+        if (query.cursor() != null) {
+            upper = Math.min(upper, query.cursor() - 1);
+        }
+        if (query.to() != null) {
+            upper = lastIdAtOrBefore(query.to(), upper);
+        }
+        long lower = query.from() == null ? 1 : firstIdAtOrAfter(query.from(), upper);
+
+        List<String> terms = HistoryTokenizer.queryTerms(query.keyword());
+        String url = HistoryTokenizer.normalizeUrl(query.pageUrl());
+        if (url != null) {
+            terms.add(HistoryTokenizer.URL_PREFIX + url);
+        }
+        List<HistoryItem> items = new ArrayList<>(limit);
+        if (terms.isEmpty()) {
+            for (long id = upper; id >= lower && items.size() < limit; id--) {
+                HistoryItem item = read(id);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+        } else {
+            collect(terms, keywords(query.keyword()), lower, upper, limit, items);
+        }
+        Long nextCursor = items.size() == limit ? items.getLast().getId() : null;
+        return new HistoryPage(items, nextCursor);
+    }
+
+    public HistoryItem get(long id) throws IOException {
+        if (id < 1 || id > committedId) {
+            return null;
+        }
+        return read(id);
+    }
+
+    /**
+     * 已写入的记录总数
+     */
+    public long size() {
+        return committedId;
+    }
+
+    /**
+     * 因队列已满被丢弃的记录数
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed || writer == null) {
+            return;
+        }
+        closed = true;
+        try {
+            ops.put(new Op(Op.Kind.CLOSE, 0, null, null));
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(List<String> terms, List<String> keywords, long lower, long upper, int limit,
+                         List<HistoryItem> items) throws IOException {
+        byte[][] encoded = new byte[terms.size()][];
+        for (int i = 0; i < terms.size(); i++) {
+            encoded[i] = terms.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        // 内存表在前、分段从新到旧，各来源的 id 范围互不重叠
+        List<IndexSegment> snapshot;
+        long[][] memPostings = null;
+        synchronized (lock) {
+            snapshot = segments;
+            if (memTable.docs > 0 && memTable.minId <= upper) {
+                memPostings = new long[terms.size()][];
+                for (int i = 0; i < terms.size(); i++) {
+                    memPostings[i] = memTable.postings(terms.get(i));
+                }
+            }
+        }
+        if (memPostings != null && collectFrom(memPostings, keywords, lower, upper, limit, items)) {
+            return;
+        }
+        for (int s = snapshot.size() - 1; s >= 0; s--) {
+            IndexSegment segment = snapshot.get(s);
+            if (segment.maxId() < lower) {
+                return;
+            }
+            if (segment.minId() > upper) {
+                continue;
+            }
+            long[][] postings = new long[encoded.length][];
+            for (int i = 0; i < encoded.length; i++) {
+                postings[i] = segment.postings(encoded[i]);
+            }
+            if (collectFrom(postings, keywords, lower, upper, limit, items)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 求倒排表交集并从新到旧读取记录
+     *
+     * @return true 表示已凑满一页或已越过下界
+     */
+    private boolean collectFrom(long[][] postings, List<String> keywords, long lower, long upper, int limit,
+                                List<HistoryItem> items) throws IOException {
+        long[] candidates = intersect(postings);
+        for (int i = candidates.length - 1; i >= 0; i--) {
+            long id = candidates[i];
+            if (id > upper) {
+                continue;
+            }
+            if (id < lower) {
+                return true;
+            }
+            HistoryItem item = read(id);
+            if (item != null && matches(item, keywords)) {
+                items.add(item);
+                if (items.size() >= limit) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long[] intersect(long[][] postings) {
+        for (long[] list : postings) {
+            if (list == null || list.length == 0) {
+                return new long[0];
+            }
+        }
+        long[][] sorted = postings.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(list -> list.length));
+        long[] result = sorted[0];
+        int size = result.length;
+        for (int k = 1; k < sorted.length && size > 0; k++) {
+            long[] other = sorted[k];
+            int n = 0;
+            int j = 0;
+            long[] next = new long[size];
+            for (int i = 0; i < size && j < other.length; ) {
+                if (result[i] == other[j]) {
+                    next[n++] = result[i];
+                    i++;
+                    j++;
+                } else if (result[i] < other[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            result = next;
+            size = n;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 分词只能保证候选包含每个词项，这里再确认每个关键字整体出现在内容中
+     */
+    private static boolean matches(HistoryItem item, List<String> keywords) {
+        if (keywords.isEmpty()) {
+            return true;
+        }
+        String text = HistoryTokenizer.normalize(item.getMessage());
+        for (String keyword : keywords) {
+            if (!text.contains(keyword)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> keywords(String keyword) {
+        List<String> keywords = new ArrayList<>();
+        if (keyword != null) {
+            for (String part : keyword.trim().split("\\s+")) {
+                String normalized = HistoryTokenizer.normalize(part);
+                if (!normalized.isEmpty()) {
+                    keywords.add(normalized);
+                }
+            }
+        }
+        return keywords;
+    }
+
+    private void writeLoop() {
+        List<Op> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(ops.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            ops.drainTo(batch, MAX_BATCH - 1);
+            for (Op op : batch) {
+                try {
+                    switch (op.kind()) {
+                        case RECORD -> append(op.timestamp(), op.context());
+                        case FLUSH -> flushMemTable();
+                        case CLOSE -> stop = true;
+                        default -> {
+                        }
+                    }
+                } catch (IOException e) {
+                    log.error("历史记录写入失败 dir={}", dir, e);
+                }
+            }
+            try {
+                if (memTable.docs >= flushDocs) {
+                    flushMemTable();
+                }
+            } catch (IOException e) {
+                log.error("历史索引刷盘失败 dir={}", dir, e);
+            }
+            for (Op op : batch) {
+                if (op.done() != null) {
+                    op.done().complete(null);
+                }
+            }
+            batch.clear();
+        }
+        try {
+            // 关闭前把内存表写成分段，下次启动无需重建
+            flushMemTable();
+        } catch (IOException e) {
+            log.warn("关闭时写入历史索引失败，下次启动时重建 dir={}", dir, e);
+        }
+        try {
+            active.force(false);
+            docsIndex.force(false);
+            docsIndex.close();
+            for (FileChannel channel : dataFiles.values()) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("关闭历史记录文件失败 dir={}", dir, e);
+        }
+    }
+
+    private void append(long timestamp, MessageContext context) throws IOException {
+        long id = committedId + 1;
+        long time = Math.max(timestamp, lastTimestamp);
+        byte[] payload = serialize(context);
+        int length = RECORD_OVERHEAD + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length - 8).putLong(id).putLong(time).put(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 4, length - 8);
+        record.putInt((int) crc.getValue()).flip();
+        if (activeSize > 0 && activeSize + length > segmentBytes) {
+            active.force(false);
+            openActive(activeNo + 1);
+        }
+        long offset = activeSize;
+        writeFully(active, record, offset);
+        activeSize += length;
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        entry.putLong(time).putInt(activeNo).putLong(offset).putInt(length).flip();
+        writeFully(docsIndex, entry, (id - 1) * ENTRY_BYTES);
+
+        addToMemTable(id, context.getMessage(), context.getPageUrl());
+        lastTimestamp = time;
+        committedId = id;
+    }
+
+    private void addToMemTable(long id, String message, String pageUrl) {
+        Set<String> terms = HistoryTokenizer.indexTerms(message, pageUrl);
+        synchronized (lock) {
+            memTable.add(id, terms);
+        }
+    }
+
+    private void flushMemTable() throws IOException {
+        MemTable current = memTable;
+        if (current.docs == 0) {
+            return;
+        }
+        // 先让数据落盘，保证索引引用的记录在崩溃后仍然存在
+        active.force(false);
+        docsIndex.force(false);
+        Path path = indexPath(current.minId);
+        IndexSegment.write(path, current.minId, current.maxId, current.sortedTerms());
+        IndexSegment segment = IndexSegment.open(path);
+        synchronized (lock) {
+            List<IndexSegment> next = new ArrayList<>(segments);
+            next.add(segment);
+            segments = List.copyOf(next);
+            memTable = new MemTable();
+        }
+        mergeIfNeeded();
+    }
+
+    /**
+     * 分段数超过上限时，反复合并总大小最小的一对相邻分段
+     */
+    private void mergeIfNeeded() throws IOException {
+        while (segments.size() > maxIndexSegments) {
+            List<IndexSegment> current = segments;
+            int best = -1;
+            long bestSize = Long.MAX_VALUE;
+            for (int i = 0; i + 1 < current.size(); i++) {
+                long size = current.get(i).sizeBytes() + current.get(i + 1).sizeBytes();
+                if (size < bestSize) {
+                    best = i;
+                    bestSize = size;
+                }
+            }
+            if (best < 0 || bestSize > IndexSegment.MAX_BYTES) {
+                return;
+            }
+            IndexSegment older = current.get(best);
+            IndexSegment newer = current.get(best + 1);
+            // 合并结果覆盖较旧分段的文件；崩溃时残留的较新分段在启动时按 id 范围识别并删除
+            IndexSegment.write(older.path(), older.minId(), newer.maxId(), IndexSegment.merge(older, newer));
+            IndexSegment merged = IndexSegment.open(older.path());
+            synchronized (lock) {
+                List<IndexSegment> next = new ArrayList<>(segments);
+                next.set(best, merged);
+                next.remove(best + 1);
+                segments = List.copyOf(next);
+            }
+            Files.deleteIfExists(newer.path());
+            log.debug("历史索引分段已合并 ids={}..{}", merged.minId(), merged.maxId());
+        }
+    }
+
+    /**
+     * 加载索引分段，丢弃损坏、重叠或超出已有记录范围的分段
+     *
+     * @return 已被分段覆盖的最大记录 id
+     */
+    private long loadSegments(long count) throws IOException {
+        List<IndexSegment> loaded = new ArrayList<>();
+        long indexed = 0;
+        boolean broken = false;
+        for (Long minId : list(INDEX_PREFIX, INDEX_SUFFIX)) {
+            Path path = indexPath(minId);
+            if (broken) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            IndexSegment segment;
+            try {
+                segment = IndexSegment.open(path);
+            } catch (IOException e) {
+                log.warn("历史索引分段损坏，将从记录重建 file={}", path, e);
+                Files.deleteIfExists(path);
+                broken = true;
+                continue;
+            }
+            if (segment.maxId() <= indexed) {
+                // 合并完成后未来得及删除的旧分段
+                Files.deleteIfExists(path);
+            } else if (segment.minId() <= indexed || segment.maxId() > count) {
+                log.warn("历史索引分段与记录不一致，将从记录重建 file={}", path);
+                Files.deleteIfExists(path);
+                broken = true;
+            } else {
+                loaded.add(segment);
+                indexed = segment.maxId();
+            }
+        }
+        segments = List.copyOf(loaded);
+        return indexed;
+    }
+
+    private HistoryItem read(long id) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        readFully(docsIndex, entry, (id - 1) * ENTRY_BYTES);
+        long time = entry.getLong(0);
+        FileChannel data = dataFiles.get(entry.getInt(8));
+        long offset = entry.getLong(12);
+        int length = entry.getInt(20);
+        if (data == null || length < RECORD_OVERHEAD) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(data, record, offset);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 4, length - 8);
+        if (record.getInt(0) != length - 8 || record.getLong(4) != id || (int) crc.getValue() != record.getInt(length - 4)) {
+            log.warn("历史记录校验失败 id={}", id);
+            return null;
+        }
+        JsonNode node = objectMapper.readTree(record.array(), 20, length - RECORD_OVERHEAD);
+        return HistoryItem.builder()
+                .id(id)
+                .timestamp(time)
+                .message(text(node, "message"))
+                .contact(text(node, "contact"))
+                .pageUrl(text(node, "pageUrl"))
+                .userAgent(text(node, "userAgent"))
+                .build();
+    }
+
+    private boolean isValidEntry(long id) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        readFully(docsIndex, entry, (id - 1) * ENTRY_BYTES);
+        FileChannel data = dataFiles.get(entry.getInt(8));
+        return data != null && entry.getInt(20) >= RECORD_OVERHEAD
+                && entry.getLong(12) + entry.getInt(20) <= data.size();
+    }
+
+    private long timestampOf(long id) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        readFully(docsIndex, buffer, (id - 1) * ENTRY_BYTES);
+        return buffer.getLong(0);
+    }
+
+    private long firstIdAtOrAfter(long time, long upper) throws IOException {
+        long lo = 1;
+        long hi = upper;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timestampOf(mid) >= time) {
+                hi = mid - 1;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private long lastIdAtOrBefore(long time, long upper) throws IOException {
+        long lo = 1;
+        long hi = upper;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timestampOf(mid) <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi;
+    }
+
+    private void awaitOp(Op.Kind kind) throws InterruptedException {
+        if (closed || writer == null) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ops.put(new Op(kind, 0, null, done));
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void openActive(int no) throws IOException {
+        activeNo = no;
+        active = FileChannel.open(dataPath(no), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        activeSize = active.size();
+        dataFiles.put(no, active);
+    }
+
+    private byte[] serialize(MessageContext context) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("message", context.getMessage());
+        node.put("contact", context.getContact());
+        node.put("pageUrl", context.getPageUrl());
+        node.put("userAgent", context.getUserAgent());
+        return objectMapper.writeValueAsBytes(node);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private void deleteTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.tmp")) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private List<Long> list(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的历史记录文件 {}", path);
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path dataPath(int no) {
+        return dir.resolve(String.format("%s%08d%s", DATA_PREFIX, no, DATA_SUFFIX));
+    }
+
+    private Path indexPath(long minId) {
+        return dir.resolve(String.format("%s%016d%s", INDEX_PREFIX, minId, INDEX_SUFFIX));
+    }
+
+    private record Op(Kind kind, long timestamp, MessageContext context, CompletableFuture<Void> done) {
+        private enum Kind {
+            RECORD,
+            SYNC,
+            FLUSH,
+            CLOSE
+        }
+    }
+
+    /**
+     * 尚未写成分段的倒排索引，只由写线程修改，查询在锁内读取
+     */
+    private static final class MemTable {
+        private final Map<String, Postings> terms = new HashMap<>();
+        private long minId;
+        private long maxId;
+        private int docs;
+
+        private void add(long id, Set<String> docTerms) {
+            if (docs == 0) {
+                minId = id;
+            }
+            maxId = id;
+            docs++;
+            for (String term : docTerms) {
+                terms.computeIfAbsent(term, key -> new Postings()).add(id);
+            }
+        }
+
+        private long[] postings(String term) {
+            Postings postings = terms.get(term);
+            return postings == null ? null : Arrays.copyOf(postings.ids, postings.size);
+        }
+
+        private Iterator<IndexSegment.Term> sortedTerms() {
+            List<IndexSegment.Term> sorted = new ArrayList<>(terms.size());
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                Postings postings = entry.getValue();
+                sorted.add(new IndexSegment.Term(entry.getKey().getBytes(StandardCharsets.UTF_8), postings.ids, postings.size));
+            }
+            sorted.sort((a, b) -> Arrays.compareUnsigned(a.term(), b.term()));
+            return sorted.iterator();
+        }
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
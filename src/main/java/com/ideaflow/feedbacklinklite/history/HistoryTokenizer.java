@@ -0,0 +1,151 @@
+package com.ideaflow.feedbacklinklite.history;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 历史记录的分词规则
+ * 字母和数字按单词切分并转为小写；中日韩文字没有空格分隔，建索引时按单字和相邻两字切分，
+ * 查询时连续的多个字转为相邻两字的组合，单个字按单字查找。页面地址去掉协议、参数和锚点后整体作为一个词项。
+ */
+final class HistoryTokenizer {
+    static final String URL_PREFIX = "url:";
+    private static final int MAX_TERM_LENGTH = 32;
+    private static final int MAX_URL_LENGTH = 256;
+
+    private HistoryTokenizer() {
+    }
+
+    /**
+     * 一条记录需要写入倒排索引的全部词项
+     */
+    static Set<String> indexTerms(String message, String pageUrl) {
+        Set<String> terms = new HashSet<>();
+        tokenize(message, terms, true);
+        String url = normalizeUrl(pageUrl);
+        if (url != null) {
+            terms.add(URL_PREFIX + url);
+        }
+        return terms;
+    }
+
+    /**
+     * 查询关键字对应的词项，所有词项都命中的记录才是候选
+     */
+    static List<String> queryTerms(String keyword) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(keyword, terms, false);
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 只保留字母和数字并转为小写，用于候选记录的最终校验
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                out.appendCodePoint(Character.toLowerCase(cp));
+            }
+        }
+        return out.toString();
+    }
+
+    static String normalizeUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String value = url.trim();
+        int cut = indexOfAny(value, '?', '#');
+        if (cut >= 0) {
+            value = value.substring(0, cut);
+        }
+        int scheme = value.indexOf("://");
+        if (scheme >= 0) {
+            value = value.substring(scheme + 3);
+        }
+        while (value.endsWith("/")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        if (value.isEmpty()) {
+            return null;
+        }
+        value = value.toLowerCase(Locale.ROOT);
+        return value.length() > MAX_URL_LENGTH ? value.substring(0, MAX_URL_LENGTH) : value;
+    }
+
+    private static void tokenize(String text, Set<String> terms, boolean indexing) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder word = new StringBuilder();
+        List<Integer> run = new ArrayList<>();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                addWord(word, terms);
+                run.add(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                addRun(run, terms, indexing);
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else {
+                addWord(word, terms);
+                addRun(run, terms, indexing);
+            }
+        }
+        addWord(word, terms);
+        addRun(run, terms, indexing);
+    }
+
+    private static void addWord(StringBuilder word, Set<String> terms) {
+        if (word.isEmpty()) {
+            return;
+        }
+        terms.add(word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word.toString());
+        word.setLength(0);
+    }
+
+    private static void addRun(List<Integer> run, Set<String> terms, boolean indexing) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (indexing || run.size() == 1) {
+            for (int cp : run) {
+                terms.add(Character.toString(cp));
+            }
+        }
+        for (int i = 0; i + 1 < run.size(); i++) {
+            terms.add(new StringBuilder(4).appendCodePoint(run.get(i)).appendCodePoint(run.get(i + 1)).toString());
+        }
+        run.clear();
+    }
+
+    private static boolean isCjk(int cp) {
+        if (Character.isIdeographic(cp)) {
+            return true;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static int indexOfAny(String value, char a, char b) {
+        int first = value.indexOf(a);
+        int second = value.indexOf(b);
+        if (first < 0) {
+            return second;
+        }
+        return second < 0 ? first : Math.min(first, second);
+    }
+}
@@ -0,0 +1,306 @@
+package com.ideaflow.feedbacklinklite.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 倒排索引的不可变分段文件
+ * 由内存表刷盘或两个相邻分段合并生成，覆盖一段连续的记录 id，写完后只读。
+ * <p>
+ * 格式：40 字节头部（魔数、版本、minId、maxId、词项数、稀疏索引条数与位置）；
+ * 按字节序排列的词项条目 [short 词长][词][int 文档数][int 倒排表字节数][倒排表]，倒排表是递增 id 差值的 varint 编码；
+ * 末尾是每 32 个词项取一个的稀疏索引。打开时只把稀疏索引读入堆内，词项与倒排表通过内存映射按需读取，
+ * 百万级记录的索引也不会占用大量堆内存。
+ */
+final class IndexSegment {
+    static final long MAX_BYTES = 1L << 30;
+
+    private static final int MAGIC = 0x46484958;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int SPARSE_INTERVAL = 32;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long minId;
+    private final long maxId;
+    private final int entriesEnd;
+    private final byte[][] sparseTerms;
+    private final int[] sparseOffsets;
+
+    private IndexSegment(Path path, MappedByteBuffer buffer, long minId, long maxId, int entriesEnd,
+                         byte[][] sparseTerms, int[] sparseOffsets) {
+        this.path = path;
+        this.buffer = buffer;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.entriesEnd = entriesEnd;
+        this.sparseTerms = sparseTerms;
+        this.sparseOffsets = sparseOffsets;
+    }
+
+    static IndexSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > MAX_BYTES) {
+                throw new IOException("invalid index segment size " + size + ": " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("invalid index segment header: " + path);
+            }
+            long minId = buffer.getLong(8);
+            long maxId = buffer.getLong(16);
+            int sparseCount = buffer.getInt(28);
+            long sparseOffset = buffer.getLong(32);
+            if (sparseOffset < HEADER_BYTES || sparseOffset > size || sparseCount < 0) {
+                throw new IOException("invalid index segment header: " + path);
+            }
+            byte[][] sparseTerms = new byte[sparseCount][];
+            int[] sparseOffsets = new int[sparseCount];
+            int pos = (int) sparseOffset;
+            for (int i = 0; i < sparseCount; i++) {
+                int length = Short.toUnsignedInt(buffer.getShort(pos));
+                byte[] term = new byte[length];
+                buffer.get(pos + 2, term);
+                sparseTerms[i] = term;
+                sparseOffsets[i] = (int) buffer.getLong(pos + 2 + length);
+                pos += 2 + length + 8;
+            }
+            return new IndexSegment(path, buffer, minId, maxId, (int) sparseOffset, sparseTerms, sparseOffsets);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long minId() {
+        return minId;
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 查找词项的倒排表
+     *
+     * @return 递增的记录 id，词项不存在时返回 null
+     */
+    long[] postings(byte[] term) {
+        int lo = 0;
+        int hi = sparseTerms.length - 1;
+        int start = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(sparseTerms[mid], term) <= 0) {
+                start = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (start < 0) {
+            return null;
+        }
+        // 目标词项只可能落在该稀疏索引点之后的 32 个条目内
+        int pos = sparseOffsets[start];
+        for (int i = 0; i < SPARSE_INTERVAL && pos < entriesEnd; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort(pos));
+            int cmp = compare(pos + 2, length, term);
+            int docCount = buffer.getInt(pos + 2 + length);
+            int bytes = buffer.getInt(pos + 6 + length);
+            if (cmp == 0) {
+                return decode(pos + 10 + length, docCount);
+            }
+            if (cmp > 0) {
+                return null;
+            }
+            pos += 10 + length + bytes;
+        }
+        return null;
+    }
+
+    private int compare(int pos, int length, byte[] term) {
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(pos + i) & 0xff, term[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    private long[] decode(int pos, int count) {
+        long[] ids = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(pos++);
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += value;
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    /**
+     * 写出一个分段文件，terms 必须按字节序递增；先写临时文件，完成后原子替换
+     */
+    static void write(Path path, long minId, long maxId, Iterator<Term> terms) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        List<byte[]> sparseTerms = new ArrayList<>();
+        List<Integer> sparseOffsets = new ArrayList<>();
+        int termCount = 0;
+        int sparseOffset;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            out.write(new byte[HEADER_BYTES]);
+            ByteArrayOutputStream postings = new ByteArrayOutputStream();
+            while (terms.hasNext()) {
+                Term term = terms.next();
+                if (termCount % SPARSE_INTERVAL == 0) {
+                    sparseTerms.add(term.term());
+                    sparseOffsets.add(out.size());
+                }
+                postings.reset();
+                long previous = 0;
+                for (int i = 0; i < term.count(); i++) {
+                    writeVarint(postings, term.ids()[i] - previous);
+                    previous = term.ids()[i];
+                }
+                out.writeShort(term.term().length);
+                out.write(term.term());
+                out.writeInt(term.count());
+                out.writeInt(postings.size());
+                postings.writeTo(out);
+                termCount++;
+            }
+            sparseOffset = out.size();
+            for (int i = 0; i < sparseTerms.size(); i++) {
+                out.writeShort(sparseTerms.get(i).length);
+                out.write(sparseTerms.get(i));
+                out.writeLong(sparseOffsets.get(i));
+            }
+            if (out.size() >= MAX_BYTES) {
+                throw new IOException("index segment too large: " + path);
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(minId).putLong(maxId)
+                .putInt(termCount).putInt(sparseTerms.size()).putLong(sparseOffset).flip();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 按词项归并两个相邻分段，older 的 id 范围必须整体早于 newer
+     */
+    static Iterator<Term> merge(IndexSegment older, IndexSegment newer) {
+        Cursor left = older.new Cursor();
+        Cursor right = newer.new Cursor();
+        return new Iterator<>() {
+            private boolean leftValid = left.next();
+            private boolean rightValid = right.next();
+
+            @Override
+            public boolean hasNext() {
+                return leftValid || rightValid;
+            }
+
+            @Override
+            public Term next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int cmp = !leftValid ? 1 : !rightValid ? -1 : Arrays.compareUnsigned(left.term, right.term);
+                Term term;
+                if (cmp < 0) {
+                    term = new Term(left.term, left.ids, left.ids.length);
+                    leftValid = left.next();
+                } else if (cmp > 0) {
+                    term = new Term(right.term, right.ids, right.ids.length);
+                    rightValid = right.next();
+                } else {
+                    long[] ids = Arrays.copyOf(left.ids, left.ids.length + right.ids.length);
+                    System.arraycopy(right.ids, 0, ids, left.ids.length, right.ids.length);
+                    term = new Term(left.term, ids, ids.length);
+                    leftValid = left.next();
+                    rightValid = right.next();
+                }
+                return term;
+            }
+        };
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 待写入的词项及其倒排表，ids 的前 count 个有效
+     */
+    record Term(byte[] term, long[] ids, int count) {
+    }
+
+    /**
+     * 顺序遍历分段内的所有词项，用于合并
+     */
+    private final class Cursor {
+        private int pos = HEADER_BYTES;
+        private byte[] term;
+        private long[] ids;
+
+        private boolean next() {
+            if (pos >= entriesEnd) {
+                return false;
+            }
+            int length = Short.toUnsignedInt(buffer.getShort(pos));
+            term = new byte[length];
+            buffer.get(pos + 2, term);
+            int docCount = buffer.getInt(pos + 2 + length);
+            int bytes = buffer.getInt(pos + 6 + length);
+            ids = decode(pos + 10 + length, docCount);
+            pos += 10 + length + bytes;
+            return true;
+        }
+    }
+}
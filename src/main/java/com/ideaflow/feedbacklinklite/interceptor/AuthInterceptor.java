@@ -1,6 +1,6 @@
 package com.ideaflow.feedbacklinklite.interceptor;
 
-import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -17,7 +17,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @RequiredArgsConstructor
 public class AuthInterceptor implements HandlerInterceptor {
 
-    private final FeedbackProperties feedbackProperties;
+    private final FeedbackConfigHolder feedbackConfig;
 
     /**
      * 请求处理前调用
@@ -42,7 +42,7 @@ public class AuthInterceptor implements HandlerInterceptor {
             for (Cookie cookie : cookies) {
                 if ("auth".equals(cookie.getName())) {
                     // 获取配置中的正确 Token
-                    String authToken = feedbackProperties.getAuth().getToken();
+                    String authToken = feedbackConfig.current().getAuth().getToken();
                     // 比较 Cookie 值与配置值
                     if (authToken != null && authToken.equals(cookie.getValue())) {
                         // 验证成功，放行
@@ -0,0 +1,304 @@
+package com.ideaflow.feedbacklinklite.journal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ideaflow.feedbacklinklite.channel.ChannelResult;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigStorage;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.model.DeadLetter;
+import com.ideaflow.feedbacklinklite.model.DeadLetterPage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 投递失败反馈的死信存储
+ * 复用预写日志的分段文件格式：每条死信是一条记录，删除即确认，最旧分段中仍存活的记录在滚动时迁移。
+ * 分段压缩只回收已确认记录占用的空间，存活的死信会一直被搬运保留，因此条数由 max-entries 限制：
+ * 超出时淘汰最旧的死信并记录告警与指标。磁盘占用约为封存分段上限加上存活死信的大小，内存中同样只保存存活的死信。
+ * 写入交给日志的写线程，调用方不等待 fsync；落盘后死信才出现在列表中。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeadLetterStore {
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackConfigStorage feedbackConfigStorage;
+    private final FeedbackMetrics feedbackMetrics;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final NavigableMap<Long, DeadLetter> letters = new ConcurrentSkipListMap<>();
+
+    private volatile SegmentedLog segmentedLog;
+
+    /**
+     * 打开死信目录并加载已有死信，首次读写时自动调用
+     */
+    public synchronized void open() throws IOException {
+        if (segmentedLog != null) {
+            return;
+        }
+        FeedbackProperties config = feedbackConfig.current();
+        FeedbackProperties.DeadLetter cfg = config.getDeadLetter();
+        Path dir = StringUtils.hasText(cfg.getDir())
+                ? Paths.get(cfg.getDir()).toAbsolutePath().normalize()
+                : feedbackConfigStorage.resolveDataDir(config).resolve("dead-letter");
+        SegmentedLog opened = new SegmentedLog(dir, cfg.getSegmentBytes(), cfg.getMaxSegments());
+        for (SegmentedLog.Entry entry : opened.open()) {
+            try {
+                DeadLetter letter = objectMapper.readValue(entry.payload(), DeadLetter.class);
+                letter.setId(entry.id());
+                letters.put(entry.id(), letter);
+            } catch (IOException e) {
+                log.warn("无法解析死信记录 id={}，已丢弃", entry.id(), e);
+                opened.ack(entry.id());
+            }
+        }
+        segmentedLog = opened;
+        if (!letters.isEmpty()) {
+            log.info("已加载死信 {} 条", letters.size());
+        }
+        // 上限调低后重启时，先淘汰超出的部分
+        evictOverflow(opened, cfg.getMaxEntries());
+    }
+
+    /**
+     * 记录一次路由失败
+     * 渠道全部禁用或未配置（没有任何渠道结果）时不记录，这类失败重放也不会成功
+     *
+     * @return 落盘后以写入的死信完成，未启用或写入失败时以 null 完成
+     */
+    public CompletableFuture<DeadLetter> record(MessageContext context, RouteResult result) {
+        if (result.getChannelResults() == null || result.getChannelResults().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        DeadLetter letter = new DeadLetter();
+        letter.setMessage(context.getMessage());
+        letter.setContact(context.getContact());
+        letter.setPageUrl(context.getPageUrl());
+        letter.setUserAgent(context.getUserAgent());
+        letter.setAttachments(context.getAttachments());
+        merge(letter, result);
+        return save(letter);
+    }
+
+    /**
+     * 记录一次重放失败：合并本次各渠道结果后以新 id 写入，再删除原记录
+     *
+     * @return 落盘后以新写入的死信完成，写入失败时原记录保留并以 null 完成
+     */
+    public CompletableFuture<DeadLetter> recordRetry(DeadLetter previous, RouteResult result) {
+        DeadLetter letter = new DeadLetter(0, 0, null, previous.getMessage(), previous.getContact(),
+                previous.getPageUrl(), previous.getUserAgent(), previous.getAttachments(), new ArrayList<>(),
+                new ArrayList<>(previous.getDelivered()), previous.getReplays() + 1);
+        for (DeadLetter.Failure failure : previous.getFailures()) {
+            letter.getFailures().add(new DeadLetter.Failure(failure.getChannel(), failure.getError(), failure.getAttempts()));
+        }
+        merge(letter, result);
+        return save(letter).thenApply(saved -> {
+            if (saved != null) {
+                remove(previous.getId());
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * 按 id 倒序（即失败时间倒序）分页
+     *
+     * @param cursor 上一页返回的 nextCursor，为空时从最新一条开始
+     */
+    public DeadLetterPage list(Long cursor, int limit) {
+        ensureOpen();
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        NavigableMap<Long, DeadLetter> view = cursor == null ? letters.descendingMap()
+                : letters.headMap(cursor, false).descendingMap();
+        DeadLetterPage page = new DeadLetterPage();
+        Iterator<DeadLetter> it = view.values().iterator();
+        while (it.hasNext() && page.getItems().size() < size) {
+            page.getItems().add(it.next());
+        }
+        if (it.hasNext()) {
+            page.setNextCursor(page.getItems().getLast().getId());
+        }
+        page.setTotal(letters.size());
+        return page;
+    }
+
+    public DeadLetter get(long id) {
+        ensureOpen();
+        return letters.get(id);
+    }
+
+    /**
+     * 当前所有死信的 id，按写入顺序
+     */
+    public List<Long> ids() {
+        ensureOpen();
+        return new ArrayList<>(letters.keySet());
+    }
+
+    /**
+     * 删除一条死信（重放成功或手动清除）
+     */
+    public boolean remove(long id) {
+        ensureOpen();
+        if (letters.remove(id) == null) {
+            return false;
+        }
+        SegmentedLog current = segmentedLog;
+        if (current != null) {
+            current.ack(id);
+        }
+        return true;
+    }
+
+    /**
+     * 清除全部死信
+     *
+     * @return 清除的条数
+     */
+    public int purge() {
+        int purged = 0;
+        for (Long id : ids()) {
+            if (remove(id)) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public int size() {
+        return letters.size();
+    }
+
+    /**
+     * 还原为可重新路由的消息
+     */
+    public static MessageContext toContext(DeadLetter letter) {
+        return MessageContext.builder()
+                .message(letter.getMessage())
+                .contact(letter.getContact())
+                .pageUrl(letter.getPageUrl())
+                .userAgent(letter.getUserAgent())
+                .attachments(letter.getAttachments())
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        SegmentedLog current = segmentedLog;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * 把本次各渠道结果合并到死信：成功的渠道移入 delivered，失败的渠道累加发送次数并更新失败信息
+     */
+    private static void merge(DeadLetter letter, RouteResult result) {
+        letter.setFailedAt(System.currentTimeMillis());
+        letter.setError(result.getMessage());
+        for (Map.Entry<String, ChannelResult> entry : result.getChannelResults().entrySet()) {
+            String channel = entry.getKey();
+            ChannelResult channelResult = entry.getValue();
+            DeadLetter.Failure existing = letter.getFailures().stream()
+                    .filter(failure -> failure.getChannel().equals(channel)).findFirst().orElse(null);
+            if (channelResult.isSuccess()) {
+                letter.getFailures().remove(existing);
+                if (!letter.getDelivered().contains(channel)) {
+                    letter.getDelivered().add(channel);
+                }
+            } else if (existing != null) {
+                existing.setError(channelResult.getMessage());
+                existing.setAttempts(existing.getAttempts() + channelResult.getAttempts());
+            } else {
+                letter.getFailures().add(new DeadLetter.Failure(channel, channelResult.getMessage(), channelResult.getAttempts()));
+            }
+        }
+    }
+
+    private CompletableFuture<DeadLetter> save(DeadLetter letter) {
+        if (!feedbackConfig.current().getDeadLetter().isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SegmentedLog current = ensureOpen();
+        if (current == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(letter);
+        } catch (IOException e) {
+            log.error("死信序列化失败", e);
+            return CompletableFuture.completedFuture(null);
+        }
+        // 在写线程上完成：落盘后再加入内存索引并按上限淘汰
+        return current.append(payload).handle((id, ex) -> {
+            if (ex != null) {
+                log.error("死信写入失败", ex);
+                return null;
+            }
+            letter.setId(id);
+            letters.put(id, letter);
+            evictOverflow(current, feedbackConfig.current().getDeadLetter().getMaxEntries());
+            return letter;
+        });
+    }
+
+    /**
+     * 死信超过条数上限时从最旧的一端淘汰，最新写入的一条始终保留
+     */
+    private void evictOverflow(SegmentedLog current, int maxEntries) {
+        int limit = Math.max(1, maxEntries);
+        int evicted = 0;
+        long lastId = 0;
+        while (letters.size() > limit) {
+            Map.Entry<Long, DeadLetter> oldest = letters.pollFirstEntry();
+            if (oldest == null) {
+                break;
+            }
+            current.ack(oldest.getKey());
+            lastId = oldest.getKey();
+            evicted++;
+        }
+        if (evicted > 0) {
+            log.warn("死信超过上限 {} 条，已淘汰最旧的 {} 条（id<={}）", limit, evicted, lastId);
+            feedbackMetrics.recordDeadLettersEvicted(evicted);
+        }
+    }
+
+    private SegmentedLog ensureOpen() {
+        SegmentedLog current = segmentedLog;
+        if (current != null) {
+            return current;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            log.error("死信目录打开失败", e);
+        }
+        return segmentedLog;
+    }
+}
@@ -0,0 +1,164 @@
+package com.ideaflow.feedbacklinklite.journal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigStorage;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 已受理反馈的预写日志
+ * ASYNC 模式下反馈在返回 ACCEPTED 之前交给日志写线程，投递线程等待落盘后再发送，投递成功后标记完成；
+ * 进程崩溃或渠道不可用时，未完成的记录会在下次启动时重放。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedbackJournal {
+    public static final long NO_ID = -1;
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackConfigStorage feedbackConfigStorage;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile SegmentedLog segmentedLog;
+    private List<SegmentedLog.Entry> recovered = List.of();
+
+    /**
+     * 打开日志目录并加载未完成的记录，未启用时不做任何事
+     */
+    public synchronized void open() throws IOException {
+        FeedbackProperties config = feedbackConfig.current();
+        FeedbackProperties.Journal cfg = config.getJournal();
+        if (segmentedLog != null || cfg == null || !cfg.isEnabled()) {
+            return;
+        }
+        Path dir = StringUtils.hasText(cfg.getDir())
+                ? Paths.get(cfg.getDir()).toAbsolutePath().normalize()
+                : feedbackConfigStorage.resolveDataDir(config).resolve("journal");
+        SegmentedLog opened = new SegmentedLog(dir, cfg.getSegmentBytes(), cfg.getMaxSegments());
+        recovered = opened.open();
+        segmentedLog = opened;
+    }
+
+    public boolean isOpen() {
+        return segmentedLog != null;
+    }
+
+    /**
+     * 写入一条反馈，不等待落盘
+     *
+     * @return 落盘后完成的日志记录 id，未启用日志时立即返回 {@link #NO_ID}
+     */
+    public CompletableFuture<Long> append(MessageContext context) {
+        SegmentedLog current = segmentedLog;
+        if (current == null) {
+            return CompletableFuture.completedFuture(NO_ID);
+        }
+        try {
+            return current.append(serialize(context));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 标记记录已投递
+     */
+    public void markDelivered(long id) {
+        SegmentedLog current = segmentedLog;
+        if (current != null && id != NO_ID) {
+            current.ack(id);
+        }
+    }
+
+    /**
+     * 取出启动时恢复的未完成记录，只能取一次
+     */
+    public synchronized List<JournaledMessage> drainRecovered() {
+        List<JournaledMessage> result = new ArrayList<>(recovered.size());
+        for (SegmentedLog.Entry entry : recovered) {
+            try {
+                result.add(new JournaledMessage(entry.id(), deserialize(entry.payload())));
+            } catch (IOException e) {
+                log.warn("无法解析日志记录 id={}，已跳过", entry.id(), e);
+                markDelivered(entry.id());
+            }
+        }
+        recovered = List.of();
+        return result;
+    }
+
+    public int pendingCount() {
+        SegmentedLog current = segmentedLog;
+        return current == null ? 0 : current.pendingCount();
+    }
+
+    @PreDestroy
+    public void close() {
+        SegmentedLog current = segmentedLog;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private byte[] serialize(MessageContext context) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("message", context.getMessage());
+        node.put("contact", context.getContact());
+        node.put("pageUrl", context.getPageUrl());
+        node.put("userAgent", context.getUserAgent());
+        if (context.getAttachments() != null && !context.getAttachments().isEmpty()) {
+            ArrayNode attachments = node.putArray("attachments");
+            context.getAttachments().forEach(attachments::add);
+        }
+        return objectMapper.writeValueAsBytes(node);
+    }
+
+    private MessageContext deserialize(byte[] payload) throws IOException {
+        JsonNode node = objectMapper.readTree(payload);
+        return MessageContext.builder()
+                .message(text(node, "message"))
+                .contact(text(node, "contact"))
+                .pageUrl(text(node, "pageUrl"))
+                .userAgent(text(node, "userAgent"))
+                .attachments(attachments(node))
+                .build();
+    }
+
+    private static List<String> attachments(JsonNode node) {
+        JsonNode value = node.get("attachments");
+        if (value == null || !value.isArray()) {
+            return null;
+        }
+        List<String> urls = new ArrayList<>(value.size());
+        value.forEach(url -> urls.add(url.asText()));
+        return urls;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * 从日志中恢复的消息及其记录 id
+     */
+    public record JournaledMessage(long id, MessageContext context) {
+    }
+}
@@ -0,0 +1,421 @@
+package com.ideaflow.feedbacklinklite.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * 分段追加日志
+ * 所有写入由单个后台线程完成：同一批次内的多条记录只做一次 fsync（group commit），突发流量下吞吐不随 fsync 次数线性下降。
+ * <p>
+ * 记录格式：[int 长度][byte 类型][long id][payload][int crc32c]，类型分为 APPEND（写入）与 ACK（已处理）。
+ * 分段只从最旧的一端删除，保证 ACK 记录始终位于其对应 APPEND 之后；
+ * 封存分段超过上限时，会把最旧分段中仍未确认的记录搬到当前分段后再删除，回收已确认记录占用的空间。
+ * 未确认的记录不会被删除，磁盘占用约为 (maxSegments + 1) × segmentBytes 加上未确认记录的大小，
+ * 调用方需要自行限制未确认记录的数量。
+ */
+@Slf4j
+public class SegmentedLog implements Closeable {
+    private static final byte TYPE_APPEND = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final byte TYPE_CLOSE = 3;
+    // 类型 + id
+    private static final int HEADER_BYTES = 1 + 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_BATCH = 512;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final int maxSegments;
+
+    // 分段编号 -> 分段内仍未确认的记录数，仅由写线程修改
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    // 未确认记录 id -> 所在分段编号
+    private final Map<Long, Long> liveIndex = new ConcurrentHashMap<>();
+    private final BlockingQueue<Op> ops = new LinkedBlockingQueue<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    private FileChannel active;
+    private long activeNo;
+    private long activeSize;
+    private Thread writer;
+    private volatile boolean closed;
+
+    public SegmentedLog(Path dir, long segmentBytes, int maxSegments) {
+        this.dir = dir;
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    /**
+     * 打开日志目录，扫描已有分段并返回所有未确认的记录（按写入顺序）
+     */
+    public List<Entry> open() throws IOException {
+        Files.createDirectories(dir);
+        List<Long> numbers = listSegments();
+        long maxId = 0;
+        for (Long no : numbers) {
+            Segment segment = new Segment();
+            segments.put(no, segment);
+            maxId = Math.max(maxId, scan(no, true, (type, id, payload) -> {
+                if (type == TYPE_APPEND) {
+                    liveIndex.put(id, no);
+                    segment.live++;
+                } else if (type == TYPE_ACK) {
+                    Long owner = liveIndex.remove(id);
+                    if (owner != null) {
+                        segments.get(owner).live--;
+                    }
+                }
+            }));
+        }
+        List<Entry> recovered = new ArrayList<>();
+        for (Long no : numbers) {
+            scan(no, false, (type, id, payload) -> {
+                if (type == TYPE_APPEND && no.equals(liveIndex.get(id))) {
+                    recovered.add(new Entry(id, payload));
+                }
+            });
+        }
+        nextId.set(maxId + 1);
+        // 每次启动都写入新分段，避免在可能残缺的旧文件尾部继续追加
+        openActive(numbers.isEmpty() ? 1 : numbers.get(numbers.size() - 1) + 1);
+        dropDeadHead();
+
+        writer = Thread.ofPlatform().daemon().name("journal-writer-" + dir.getFileName()).start(this::writeLoop);
+        log.info("日志已打开 dir={} segments={} pending={}", dir, segments.size(), recovered.size());
+        return recovered;
+    }
+
+    /**
+     * 追加一条记录，返回的 Future 在记录 fsync 落盘后完成
+     */
+    public CompletableFuture<Long> append(byte[] payload) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        if (closed) {
+            done.completeExceptionally(new IOException("journal closed"));
+            return done;
+        }
+        if (payload.length + HEADER_BYTES > MAX_RECORD_BYTES) {
+            done.completeExceptionally(new IOException("journal record too large: " + payload.length));
+            return done;
+        }
+        long id = nextId.getAndIncrement();
+        ops.add(new Op(TYPE_APPEND, id, payload, done));
+        return done;
+    }
+
+    /**
+     * 标记记录已处理。ACK 不等待 fsync，崩溃时最多导致该记录被重复重放一次
+     */
+    public void ack(long id) {
+        if (!closed) {
+            ops.add(new Op(TYPE_ACK, id, null, null));
+        }
+    }
+
+    /**
+     * 当前未确认的记录数量
+     */
+    public int pendingCount() {
+        return liveIndex.size();
+    }
+
+    @Override
+    public void close() {
+        if (closed || writer == null) {
+            return;
+        }
+        closed = true;
+        ops.add(new Op(TYPE_CLOSE, 0, null, null));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Op> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(ops.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            ops.drainTo(batch, MAX_BATCH - 1);
+            try {
+                stop = writeBatch(batch);
+                for (Op op : batch) {
+                    if (op.done != null) {
+                        op.done.complete(op.id);
+                    }
+                }
+                if (activeSize >= segmentBytes) {
+                    roll();
+                }
+            } catch (IOException e) {
+                log.error("日志写入失败 dir={}", dir, e);
+                for (Op op : batch) {
+                    if (op.done != null) {
+                        op.done.completeExceptionally(e);
+                    }
+                }
+            }
+            batch.clear();
+        }
+        try {
+            active.force(false);
+            active.close();
+        } catch (IOException e) {
+            log.warn("关闭日志分段失败 dir={}", dir, e);
+        }
+    }
+
+    private boolean writeBatch(List<Op> batch) throws IOException {
+        int size = 0;
+        for (Op op : batch) {
+            size += recordSize(op.payload);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        boolean needSync = false;
+        boolean stop = false;
+        for (Op op : batch) {
+            switch (op.type) {
+                case TYPE_APPEND -> {
+                    putRecord(buffer, TYPE_APPEND, op.id, op.payload);
+                    liveIndex.put(op.id, activeNo);
+                    segments.get(activeNo).live++;
+                    needSync = true;
+                }
+                case TYPE_ACK -> {
+                    Long owner = liveIndex.remove(op.id);
+                    if (owner != null) {
+                        putRecord(buffer, TYPE_ACK, op.id, null);
+                        segments.get(owner).live--;
+                    }
+                }
+                default -> stop = true;
+            }
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            activeSize += active.write(buffer);
+        }
+        if (needSync) {
+            active.force(false);
+        }
+        dropDeadHead();
+        return stop;
+    }
+
+    private void roll() throws IOException {
+        active.force(false);
+        active.close();
+        openActive(activeNo + 1);
+        // 封存分段过多时，把最旧分段里仍未确认的记录搬到当前分段，再删除旧文件；搬运后的当前分段可能超过 segmentBytes
+        while (segments.size() - 1 > maxSegments) {
+            long oldest = segments.firstKey();
+            List<Entry> moved = new ArrayList<>();
+            scan(oldest, false, (type, id, payload) -> {
+                if (type == TYPE_APPEND && Long.valueOf(oldest).equals(liveIndex.get(id))) {
+                    moved.add(new Entry(id, payload));
+                }
+            });
+            int size = 0;
+            for (Entry entry : moved) {
+                size += recordSize(entry.payload());
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (Entry entry : moved) {
+                putRecord(buffer, TYPE_APPEND, entry.id(), entry.payload());
+                liveIndex.put(entry.id(), activeNo);
+                segments.get(activeNo).live++;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                activeSize += active.write(buffer);
+            }
+            active.force(false);
+            segments.get(oldest).live = 0;
+            dropDeadHead();
+            log.info("日志分段压缩完成 segment={} moved={}", oldest, moved.size());
+        }
+    }
+
+    private void openActive(long no) throws IOException {
+        activeNo = no;
+        active = FileChannel.open(segmentPath(no), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        activeSize = active.size();
+        segments.put(no, new Segment());
+    }
+
+    /**
+     * 从最旧一端删除已全部确认的分段，当前写入分段不删除
+     */
+    private void dropDeadHead() throws IOException {
+        while (segments.size() > 1) {
+            Map.Entry<Long, Segment> head = segments.firstEntry();
+            if (head.getKey() == activeNo || head.getValue().live > 0) {
+                return;
+            }
+            Files.deleteIfExists(segmentPath(head.getKey()));
+            segments.pollFirstEntry();
+        }
+    }
+
+    /**
+     * 依次读取分段中的记录，遇到残缺或损坏的记录时忽略其后的部分
+     * 进程在写入中途崩溃时，最后一个分段的尾部可能只有半条记录；repair 为 true 时把文件截断到最后一条完整记录之后，
+     * 之后的扫描（启动恢复、分段压缩）不会再遇到同一处残缺。
+     *
+     * @return 分段中出现过的最大记录 id
+     */
+    private long scan(long no, boolean repair, RecordVisitor visitor) throws IOException {
+        Path path = segmentPath(no);
+        long maxId = 0;
+        OpenOption[] options = repair
+                ? new OpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new OpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+            // 最后一条完整记录的结束位置
+            long valid = 0;
+            boolean damaged = false;
+            while (true) {
+                lengthBuf.clear();
+                if (!readFully(channel, lengthBuf)) {
+                    if (lengthBuf.position() > 0) {
+                        log.warn("日志分段尾部不完整，忽略 file={} position={}", path, valid);
+                        damaged = true;
+                    }
+                    break;
+                }
+                int length = lengthBuf.flip().getInt();
+                if (length < HEADER_BYTES || length > MAX_RECORD_BYTES) {
+                    log.warn("日志分段存在损坏记录，忽略剩余部分 file={} position={}", path, valid);
+                    damaged = true;
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length + 4);
+                if (!readFully(channel, body)) {
+                    log.warn("日志分段尾部不完整，忽略 file={} position={}", path, valid);
+                    damaged = true;
+                    break;
+                }
+                body.flip();
+                CRC32C crc = new CRC32C();
+                crc.update(body.array(), 0, length);
+                if ((int) crc.getValue() != body.getInt(length)) {
+                    log.warn("日志记录校验失败，忽略剩余部分 file={} position={}", path, valid);
+                    damaged = true;
+                    break;
+                }
+                byte type = body.get();
+                long id = body.getLong();
+                byte[] payload = new byte[length - HEADER_BYTES];
+                body.get(payload);
+                maxId = Math.max(maxId, id);
+                visitor.visit(type, id, payload);
+                valid = channel.position();
+            }
+            if (damaged && repair) {
+                log.warn("日志分段截断到最后一条完整记录 file={} dropped={}B", path, channel.size() - valid);
+                channel.truncate(valid);
+                channel.force(true);
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * @return 读满缓冲区时返回 true；文件先结束时返回 false，已读入的字节保留在缓冲区中
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int recordSize(byte[] payload) {
+        return 4 + HEADER_BYTES + (payload == null ? 0 : payload.length) + 4;
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte type, long id, byte[] payload) {
+        int start = buffer.position();
+        int length = HEADER_BYTES + (payload == null ? 0 : payload.length);
+        buffer.putInt(length);
+        buffer.put(type);
+        buffer.putLong(id);
+        if (payload != null) {
+            buffer.put(payload);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), start + 4, length);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的日志文件 {}", path);
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path segmentPath(long no) {
+        return dir.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, no, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 启动时恢复出的未确认记录
+     */
+    public record Entry(long id, byte[] payload) {
+    }
+
+    private record Op(byte type, long id, byte[] payload, CompletableFuture<Long> done) {
+    }
+
+    private static final class Segment {
+        private int live;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(byte type, long id, byte[] payload) throws IOException;
+    }
+}
@@ -0,0 +1,168 @@
+package com.ideaflow.feedbacklinklite.metrics;
+
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热路径指标
+ * 计数全部使用 LongAdder（按线程分散累加，读取时再求和），耗时使用固定分桶直方图，
+ * 记录指标不加锁、不在请求线程上分配对象，并发提交时不会因为统计产生争用。
+ * 不依赖反射和 Micrometer，原生镜像中同样可用。
+ */
+@Component
+public class FeedbackMetrics {
+    private static final FeedbackStatus[] STATUSES = FeedbackStatus.values();
+
+    private final LongAdder[] requests = adders(STATUSES.length);
+    private final Histogram requestLatency = new Histogram(Histogram.LATENCY_SECONDS);
+
+    private final LongAdder rateLimitAllowed = new LongAdder();
+    private final LongAdder rateLimitDeniedIp = new LongAdder();
+    private final LongAdder rateLimitDeniedSubnet = new LongAdder();
+
+    private final Map<String, ChannelMetrics> channels = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> outboundWait = new ConcurrentHashMap<>();
+    private final LongAdder[] httpErrors = adders(HttpError.values().length);
+    private final LongAdder deadLettersEvicted = new LongAdder();
+
+    /**
+     * 记录一次反馈提交的结果与耗时
+     */
+    public void recordRequest(FeedbackStatus status, long nanos) {
+        requests[status.ordinal()].increment();
+        requestLatency.record(nanos);
+    }
+
+    public void recordRateLimitAllowed() {
+        rateLimitAllowed.increment();
+    }
+
+    /**
+     * @param subnet true 表示单个 IP 未超限但所在网段总量超限
+     */
+    public void recordRateLimitDenied(boolean subnet) {
+        (subnet ? rateLimitDeniedSubnet : rateLimitDeniedIp).increment();
+    }
+
+    /**
+     * 记录一次渠道发送（含重试）的结果与耗时
+     */
+    public void recordChannelSend(String channel, FeedbackStatus status, long nanos) {
+        ChannelMetrics metrics = channels.get(channel);
+        if (metrics == null) {
+            metrics = channels.computeIfAbsent(channel, name -> new ChannelMetrics());
+        }
+        metrics.sends[status.ordinal()].increment();
+        metrics.latency.record(nanos);
+    }
+
+    /**
+     * 记录一条消息在出站队列中的等待时间
+     *
+     * @param priority 优先级标签，如 urgent / contact / normal
+     */
+    public void recordOutboundWait(String priority, long nanos) {
+        Histogram histogram = outboundWait.get(priority);
+        if (histogram == null) {
+            histogram = outboundWait.computeIfAbsent(priority, name -> new Histogram(Histogram.QUEUE_WAIT_SECONDS));
+        }
+        histogram.record(nanos);
+    }
+
+    public void recordHttpError(HttpError error) {
+        httpErrors[error.ordinal()].increment();
+    }
+
+    /**
+     * 记录因超出条数上限被淘汰的死信
+     */
+    public void recordDeadLettersEvicted(int count) {
+        deadLettersEvicted.add(count);
+    }
+
+    /**
+     * 按 Prometheus 文本格式写出全部指标
+     */
+    public void writeTo(PrometheusWriter out) {
+        out.header("feedback_requests_total", "counter", "Feedback submissions by result status");
+        for (FeedbackStatus status : STATUSES) {
+            out.sample("feedback_requests_total", PrometheusWriter.labels("status", label(status)),
+                    requests[status.ordinal()].sum());
+        }
+        out.header("feedback_request_duration_seconds", "histogram", "Feedback submission latency");
+        out.histogram("feedback_request_duration_seconds", "", requestLatency);
+
+        out.header("feedback_rate_limit_decisions_total", "counter", "Rate limiter decisions");
+        out.sample("feedback_rate_limit_decisions_total", PrometheusWriter.labels("result", "allowed", "scope", "ip"),
+                rateLimitAllowed.sum());
+        out.sample("feedback_rate_limit_decisions_total", PrometheusWriter.labels("result", "denied", "scope", "ip"),
+                rateLimitDeniedIp.sum());
+        out.sample("feedback_rate_limit_decisions_total", PrometheusWriter.labels("result", "denied", "scope", "subnet"),
+                rateLimitDeniedSubnet.sum());
+
+        out.header("feedback_channel_sends_total", "counter", "Channel sends by channel and result status");
+        channels.forEach((channel, metrics) -> {
+            for (FeedbackStatus status : STATUSES) {
+                long count = metrics.sends[status.ordinal()].sum();
+                if (count > 0) {
+                    out.sample("feedback_channel_sends_total",
+                            PrometheusWriter.labels("channel", channel, "status", label(status)), count);
+                }
+            }
+        });
+        out.header("feedback_channel_send_duration_seconds", "histogram", "Channel send latency including retries");
+        channels.forEach((channel, metrics) -> out.histogram("feedback_channel_send_duration_seconds",
+                PrometheusWriter.labels("channel", channel), metrics.latency));
+
+        out.header("feedback_outbound_wait_seconds", "histogram", "Time spent waiting for channel send budget by priority");
+        outboundWait.forEach((priority, histogram) -> out.histogram("feedback_outbound_wait_seconds",
+                PrometheusWriter.labels("priority", priority), histogram));
+
+        out.header("feedback_http_errors_total", "counter", "Outbound webhook HTTP errors");
+        for (HttpError error : HttpError.values()) {
+            out.sample("feedback_http_errors_total", PrometheusWriter.labels("kind", error.label),
+                    httpErrors[error.ordinal()].sum());
+        }
+
+        out.header("feedback_dead_letters_evicted_total", "counter", "Dead letters dropped because max-entries was exceeded");
+        out.sample("feedback_dead_letters_evicted_total", "", deadLettersEvicted.sum());
+    }
+
+    private static String label(FeedbackStatus status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * 出站 webhook 调用的错误类型
+     */
+    public enum HttpError {
+        STATUS_4XX("4xx"),
+        STATUS_5XX("5xx"),
+        TIMEOUT("timeout"),
+        IO("io");
+
+        private final String label;
+
+        HttpError(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class ChannelMetrics {
+        private final LongAdder[] sends = adders(STATUSES.length);
+        private final Histogram latency = new Histogram(Histogram.LATENCY_SECONDS);
+    }
+}
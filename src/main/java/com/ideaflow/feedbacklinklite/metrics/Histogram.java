@@ -0,0 +1,71 @@
+package com.ideaflow.feedbacklinklite.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的耗时直方图
+ * 分桶边界在创建时确定，记录时只对所在桶和总和各做一次 LongAdder 累加，没有锁，也不分配对象。
+ * 桶内计数不累计，导出时再按 Prometheus 的约定累加为 le 语义。
+ */
+final class Histogram {
+    /**
+     * 默认的请求耗时分桶（秒），覆盖 1ms 到 10s
+     */
+    static final double[] LATENCY_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    /**
+     * 出站排队等待分桶（秒），覆盖 1ms 到 5 分钟；按每分钟配额排队时等待以秒计
+     */
+    static final double[] QUEUE_WAIT_SECONDS = {
+            0.001, 0.01, 0.1, 0.5, 1, 3, 10, 30, 60, 120, 300
+    };
+
+    private final double[] bounds;
+    private final long[] boundNanos;
+    // 最后一个桶对应 +Inf
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram(double[] boundsSeconds) {
+        this.bounds = boundsSeconds.clone();
+        this.boundNanos = new long[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            boundNanos[i] = (long) (bounds[i] * 1_000_000_000L);
+        }
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        int i = 0;
+        while (i < boundNanos.length && nanos > boundNanos[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    double[] bounds() {
+        return bounds;
+    }
+
+    /**
+     * 各桶的累计计数，最后一个元素是总数
+     */
+    long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    double sumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ideaflow.feedbacklinklite.metrics;
+
+import java.math.BigDecimal;
+
+/**
+ * Prometheus 文本格式（0.0.4）输出
+ * 同名指标的 HELP/TYPE 只写一次，调用方需要把同一指标的样本连续写出。
+ */
+public final class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    public PrometheusWriter header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+
+    void histogram(String name, String labels, Histogram histogram) {
+        double[] bounds = histogram.bounds();
+        long[] counts = histogram.cumulativeCounts();
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        for (int i = 0; i < bounds.length; i++) {
+            out.append(name).append("_bucket").append(prefix)
+                    .append("le=\"").append(BigDecimal.valueOf(bounds[i]).toPlainString()).append("\"} ")
+                    .append(counts[i]).append('\n');
+        }
+        long total = counts[counts.length - 1];
+        out.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(total).append('\n');
+        sample(name + "_sum", labels, histogram.sumSeconds());
+        sample(name + "_count", labels, total);
+    }
+
+    /**
+     * 拼接标签，参数依次为名称和值
+     */
+    public static String labels(String... pairs) {
+        if (pairs.length == 0) {
+            return "";
+        }
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\' -> labels.append("\\\\");
+                    case '"' -> labels.append("\\\"");
+                    case '\n' -> labels.append("\\n");
+                    default -> labels.append(c);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
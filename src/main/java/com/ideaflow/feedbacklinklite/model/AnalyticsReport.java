@@ -0,0 +1,52 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 反馈量统计，供管理端绘制趋势图
+ * 次数与不同客户端数都是概率数据结构给出的估计值：页面次数只会偏高，不同客户端数的误差约 2% 到 4%。
+ * buckets 按时间正序排列，没有数据的小时也会给出，便于直接作为连续的横轴。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsReport {
+    private long from;
+    private long to;
+    private int bucketMinutes;
+    private long total;
+    private long distinctClients;
+    private List<Bucket> buckets = new ArrayList<>();
+    private List<Page> topPages = new ArrayList<>();
+    /**
+     * 统计结构占用的内存，与流量无关
+     */
+    private long memoryBytes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private long start;
+        private long count;
+        private long distinctClients;
+        private List<Page> topPages = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Page {
+        /**
+         * 来源页面，不含协议、查询参数和锚点
+         */
+        private String page;
+        private long count;
+        private long distinctClients;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量提交结果，results 与请求中的条目按顺序一一对应
+ * error 不为空表示批量在中途停止（超出上限或格式错误），其后的条目未被处理
+ */
+@Data
+@NoArgsConstructor
+public class BatchFeedbackResponse {
+    private List<FeedbackResponse> results = new ArrayList<>();
+    private String error;
+
+    public static BatchFeedbackResponse ofError(String error) {
+        BatchFeedbackResponse response = new BatchFeedbackResponse();
+        response.setError(error);
+        return response;
+    }
+}
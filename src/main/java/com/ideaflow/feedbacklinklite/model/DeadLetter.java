@@ -0,0 +1,62 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一条投递失败的反馈
+ * 每次重放失败后以新的 id 重新写入，failures 中对应渠道的 attempts 累加，replays 加一
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetter {
+    private long id;
+    /**
+     * 最近一次失败的时间（毫秒时间戳）
+     */
+    private long failedAt;
+    /**
+     * 路由聚合后的失败信息
+     */
+    private String error;
+    private String message;
+    private String contact;
+    private String pageUrl;
+    private String userAgent;
+    /**
+     * 附件地址
+     */
+    private List<String> attachments;
+    /**
+     * 发送失败的渠道
+     */
+    private List<Failure> failures = new ArrayList<>();
+    /**
+     * 已发送成功的渠道，重放时跳过
+     */
+    private List<String> delivered = new ArrayList<>();
+    /**
+     * 已重放的次数
+     */
+    private int replays;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private String channel;
+        /**
+         * 渠道返回的失败信息（ChannelResult.message）
+         */
+        private String error;
+        /**
+         * 累计发送次数（含重试）
+         */
+        private int attempts;
+    }
+}
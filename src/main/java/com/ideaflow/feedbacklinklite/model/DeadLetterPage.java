@@ -0,0 +1,21 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 死信的一页查询结果，按失败时间倒序
+ * nextCursor 为空表示没有更多结果，否则作为下一页请求的 cursor 传入；total 为当前死信总数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterPage {
+    private List<DeadLetter> items = new ArrayList<>();
+    private Long nextCursor;
+    private int total;
+}
@@ -2,11 +2,36 @@ package com.ideaflow.feedbacklinklite.model;
 
 public enum FeedbackStatus {
     SUCCESS,
+    ACCEPTED,
     FAILED,
     TOO_FREQUENT,
     CHANNEL_DISABLED,
     CHANNEL_NOT_CONFIGURED,
     ENDPOINT_NOT_CONFIGURED,
-    SERVER_ERROR
+    SERVER_ERROR,
+    SERVER_BUSY;
+
+    /**
+     * 根据渠道返回的失败信息推断状态
+     */
+    public static FeedbackStatus fromError(String msg) {
+        if (msg == null) {
+            return SERVER_ERROR;
+        }
+        String lower = msg.toLowerCase();
+        if (lower.contains("disabled")) {
+            return CHANNEL_DISABLED;
+        }
+        if (lower.contains("not configured")) {
+            if (lower.contains("webhook")) {
+                return ENDPOINT_NOT_CONFIGURED;
+            }
+            return CHANNEL_NOT_CONFIGURED;
+        }
+        if (lower.contains("frequent")) {
+            return TOO_FREQUENT;
+        }
+        return FAILED;
+    }
 }
 
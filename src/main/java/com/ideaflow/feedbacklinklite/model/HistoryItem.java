@@ -0,0 +1,25 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一条历史反馈
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryItem {
+    private long id;
+    /**
+     * 受理时间（毫秒时间戳）
+     */
+    private long timestamp;
+    private String message;
+    private String contact;
+    private String pageUrl;
+    private String userAgent;
+}
@@ -0,0 +1,20 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 历史反馈的一页查询结果，按时间倒序
+ * nextCursor 为空表示没有更多结果，否则作为下一页请求的 cursor 传入
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryPage {
+    private List<HistoryItem> items = new ArrayList<>();
+    private Long nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.ideaflow.feedbacklinklite.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 死信重放任务的进度
+ * succeeded 的死信已删除；failed 的死信以新的 id 保留；skipped 为开始后已被删除或已被其他操作处理的条目
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayStatus {
+    private boolean running;
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int skipped;
+    private long startedAt;
+    private long finishedAt;
+    /**
+     * 任务提前结束的原因，正常完成时为空
+     */
+    private String stoppedReason;
+    private String lastError;
+}
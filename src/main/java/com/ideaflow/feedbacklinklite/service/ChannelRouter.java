@@ -1,38 +1,186 @@
 package com.ideaflow.feedbacklinklite.service;
 
+import com.ideaflow.feedbacklinklite.channel.ChannelResilienceRegistry;
 import com.ideaflow.feedbacklinklite.channel.ChannelResult;
 import com.ideaflow.feedbacklinklite.channel.MessageChannel;
 import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
 import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChannelRouter {
     private final List<MessageChannel> channels;
-    private final FeedbackProperties feedbackProperties;
+    private final FeedbackConfigHolder feedbackConfig;
+    private final ChannelResilienceRegistry channelResilienceRegistry;
+    private final FeedbackMetrics feedbackMetrics;
 
-    public ChannelResult route(MessageContext context) {
-        if (!feedbackProperties.isEnabled()) {
-            return ChannelResult.fail("Feedback disabled");
+    /**
+     * 同步路由，供投递线程与同步模式的请求线程调用
+     */
+    public RouteResult route(MessageContext context) {
+        return routeAsync(context).join();
+    }
+
+    /**
+     * 异步路由：各渠道的发送以 future 串联（顺序模式）或同时发出（并发模式），等待响应期间不占用线程
+     */
+    public CompletableFuture<RouteResult> routeAsync(MessageContext context) {
+        return routeAsync(context, Set.of());
+    }
+
+    /**
+     * 异步路由，跳过指定渠道；死信重放时用于跳过上次已发送成功的渠道，避免重复通知
+     *
+     * @param skip 不参与本次路由的渠道名，全部启用渠道都被跳过时视为成功
+     */
+    public CompletableFuture<RouteResult> routeAsync(MessageContext context, Set<String> skip) {
+        FeedbackProperties cfg = feedbackConfig.current();
+        if (!cfg.isEnabled()) {
+            return CompletableFuture.completedFuture(RouteResult.fail("Feedback disabled"));
         }
-        if (CollectionUtils.isEmpty(channels)) {
-            return ChannelResult.fail("No channel configured");
+        List<MessageChannel> enabled = CollectionUtils.isEmpty(channels) ? List.of()
+                : channels.stream().filter(MessageChannel::isEnabled).toList();
+        if (enabled.isEmpty()) {
+            return CompletableFuture.completedFuture(RouteResult.fail("No channel configured"));
+        }
+        List<MessageChannel> active = skip.isEmpty() ? enabled
+                : enabled.stream().filter(channel -> !skip.contains(channel.name())).toList();
+        if (active.isEmpty()) {
+            return CompletableFuture.completedFuture(RouteResult.ok(new LinkedHashMap<>()));
+        }
+        FeedbackProperties.Routing routing = cfg.getRouting();
+        if (routing.getMode() == FeedbackProperties.Routing.Mode.PARALLEL) {
+            return routeParallel(context, routing, active);
+        }
+        return routeSequential(context, routing.getPolicy(), active, 0, new LinkedHashMap<>());
+    }
+
+    private CompletableFuture<RouteResult> routeSequential(MessageContext context, FeedbackProperties.Routing.Policy policy,
+                                                           List<MessageChannel> active, int index,
+                                                           Map<String, ChannelResult> results) {
+        if (index == active.size()) {
+            return CompletableFuture.completedFuture(aggregate(policy, results));
         }
-        // First version: sequential, stop on first failure
-        for (MessageChannel channel : channels) {
-            ChannelResult result = channel.send(context);
-            if (!result.isSuccess()) {
-                return result;
+        MessageChannel channel = active.get(index);
+        return safeSend(channel, context, 0).thenCompose(result -> {
+            results.put(channel.name(), result);
+            if (!result.isSuccess() && policy == FeedbackProperties.Routing.Policy.ALL) {
+                // 与最初版本一致：遇到第一个失败即停止
+                return CompletableFuture.completedFuture(RouteResult.fail(result.getMessage(), results));
+            }
+            if (result.isSuccess() && policy == FeedbackProperties.Routing.Policy.ANY) {
+                return CompletableFuture.completedFuture(RouteResult.ok(results));
             }
+            return routeSequential(context, policy, active, index + 1, results);
+        });
+    }
+
+    private CompletableFuture<RouteResult> routeParallel(MessageContext context, FeedbackProperties.Routing routing,
+                                                         List<MessageChannel> active) {
+        Fanout fanout = new Fanout(routing.getPolicy(), active.size());
+        for (MessageChannel channel : active) {
+            safeSend(channel, context, routing.timeoutFor(channel.name()))
+                    .thenAccept(result -> fanout.record(channel.name(), result));
         }
-        return ChannelResult.ok();
+        return fanout.done;
     }
-}
 
+    /**
+     * 经重试熔断包装发送并记录指标，不会以异常结束
+     *
+     * @param timeoutMillis 大于 0 时为该渠道的截止时间，到期后以失败结束并放弃剩余重试
+     */
+    private CompletableFuture<ChannelResult> safeSend(MessageChannel channel, MessageContext context, long timeoutMillis) {
+        long start = System.nanoTime();
+        CompletableFuture<ChannelResult> future;
+        try {
+            future = channelResilienceRegistry.decorate(channel).sendAsync(context).toCompletableFuture();
+        } catch (Exception ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
+        if (timeoutMillis > 0) {
+            future.completeOnTimeout(ChannelResult.fail(channel.name() + " send timeout after " + timeoutMillis + "ms"),
+                    timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return future.handle((result, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                log.error("Channel {} send exception", channel.name(), cause);
+                result = ChannelResult.fail(channel.name() + " send exception: " + cause.getMessage());
+            }
+            feedbackMetrics.recordChannelSend(channel.name(),
+                    result.isSuccess() ? FeedbackStatus.SUCCESS : FeedbackStatus.fromError(result.getMessage()),
+                    System.nanoTime() - start);
+            return result;
+        });
+    }
+
+    private static RouteResult aggregate(FeedbackProperties.Routing.Policy policy, Map<String, ChannelResult> results) {
+        String firstFailure = null;
+        boolean anySuccess = false;
+        for (ChannelResult result : results.values()) {
+            if (result.isSuccess()) {
+                anySuccess = true;
+            } else if (firstFailure == null) {
+                firstFailure = result.getMessage();
+            }
+        }
+        return switch (policy) {
+            case ALL -> firstFailure == null ? RouteResult.ok(results) : RouteResult.fail(firstFailure, results);
+            case ANY -> anySuccess ? RouteResult.ok(results) : RouteResult.fail(firstFailure, results);
+            case BEST_EFFORT -> {
+                if (firstFailure != null) {
+                    log.warn("Best-effort routing finished with failures: {}", results);
+                }
+                yield RouteResult.ok(results);
+            }
+        };
+    }
+
+    /**
+     * 并发发送的结果收集器，按策略决定何时可以提前返回
+     */
+    private static final class Fanout {
+        private final FeedbackProperties.Routing.Policy policy;
+        private final Map<String, ChannelResult> results = new LinkedHashMap<>();
+        private final CompletableFuture<RouteResult> done = new CompletableFuture<>();
+        private int remaining;
+
+        private Fanout(FeedbackProperties.Routing.Policy policy, int count) {
+            this.policy = policy;
+            this.remaining = count;
+        }
+
+        private synchronized void record(String channel, ChannelResult result) {
+            if (done.isDone()) {
+                return;
+            }
+            results.put(channel, result);
+            remaining--;
+            if (!result.isSuccess() && policy == FeedbackProperties.Routing.Policy.ALL) {
+                done.complete(RouteResult.fail(result.getMessage(), new LinkedHashMap<>(results)));
+            } else if (result.isSuccess() && policy == FeedbackProperties.Routing.Policy.ANY) {
+                done.complete(RouteResult.ok(new LinkedHashMap<>(results)));
+            } else if (remaining == 0) {
+                done.complete(aggregate(policy, new LinkedHashMap<>(results)));
+            }
+        }
+    }
+}
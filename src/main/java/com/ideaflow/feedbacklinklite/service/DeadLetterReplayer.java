@@ -0,0 +1,163 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import com.ideaflow.feedbacklinklite.model.DeadLetter;
+import com.ideaflow.feedbacklinklite.model.ReplayStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 死信批量重放
+ * 故障恢复后一次性重发大量死信会再次触发 webhook 自身的限频（钉钉约 20 条/分钟），因此按配置的速率匀速发出：
+ * 每条之间间隔 60s / replay-per-minute，同一批最多 replay-batch-size 条在途，整批完成后再开始下一批。
+ * 每批开始前重新读取配置，运行中调整速率即可生效；一整批全部失败时认为渠道仍不可用，停止重放。
+ * 同一时刻只运行一个重放任务。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterReplayer {
+    private final DeadLetterStore deadLetterStore;
+    private final ChannelRouter channelRouter;
+    private final FeedbackConfigHolder feedbackConfig;
+
+    private final ReplayStatus status = new ReplayStatus();
+    private Thread worker;
+
+    /**
+     * 开始重放，已有任务在运行时直接返回其进度
+     *
+     * @param ids 要重放的死信 id，为空时重放全部
+     */
+    public synchronized ReplayStatus start(List<Long> ids) {
+        if (status.isRunning()) {
+            return status();
+        }
+        List<Long> targets = ids == null || ids.isEmpty() ? deadLetterStore.ids() : List.copyOf(ids);
+        status.setRunning(true);
+        status.setTotal(targets.size());
+        status.setSucceeded(0);
+        status.setFailed(0);
+        status.setSkipped(0);
+        status.setStartedAt(System.currentTimeMillis());
+        status.setFinishedAt(0);
+        status.setStoppedReason(null);
+        status.setLastError(null);
+        log.info("开始重放死信 {} 条", targets.size());
+        worker = Thread.ofVirtual().name("dead-letter-replay").start(() -> replay(targets));
+        return status();
+    }
+
+    /**
+     * 停止正在运行的重放，在途的发送完成后结束
+     */
+    public synchronized ReplayStatus cancel() {
+        if (worker != null && status.isRunning()) {
+            worker.interrupt();
+        }
+        return status();
+    }
+
+    public synchronized ReplayStatus status() {
+        return new ReplayStatus(status.isRunning(), status.getTotal(), status.getSucceeded(), status.getFailed(),
+                status.getSkipped(), status.getStartedAt(), status.getFinishedAt(), status.getStoppedReason(),
+                status.getLastError());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+    }
+
+    private void replay(List<Long> ids) {
+        String stoppedReason = null;
+        try {
+            long nextSendNanos = System.nanoTime();
+            int from = 0;
+            while (from < ids.size()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                FeedbackProperties.DeadLetter cfg = feedbackConfig.current().getDeadLetter();
+                long intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, cfg.getReplayPerMinute());
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + Math.max(1, cfg.getReplayBatchSize())));
+                from += batch.size();
+                List<CompletableFuture<Boolean>> sends = new ArrayList<>(batch.size());
+                for (Long id : batch) {
+                    DeadLetter letter = deadLetterStore.get(id);
+                    if (letter == null) {
+                        update(null, false, true);
+                        continue;
+                    }
+                    long waitNanos = nextSendNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    nextSendNanos = Math.max(nextSendNanos, System.nanoTime()) + intervalNanos;
+                    sends.add(send(letter));
+                }
+                boolean anySuccess = false;
+                for (CompletableFuture<Boolean> send : sends) {
+                    anySuccess |= send.join();
+                }
+                if (!sends.isEmpty() && !anySuccess && from < ids.size()) {
+                    stoppedReason = "Batch of " + sends.size() + " failed entirely";
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            stoppedReason = "Cancelled";
+        } finally {
+            finish(stoppedReason);
+        }
+    }
+
+    private CompletableFuture<Boolean> send(DeadLetter letter) {
+        return channelRouter.routeAsync(DeadLetterStore.toContext(letter), Set.copyOf(letter.getDelivered()))
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    return RouteResult.fail("Replay exception: " + cause.getMessage());
+                })
+                .thenApply(result -> {
+                    if (result.isSuccess()) {
+                        deadLetterStore.remove(letter.getId());
+                    } else if (!result.getChannelResults().isEmpty()) {
+                        deadLetterStore.recordRetry(letter, result);
+                    }
+                    // 渠道被禁用或全部未配置时保留原记录不变
+                    update(result.isSuccess() ? null : result.getMessage(), result.isSuccess(), false);
+                    return result.isSuccess();
+                });
+    }
+
+    private synchronized void update(String error, boolean success, boolean skipped) {
+        if (skipped) {
+            status.setSkipped(status.getSkipped() + 1);
+        } else if (success) {
+            status.setSucceeded(status.getSucceeded() + 1);
+        } else {
+            status.setFailed(status.getFailed() + 1);
+            status.setLastError(error);
+        }
+    }
+
+    private synchronized void finish(String stoppedReason) {
+        status.setRunning(false);
+        status.setFinishedAt(System.currentTimeMillis());
+        status.setStoppedReason(stoppedReason);
+        log.info("死信重放结束 succeeded={} failed={} skipped={}{}", status.getSucceeded(), status.getFailed(),
+                status.getSkipped(), stoppedReason == null ? "" : " reason=" + stoppedReason);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 近似重复与刷屏检测
+ * 垃圾消息通常由大量 IP 重复提交相同或几乎相同的内容，按 IP 限流无法拦截，每一份都会消耗一次渠道调用。
+ * 这里在投递前计算消息内容的 MinHash 签名，窗口内与已投递消息相似的反馈不再投递：
+ * SUPPRESS 模式直接丢弃；FOLD 模式只计数，窗口结束后发送一条“×N 条相似反馈”的汇总。
+ * 归一化后过短的内容（纯表情、纯标点、几个字）区分度太低，不参与检测，总是投递。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DuplicateFilter {
+    private final FeedbackConfigHolder feedbackConfig;
+    private final ChannelRouter channelRouter;
+    private final FeedbackDispatcher feedbackDispatcher;
+    private final DeadLetterStore deadLetterStore;
+
+    private volatile FingerprintCache cache;
+
+    /**
+     * 判断消息是否需要投递
+     *
+     * @return true 表示应当投递；false 表示与窗口内已投递的消息相似，已被抑制或折叠
+     */
+    public boolean admit(MessageContext context) {
+        FeedbackProperties.Dedup cfg = feedbackConfig.current().getDedup();
+        if (cfg == null || !cfg.isEnabled()) {
+            return true;
+        }
+        int[] normalized = MinHash.normalize(context.getMessage());
+        if (normalized.length < Math.max(1, cfg.getMinLength())) {
+            return true;
+        }
+        int[] signature = MinHash.signature(normalized);
+        return cache(cfg).offer(signature, context, System.currentTimeMillis(), cfg.getWindowSeconds() * 1000L);
+    }
+
+    /**
+     * 汇报窗口已结束的折叠计数
+     */
+    @Scheduled(fixedDelayString = "#{${feedback.dedup.flush-interval-seconds:10} * 1000}")
+    public void flushFolded() {
+        FingerprintCache current = cache;
+        FeedbackProperties.Dedup cfg = feedbackConfig.current().getDedup();
+        if (current == null || cfg == null) {
+            return;
+        }
+        List<FingerprintCache.Folded> folded = current.drainExpired(System.currentTimeMillis(), cfg.getWindowSeconds() * 1000L);
+        long dropped = current.takeDroppedFolds();
+        if (dropped > 0) {
+            log.warn("重复检测缓存容量不足，{} 条被折叠的相似反馈未能汇报，可调大 feedback.dedup.capacity", dropped);
+        }
+        if (cfg.getMode() != FeedbackProperties.Dedup.Mode.FOLD) {
+            return;
+        }
+        for (FingerprintCache.Folded entry : folded) {
+            deliver(summarize(entry, cfg.getWindowSeconds()));
+        }
+    }
+
+    static MessageContext summarize(FingerprintCache.Folded folded, int windowSeconds) {
+        MessageContext sample = folded.sample();
+        String header = "×" + folded.count() + " 条相似反馈（" + Math.max(1, windowSeconds / 60) + " 分钟内，已折叠）\n\n";
+        return MessageContext.builder()
+                .message(header + sample.getMessage())
+                .contact(sample.getContact())
+                .pageUrl(sample.getPageUrl())
+                .userAgent(sample.getUserAgent())
+                .attachments(sample.getAttachments())
+                .build();
+    }
+
+    private void deliver(MessageContext summary) {
+        if (feedbackConfig.current().getDelivery().getMode() == FeedbackProperties.Delivery.Mode.ASYNC) {
+            feedbackDispatcher.submit(summary);
+            return;
+        }
+        RouteResult result = channelRouter.route(summary);
+        if (!result.isSuccess()) {
+            log.warn("相似反馈汇总发送失败: {}", result.getMessage());
+            deadLetterStore.record(summary, result);
+        }
+    }
+
+    private FingerprintCache cache(FeedbackProperties.Dedup cfg) {
+        FingerprintCache current = cache;
+        if (current != null && current.isConfiguredFor(cfg.getCapacity(), cfg.getSimilarity())) {
+            return current;
+        }
+        synchronized (this) {
+            current = cache;
+            if (current == null || !current.isConfiguredFor(cfg.getCapacity(), cfg.getSimilarity())) {
+                // 容量或阈值变化后重建，已有签名随之清空
+                current = new FingerprintCache(cfg.getCapacity(), cfg.getSimilarity());
+                cache = current;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import com.ideaflow.feedbacklinklite.journal.FeedbackJournal;
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 异步投递调度器
+ * ASYNC 模式下，Controller 只负责校验、限流并将消息放入有界队列，由若干虚拟线程从队列中取出并交给 ChannelRouter 发送。
+ * 队列满时直接拒绝，避免突发流量导致内存无限增长。
+ * 启用预写日志时，消息在入队前交给日志写线程，请求线程不等待 fsync；投递线程等到落盘后再发送，投递成功或转入死信后才标记完成。
+ * 只在 ASYNC 模式下启动：启动时为 SYNC 的实例不打开日志、不创建队列，直到第一次异步提交。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeedbackDispatcher implements CommandLineRunner, Ordered {
+    // 停机时等待队列排空的最长时间
+    private static final long SHUTDOWN_DRAIN_MILLIS = 10_000;
+    // 投递线程等待 group commit 落盘的最长时间
+    private static final long JOURNAL_WAIT_MILLIS = 5_000;
+
+    private final ChannelRouter channelRouter;
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackJournal feedbackJournal;
+    private final DeadLetterStore deadLetterStore;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile BlockingQueue<PendingDelivery> queue;
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    @Override
+    public int getOrder() {
+        // 在 ConfigInitializer 之后启动，保证使用外部配置中的队列容量和线程数
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    @Override
+    public void run(String... args) {
+        // SYNC 模式下不打开预写日志也不启动投递线程，切换到 ASYNC 后由第一次提交启动
+        if (feedbackConfig.current().getDelivery().getMode() == FeedbackProperties.Delivery.Mode.ASYNC) {
+            start();
+        }
+    }
+
+    private synchronized void start() {
+        if (queue != null || stopped) {
+            return;
+        }
+        FeedbackProperties.Delivery cfg = feedbackConfig.current().getDelivery();
+        int capacity = Math.max(1, cfg.getQueueCapacity());
+        int workerCount = Math.max(1, cfg.getWorkers());
+        try {
+            feedbackJournal.open();
+        } catch (IOException e) {
+            log.error("预写日志打开失败，异步投递将不做持久化", e);
+        }
+        BlockingQueue<PendingDelivery> created = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("feedback-delivery-" + i).start(() -> drainLoop(created)));
+        }
+        queue = created;
+        log.info("异步投递队列已启动 capacity={} workers={}", capacity, workerCount);
+        replayRecovered(created);
+    }
+
+    /**
+     * 将消息交给预写日志并放入投递队列，不等待落盘和渠道发送
+     *
+     * @param context 消息上下文
+     * @return ACCEPTED 已受理；SERVER_BUSY 队列已满或已停止；SERVER_ERROR 日志写入失败
+     */
+    public FeedbackStatus submit(MessageContext context) {
+        if (queue == null) {
+            start();
+        }
+        BlockingQueue<PendingDelivery> current = queue;
+        if (current == null || !running || current.remainingCapacity() == 0) {
+            return FeedbackStatus.SERVER_BUSY;
+        }
+        CompletableFuture<Long> journalId = feedbackJournal.append(context);
+        if (journalId.isCompletedExceptionally()) {
+            log.error("反馈写入预写日志失败", journalId.exceptionNow());
+            return FeedbackStatus.SERVER_ERROR;
+        }
+        if (!current.offer(new PendingDelivery(journalId, context))) {
+            // 队列被并发占满，放弃本条并在落盘后标记完成，由客户端稍后重试
+            journalId.thenAccept(feedbackJournal::markDelivered);
+            return FeedbackStatus.SERVER_BUSY;
+        }
+        return FeedbackStatus.ACCEPTED;
+    }
+
+    /**
+     * 重放预写日志中尚未投递的消息
+     * 放到后台执行，队列满时阻塞等待，避免待重放数量大于队列容量时阻塞启动或首次提交
+     */
+    private void replayRecovered(BlockingQueue<PendingDelivery> target) {
+        List<FeedbackJournal.JournaledMessage> pending = feedbackJournal.drainRecovered();
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.info("开始重放预写日志中未投递的反馈 {} 条", pending.size());
+        Thread.ofVirtual().name("journal-replay").start(() -> {
+            try {
+                for (FeedbackJournal.JournaledMessage message : pending) {
+                    target.put(new PendingDelivery(CompletableFuture.completedFuture(message.id()), message.context()));
+                }
+                log.info("预写日志重放完成");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("预写日志重放被中断，剩余记录将在下次启动时重放");
+            }
+        });
+    }
+
+    /**
+     * 当前排队等待投递的消息数量
+     */
+    public int getQueueSize() {
+        BlockingQueue<PendingDelivery> current = queue;
+        return current == null ? 0 : current.size();
+    }
+
+    private void drainLoop(BlockingQueue<PendingDelivery> source) {
+        while (running || !source.isEmpty()) {
+            PendingDelivery pending;
+            try {
+                pending = source.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (pending == null) {
+                continue;
+            }
+            deliver(pending);
+        }
+    }
+
+    private void deliver(PendingDelivery pending) {
+        long journalId = awaitJournal(pending.journalId());
+        try {
+            RouteResult result = channelRouter.route(pending.context());
+            if (result.isSuccess()) {
+                feedbackJournal.markDelivered(journalId);
+                return;
+            }
+            // 死信落盘后再确认日志记录，投递线程不等待
+            deadLetterStore.record(pending.context(), result).thenAccept(letter -> {
+                if (letter != null) {
+                    // 已转入死信，由管理员在渠道恢复后重放，不再在每次启动时自动重放
+                    feedbackJournal.markDelivered(journalId);
+                    log.warn("异步投递失败，已写入死信: {}", result.getMessage());
+                } else {
+                    // 未标记完成的记录保留在日志中，下次启动时重放
+                    log.warn("异步投递失败: {}", result.getMessage());
+                }
+            });
+        } catch (Exception ex) {
+            log.error("异步投递异常", ex);
+        }
+    }
+
+    /**
+     * 在投递线程中等待记录落盘后再发送，落盘失败时仍尽力投递，只是该条不再受重启重放保护
+     */
+    private long awaitJournal(CompletableFuture<Long> journalId) {
+        try {
+            return journalId.get(JOURNAL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("反馈写入预写日志失败，本条不做持久化", e);
+        }
+        return FeedbackJournal.NO_ID;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        if (!running) {
+            return;
+        }
+        // 停止接收新消息，等待工作线程把已入队的消息发送完
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_DRAIN_MILLIS;
+        for (Thread worker : workers) {
+            long remaining = deadline - System.currentTimeMillis();
+            try {
+                if (remaining <= 0 || !worker.join(Duration.ofMillis(remaining))) {
+                    worker.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                worker.interrupt();
+            }
+        }
+        log.info("异步投递队列已停止，剩余未投递 {} 条", getQueueSize());
+    }
+
+    private record PendingDelivery(CompletableFuture<Long> journalId, MessageContext context) {
+    }
+}
@@ -0,0 +1,358 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ideaflow.feedbacklinklite.analytics.FeedbackAnalytics;
+import com.ideaflow.feedbacklinklite.attachment.AttachmentRejectedException;
+import com.ideaflow.feedbacklinklite.attachment.AttachmentStore;
+import com.ideaflow.feedbacklinklite.attachment.MalformedMultipartException;
+import com.ideaflow.feedbacklinklite.attachment.MultipartReader;
+import com.ideaflow.feedbacklinklite.attachment.PendingAttachment;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.history.FeedbackHistory;
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.model.BatchFeedbackResponse;
+import com.ideaflow.feedbacklinklite.model.FeedbackRequest;
+import com.ideaflow.feedbacklinklite.model.FeedbackResponse;
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 反馈提交流程：限流、记入历史、重复检测，再按投递模式同步发送或入队
+ * 单条提交、批量提交与带附件的 multipart 提交共用同一流程和同一套校验：
+ * 字段不合法时三者都返回 FAILED 和相同的提示信息，而不是 HTTP 400；只有请求体本身无法解析时才由调用方返回 400。
+ * 批量中每一条的结果与单独提交同一内容时一致。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeedbackSubmissionService {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final ObjectReader REQUEST_READER = OBJECT_MAPPER.readerFor(FeedbackRequest.class);
+    // multipart 中单个文本字段的长度上限，文本字段读入内存，文件字段直接写盘
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+    // multipart 请求中除附件外的文本字段与各 part 头部的总长度余量
+    private static final long FORM_FIELDS_BYTES = 256 * 1024;
+    public static final String ATTACHMENT_PATH = "/api/feedback/attachments/";
+
+    private final ChannelRouter channelRouter;
+    private final RateLimiterService rateLimiterService;
+    private final FeedbackDispatcher feedbackDispatcher;
+    private final FeedbackConfigHolder feedbackConfig;
+    private final DuplicateFilter duplicateFilter;
+    private final FeedbackHistory feedbackHistory;
+    private final DeadLetterStore deadLetterStore;
+    private final AttachmentStore attachmentStore;
+    private final FeedbackMetrics feedbackMetrics;
+    private final FeedbackAnalytics feedbackAnalytics;
+    private final Validator validator;
+
+    /**
+     * 校验并处理一条反馈
+     */
+    public FeedbackResponse submit(FeedbackRequest request, String ip) {
+        long start = System.nanoTime();
+        // 统计到达量，含随后被限流或校验失败的提交
+        feedbackAnalytics.record(request.getPageUrl(), ip);
+        FeedbackStatus status = FeedbackStatus.SERVER_ERROR;
+        try {
+            FeedbackResponse response = validate(request);
+            if (response == null) {
+                response = handle(request, ip);
+            }
+            status = response.getStatus();
+            return response;
+        } finally {
+            feedbackMetrics.recordRequest(status, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 逐条解析并处理批量提交，请求体可以是 JSON 数组，也可以是每行一个对象的 NDJSON。
+     * 解析是流式的，每次只在内存中保留一条；超过条数或字节上限时停止读取，已处理的条目结果照常返回。
+     */
+    public BatchFeedbackResponse submitBatch(InputStream body, String ip) throws IOException {
+        FeedbackProperties.Batch cfg = feedbackConfig.current().getBatch();
+        BatchFeedbackResponse response = new BatchFeedbackResponse();
+        try (JsonParser parser = OBJECT_MAPPER.createParser(new LimitedInputStream(body, cfg.getMaxBytes()))) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                if (response.getResults().size() >= cfg.getMaxItems()) {
+                    response.setError("Batch exceeds " + cfg.getMaxItems() + " items");
+                    break;
+                }
+                JsonNode item = parser.readValueAsTree();
+                response.getResults().add(submitItem(item, ip));
+                token = parser.nextToken();
+            }
+        } catch (BodyTooLargeException e) {
+            response.setError("Batch exceeds " + cfg.getMaxBytes() + " bytes");
+        } catch (JsonProcessingException e) {
+            response.setError("Malformed batch after " + response.getResults().size() + " items: " + e.getOriginalMessage());
+        }
+        return response;
+    }
+
+    /**
+     * 处理 multipart/form-data 提交：文本字段 message、contact、pageUrl、userAgent 与 FeedbackRequest 相同，
+     * 文件字段（字段名不限）逐个以流的方式写入临时文件，消息中附带附件链接。
+     * 附件在整条反馈通过校验和重复检测、确定要投递时才发布到附件存储（ASYNC 模式下在入队成功后），被拒绝的提交不会留下可访问的附件。
+     *
+     * @param baseUrl 附件链接的地址前缀
+     */
+    public FeedbackResponse submitMultipart(InputStream body, String boundary, String ip, String baseUrl) throws IOException {
+        long start = System.nanoTime();
+        FeedbackStatus status = FeedbackStatus.SERVER_ERROR;
+        try {
+            FeedbackResponse response = handleMultipart(body, boundary, ip, baseUrl);
+            status = response.getStatus();
+            return response;
+        } finally {
+            feedbackMetrics.recordRequest(status, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * multipart 请求体的字节上限：全部附件的上限之和加上文本字段的余量
+     */
+    public long maxMultipartBytes() {
+        FeedbackProperties.Attachments cfg = feedbackConfig.current().getAttachments();
+        return cfg.getMaxFiles() * cfg.getMaxFileBytes() + FORM_FIELDS_BYTES;
+    }
+
+    private FeedbackResponse handleMultipart(InputStream body, String boundary, String ip, String baseUrl) throws IOException {
+        // 先限流再读取请求体，被拒绝的请求不会写盘；此时还不知道来源页面，只计入小时总量
+        if (!rateLimiterService.allowed(ip)) {
+            feedbackAnalytics.record(null, ip);
+            return FeedbackResponse.of(FeedbackStatus.TOO_FREQUENT);
+        }
+        List<PendingAttachment> attachments = new ArrayList<>();
+        MultipartReader reader = new MultipartReader(new LimitedInputStream(body, maxMultipartBytes()), boundary);
+        try {
+            return handleParts(reader, attachments, ip, baseUrl);
+        } finally {
+            // 已发布的附件不受影响，其余（被拒绝、被重复检测抑制或读取中途失败）的临时文件全部删除
+            attachments.forEach(attachmentStore::discard);
+        }
+    }
+
+    private FeedbackResponse handleParts(MultipartReader reader, List<PendingAttachment> attachments, String ip,
+                                         String baseUrl) throws IOException {
+        FeedbackProperties.Attachments cfg = feedbackConfig.current().getAttachments();
+        FeedbackRequest request = new FeedbackRequest();
+        try {
+            for (MultipartReader.Part part = reader.next(); part != null; part = reader.next()) {
+                if (part.filename() == null) {
+                    bindField(request, part);
+                    continue;
+                }
+                if (part.filename().isEmpty()) {
+                    // 未选择文件的文件字段
+                    continue;
+                }
+                if (!cfg.isEnabled()) {
+                    return FeedbackResponse.of(FeedbackStatus.FAILED, "Attachments disabled");
+                }
+                if (attachments.size() >= cfg.getMaxFiles()) {
+                    return FeedbackResponse.of(FeedbackStatus.FAILED, "Too many attachments, max " + cfg.getMaxFiles());
+                }
+                attachments.add(attachmentStore.receive(part.body()));
+            }
+        } catch (AttachmentRejectedException | MalformedMultipartException e) {
+            return FeedbackResponse.of(FeedbackStatus.FAILED, e.getMessage());
+        } catch (BodyTooLargeException e) {
+            return FeedbackResponse.of(FeedbackStatus.FAILED, "Request exceeds " + maxMultipartBytes() + " bytes");
+        }
+        feedbackAnalytics.record(request.getPageUrl(), ip);
+        FeedbackResponse invalid = validate(request);
+        if (invalid != null) {
+            return invalid;
+        }
+        List<String> links = attachments.stream().map(attachment -> baseUrl + ATTACHMENT_PATH + attachment.fileName()).toList();
+        return deliver(request, links, attachments);
+    }
+
+    private static void bindField(FeedbackRequest request, MultipartReader.Part part) throws IOException {
+        byte[] bytes = part.body().readNBytes(MAX_FIELD_BYTES + 1);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new MalformedMultipartException("Field " + part.name() + " exceeds " + MAX_FIELD_BYTES + " bytes");
+        }
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if (part.name() == null) {
+            return;
+        }
+        switch (part.name()) {
+            case "message" -> request.setMessage(value);
+            case "contact" -> request.setContact(value);
+            case "pageUrl" -> request.setPageUrl(value);
+            case "userAgent" -> request.setUserAgent(value);
+            default -> {
+                // 与 JSON 提交一致，忽略未知字段
+            }
+        }
+    }
+
+    private FeedbackResponse submitItem(JsonNode item, String ip) {
+        FeedbackRequest request;
+        try {
+            request = REQUEST_READER.readValue(item);
+        } catch (JsonProcessingException e) {
+            return FeedbackResponse.of(FeedbackStatus.FAILED, "Invalid item: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return FeedbackResponse.of(FeedbackStatus.FAILED, "Invalid item");
+        }
+        return submit(request, ip);
+    }
+
+    /**
+     * 按 FeedbackRequest 上的约束校验，三种提交方式共用
+     *
+     * @return 校验失败时的 FAILED 响应，通过时返回 null
+     */
+    private FeedbackResponse validate(FeedbackRequest request) {
+        Set<ConstraintViolation<FeedbackRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return FeedbackResponse.of(FeedbackStatus.FAILED, violations.iterator().next().getMessage());
+    }
+
+    private FeedbackResponse handle(FeedbackRequest request, String ip) {
+        if (!rateLimiterService.allowed(ip)) {
+            return FeedbackResponse.of(FeedbackStatus.TOO_FREQUENT);
+        }
+        return deliver(request, null, List.of());
+    }
+
+    /**
+     * 已通过限流的反馈
+     *
+     * @param pending 确定投递时才发布的附件，其链接已包含在 attachments 中
+     */
+    private FeedbackResponse deliver(FeedbackRequest request, List<String> attachments, List<PendingAttachment> pending) {
+        MessageContext context = MessageContext.builder()
+                .message(request.getMessage())
+                .contact(request.getContact())
+                .pageUrl(request.getPageUrl())
+                .userAgent(request.getUserAgent())
+                .attachments(attachments == null || attachments.isEmpty() ? null : List.copyOf(attachments))
+                .build();
+        // 相似反馈也计入历史，便于事后检索刷屏内容
+        feedbackHistory.record(context);
+        if (!duplicateFilter.admit(context)) {
+            // 与窗口内已投递的反馈相似，不再单独投递；对提交者表现为正常提交，SYNC 模式下前端只认 SUCCESS
+            return FeedbackResponse.of(feedbackConfig.current().getDelivery().getMode() == FeedbackProperties.Delivery.Mode.ASYNC
+                    ? FeedbackStatus.ACCEPTED : FeedbackStatus.SUCCESS);
+        }
+        FeedbackProperties cfg = feedbackConfig.current();
+        if (cfg.getDelivery().getMode() == FeedbackProperties.Delivery.Mode.ASYNC) {
+            FeedbackResponse response = enqueue(context, cfg);
+            if (response.getStatus() == FeedbackStatus.ACCEPTED) {
+                // 入队成功后再发布；队列已满等被拒绝的提交，附件随临时文件一起删除
+                try {
+                    publish(pending);
+                } catch (IOException e) {
+                    log.error("附件保存失败，反馈已入队，其中的附件链接不可用", e);
+                }
+            }
+            return response;
+        }
+        try {
+            publish(pending);
+        } catch (IOException e) {
+            log.error("附件保存失败", e);
+            return FeedbackResponse.of(FeedbackStatus.FAILED, "Attachment storage failed");
+        }
+        var result = channelRouter.route(context);
+        if (result.isSuccess()) {
+            return FeedbackResponse.of(FeedbackStatus.SUCCESS);
+        }
+        // 渠道失败的反馈写入死信（由写线程落盘，不等待），可在管理后台重放；对提交者仍返回失败
+        deadLetterStore.record(context, result);
+        String msg = result.getMessage();
+        return FeedbackResponse.of(FeedbackStatus.fromError(msg), msg);
+    }
+
+    private void publish(List<PendingAttachment> pending) throws IOException {
+        for (PendingAttachment attachment : pending) {
+            attachmentStore.publish(attachment);
+        }
+    }
+
+    private FeedbackResponse enqueue(MessageContext context, FeedbackProperties cfg) {
+        // 异步模式下无法从渠道结果中得知禁用状态，入队前先判断，避免消息被静默丢弃
+        if (!cfg.isEnabled()) {
+            return FeedbackResponse.of(FeedbackStatus.CHANNEL_DISABLED, "Feedback disabled");
+        }
+        FeedbackStatus status = feedbackDispatcher.submit(context);
+        if (status == FeedbackStatus.SERVER_BUSY) {
+            return FeedbackResponse.of(status, "Delivery queue is full");
+        }
+        return FeedbackResponse.of(status);
+    }
+
+    /**
+     * 读取超过上限时抛出异常，请求体没有 Content-Length（分块传输）时同样生效，用于批量与 multipart 提交
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        private void consume(long n) throws BodyTooLargeException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new BodyTooLargeException();
+            }
+        }
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+    }
+}
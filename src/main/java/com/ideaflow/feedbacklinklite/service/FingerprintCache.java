@@ -0,0 +1,127 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 定长的近似重复指纹缓存
+ * 最近的 MinHash 签名保存在容量固定的环形数组中，写满后覆盖最旧的条目，内存占用与流量无关。
+ * <p>
+ * 查找采用分段索引（LSH banding）：签名切成 16 段、每段 4 个值，相似的文本大概率至少有一段完全相同
+ * （相似度 0.7 时约 99%，0.3 时约 12%）。每段一张直接映射表（段哈希 → 环形数组下标），
+ * 查找只需比较最多 16 个候选的完整签名，与缓存大小无关。直接映射表冲突时覆盖旧值，最多漏判少量较早的签名，不会误判。
+ */
+final class FingerprintCache {
+    private static final int BANDS = 16;
+    private static final int ROWS = MinHash.SIZE / BANDS;
+
+    private final int requestedCapacity;
+    private final double threshold;
+    private final int mask;
+
+    private final int[] signatures;
+    private final long[] firstSeen;
+    private final int[] counts;
+    private final MessageContext[] samples;
+    // 每段一张索引表，存放环形数组下标 + 1，0 表示空
+    private final int[][] index;
+    private int next;
+    private long droppedFolds;
+
+    FingerprintCache(int capacity, double threshold) {
+        this.requestedCapacity = capacity;
+        this.threshold = threshold;
+        int size = Math.max(16, capacity);
+        this.signatures = new int[size * MinHash.SIZE];
+        this.firstSeen = new long[size];
+        this.counts = new int[size];
+        this.samples = new MessageContext[size];
+        int buckets = Integer.highestOneBit(size * 2 - 1) << 1;
+        this.mask = buckets - 1;
+        this.index = new int[BANDS][buckets];
+    }
+
+    /**
+     * 记录一条消息的签名
+     *
+     * @return true 表示窗口内首次出现，应当投递；false 表示与窗口内已有消息相似，已计入其折叠计数
+     */
+    synchronized boolean offer(int[] signature, MessageContext context, long now, long windowMillis) {
+        int[] buckets = new int[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            int bucket = bucket(signature, band);
+            buckets[band] = bucket;
+            int slot = index[band][bucket] - 1;
+            if (slot >= 0 && samples[slot] != null && now - firstSeen[slot] < windowMillis
+                    && MinHash.similarity(signatures, slot * MinHash.SIZE, signature) >= threshold) {
+                counts[slot]++;
+                return false;
+            }
+        }
+        int slot = next;
+        next = (next + 1) % samples.length;
+        if (samples[slot] != null && counts[slot] > 0) {
+            // 窗口未结束就被覆盖，说明容量不足以覆盖整个窗口，折叠计数无法再汇报
+            droppedFolds += counts[slot];
+        }
+        System.arraycopy(signature, 0, signatures, slot * MinHash.SIZE, MinHash.SIZE);
+        firstSeen[slot] = now;
+        counts[slot] = 0;
+        samples[slot] = context;
+        for (int band = 0; band < BANDS; band++) {
+            index[band][buckets[band]] = slot + 1;
+        }
+        return true;
+    }
+
+    /**
+     * 取出窗口已结束且有被折叠消息的条目，每个条目只返回一次
+     */
+    synchronized List<Folded> drainExpired(long now, long windowMillis) {
+        List<Folded> folded = new ArrayList<>();
+        for (int slot = 0; slot < samples.length; slot++) {
+            if (samples[slot] == null || now - firstSeen[slot] < windowMillis) {
+                continue;
+            }
+            if (counts[slot] > 0) {
+                folded.add(new Folded(samples[slot], counts[slot]));
+            }
+            // 过期条目不再参与匹配，释放消息内容
+            samples[slot] = null;
+            counts[slot] = 0;
+        }
+        return folded;
+    }
+
+    /**
+     * 因容量不足被覆盖、未能汇报的折叠消息数，读取后清零
+     */
+    synchronized long takeDroppedFolds() {
+        long dropped = droppedFolds;
+        droppedFolds = 0;
+        return dropped;
+    }
+
+    /**
+     * 是否按给定配置创建，配置变化后需要重建
+     */
+    boolean isConfiguredFor(int capacity, double threshold) {
+        return requestedCapacity == capacity && this.threshold == threshold;
+    }
+
+    private int bucket(int[] signature, int band) {
+        long h = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            h = (h + signature[i]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * 窗口内的首条消息和被折叠的相似消息数
+     */
+    record Folded(MessageContext sample, int count) {
+    }
+}
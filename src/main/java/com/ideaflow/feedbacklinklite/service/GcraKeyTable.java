@@ -0,0 +1,355 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 定长的 GCRA 状态表：long key → 理论到达时间（TAT）
+ * 按 key 的哈希分成若干段，每段是一张线性探测的开放寻址表（两个 long 数组加一个引用位数组），容量在创建时确定，内存占用可预期。
+ * 与最初基于 AtomicLong 的实现一样，已存在的 key 在热路径上只做一次 CAS，不加锁、不分配对象；
+ * 只有插入新 key、淘汰和定期清理这些改变表结构的操作才持有段锁。
+ * <p>
+ * 表满时不再拒绝新 key，而是用 clock（second chance）算法淘汰：优先淘汰已过期的条目，
+ * 其次淘汰自上次扫描以来没有再访问过的条目。被淘汰的 key 下次出现时按新访客处理，
+ * 因此地址喷射攻击只会让攻击者自身的记录互相挤占，不会阻止新的正常访客。
+ */
+final class GcraKeyTable {
+    private static final int KEYS_PER_SEGMENT = 1024;
+    private static final int MAX_SEGMENTS = 64;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    GcraKeyTable(int maxKeys) {
+        int keys = Math.max(1, maxKeys);
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, keys / KEYS_PER_SEGMENT)));
+        this.segments = new Segment[count];
+        int perSegment = (keys + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * 按 GCRA 规则尝试放行一次请求
+     *
+     * @param interval 两次请求之间的理论间隔
+     * @param limit    TAT 最多领先当前时间多少（突发容量）
+     */
+    boolean tryAcquire(long key, long now, long interval, long limit) {
+        long hash = KeyHashing.mix(key);
+        return segmentFor(hash).tryAcquire(key, hash, now, interval, limit);
+    }
+
+    /**
+     * 移除 TAT 已经落后于当前时间的条目，它们与从未访问过等价
+     */
+    void evictExpired(long now) {
+        for (Segment segment : segments) {
+            segment.evictExpired(now);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * 遍历所有条目；逐段复制后在锁外回调，不会长时间阻塞请求线程
+     */
+    void forEach(EntryVisitor visitor) {
+        for (Segment segment : segments) {
+            long[][] copy = segment.copy();
+            long[] keys = copy[0];
+            long[] tats = copy[1];
+            for (int i = 0; i < keys.length; i++) {
+                if (tats[i] != 0) {
+                    visitor.visit(keys[i], tats[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 恢复一个条目；key 已存在时保留较晚的 TAT
+     */
+    void restore(long key, long tat, long now) {
+        if (tat <= now) {
+            return;
+        }
+        long hash = KeyHashing.mix(key);
+        segmentFor(hash).restore(key, hash, tat, now);
+    }
+
+    /**
+     * 因表满被淘汰的条目总数
+     */
+    long evictions() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            evictions += segment.evictions();
+        }
+        return evictions;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * 一段线性探测表
+     * 槽位状态是一个 long：高位为槽位代数，低 48 位为 TAT（毫秒时间戳可用到公元一万年以后），0 为空槽，MOVING 为正在搬移。
+     * 写入者每次把 key 放入槽位都会换一个新代数，读者用 CAS 比较完整的状态值，
+     * 因此槽位被删除后又分给其他 key 时，旧读者的 CAS 一定失败，不会把 TAT 写到别的 key 上。
+     */
+    private static final class Segment {
+        private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(long[].class);
+        private static final int TAT_BITS = 48;
+        private static final long TAT_MASK = (1L << TAT_BITS) - 1;
+        private static final long GENERATION_MASK = 0x7FFF;
+        private static final long MOVING = -1;
+
+        private final long[] keys;
+        private final long[] states;
+        // 引用位只是淘汰时的参考，无锁路径上的并发写入即使落到刚搬走的槽位也只影响淘汰顺序
+        private final boolean[] referenced;
+        private final int mask;
+        private final int maxSize;
+        // 以下字段只在持有段锁时访问
+        private int size;
+        private int hand;
+        private long generation;
+        private long evictions;
+
+        private Segment(int maxSize) {
+            // 负载因子不超过 0.75，保证探测链足够短
+            int capacity = Integer.highestOneBit(Math.max(2, maxSize + maxSize / 3 + 1) - 1) << 1;
+            this.keys = new long[capacity];
+            this.states = new long[capacity];
+            this.referenced = new boolean[capacity];
+            this.mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        private static long tat(long state) {
+            return state & TAT_MASK;
+        }
+
+        /**
+         * 已存在的 key 只做一次 CAS，不加锁；新 key、搬移中的 key 和探测失败时转入加锁路径
+         */
+        private boolean tryAcquire(long key, long hash, long now, long interval, long limit) {
+            int slot = findOptimistic(key, hash);
+            while (slot >= 0) {
+                long state = (long) STATES.getVolatile(states, slot);
+                if (state <= 0 || keys[slot] != key) {
+                    break;
+                }
+                if (!referenced[slot]) {
+                    referenced[slot] = true;
+                }
+                long next = Math.max(tat(state), now) + interval;
+                if (next - now > limit) {
+                    // 拒绝不修改状态，只需确认读到的 key 与状态属于同一次写入
+                    VarHandle.acquireFence();
+                    if ((long) STATES.getVolatile(states, slot) == state) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (STATES.compareAndSet(states, slot, state, stamp(state, next))) {
+                    return true;
+                }
+            }
+            return tryAcquireLocked(key, hash, now, interval, limit);
+        }
+
+        private synchronized boolean tryAcquireLocked(long key, long hash, long now, long interval, long limit) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                // 持有段锁时槽位不会搬移，但无锁路径仍可能并发修改 TAT
+                referenced[slot] = true;
+                while (true) {
+                    long state = (long) STATES.getVolatile(states, slot);
+                    long next = Math.max(tat(state), now) + interval;
+                    if (next - now > limit) {
+                        return false;
+                    }
+                    if (STATES.compareAndSet(states, slot, state, stamp(state, next))) {
+                        return true;
+                    }
+                }
+            }
+            long next = now + interval;
+            if (next - now > limit) {
+                return false;
+            }
+            if (size >= maxSize) {
+                evictOne(now);
+            }
+            insert(key, hash, next);
+            return true;
+        }
+
+        /**
+         * 不加锁的探测；遇到搬移中的槽位继续向后找，找不到时由加锁路径兜底
+         */
+        private int findOptimistic(long key, long hash) {
+            int i = (int) hash & mask;
+            for (int steps = 0; steps <= mask; steps++) {
+                long state = (long) STATES.getAcquire(states, i);
+                if (state == 0) {
+                    return -1;
+                }
+                if (state > 0 && keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * 持有段锁时的探测，此时不存在搬移中的槽位
+         */
+        private int find(long key, long hash) {
+            int i = (int) hash & mask;
+            while ((long) STATES.getVolatile(states, i) != 0) {
+                if (keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long key, long hash, long tat) {
+            int i = (int) hash & mask;
+            while ((long) STATES.getVolatile(states, i) != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            referenced[i] = false;
+            STATES.setRelease(states, i, freshStamp(tat));
+            size++;
+        }
+
+        /**
+         * 沿用原代数，只替换 TAT
+         */
+        private static long stamp(long state, long tat) {
+            return (state & ~TAT_MASK) | (tat & TAT_MASK);
+        }
+
+        private long freshStamp(long tat) {
+            generation++;
+            return ((generation & GENERATION_MASK) << TAT_BITS) | (tat & TAT_MASK);
+        }
+
+        private void evictOne(long now) {
+            // 每个槽最多被跳过一次（清除引用位），两圈内必然找到可淘汰的条目
+            for (int steps = 0; steps <= 2 * keys.length; steps++) {
+                int i = hand;
+                long state = (long) STATES.getVolatile(states, i);
+                if (state == 0) {
+                    hand = (hand + 1) & mask;
+                    continue;
+                }
+                if (tat(state) <= now || !referenced[i]) {
+                    // 与无锁更新竞争失败说明该条目刚被访问过，重新判断同一个槽
+                    if (STATES.compareAndSet(states, i, state, MOVING)) {
+                        remove(i);
+                        evictions++;
+                        return;
+                    }
+                    continue;
+                }
+                referenced[i] = false;
+                hand = (hand + 1) & mask;
+            }
+        }
+
+        private synchronized void evictExpired(long now) {
+            int i = 0;
+            while (i < keys.length) {
+                long state = (long) STATES.getVolatile(states, i);
+                if (state != 0 && tat(state) <= now) {
+                    // 删除后后续条目可能前移到当前位置，需要重新检查；CAS 失败说明刚被访问过，同样重新检查
+                    if (STATES.compareAndSet(states, i, state, MOVING)) {
+                        remove(i);
+                    }
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        /**
+         * 线性探测的删除：把后续探测链上的条目前移填补空位，不使用墓碑
+         * 调用前 slot 已被置为 MOVING；每个被搬移的条目先原子地置为 MOVING 再写入新位置，
+         * 并发的无锁更新要么在此之前完成并被一起搬走，要么 CAS 失败后转入加锁路径。
+         */
+        private void remove(int slot) {
+            int hole = slot;
+            int i = (slot + 1) & mask;
+            while ((long) STATES.getVolatile(states, i) != 0) {
+                int home = (int) KeyHashing.mix(keys[i]) & mask;
+                // home 不在 (hole, i] 区间内时，条目可以前移到 hole
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    long moved = (long) STATES.getAndSet(states, i, MOVING);
+                    keys[hole] = keys[i];
+                    referenced[hole] = referenced[i];
+                    STATES.setRelease(states, hole, freshStamp(tat(moved)));
+                    hole = i;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[hole] = 0;
+            referenced[hole] = false;
+            STATES.setRelease(states, hole, 0L);
+            size--;
+        }
+
+        private synchronized long[][] copy() {
+            long[] tats = new long[states.length];
+            for (int i = 0; i < states.length; i++) {
+                tats[i] = tat((long) STATES.getVolatile(states, i));
+            }
+            return new long[][]{keys.clone(), tats};
+        }
+
+        private synchronized void restore(long key, long hash, long tat, long now) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                long state;
+                do {
+                    state = (long) STATES.getVolatile(states, slot);
+                } while (!STATES.compareAndSet(states, slot, state, stamp(state, Math.max(tat(state), tat))));
+                return;
+            }
+            if (size >= maxSize) {
+                evictOne(now);
+            }
+            insert(key, hash, tat);
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private synchronized long evictions() {
+            return evictions;
+        }
+    }
+
+    interface EntryVisitor {
+        void visit(long key, long tat);
+    }
+}
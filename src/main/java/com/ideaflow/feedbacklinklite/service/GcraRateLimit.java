@@ -0,0 +1,88 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * GCRA（Generic Cell Rate Algorithm）限流
+ * 每个 key 只保存一个“理论到达时间”（TAT），请求间隔 T = ceil(窗口 / maxRequests)。
+ * 一次请求把 TAT 推后 T，只要推后后的 TAT 距当前时间不超过 maxRequests * T 就放行，
+ * 因此空闲的 key 可以一次性连续发起 maxRequests 次请求，之后每隔 T 恢复一次额度。
+ * <p>
+ * 长期速率与滑动窗口一致，但单个窗口内的上限不同：额度是匀速恢复的，而不是窗口到期后一次性全部恢复，
+ * 所以空闲的 key 先突发 maxRequests 次，之后同一窗口内每隔 T 还能再放行一次，任意一个窗口长度内最多约 2 * maxRequests - 1 次；
+ * 滑动窗口则严格保证任意窗口内不超过 maxRequests 次。
+ * 状态保存在定长的 {@link GcraKeyTable} 中，表满时淘汰旧条目而不是拒绝新 key。
+ */
+class GcraRateLimit implements RateLimitAlgorithm {
+    private final GcraKeyTable table;
+
+    GcraRateLimit(int maxKeys) {
+        this.table = new GcraKeyTable(maxKeys);
+    }
+
+    @Override
+    public boolean tryAcquire(long key, long now, int maxRequests, long windowMillis) {
+        if (maxRequests <= 0) {
+            return false;
+        }
+        // 向上取整，保证长期速率不超过 maxRequests / 窗口
+        long interval = Math.max(1, (windowMillis + maxRequests - 1) / maxRequests);
+        return table.tryAcquire(key, now, interval, interval * maxRequests);
+    }
+
+    @Override
+    public void evictExpired(long now, long windowMillis) {
+        table.evictExpired(now);
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public long evictions() {
+        return table.evictions();
+    }
+
+    /**
+     * 快照格式：若干个 (key, tat) 对，以 tat = 0 结束
+     */
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        try {
+            table.forEach((key, tat) -> {
+                try {
+                    out.writeLong(key);
+                    out.writeLong(tat);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.writeLong(0);
+        out.writeLong(0);
+    }
+
+    @Override
+    public int readFrom(DataInput in, long now, long windowMillis) throws IOException {
+        int restored = 0;
+        while (true) {
+            long key = in.readLong();
+            long tat = in.readLong();
+            if (tat == 0) {
+                return restored;
+            }
+            // TAT 已经过去的条目与从未访问过等价
+            if (tat > now) {
+                table.restore(key, tat, now);
+                restored++;
+            }
+        }
+    }
+}
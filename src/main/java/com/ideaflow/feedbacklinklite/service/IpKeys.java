@@ -0,0 +1,195 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+
+/**
+ * 把 IP 地址编码为限流表使用的 long key，不创建中间对象
+ * <ul>
+ *     <li>IPv4（包括 IPv4-mapped IPv6）按前缀长度截断后放在低 32 位，并在第 32 位打标记，与 IPv6 key 区分</li>
+ *     <li>IPv6 只取前 64 位并按前缀长度截断，同一个 /64（通常是同一个用户或同一台主机）共用一个 key</li>
+ *     <li>无法解析的地址退化为字符串哈希</li>
+ * </ul>
+ * IPv4 标记位落在 IPv6 保留的 ::/32 段内，不会与真实的 IPv6 客户端冲突。
+ */
+final class IpKeys {
+    private static final long IPV4_TAG = 1L << 32;
+    private static final long INVALID = -1;
+
+    private IpKeys() {
+    }
+
+    /**
+     * @param ipv4PrefixLength IPv4 前缀长度（0-32），单个 IP 限流使用 32
+     * @param ipv6PrefixLength IPv6 前缀长度（0-64）
+     */
+    static long encode(String ip, int ipv4PrefixLength, int ipv6PrefixLength) {
+        if (ip == null || ip.isEmpty()) {
+            return KeyHashing.fnv1a("");
+        }
+        long v4 = parseIpv4(ip, 0, ip.length());
+        if (v4 != INVALID) {
+            return ipv4Key(v4, ipv4PrefixLength);
+        }
+        long key = encodeIpv6(ip, ipv4PrefixLength, ipv6PrefixLength);
+        return key != INVALID ? key : KeyHashing.fnv1a(ip);
+    }
+
+    private static long ipv4Key(long address, int prefixLength) {
+        return IPV4_TAG | (address & prefixMask32(prefixLength));
+    }
+
+    private static long encodeIpv6(String ip, int ipv4PrefixLength, int ipv6PrefixLength) {
+        int start = 0;
+        int end = ip.length();
+        if (ip.charAt(0) == '[' && ip.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        int zone = ip.indexOf('%', start);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        // 先校验并统计 "::" 两侧的分组数，再把每个分组写入 128 位地址的对应位置
+        int compress = indexOf(ip, "::", start, end);
+        int headEnd = compress < 0 ? end : compress;
+        int tailStart = compress < 0 ? end : compress + 2;
+        if (compress >= 0 && indexOf(ip, "::", compress + 1, end) >= 0) {
+            return INVALID;
+        }
+        int headGroups = countGroups(ip, start, headEnd, compress < 0);
+        int tailGroups = countGroups(ip, tailStart, end, true);
+        if (headGroups < 0 || tailGroups < 0) {
+            return INVALID;
+        }
+        if (compress < 0 ? headGroups != 8 : headGroups + tailGroups > 7) {
+            return INVALID;
+        }
+        int tailPosition = 8 - tailGroups;
+        long hi = bits(ip, start, headEnd, 0, false) | bits(ip, tailStart, end, tailPosition, false);
+        long lo = bits(ip, start, headEnd, 0, true) | bits(ip, tailStart, end, tailPosition, true);
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return ipv4Key(lo & 0xFFFFFFFFL, ipv4PrefixLength);
+        }
+        return hi & prefixMask64(ipv6PrefixLength);
+    }
+
+    /**
+     * 校验 [from, to) 内以冒号分隔的分组并返回分组数，内嵌 IPv4 计为两组；格式错误返回 -1
+     */
+    private static int countGroups(String ip, int from, int to, boolean allowIpv4) {
+        if (from == to) {
+            return 0;
+        }
+        int groups = 0;
+        int groupStart = from;
+        while (true) {
+            int groupEnd = indexOf(ip, ":", groupStart, to);
+            boolean last = groupEnd < 0;
+            if (last) {
+                groupEnd = to;
+            }
+            if (indexOf(ip, ".", groupStart, groupEnd) >= 0) {
+                // 内嵌 IPv4 只能是最后一组
+                if (!last || !allowIpv4 || parseIpv4(ip, groupStart, groupEnd) == INVALID) {
+                    return -1;
+                }
+                groups += 2;
+            } else if (parseHexGroup(ip, groupStart, groupEnd) < 0) {
+                return -1;
+            } else {
+                groups++;
+            }
+            if (last) {
+                return groups;
+            }
+            groupStart = groupEnd + 1;
+        }
+    }
+
+    /**
+     * 取出 [from, to) 内的分组（首组位于 position）落在高 64 位或低 64 位中的部分，调用前须已通过 countGroups 校验
+     */
+    private static long bits(String ip, int from, int to, int position, boolean lowHalf) {
+        if (from == to) {
+            return 0;
+        }
+        long value = 0;
+        int groupStart = from;
+        while (groupStart <= to) {
+            int groupEnd = indexOf(ip, ":", groupStart, to);
+            if (groupEnd < 0) {
+                groupEnd = to;
+            }
+            if (indexOf(ip, ".", groupStart, groupEnd) >= 0) {
+                if (lowHalf) {
+                    value |= parseIpv4(ip, groupStart, groupEnd);
+                }
+                return value;
+            }
+            long group = parseHexGroup(ip, groupStart, groupEnd);
+            if (position < 4 && !lowHalf) {
+                value |= group << (16 * (3 - position));
+            } else if (position >= 4 && lowHalf) {
+                value |= group << (16 * (7 - position));
+            }
+            position++;
+            groupStart = groupEnd + 1;
+        }
+        return value;
+    }
+
+    private static int indexOf(String ip, String target, int from, int to) {
+        int index = ip.indexOf(target, from);
+        return index >= 0 && index + target.length() <= to ? index : -1;
+    }
+
+    private static int parseHexGroup(String ip, int from, int to) {
+        if (to == from || to - from > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(ip.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static long parseIpv4(String ip, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = from; i < to; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return INVALID;
+                }
+            } else if (c == '.' && value >= 0 && octets < 3) {
+                address = (address << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return INVALID;
+            }
+        }
+        if (value < 0 || octets != 3) {
+            return INVALID;
+        }
+        return (address << 8) | value;
+    }
+
+    private static long prefixMask32(int prefixLength) {
+        int bits = Math.clamp(prefixLength, 0, 32);
+        return bits == 0 ? 0 : (0xFFFFFFFFL << (32 - bits)) & 0xFFFFFFFFL;
+    }
+
+    private static long prefixMask64(int prefixLength) {
+        int bits = Math.clamp(prefixLength, 0, 64);
+        return bits == 0 ? 0 : -1L << (64 - bits);
+    }
+}
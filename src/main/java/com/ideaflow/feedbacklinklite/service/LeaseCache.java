@@ -0,0 +1,47 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 共享存储限流的本地近端缓存（直接映射，定长）
+ * 每个槽保存一个 key 的租约：从共享存储预先领取、尚未使用的额度，以及被拒绝后的冷却截止时间。
+ * 冲突时后写入的 key 直接覆盖旧条目，被覆盖的 key 只是多访问一次共享存储。
+ */
+final class LeaseCache {
+    private final AtomicReferenceArray<Lease> slots;
+    private final int mask;
+
+    LeaseCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    Lease get(int index) {
+        return slots.get(index);
+    }
+
+    boolean replace(int index, Lease expected, Lease update) {
+        return slots.compareAndSet(index, expected, update);
+    }
+
+    void set(int index, Lease lease) {
+        slots.set(index, lease);
+    }
+
+    /**
+     * @param tokens       剩余可在本地直接放行的次数
+     * @param expiresAt    租约到期时间，到期未用完的额度在下次访问共享存储时归还
+     * @param deniedUntil  在此之前直接拒绝，不访问共享存储
+     */
+    record Lease(long key, int tokens, long expiresAt, long deniedUntil) {
+        boolean matches(long key) {
+            return this.key == key;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 进程内的限流后端（默认）
+ * 单个 IP 按配置选择滑动窗口或 GCRA，网段聚合固定使用 GCRA。
+ */
+@Slf4j
+@Component
+public class LocalRateLimitBackend implements RateLimitBackend {
+    public static final String NAME = "local";
+
+    private final FeedbackConfigHolder feedbackConfig;
+    // 两种算法各自维护状态，按配置选择；未被选中的算法不会产生任何 key
+    // key 数量上限防止恶意攻击导致内存溢出，满了之后淘汰旧记录，新 IP 不会被拒绝
+    private final RateLimitAlgorithm slidingWindow;
+    private final RateLimitAlgorithm gcra;
+    // 网段聚合限流固定使用 GCRA，内存占用与网段数量无关
+    private final RateLimitAlgorithm subnets;
+
+    public LocalRateLimitBackend(FeedbackConfigHolder feedbackConfig) {
+        this.feedbackConfig = feedbackConfig;
+        int maxKeys = feedbackConfig.current().getRateLimit().getMaxKeys();
+        this.slidingWindow = new SlidingWindowRateLimit(maxKeys);
+        this.gcra = new GcraRateLimit(maxKeys);
+        this.subnets = new GcraRateLimit(maxKeys);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean tryAcquire(Scope scope, long key, long now, int maxRequests, long windowMillis) {
+        return algorithm(scope).tryAcquire(key, now, maxRequests, windowMillis);
+    }
+
+    private RateLimitAlgorithm algorithm(Scope scope) {
+        if (scope == Scope.SUBNET) {
+            return subnets;
+        }
+        FeedbackProperties.RateLimit cfg = feedbackConfig.current().getRateLimit();
+        return cfg.getAlgorithm() == FeedbackProperties.RateLimit.Algorithm.GCRA ? gcra : slidingWindow;
+    }
+
+    @Override
+    public void evictExpired(long now, long windowMillis) {
+        // 切换算法后，旧算法残留的 key 也会在这里逐步清空
+        slidingWindow.evictExpired(now, windowMillis);
+        gcra.evictExpired(now, windowMillis);
+        subnets.evictExpired(now, windowMillis);
+        log.debug("Local rate limiter keys: {}, subnets: {}, evicted when full: {}",
+                slidingWindow.size() + gcra.size(), subnets.size(),
+                slidingWindow.evictions() + gcra.evictions() + subnets.evictions());
+    }
+
+    /**
+     * 当前跟踪的单个 IP（含 IPv6 前缀）key 数量
+     */
+    public int trackedKeys() {
+        return slidingWindow.size() + gcra.size();
+    }
+
+    /**
+     * 当前跟踪的网段 key 数量
+     */
+    public int trackedSubnets() {
+        return subnets.size();
+    }
+
+    /**
+     * 依次写出滑动窗口、GCRA、网段三部分状态
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        slidingWindow.writeTo(out);
+        gcra.writeTo(out);
+        subnets.writeTo(out);
+    }
+
+    /**
+     * 按 {@link #writeSnapshot} 的顺序恢复状态，已过期的条目被丢弃
+     *
+     * @return 恢复的 key 数量
+     */
+    public int readSnapshot(DataInput in, long now) throws IOException {
+        long windowMillis = feedbackConfig.current().getRateLimit().getWindowMinutes() * 60 * 1000L;
+        return slidingWindow.readFrom(in, now, windowMillis)
+                + gcra.readFrom(in, now, windowMillis)
+                + subnets.readFrom(in, now, windowMillis);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+
+import java.util.Arrays;
+
+/**
+ * MinHash 文本签名
+ * 文本先归一化（转小写、去掉空白与标点、连续数字统一为一个 0），再按 3 个字符一组切分（中文没有分词边界，按字符切分更稳定）。
+ * 对每个哈希函数取所有分组哈希的最小值，两条文本签名中相同位置取值相等的比例即为分组集合 Jaccard 相似度的估计，
+ * 改动几个字或替换订单号仍能识别为相似。
+ */
+final class MinHash {
+    static final int SIZE = 64;
+
+    private static final int SHINGLE = 3;
+    private static final long[] MULTIPLIERS = new long[SIZE];
+    private static final long[] INCREMENTS = new long[SIZE];
+
+    static {
+        // 固定种子，保证签名在重启前后一致
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SIZE; i++) {
+            seed = KeyHashing.mix(seed + 0x9E3779B97F4A7C15L);
+            MULTIPLIERS[i] = seed | 1;
+            seed = KeyHashing.mix(seed + 0x9E3779B97F4A7C15L);
+            INCREMENTS[i] = seed;
+        }
+    }
+
+    private MinHash() {
+    }
+
+    static int[] signature(String text) {
+        return signature(normalize(text));
+    }
+
+    /**
+     * @param normalized {@link #normalize} 的结果
+     */
+    static int[] signature(int[] normalized) {
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        if (normalized.length <= SHINGLE) {
+            // 过短的文本整体作为一个分组
+            update(signature, KeyHashing.hash(normalized, 0, normalized.length));
+            return signature;
+        }
+        for (int i = 0; i + SHINGLE <= normalized.length; i++) {
+            update(signature, KeyHashing.hash(normalized, i, SHINGLE));
+        }
+        return signature;
+    }
+
+    /**
+     * 估计两个签名对应文本的 Jaccard 相似度
+     */
+    static double similarity(int[] a, int aOffset, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[aOffset + i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIZE;
+    }
+
+    /**
+     * 只保留字母和数字（含中日韩文字），统一为小写，连续数字替换为一个 0
+     */
+    static int[] normalize(String text) {
+        if (text == null) {
+            return new int[0];
+        }
+        int[] out = new int[text.length()];
+        int n = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isDigit(cp)) {
+                // 订单号、手机号等长度不同也视为相同
+                if (n == 0 || out[n - 1] != '0') {
+                    out[n++] = '0';
+                }
+            } else if (Character.isLetter(cp)) {
+                out[n++] = Character.toLowerCase(cp);
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static void update(int[] signature, long shingleHash) {
+        for (int i = 0; i < SIZE; i++) {
+            // 取乘法哈希的高 32 位；只要求全序一致，按有符号比较即可
+            int value = (int) ((shingleHash * MULTIPLIERS[i] + INCREMENTS[i]) >>> 32);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 限流算法，按 key 记录状态，key 由 {@link IpKeys} 从 IP 或网段编码而来
+ */
+interface RateLimitAlgorithm {
+
+    /**
+     * 尝试为 key 记录一次请求
+     *
+     * @param maxRequests  窗口内允许的最大请求数
+     * @param windowMillis 窗口长度（毫秒）
+     * @return true 表示允许访问
+     */
+    boolean tryAcquire(long key, long now, int maxRequests, long windowMillis);
+
+    /**
+     * 清理已经不再影响限流结果的 key
+     */
+    void evictExpired(long now, long windowMillis);
+
+    /**
+     * 当前保存的 key 数量
+     */
+    int size();
+
+    /**
+     * 因容量已满被淘汰的 key 数量
+     */
+    long evictions();
+
+    /**
+     * 把当前状态写入快照，格式由实现自行定义并以结束标记收尾
+     */
+    void writeTo(DataOutput out) throws IOException;
+
+    /**
+     * 从快照恢复状态，跳过已经过期的条目
+     *
+     * @return 恢复的 key 数量
+     */
+    int readFrom(DataInput in, long now, long windowMillis) throws IOException;
+}
@@ -0,0 +1,35 @@
+package com.ideaflow.feedbacklinklite.service;
+
+/**
+ * 限流状态的存储后端，通过 feedback.rate-limit.backend 按 {@link #name()} 选择
+ * 默认的 local 后端把状态保存在当前 JVM 中；多副本部署时可以切换为共享存储的后端，使限额对整个集群生效。
+ */
+public interface RateLimitBackend {
+
+    /**
+     * key 的含义，不同作用域的计数互不影响
+     */
+    enum Scope {
+        IP,
+        SUBNET
+    }
+
+    String name();
+
+    /**
+     * 尝试为 key 记录一次请求
+     *
+     * @param key          由 IP 或网段编码而来的 key
+     * @param now          当前时间（毫秒）
+     * @param maxRequests  窗口内允许的最大请求数
+     * @param windowMillis 窗口长度（毫秒）
+     * @return true 表示允许访问
+     */
+    boolean tryAcquire(Scope scope, long key, long now, int maxRequests, long windowMillis);
+
+    /**
+     * 定时清理过期状态，由存储自身负责过期的后端无需实现
+     */
+    default void evictExpired(long now, long windowMillis) {
+    }
+}
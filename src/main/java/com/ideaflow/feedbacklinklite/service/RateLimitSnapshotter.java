@@ -0,0 +1,160 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigStorage;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 本地限流状态的快照
+ * 启动时从数据目录加载上次保存的状态（丢弃停机期间已过期的条目），运行中定时保存，正常关闭时再保存一次，
+ * 避免每次重启或发布都让被限流的客户端拿到新的额度。
+ * <p>
+ * 保存在定时任务线程中进行，各限流表只在复制单个段或单个 IP 的记录时短暂加锁，不影响请求线程。
+ * 文件格式：magic(int) version(short) savedAt(long) 各部分状态 CRC32C(int)，先写临时文件再原子替换。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitSnapshotter implements CommandLineRunner, Ordered {
+    private static final int MAGIC = 0x464C524C; // "FLRL"
+    private static final short VERSION = 1;
+    private static final String FILE_NAME = "ratelimit.snapshot";
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final FeedbackConfigStorage feedbackConfigStorage;
+    private final LocalRateLimitBackend localRateLimitBackend;
+
+    @Override
+    public int getOrder() {
+        // 外部配置加载之后执行
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = resolveFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            byte[] data = Files.readAllBytes(file);
+            int restored = restore(data, System.currentTimeMillis());
+            if (restored >= 0) {
+                log.info("已从快照恢复限流状态 {} 个 key: {}", restored, file);
+            }
+        } catch (IOException e) {
+            log.warn("读取限流快照失败，忽略快照: {}", file, e);
+        }
+    }
+
+    /**
+     * @return 恢复的 key 数量，快照无效时返回 -1
+     */
+    int restore(byte[] data, long now) throws IOException {
+        if (data.length < 18) {
+            log.warn("限流快照长度异常，忽略");
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt(0) != MAGIC) {
+            log.warn("限流快照格式不正确，忽略");
+            return -1;
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            log.warn("不支持的限流快照版本 {}，忽略", version);
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != buffer.getInt(data.length - 4)) {
+            log.warn("限流快照校验失败，忽略");
+            return -1;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 14, data.length - 18));
+        return localRateLimitBackend.readSnapshot(in, now);
+    }
+
+    @Scheduled(initialDelayString = "#{${feedback.rate-limit.snapshot.interval-seconds:60} * 1000}",
+            fixedDelayString = "#{${feedback.rate-limit.snapshot.interval-seconds:60} * 1000}")
+    public void scheduledSave() {
+        if (isEnabled()) {
+            save();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (isEnabled()) {
+            save();
+        }
+    }
+
+    void save() {
+        Path file = resolveFile();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            write(Files.newOutputStream(tmp));
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.debug("限流快照已保存: {}", file);
+        } catch (IOException e) {
+            log.warn("保存限流快照失败: {}", file, e);
+        }
+    }
+
+    void write(OutputStream target) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(target, crc), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            localRateLimitBackend.writeSnapshot(out);
+            out.flush();
+            // 校验值本身不参与计算
+            out.writeInt((int) crc.getValue());
+        }
+    }
+
+    private boolean isEnabled() {
+        FeedbackProperties.RateLimit.Snapshot snapshot = feedbackConfig.current().getRateLimit().getSnapshot();
+        return snapshot != null && snapshot.isEnabled();
+    }
+
+    private Path resolveFile() {
+        String file = feedbackConfig.current().getRateLimit().getSnapshot().getFile();
+        return StringUtils.hasText(file)
+                ? Paths.get(file).toAbsolutePath().normalize()
+                : feedbackConfigStorage.resolveDataDir(feedbackConfig.current()).resolve(FILE_NAME);
+    }
+}
@@ -0,0 +1,216 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于 Redis 协议共享存储的限流后端，使多副本部署下的限额对整个集群生效
+ * <ul>
+ *     <li>每个 key 在存储中保存 GCRA 的理论到达时间，检查与更新由 Lua 脚本原子完成，时间取存储端时钟，避免副本间时钟偏差</li>
+ *     <li>所有请求线程的检查经同一条连接批量发送（pipelining）</li>
+ *     <li>本地近端缓存：被拒绝的 key 在冷却结束前直接拒绝；lease-size 大于 1 时一次领取多个额度，后续请求在本地放行</li>
+ *     <li>存储不可达或超时时退回本地限流，恢复后自动切回</li>
+ * </ul>
+ * 此后端固定使用 GCRA，rate-limit.algorithm 只对本地后端生效。
+ */
+@Slf4j
+@Component
+public class RedisRateLimitBackend implements RateLimitBackend {
+    public static final String NAME = "redis";
+
+    /**
+     * ARGV: interval, limit, 期望领取的额度数, 归还的额度数
+     * 返回 {领取到的额度数, 距下次可放行的毫秒数}
+     */
+    static final String SCRIPT = """
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local interval = tonumber(ARGV[1])
+            local limit = tonumber(ARGV[2])
+            local want = tonumber(ARGV[3])
+            local refund = tonumber(ARGV[4])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if refund > 0 then tat = tat - refund * interval end
+            if tat < now then tat = now end
+            local granted = math.floor((limit - (tat - now)) / interval)
+            if granted > want then granted = want end
+            if granted <= 0 then
+              if refund > 0 then
+                if tat > now then redis.call('SET', KEYS[1], tat, 'PX', tat - now) else redis.call('DEL', KEYS[1]) end
+              end
+              return {0, tat + interval - limit - now}
+            end
+            tat = tat + granted * interval
+            redis.call('SET', KEYS[1], tat, 'PX', tat - now)
+            return {granted, 0}
+            """;
+    static final String SCRIPT_SHA = sha1(SCRIPT);
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final LocalRateLimitBackend fallback;
+    private final LongAdder remoteChecks = new LongAdder();
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private volatile Holder holder;
+
+    public RedisRateLimitBackend(FeedbackConfigHolder feedbackConfig, LocalRateLimitBackend fallback) {
+        this.feedbackConfig = feedbackConfig;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean tryAcquire(Scope scope, long key, long now, int maxRequests, long windowMillis) {
+        if (maxRequests <= 0) {
+            return false;
+        }
+        Holder current = holder();
+        if (!current.client.isAvailable()) {
+            fallbacks.increment();
+            return fallback.tryAcquire(scope, key, now, maxRequests, windowMillis);
+        }
+        LeaseCache cache = current.caches[scope.ordinal()];
+        int index = cache.indexOf(key);
+        int refund = 0;
+        while (true) {
+            LeaseCache.Lease lease = cache.get(index);
+            if (lease == null || !lease.matches(key)) {
+                break;
+            }
+            if (now < lease.deniedUntil()) {
+                localHits.increment();
+                return false;
+            }
+            if (lease.tokens() > 0 && now < lease.expiresAt()) {
+                if (cache.replace(index, lease, new LeaseCache.Lease(key, lease.tokens() - 1, lease.expiresAt(), 0))) {
+                    localHits.increment();
+                    return true;
+                }
+                continue;
+            }
+            // 租约过期：取走剩余额度，随本次请求归还给共享存储
+            if (cache.replace(index, lease, null)) {
+                refund = lease.tokens();
+                break;
+            }
+        }
+
+        FeedbackProperties.RateLimit.Redis cfg = current.config;
+        long interval = Math.max(1, (windowMillis + maxRequests - 1) / maxRequests);
+        long limit = interval * maxRequests;
+        int want = Math.max(1, Math.min(cfg.getLeaseSize(), maxRequests));
+        String redisKey = cfg.getKeyPrefix() + (scope == Scope.IP ? "ip:" : "net:") + Long.toHexString(key);
+        List<?> reply;
+        try {
+            reply = eval(current, redisKey, interval, limit, want, refund);
+        } catch (Exception e) {
+            log.debug("Redis rate limit check failed, falling back to local: {}", e.toString());
+            fallbacks.increment();
+            return fallback.tryAcquire(scope, key, now, maxRequests, windowMillis);
+        }
+        remoteChecks.increment();
+        long granted = ((Number) reply.get(0)).longValue();
+        if (granted > 0) {
+            if (granted > 1) {
+                cache.set(index, new LeaseCache.Lease(key, (int) granted - 1, now + cfg.getLeaseMillis(), 0));
+            }
+            return true;
+        }
+        long waitMillis = ((Number) reply.get(1)).longValue();
+        if (waitMillis > 0) {
+            cache.set(index, new LeaseCache.Lease(key, 0, 0, now + waitMillis));
+        }
+        return false;
+    }
+
+    private List<?> eval(Holder current, String redisKey, long interval, long limit, int want, int refund)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        String[] args = {String.valueOf(interval), String.valueOf(limit), String.valueOf(want), String.valueOf(refund)};
+        Object reply = await(current, current.client.execute("EVALSHA", SCRIPT_SHA, "1", redisKey, args[0], args[1], args[2], args[3]));
+        if (reply instanceof RespClient.RespError error && error.message().startsWith("NOSCRIPT")) {
+            // 存储重启或首次使用，EVAL 会同时把脚本缓存到服务端
+            reply = await(current, current.client.execute("EVAL", SCRIPT, "1", redisKey, args[0], args[1], args[2], args[3]));
+        }
+        if (reply instanceof List<?> list && list.size() == 2) {
+            return list;
+        }
+        throw new ExecutionException(new IllegalStateException("Unexpected reply: " + reply));
+    }
+
+    private static Object await(Holder current, CompletableFuture<Object> future)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(current.config.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Holder holder() {
+        FeedbackProperties.RateLimit.Redis cfg = feedbackConfig.current().getRateLimit().getRedis();
+        Holder current = holder;
+        if (current != null && current.config.equals(cfg)) {
+            return current;
+        }
+        synchronized (this) {
+            current = holder;
+            if (current == null || !current.config.equals(cfg)) {
+                if (current != null) {
+                    current.client.close();
+                }
+                FeedbackProperties.RateLimit.Redis copy = cfg.copy();
+                RespClient client = new RespClient(new RespClient.Settings(copy.getHost(), copy.getPort(), copy.getPassword(),
+                        copy.getDatabase(), copy.getConnectTimeoutMillis(), copy.getIoTimeoutMillis(),
+                        copy.getReconnectMillis(), copy.getMaxBatch()));
+                LeaseCache[] caches = new LeaseCache[Scope.values().length];
+                for (int i = 0; i < caches.length; i++) {
+                    caches[i] = new LeaseCache(copy.getNearCacheSize());
+                }
+                current = new Holder(copy, client, caches);
+                holder = current;
+            }
+            return current;
+        }
+    }
+
+    @Override
+    public void evictExpired(long now, long windowMillis) {
+        // 共享存储中的 key 自带过期时间；这里只记录统计，退回本地期间产生的状态由本地后端自己清理
+        log.debug("Redis rate limit stats remote={} local={} fallback={}", remoteChecks.sum(), localHits.sum(), fallbacks.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Holder current = holder;
+        if (current != null) {
+            current.client.close();
+        }
+    }
+
+    private static String sha1(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Holder(FeedbackProperties.RateLimit.Redis config, RespClient client, LeaseCache[] caches) {
+    }
+}
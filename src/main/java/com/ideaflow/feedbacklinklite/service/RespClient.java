@@ -0,0 +1,239 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 最小化的 RESP（Redis 协议）客户端，只支持请求/响应式命令
+ * 所有调用方的命令进入同一个队列，由单个虚拟线程批量取出后一次写出（pipelining），再按顺序读取响应。
+ * 连接失败后在 reconnectMillis 内直接返回失败，调用方据此退回本地逻辑，不会堆积等待。
+ */
+@Slf4j
+final class RespClient implements AutoCloseable {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final Settings settings;
+    private final BlockingQueue<Command> queue;
+    private final Thread worker;
+
+    private volatile boolean closed;
+    private volatile long downUntil;
+    private Socket socket;
+    private OutputStream out;
+    private InputStream in;
+
+    RespClient(Settings settings) {
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, settings.maxBatch() * 8));
+        this.worker = Thread.ofVirtual().name("resp-pipeline").start(this::loop);
+    }
+
+    /**
+     * 异步执行一条命令；返回 String（简单字符串、批量字符串）、Long、List 或 {@link RespError}
+     * 连接不可用或队列已满时返回异常完成的 Future。
+     */
+    CompletableFuture<Object> execute(String... args) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (closed || System.currentTimeMillis() < downUntil) {
+            future.completeExceptionally(new IOException("RESP server unavailable"));
+            return future;
+        }
+        if (!queue.offer(new Command(args, future))) {
+            future.completeExceptionally(new IOException("RESP pipeline queue is full"));
+        }
+        return future;
+    }
+
+    boolean isAvailable() {
+        return !closed && System.currentTimeMillis() >= downUntil;
+    }
+
+    private void loop() {
+        List<Command> batch = new ArrayList<>(settings.maxBatch());
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, settings.maxBatch() - 1);
+            try {
+                ensureConnected();
+                for (Command command : batch) {
+                    write(out, command.args);
+                }
+                out.flush();
+                for (Command command : batch) {
+                    command.future.complete(read(in));
+                }
+            } catch (IOException e) {
+                log.warn("RESP connection to {}:{} failed: {}", settings.host(), settings.port(), e.toString());
+                downUntil = System.currentTimeMillis() + settings.reconnectMillis();
+                disconnect();
+                for (Command command : batch) {
+                    command.future.completeExceptionally(e);
+                }
+                failQueued(e);
+            }
+            batch.clear();
+        }
+        disconnect();
+        failQueued(new IOException("RESP client closed"));
+    }
+
+    private void failQueued(IOException e) {
+        Command command;
+        while ((command = queue.poll()) != null) {
+            command.future.completeExceptionally(e);
+        }
+    }
+
+    private void ensureConnected() throws IOException {
+        if (socket != null) {
+            return;
+        }
+        Socket s = new Socket();
+        try {
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(settings.ioTimeoutMillis());
+            s.connect(new InetSocketAddress(settings.host(), settings.port()), settings.connectTimeoutMillis());
+            OutputStream o = new BufferedOutputStream(s.getOutputStream(), 8192);
+            InputStream i = new BufferedInputStream(s.getInputStream(), 8192);
+            if (settings.password() != null && !settings.password().isEmpty()) {
+                handshake(o, i, "AUTH", settings.password());
+            }
+            if (settings.database() != 0) {
+                handshake(o, i, "SELECT", String.valueOf(settings.database()));
+            }
+            socket = s;
+            out = o;
+            in = i;
+            log.info("RESP connected to {}:{}", settings.host(), settings.port());
+        } catch (IOException e) {
+            s.close();
+            throw e;
+        }
+    }
+
+    private static void handshake(OutputStream o, InputStream i, String... args) throws IOException {
+        write(o, args);
+        o.flush();
+        Object reply = read(i);
+        if (reply instanceof RespError error) {
+            throw new IOException(args[0] + " failed: " + error.message());
+        }
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 关闭失败无需处理
+            }
+        }
+        socket = null;
+        out = null;
+        in = null;
+    }
+
+    static void write(OutputStream out, String... args) throws IOException {
+        out.write('*');
+        out.write(String.valueOf(args.length).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        for (String arg : args) {
+            byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            out.write('$');
+            out.write(String.valueOf(bytes.length).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+            out.write(bytes);
+            out.write(CRLF);
+        }
+    }
+
+    static Object read(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException("RESP connection closed");
+        }
+        String line = readLine(in);
+        return switch (type) {
+            case '+' -> line;
+            case '-' -> new RespError(line);
+            case ':' -> Long.parseLong(line);
+            case '$' -> {
+                int length = Integer.parseInt(line);
+                if (length < 0) {
+                    yield null;
+                }
+                byte[] data = in.readNBytes(length);
+                if (data.length < length || in.read() != '\r' || in.read() != '\n') {
+                    throw new EOFException("Truncated RESP bulk string");
+                }
+                yield new String(data, StandardCharsets.UTF_8);
+            }
+            case '*' -> {
+                int count = Integer.parseInt(line);
+                if (count < 0) {
+                    yield null;
+                }
+                List<Object> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    items.add(read(in));
+                }
+                yield items;
+            }
+            default -> throw new IOException("Unexpected RESP type: " + (char) type);
+        };
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder(16);
+        while (true) {
+            int c = in.read();
+            if (c < 0) {
+                throw new EOFException("RESP connection closed");
+            }
+            if (c == '\r') {
+                if (in.read() != '\n') {
+                    throw new IOException("Malformed RESP line");
+                }
+                return sb.toString();
+            }
+            sb.append((char) c);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    /**
+     * 服务端返回的错误
+     */
+    record RespError(String message) {
+    }
+
+    record Settings(String host, int port, String password, int database, int connectTimeoutMillis,
+                    int ioTimeoutMillis, long reconnectMillis, int maxBatch) {
+    }
+
+    private record Command(String[] args, CompletableFuture<Object> future) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动窗口日志：每个 IP 保存窗口内所有请求的时间戳，精确限制任意一个窗口内的请求数
+ * key 数量达到上限时不拒绝新 IP，而是与 {@link GcraKeyTable} 一样用 clock（second chance）淘汰：
+ * 按创建顺序轮转，优先淘汰窗口内已没有请求的 key，其次淘汰自上次轮到以来没有再访问过的 key。
+ */
+class SlidingWindowRateLimit implements RateLimitAlgorithm {
+    private final int maxKeys;
+    // 使用线程安全的 ConcurrentHashMap 存储每个 IP（key）对应的请求时间戳队列（value）
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    // clock 的轮转顺序：新 key 加入队尾，获得第二次机会的 key 重新排到队尾；清理任务会把已移除的 key 从这里剔除
+    private final Queue<Long> order = new ConcurrentLinkedQueue<>();
+    private final LongAdder evictions = new LongAdder();
+
+    SlidingWindowRateLimit(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public boolean tryAcquire(long key, long now, int maxRequests, long windowMillis) {
+        // 计算时间窗口的起始时间，在这个时间之前的请求记录都被视为“过期”
+        long windowStart = now - windowMillis;
+
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            // 在创建新 IP 记录前，检查当前存储的 IP 总数是否已超限，超限时先按 clock 淘汰一个 IP
+            while (buckets.size() >= maxKeys && evictOne(windowStart)) {
+                evictions.increment();
+            }
+            // computeIfAbsent：如果 map 中没有这个 key，则创建一个新的空队列用于存储该 IP 的请求时间
+            bucket = buckets.computeIfAbsent(key, k -> {
+                order.add(k);
+                return new Bucket();
+            });
+        } else if (!bucket.referenced) {
+            bucket.referenced = true;
+        }
+        ArrayDeque<Long> deque = bucket.timestamps;
+        // 对这个 IP 的记录加锁，保证同一时间只有一个线程能操作这个 IP 的请求记录
+        synchronized (bucket) {
+            // 清理过期数据：检查队列头部（最早的请求），如果早于窗口起始时间，就移除
+            while (!deque.isEmpty() && deque.peekFirst() < windowStart) {
+                deque.pollFirst();
+            }
+            // 检查当前队列大小。如果已经达到允许的最大请求数，则拒绝本次请求
+            if (deque.size() >= maxRequests) {
+                return false;
+            }
+            // 如果未超限，将当前请求的时间戳加入队列尾部，记录这次访问
+            deque.addLast(now);
+            return true;
+        }
+    }
+
+    @Override
+    public void evictExpired(long now, long windowMillis) {
+        long windowStart = now - windowMillis;
+
+        // 遍历所有存储的 IP 记录
+        buckets.forEach((key, bucket) -> {
+            ArrayDeque<Long> deque = bucket.timestamps;
+            // 加锁处理，防止和 tryAcquire 方法冲突
+            synchronized (bucket) {
+                // 移除队列中过期的请求时间戳
+                while (!deque.isEmpty() && deque.peekFirst() < windowStart) {
+                    deque.pollFirst();
+                }
+                // 如果清理后队列空了，说明这个 IP 在最近一个时间窗口内没有任何有效请求
+                // 那么这个 key 也可以从大 map 中移除了，节省内存
+                if (deque.isEmpty()) {
+                    // 注意：这里存在微小的竞态条件，但对于限流场景可接受
+                    buckets.remove(key, bucket);
+                }
+            }
+        });
+        // 剔除已经不存在的 key，避免顺序队列无限增长
+        order.removeIf(key -> !buckets.containsKey(key));
+    }
+
+    /**
+     * 从队首开始轮转：被访问过的 key 清除引用位后排回队尾，遇到窗口内已没有请求或没有再访问过的 key 即淘汰
+     */
+    private boolean evictOne(long windowStart) {
+        // 每个 key 最多被跳过一次（清除引用位），两圈内必然找到可淘汰的 key
+        for (long steps = 0; steps <= 2L * maxKeys + 1; steps++) {
+            Long candidate = order.poll();
+            if (candidate == null) {
+                return false;
+            }
+            Bucket bucket = buckets.get(candidate);
+            if (bucket == null) {
+                continue;
+            }
+            if (bucket.referenced && !bucket.idle(windowStart)) {
+                bucket.referenced = false;
+                order.add(candidate);
+                continue;
+            }
+            if (buckets.remove(candidate, bucket)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return buckets.size();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 快照格式：若干个 (key, 时间戳个数, 时间戳...)，以个数 -1 结束
+     */
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+            long[] timestamps;
+            // 只在复制时持有锁，写文件在锁外进行
+            synchronized (entry.getValue()) {
+                timestamps = entry.getValue().timestamps.stream().mapToLong(Long::longValue).toArray();
+            }
+            if (timestamps.length == 0) {
+                continue;
+            }
+            out.writeLong(entry.getKey());
+            out.writeInt(timestamps.length);
+            for (long timestamp : timestamps) {
+                out.writeLong(timestamp);
+            }
+        }
+        out.writeLong(0);
+        out.writeInt(-1);
+    }
+
+    @Override
+    public int readFrom(DataInput in, long now, long windowMillis) throws IOException {
+        long windowStart = now - windowMillis;
+        int restored = 0;
+        while (true) {
+            long key = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                return restored;
+            }
+            ArrayDeque<Long> loaded = new ArrayDeque<>(count);
+            for (int i = 0; i < count; i++) {
+                long timestamp = in.readLong();
+                // 停机期间已经滑出窗口的请求直接丢弃
+                if (timestamp >= windowStart) {
+                    loaded.addLast(timestamp);
+                }
+            }
+            if (!loaded.isEmpty()) {
+                restore(key, loaded, windowStart);
+                restored++;
+            }
+        }
+    }
+
+    private void restore(long key, ArrayDeque<Long> loaded, long windowStart) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            while (buckets.size() >= maxKeys && evictOne(windowStart)) {
+                evictions.increment();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> {
+                order.add(k);
+                return new Bucket();
+            });
+        }
+        ArrayDeque<Long> existing = bucket.timestamps;
+        synchronized (bucket) {
+            // 启动后到恢复前已经有新请求时，与快照中的记录合并并保持时间顺序
+            long[] merged = new long[existing.size() + loaded.size()];
+            int i = 0;
+            for (Long timestamp : existing) {
+                merged[i++] = timestamp;
+            }
+            for (Long timestamp : loaded) {
+                merged[i++] = timestamp;
+            }
+            Arrays.sort(merged);
+            existing.clear();
+            for (long timestamp : merged) {
+                existing.addLast(timestamp);
+            }
+        }
+    }
+
+    /**
+     * 一个 IP 的请求时间戳，连同 clock 淘汰用的引用位；时间戳队列在持有 bucket 锁时访问
+     */
+    private static final class Bucket {
+        private final ArrayDeque<Long> timestamps = new ArrayDeque<>();
+        private volatile boolean referenced;
+
+        /**
+         * 窗口内已没有请求，淘汰它与等到清理任务移除等价
+         */
+        private synchronized boolean idle(long windowStart) {
+            return timestamps.isEmpty() || timestamps.peekLast() < windowStart;
+        }
+    }
+}
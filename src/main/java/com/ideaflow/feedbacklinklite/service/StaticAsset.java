@@ -0,0 +1,101 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import java.util.Locale;
+
+/**
+ * 内存中的静态资源，包含原文和预压缩的 gzip / brotli 变体
+ * ETag 由原文的 SHA-256 得出，不同编码的变体在其后追加编码名，保证缓存按编码区分。
+ */
+public final class StaticAsset {
+    private final String contentType;
+    private final String hash;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final byte[] brotli;
+
+    StaticAsset(String contentType, String hash, byte[] identity, byte[] gzip, byte[] brotli) {
+        this.contentType = contentType;
+        this.hash = hash;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    /**
+     * 选定编码后的响应体
+     *
+     * @param encoding Content-Encoding，原文时为 null
+     */
+    public record Variant(String encoding, byte[] body, String etag) {
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * 内容哈希（十六进制），可作为 URL 中的版本号
+     */
+    public String hash() {
+        return hash;
+    }
+
+    /**
+     * 按 Accept-Encoding 选择变体，优先 brotli，其次 gzip；q=0 表示客户端明确拒绝该编码
+     */
+    public Variant select(String acceptEncoding) {
+        if (acceptEncoding != null) {
+            if (brotli != null && accepts(acceptEncoding, "br")) {
+                return new Variant("br", brotli, etag("br"));
+            }
+            if (gzip != null && accepts(acceptEncoding, "gzip")) {
+                return new Variant("gzip", gzip, etag("gzip"));
+            }
+        }
+        return new Variant(null, identity, etag(null));
+    }
+
+    /**
+     * If-None-Match 是否命中当前内容的任一变体，弱校验（W/ 前缀）同样视为命中
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag(null)) || value.equals(etag("gzip")) || value.equals(etag("br"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etag(String encoding) {
+        return encoding == null ? "\"" + hash + "\"" : "\"" + hash + "-" + encoding + "\"";
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] params = part.split(";");
+            if (!params[0].trim().equals(coding)) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * classpath:static 下静态资源的内存缓存
+ * feedback.js 随每个嵌入页面的访问加载，是请求量最大的资源。资源在首次请求时读入内存并计算 ETag，
+ * 可压缩的文本资源同时生成 gzip 变体；构建产物中已有的 .br / .gz 文件优先使用，之后的请求不再读盘和压缩。
+ * 资源打包在 jar（或 native image）中，无法直接映射文件，因此以字节数组常驻内存，总量约为前端产物大小的两倍以内。
+ * 只缓存存在的资源：路径由客户端决定，缓存不存在的路径会让任意构造的 /_nuxt/** 请求无限占用内存。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StaticAssetStore {
+    private static final String ROOT = "static/";
+
+    private final FeedbackConfigHolder feedbackConfig;
+    private final Map<String, StaticAsset> assets = new ConcurrentHashMap<>();
+
+    /**
+     * @param path 相对 static 目录的路径，如 feedback.js、_nuxt/xxx.js
+     * @return 资源不存在或路径非法时返回 null
+     */
+    public StaticAsset get(String path) {
+        if (path == null) {
+            return null;
+        }
+        StaticAsset cached = assets.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        if (!canonical(path)) {
+            return null;
+        }
+        StaticAsset loaded = load(path);
+        if (loaded == null) {
+            return null;
+        }
+        StaticAsset raced = assets.putIfAbsent(path, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * 只接受规范形式的相对路径；a/./b、a//b 等写法虽然指向同一个文件，但会以不同的 key 重复缓存
+     */
+    private static boolean canonical(String path) {
+        if (path.isEmpty() || path.contains("..") || path.contains("\\") || path.startsWith("/")) {
+            return false;
+        }
+        for (String segment : path.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已缓存的资源个数
+     */
+    int size() {
+        return assets.size();
+    }
+
+    /**
+     * @return 资源不存在或读取失败时返回 null
+     */
+    private StaticAsset load(String path) {
+        try {
+            byte[] identity = read(path);
+            if (identity == null) {
+                return null;
+            }
+            String contentType = contentType(path);
+            byte[] brotli = read(path + ".br");
+            byte[] gzip = read(path + ".gz");
+            FeedbackProperties.Assets cfg = feedbackConfig.current().getAssets();
+            if (gzip == null && compressible(contentType) && identity.length >= cfg.getGzipMinBytes()) {
+                gzip = gzip(identity);
+            }
+            if (gzip != null && gzip.length >= identity.length) {
+                gzip = null;
+            }
+            log.debug("Loaded static asset {} ({} bytes, gzip {}, br {})", path, identity.length,
+                    gzip == null ? "-" : gzip.length, brotli == null ? "-" : brotli.length);
+            return new StaticAsset(contentType, hash(identity), identity, gzip, brotli);
+        } catch (IOException e) {
+            log.warn("Failed to load static asset {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] read(String path) throws IOException {
+        ClassPathResource resource = new ClassPathResource(ROOT + path);
+        if (!resource.exists() || !resource.isReadable()) {
+            return null;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String contentType(String path) {
+        MediaType type = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        if (compressible(type.toString()) && type.getCharset() == null) {
+            return new MediaType(type, StandardCharsets.UTF_8).toString();
+        }
+        return type.toString();
+    }
+
+    private static boolean compressible(String contentType) {
+        return contentType.startsWith("text/") || contentType.contains("javascript") || contentType.contains("json")
+                || contentType.contains("xml") || contentType.startsWith("image/svg")
+                || contentType.startsWith("image/x-icon") || contentType.startsWith("image/vnd.microsoft.icon");
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3);
+        // 只压缩一次，使用最高压缩级别
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ideaflow.feedbacklinklite.util;
+
+/**
+ * 页面统计、出站分流、相似检测与限流表共用的键规整和 64 位哈希
+ */
+public final class KeyHashing {
+    private static final int MAX_PAGE_KEY = 256;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private KeyHashing() {
+    }
+
+    /**
+     * 来源页面的键：去掉协议、查询参数和锚点，过长时截断；为 null 时返回空串
+     */
+    public static String pageKey(String pageUrl) {
+        if (pageUrl == null) {
+            return "";
+        }
+        int end = pageUrl.length();
+        int query = pageUrl.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = pageUrl.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        int scheme = pageUrl.indexOf("://");
+        int start = scheme >= 0 && scheme < end ? scheme + 3 : 0;
+        return pageUrl.substring(start, Math.min(end, start + MAX_PAGE_KEY));
+    }
+
+    /**
+     * FNV-1a 后接 murmur3 的 fmix64，使低位和高位都均匀分布
+     */
+    public static long hash(String value) {
+        return mix(fnv1a(value));
+    }
+
+    /**
+     * 同 {@link #hash(String)}，作用于码点数组的一段
+     */
+    public static long hash(int[] codePoints, int from, int length) {
+        long h = FNV_OFFSET;
+        for (int i = from; i < from + length; i++) {
+            h ^= codePoints[i];
+            h *= FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    /**
+     * 按 UTF-16 字符计算的 FNV-1a，不做混合
+     */
+    public static long fnv1a(String value) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * murmur3 的 fmix64
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
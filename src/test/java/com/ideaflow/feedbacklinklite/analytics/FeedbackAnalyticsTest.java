@@ -0,0 +1,137 @@
+package com.ideaflow.feedbacklinklite.analytics;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.model.AnalyticsReport;
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 概率数据结构的误差范围与按小时轮转的统计
+ */
+class FeedbackAnalyticsTest {
+    // 固定在某个整点之后半小时，避免跨小时
+    private static final long NOW = 480_000L * FeedbackAnalytics.HOUR_MILLIS + FeedbackAnalytics.HOUR_MILLIS / 2;
+
+    @Test
+    void sketchesStayWithinErrorBounds() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        int pages = 2000;
+        long[] actual = new long[pages];
+        long total = 0;
+        for (int i = 0; i < pages; i++) {
+            // 长尾分布：少数页面占大部分
+            actual[i] = Math.max(1, 5000 / (i + 1));
+            sketch.add(KeyHashing.hash("page-" + i), actual[i]);
+            total += actual[i];
+        }
+        for (int i = 0; i < pages; i++) {
+            long estimate = sketch.estimate(KeyHashing.hash("page-" + i));
+            assertTrue(estimate >= actual[i]);
+            assertTrue(estimate - actual[i] <= total * 0.01, "page-" + i + " overestimated by " + (estimate - actual[i]));
+        }
+
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 100_000; i++) {
+            first.add(KeyHashing.hash("10.0." + i));
+            // 与 first 重叠一半
+            second.add(KeyHashing.hash("10.0." + (i + 50_000)));
+        }
+        assertEquals(100_000, first.estimate(), 100_000 * 0.05);
+        byte[] union = new byte[1 << 12];
+        first.mergeInto(union);
+        second.mergeInto(union);
+        assertEquals(150_000, HyperLogLog.estimate(union), 150_000 * 0.05);
+
+        HyperLogLog small = new HyperLogLog(10);
+        for (int i = 0; i < 30; i++) {
+            small.add(KeyHashing.hash("client-" + (i % 10)));
+        }
+        assertEquals(10, small.estimate(), 1);
+    }
+
+    @Test
+    void reportFindsHeavyPagesPerHour() {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getAnalytics().setTopPages(5);
+        FeedbackAnalytics analytics = new FeedbackAnalytics(new FeedbackConfigHolder(properties));
+        long previousHour = NOW - FeedbackAnalytics.HOUR_MILLIS;
+        for (int i = 0; i < 2000; i++) {
+            // 长尾页面穿插在高频页面之间
+            analytics.record("https://example.com/noise/" + i + "?ref=x", "192.168.1." + (i % 200), NOW);
+            if (i % 4 == 0) {
+                analytics.record("https://example.com/checkout?step=" + i, "10.0.0." + (i % 50), NOW);
+            }
+            if (i % 10 == 0) {
+                analytics.record("https://example.com/login#top", "10.0.1.1", NOW);
+            }
+        }
+        for (int i = 0; i < 30; i++) {
+            analytics.record("https://example.com/login", "10.0.2." + i, previousHour);
+        }
+        analytics.record(null, "10.0.3.1", NOW);
+
+        AnalyticsReport report = analytics.report(3, 2, NOW);
+        assertEquals(3, report.getBuckets().size());
+        AnalyticsReport.Bucket empty = report.getBuckets().get(0);
+        assertEquals(0, empty.getCount());
+        AnalyticsReport.Bucket previous = report.getBuckets().get(1);
+        assertEquals(30, previous.getCount());
+        assertEquals("example.com/login", previous.getTopPages().getFirst().getPage());
+
+        AnalyticsReport.Bucket current = report.getBuckets().get(2);
+        assertEquals(2000 + 500 + 200 + 1, current.getCount());
+        // checkout 只用到 10.0.0.x 中的 25 个偶数地址
+        assertEquals(200 + 25 + 1 + 1, current.getDistinctClients(), 10);
+        List<String> top = new ArrayList<>();
+        current.getTopPages().forEach(page -> top.add(page.getPage()));
+        assertEquals(List.of("example.com/checkout", "example.com/login"), top);
+        AnalyticsReport.Page checkout = current.getTopPages().getFirst();
+        assertTrue(checkout.getCount() >= 500 && checkout.getCount() <= 520, "checkout count " + checkout.getCount());
+
+        assertEquals(2731, report.getTotal());
+        AnalyticsReport.Page login = report.getTopPages().stream()
+                .filter(page -> page.getPage().equals("example.com/login")).findFirst().orElseThrow();
+        assertTrue(login.getCount() >= 230, "login count " + login.getCount());
+        assertEquals(31, login.getDistinctClients(), 2);
+        assertTrue(report.getMemoryBytes() > 0 && report.getMemoryBytes() < 2 * 64 * 1024);
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLostAndOldHoursExpire() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getAnalytics().setRetentionHours(2);
+        FeedbackAnalytics analytics = new FeedbackAnalytics(new FeedbackConfigHolder(properties));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int id = t;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    analytics.record("https://example.com/p" + (i % 16), "10.1." + id + "." + (i % 100), NOW);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        AnalyticsReport report = analytics.report(1, 16, NOW);
+        assertEquals(80_000, report.getTotal());
+        assertEquals(16, report.getTopPages().size());
+        report.getTopPages().forEach(page -> assertTrue(page.getCount() >= 5_000));
+        assertEquals(800, report.getDistinctClients(), 800 * 0.05);
+
+        // 两小时后写入新的小时，超出保留时长的桶被释放
+        long later = NOW + 2 * FeedbackAnalytics.HOUR_MILLIS;
+        analytics.record("https://example.com/p0", "10.2.0.1", later);
+        AnalyticsReport afterwards = analytics.report(24, 5, later);
+        assertEquals(2, afterwards.getBuckets().size());
+        assertEquals(1, afterwards.getTotal());
+    }
+}
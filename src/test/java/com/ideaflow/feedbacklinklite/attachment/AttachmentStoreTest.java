@@ -0,0 +1,183 @@
+package com.ideaflow.feedbacklinklite.attachment;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * multipart 流式解析与按内容寻址的附件存储
+ */
+class AttachmentStoreTest {
+    private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+    private Path dir;
+    private FeedbackProperties properties;
+    private AttachmentStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("attachment-test");
+        properties = new FeedbackProperties();
+        properties.getAttachments().setDir(dir.toString());
+        store = new AttachmentStore(new FeedbackConfigHolder(properties), null);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static byte[] png(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        byte[] magic = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+        System.arraycopy(magic, 0, data, 0, magic.length);
+        // 内容中混入与分隔符前缀相同的字节，验证不会被误判为分隔符
+        byte[] partial = ("\r\n--" + BOUNDARY.substring(0, 10)).getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(partial, 0, data, size / 2, partial.length);
+        return data;
+    }
+
+    private static byte[] multipart(String message, byte[]... files) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"message\"\r\n\r\n"
+                + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < files.length; i++) {
+            out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"截图" + i
+                    + ".png\"\r\nContent-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(files[i]);
+            out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        return out.toByteArray();
+    }
+
+    /**
+     * 每次最多返回 chunk 个字节，模拟网络分包，使分隔符跨越多次读取
+     */
+    private static InputStream chunked(byte[] data, int chunk) {
+        return new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+        };
+    }
+
+    @Test
+    void streamsPartsAcrossChunkBoundaries() throws Exception {
+        byte[] first = png(100_000, 1);
+        byte[] second = png(3_000, 2);
+        for (int chunk : new int[]{1, 7, 8192, 65536}) {
+            MultipartReader reader = new MultipartReader(chunked(multipart("按钮没反应", first, second), chunk), BOUNDARY);
+            MultipartReader.Part field = reader.next();
+            assertEquals("message", field.name());
+            assertNull(field.filename());
+            assertEquals("按钮没反应", new String(field.body().readAllBytes(), StandardCharsets.UTF_8));
+            MultipartReader.Part file = reader.next();
+            assertEquals("截图0.png", file.filename());
+            assertEquals("image/png", file.contentType());
+            assertArrayEquals(first, file.body().readAllBytes());
+            // 第二个文件不读取，由 next() 跳过
+            assertEquals("截图1.png", reader.next().filename());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void truncatedBodyIsRejected() throws Exception {
+        byte[] body = multipart("hi", png(5_000, 3));
+        MultipartReader reader = new MultipartReader(new ByteArrayInputStream(body, 0, body.length - 200), BOUNDARY);
+        reader.next();
+        MultipartReader.Part file = reader.next();
+        assertThrows(MalformedMultipartException.class, () -> file.body().readAllBytes());
+        assertEquals(BOUNDARY, MultipartReader.boundary("multipart/form-data; boundary=\"" + BOUNDARY + "\""));
+        assertNull(MultipartReader.boundary("application/json"));
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws Exception {
+        byte[] data = png(200_000, 4);
+        Attachment first = store.store(chunked(data, 4096));
+        Attachment second = store.store(new ByteArrayInputStream(data));
+
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        assertEquals(expected, first.hash());
+        assertEquals("png", first.extension());
+        assertEquals(data.length, first.size());
+        assertFalse(first.duplicate());
+        assertTrue(second.duplicate());
+        Path path = store.resolve(first.fileName());
+        assertArrayEquals(data, Files.readAllBytes(path));
+        assertEquals(1, storedFiles().size());
+        assertNull(store.resolve("../" + first.fileName()));
+    }
+
+    @Test
+    void oversizedAndUnsupportedUploadsLeaveNothingBehind() throws Exception {
+        properties.getAttachments().setMaxFileBytes(64 * 1024);
+        AttachmentRejectedException tooLarge = assertThrows(AttachmentRejectedException.class,
+                () -> store.store(new ByteArrayInputStream(png(64 * 1024 + 1, 5))));
+        assertTrue(tooLarge.getMessage().contains("65536"));
+
+        byte[] html = "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.UTF_8);
+        assertThrows(AttachmentRejectedException.class, () -> store.store(new ByteArrayInputStream(html)));
+        byte[] pdf = "%PDF-1.7 ...".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(AttachmentRejectedException.class, () -> store.store(new ByteArrayInputStream(pdf)));
+        assertTrue(storedFiles().isEmpty());
+    }
+
+    @Test
+    void receivedAttachmentIsHiddenUntilPublished() throws Exception {
+        byte[] data = png(10_000, 6);
+        PendingAttachment pending = store.receive(new ByteArrayInputStream(data));
+        assertNull(store.resolve(pending.fileName()));
+
+        Attachment published = store.publish(pending);
+        assertEquals(pending.fileName(), published.fileName());
+        assertArrayEquals(data, Files.readAllBytes(store.resolve(published.fileName())));
+        // 发布后丢弃不影响已发布的附件
+        store.discard(pending);
+        assertEquals(1, storedFiles().size());
+
+        PendingAttachment rejected = store.receive(new ByteArrayInputStream(png(10_000, 7)));
+        store.discard(rejected);
+        assertNull(store.resolve(rejected.fileName()));
+        assertEquals(1, storedFiles().size());
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.filter(Files::isRegularFile).forEach(files::add);
+        }
+        return files;
+    }
+}
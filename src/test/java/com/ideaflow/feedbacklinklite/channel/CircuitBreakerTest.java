@@ -0,0 +1,82 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 熔断器状态转换：连续失败打开、冷却后只放行一次试探、试探成功关闭、试探失败重新打开
+ */
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.onFailure(3);
+        breaker.onFailure(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire(60_000));
+
+        breaker.onFailure(3);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(60_000));
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.onFailure(3);
+        breaker.onFailure(3);
+        breaker.onSuccess();
+        breaker.onFailure(3);
+        breaker.onFailure(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(2, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    void halfOpenAdmitsSingleProbe() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.onFailure(1);
+
+        assertTrue(breaker.tryAcquire(0));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(0));
+    }
+
+    @Test
+    void probeSuccessCloses() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.onFailure(1);
+        assertTrue(breaker.tryAcquire(0));
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire(60_000));
+    }
+
+    @Test
+    void probeFailureReopensWithFreshCooldown() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.onFailure(1);
+        long firstOpened = breaker.getOpenedAt();
+        Thread.sleep(5);
+        assertTrue(breaker.tryAcquire(0));
+
+        breaker.onFailure(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.getOpenedAt() > firstOpened);
+        assertFalse(breaker.tryAcquire(60_000));
+    }
+
+    @Test
+    void resetCloses() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.onFailure(1);
+        breaker.reset();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+    }
+}
@@ -0,0 +1,123 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 默认模板渲染出的请求体必须与早期 StringBuilder + ObjectNode 的实现逐字节一致
+ */
+class DingTalkChannelTemplateTest {
+    private static final String TITLE = "收到新的用户反馈";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DingTalkChannel channel = new DingTalkChannel(new FeedbackConfigHolder(new FeedbackProperties()), null);
+
+    private static final MessageContext[] CORPUS = {
+            context("普通的中文反馈内容", "13800000000", "https://example.com/a?b=[1]", "Mozilla/5.0"),
+            context("only message", null, null, null),
+            context("blank fields", "  ", "", "ua"),
+            context("quotes \" and \\ backslash\nnew line\ttab", "a\"b", "https://x.y/\"z\"", null),
+            context("control \u0001\u001f chars and emoji 🔔😀", "联系*人*", "http://h/p_q", "ua"),
+            context("**bold** _i_ `code` # h\r\n- item", "x@y.z", "https://example.com/#frag", "ua"),
+    };
+
+    @Test
+    void singleMessageMatchesLegacyPayload() throws Exception {
+        for (MessageContext context : CORPUS) {
+            String expected = legacyPayload(TITLE, legacySingle(context));
+            assertEquals(expected, new String(channel.renderSingle(context), StandardCharsets.UTF_8), () -> "context: " + context);
+        }
+    }
+
+    @Test
+    void digestMatchesLegacyPayload() throws Exception {
+        List<MessageContext> contexts = List.of(CORPUS);
+        String title = TITLE + "（" + contexts.size() + " 条）";
+        StringBuilder content = new StringBuilder();
+        content.append("### 🔔 ").append(title).append("\n\n");
+        for (int i = 0; i < contexts.size(); i++) {
+            if (i > 0) {
+                content.append("\n\n---\n\n");
+            }
+            content.append("#### ").append(i + 1).append(".\n\n");
+            legacyEntry(content, contexts.get(i));
+        }
+        assertEquals(legacyPayload(title, content.toString()),
+                new String(channel.renderDigest(contexts), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void customTemplateIsApplied() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        FeedbackProperties.Template template = properties.getDingTalk().getTemplate();
+        template.setTitle("反馈");
+        template.setHeading("## ${title}\n");
+        template.setFields(List.of("UA: ${userAgent}"));
+        template.setBody("${message}");
+        DingTalkChannel custom = new DingTalkChannel(new FeedbackConfigHolder(properties), null);
+
+        MessageContext context = context("hi *there*", null, null, "curl");
+        assertEquals(legacyPayload("反馈", "## 反馈\nUA: curl\nhi *there*"),
+                new String(custom.renderSingle(context), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void invalidTemplateFallsBackToDefault() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getDingTalk().getTemplate().setBody("${message");
+        DingTalkChannel invalid = new DingTalkChannel(new FeedbackConfigHolder(properties), null);
+
+        MessageContext context = CORPUS[0];
+        String expected = legacyPayload(TITLE, legacySingle(context));
+        assertEquals(expected, new String(invalid.renderSingle(context), StandardCharsets.UTF_8));
+        // 第二次直接复用缓存的默认模板
+        assertEquals(expected, new String(invalid.renderSingle(context), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 早期实现把 ObjectNode.toString() 的结果作为请求体发送
+     */
+    private String legacyPayload(String title, String text) {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("msgtype", "markdown");
+        ObjectNode markdown = payload.putObject("markdown");
+        markdown.put("title", title);
+        markdown.put("text", text);
+        return payload.toString();
+    }
+
+    private static String legacySingle(MessageContext context) {
+        StringBuilder content = new StringBuilder();
+        content.append("### 🔔 ").append(TITLE).append("\n\n");
+        legacyEntry(content, context);
+        return content.toString();
+    }
+
+    private static void legacyEntry(StringBuilder content, MessageContext context) {
+        if (StringUtils.hasText(context.getPageUrl())) {
+            content.append("- **页面**: ").append(MarkdownEscaper.escape(context.getPageUrl())).append("\n");
+        }
+        if (StringUtils.hasText(context.getContact())) {
+            content.append("- **联系**: ").append(context.getContact()).append("\n");
+        }
+        content.append("\n**内容**:\n> ").append(MarkdownEscaper.escape(context.getMessage()));
+    }
+
+    private static MessageContext context(String message, String contact, String pageUrl, String userAgent) {
+        return MessageContext.builder()
+                .message(message)
+                .contact(contact)
+                .pageUrl(pageUrl)
+                .userAgent(userAgent)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 黄金输出测试：单次遍历的 MarkdownEscaper 必须与早期逐个 replace 的实现逐字节一致
+ */
+class MarkdownEscaperTest {
+
+    private static final String[] CORPUS = {
+            "",
+            "普通的中文反馈内容",
+            "plain ascii text",
+            "a  b   c    d",
+            "  leading and trailing  ",
+            "line1\nline2\r\nline3\rline4",
+            "\r\r\n\n\r",
+            "trailing space \nnext",
+            "spaces  \r\n  around newline",
+            "\\ ` * _ { } [ ] ( ) # + - . ! ~ |",
+            "\\\\already\\*escaped\\",
+            "https://example.com/path?a=1&b=[2]#frag",
+            "**bold** _italic_ `code` ~~strike~~",
+            "# heading\n- item\n+ item\n1. item",
+            "emoji 🔔 and surrogate pairs 😀😀",
+            "tab\tstays\tas\tis",
+    };
+
+    @Test
+    void matchesLegacyOnCorpus() {
+        for (String input : CORPUS) {
+            assertEquals(legacyEscape(input), MarkdownEscaper.escape(input), () -> "input: " + input);
+        }
+    }
+
+    @Test
+    void matchesLegacyOnRandomInput() {
+        String alphabet = " \r\n\t\\`*_{}[]()#+-.!~|ab中😀";
+        Random random = new Random(20240601L);
+        for (int round = 0; round < 5_000; round++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(64);
+            for (int i = 0; i < length; i++) {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = input.toString();
+            assertEquals(legacyEscape(text), MarkdownEscaper.escape(text), () -> "input: " + text);
+        }
+    }
+
+    @Test
+    void goldenOutput() {
+        assertEquals("", MarkdownEscaper.escape(null));
+        assertEquals("a b  \nc\\*d", MarkdownEscaper.escape("a   b\r\nc*d"));
+        assertEquals("https://example\\.com/a\\_b?x=1", MarkdownEscaper.escape("https://example.com/a_b?x=1"));
+        assertEquals("\\\\\\`", MarkdownEscaper.escape("\\`"));
+    }
+
+    @Test
+    void appendsToExistingBuffer() {
+        StringBuilder out = new StringBuilder("> ");
+        MarkdownEscaper.appendEscaped(out, "1. done!");
+        assertEquals("> 1\\. done\\!", out.toString());
+    }
+
+    /**
+     * 早期 DingTalkChannel.escapeMarkdownContent 的原样拷贝，作为对照基准
+     */
+    private static String legacyEscape(String content) {
+        if (content == null) {
+            return "";
+        }
+        content = content.replace("\r\n", "\n").replace("\r", "\n");
+        content = content.replaceAll(" {2,}", " ");
+        content = content.replace("\\", "\\\\");
+        content = content.replace("`", "\\`");
+        content = content.replace("*", "\\*");
+        content = content.replace("_", "\\_");
+        content = content.replace("{", "\\{");
+        content = content.replace("}", "\\}");
+        content = content.replace("[", "\\[");
+        content = content.replace("]", "\\]");
+        content = content.replace("(", "\\(");
+        content = content.replace(")", "\\)");
+        content = content.replace("#", "\\#");
+        content = content.replace("+", "\\+");
+        content = content.replace("-", "\\-");
+        content = content.replace(".", "\\.");
+        content = content.replace("!", "\\!");
+        content = content.replace("~", "\\~");
+        content = content.replace("|", "\\|");
+        content = content.replace("\n", "  \n");
+        return content;
+    }
+}
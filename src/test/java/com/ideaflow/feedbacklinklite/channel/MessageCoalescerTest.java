@@ -0,0 +1,107 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 摘要合并：条数达到上限立即发送、窗口到期发送剩余消息、同批消息共享结果但各自持有结果对象、取消的消息不再发送
+ */
+class MessageCoalescerTest {
+    private final Queue<List<String>> batches = new ConcurrentLinkedQueue<>();
+
+    private MessageCoalescer coalescer(ChannelResult outcome) {
+        return new MessageCoalescer(contexts -> {
+            batches.add(contexts.stream().map(MessageContext::getMessage).toList());
+            return outcome;
+        });
+    }
+
+    private static MessageContext context(String message) {
+        return MessageContext.builder().message(message).build();
+    }
+
+    @Test
+    void flushesImmediatelyWhenMaxItemsReached() throws Exception {
+        MessageCoalescer coalescer = coalescer(ChannelResult.ok());
+        CompletableFuture<ChannelResult> first = coalescer.submit(context("a"), 60_000, 3);
+        CompletableFuture<ChannelResult> second = coalescer.submit(context("b"), 60_000, 3);
+        assertFalse(first.isDone());
+        CompletableFuture<ChannelResult> third = coalescer.submit(context("c"), 60_000, 3);
+
+        assertTrue(third.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(first.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(second.get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(List.of(List.of("a", "b", "c")), List.copyOf(batches));
+    }
+
+    @Test
+    void flushesRemainderWhenWindowExpires() throws Exception {
+        MessageCoalescer coalescer = coalescer(ChannelResult.ok());
+        CompletableFuture<ChannelResult> first = coalescer.submit(context("a"), 200, 10);
+        CompletableFuture<ChannelResult> second = coalescer.submit(context("b"), 200, 10);
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(second.get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(List.of(List.of("a", "b")), List.copyOf(batches));
+    }
+
+    @Test
+    void newWindowStartsAfterFlush() throws Exception {
+        MessageCoalescer coalescer = coalescer(ChannelResult.ok());
+        coalescer.submit(context("a"), 60_000, 2);
+        coalescer.submit(context("b"), 60_000, 2).get(5, TimeUnit.SECONDS);
+        // 上一窗口的定时器不会提前发送新窗口的消息
+        CompletableFuture<ChannelResult> next = coalescer.submit(context("c"), 50, 2);
+
+        assertTrue(next.get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), List.copyOf(batches));
+    }
+
+    @Test
+    void batchFailureIsSharedWithIndependentResults() throws Exception {
+        MessageCoalescer coalescer = coalescer(ChannelResult.retryableFail("digest 503"));
+        CompletableFuture<ChannelResult> first = coalescer.submit(context("a"), 60_000, 2);
+        CompletableFuture<ChannelResult> second = coalescer.submit(context("b"), 60_000, 2);
+
+        ChannelResult a = first.get(5, TimeUnit.SECONDS);
+        ChannelResult b = second.get(5, TimeUnit.SECONDS);
+        assertFalse(a.isSuccess());
+        assertTrue(a.isRetryable());
+        assertEquals("digest 503", b.getMessage());
+        assertNotSame(a, b);
+    }
+
+    @Test
+    void senderExceptionBecomesRetryableFailure() throws Exception {
+        MessageCoalescer coalescer = new MessageCoalescer(contexts -> {
+            throw new IllegalStateException("boom");
+        });
+
+        ChannelResult result = coalescer.submit(context("a"), 60_000, 1).get(5, TimeUnit.SECONDS);
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.isRetryable());
+    }
+
+    @Test
+    void cancelledItemLeavesWindow() throws Exception {
+        MessageCoalescer coalescer = coalescer(ChannelResult.ok());
+        CompletableFuture<ChannelResult> first = coalescer.submit(context("a"), 60_000, 2);
+        first.cancel(false);
+        coalescer.submit(context("b"), 60_000, 2);
+        CompletableFuture<ChannelResult> third = coalescer.submit(context("c"), 60_000, 2);
+
+        assertTrue(third.get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(List.of(List.of("b", "c")), List.copyOf(batches));
+    }
+}
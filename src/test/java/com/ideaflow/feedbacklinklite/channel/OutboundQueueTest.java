@@ -0,0 +1,196 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.util.KeyHashing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 出站队列的出队顺序与发送额度，合并发送的渠道积压时按批出队、一批只占一次额度，以及排队时限不超过并行路由的截止时间
+ */
+class OutboundQueueTest {
+
+    private static OutboundQueue.Item item(OutboundPriority priority, String page, int weight) {
+        MessageContext context = MessageContext.builder().message(page).pageUrl("https://" + page + "?from=test").build();
+        return new OutboundQueue.Item(context, priority, KeyHashing.pageKey(context.getPageUrl()), weight,
+                System.nanoTime(), new CompletableFuture<>());
+    }
+
+    private static List<String> drain(OutboundQueue queue) {
+        List<String> order = new ArrayList<>();
+        for (OutboundQueue.Item item = queue.poll(); item != null; item = queue.poll()) {
+            order.add(item.flow());
+        }
+        return order;
+    }
+
+    @Test
+    void noisyPageDoesNotStarveOthers() {
+        OutboundQueue queue = new OutboundQueue();
+        for (int i = 0; i < 6; i++) {
+            queue.offer(item(OutboundPriority.NORMAL, "a.com/noisy", 1));
+        }
+        queue.offer(item(OutboundPriority.NORMAL, "a.com/quiet", 1));
+        queue.offer(item(OutboundPriority.NORMAL, "b.com/", 1));
+        queue.offer(item(OutboundPriority.NORMAL, "b.com/", 1));
+
+        assertEquals(List.of("a.com/noisy", "a.com/quiet", "b.com/", "a.com/noisy", "b.com/",
+                "a.com/noisy", "a.com/noisy", "a.com/noisy", "a.com/noisy"), drain(queue));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void weightsAndPrioritiesShapeTheOrder() {
+        OutboundQueue queue = new OutboundQueue();
+        for (int i = 0; i < 4; i++) {
+            queue.offer(item(OutboundPriority.NORMAL, "heavy", 3));
+            queue.offer(item(OutboundPriority.NORMAL, "light", 1));
+        }
+        queue.offer(item(OutboundPriority.CONTACT, "contact", 1));
+        OutboundQueue.Item urgent = item(OutboundPriority.URGENT, "urgent", 1);
+        queue.offer(urgent);
+        assertEquals(1, queue.size(OutboundPriority.URGENT));
+        assertEquals(8, queue.size(OutboundPriority.NORMAL));
+
+        assertEquals(List.of("urgent", "contact", "heavy", "heavy", "heavy", "light", "heavy", "light", "light", "light"),
+                drain(queue));
+    }
+
+    @Test
+    void finishedItemsAreDroppedWithoutConsumingTurns() {
+        OutboundQueue queue = new OutboundQueue();
+        OutboundQueue.Item expired = item(OutboundPriority.NORMAL, "x", 1);
+        queue.offer(expired);
+        queue.offer(item(OutboundPriority.NORMAL, "y", 1));
+        queue.offer(item(OutboundPriority.NORMAL, "x", 1));
+        expired.result().cancel(false);
+
+        assertEquals(List.of("x", "y"), drain(queue));
+        assertEquals(1, queue.dropped());
+
+        OutboundQueue.Item done = item(OutboundPriority.CONTACT, "z", 1);
+        queue.offer(done);
+        done.result().complete(ChannelResult.fail("timeout"));
+        queue.removeDone();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertEquals("example.com/a/b", KeyHashing.pageKey("https://example.com/a/b#top?x=1"));
+    }
+
+    @Test
+    void sendWindowEnforcesPerMinuteQuota() {
+        SendWindow window = new SendWindow();
+        long start = 0;
+        long second = TimeUnit.SECONDS.toNanos(1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, window.nanosUntilAvailable(start + i * second, 3));
+            window.record(start + i * second, 3);
+        }
+        // 第一条发出 60 秒后才能再发
+        assertEquals(58 * second, window.nanosUntilAvailable(start + 2 * second, 3));
+        assertEquals(0, window.available(start + 2 * second, 3));
+        assertEquals(0, window.nanosUntilAvailable(start + 60 * second, 3));
+
+        // 上限调低后只保留最近的发送记录
+        assertEquals(58 * second, window.nanosUntilAvailable(start + 3 * second, 2));
+        // 上限调高后立即有空余额度
+        assertEquals(0, window.nanosUntilAvailable(start + 3 * second, 5));
+        assertEquals(3, window.available(start + 3 * second, 5));
+        assertEquals(0, window.nanosUntilAvailable(start, 0));
+    }
+
+    @Test
+    void backlogOfBatchingChannelIsChargedOncePerPost() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getOutbound().setEnabled(true);
+        properties.getOutbound().getChannelBudgets().put("batching", 1);
+        Queue<Integer> posts = new ConcurrentLinkedQueue<>();
+        MessageChannel batching = new MessageChannel() {
+            @Override
+            public ChannelResult send(MessageContext context) {
+                posts.add(1);
+                return ChannelResult.ok();
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 10;
+            }
+
+            @Override
+            public CompletionStage<ChannelResult> sendBatchAsync(List<MessageContext> contexts) {
+                posts.add(contexts.size());
+                return CompletableFuture.completedFuture(ChannelResult.ok());
+            }
+
+            @Override
+            public String name() {
+                return "batching";
+            }
+        };
+        OutboundScheduler scheduler = new OutboundScheduler(new FeedbackConfigHolder(properties), new FeedbackMetrics());
+        MessageChannel scheduled = scheduler.wrap(batching);
+        try {
+            assertTrue(scheduled.send(MessageContext.builder().message("first").build()).isSuccess());
+            List<CompletableFuture<ChannelResult>> backlog = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                backlog.add(scheduled.sendAsync(MessageContext.builder().message("m" + i).build()).toCompletableFuture());
+            }
+            assertEquals(5, scheduler.stats().get(0).getQueued());
+
+            // 额度加一后积压的 5 条作为一次请求发出
+            properties.getOutbound().getChannelBudgets().put("batching", 2);
+            for (CompletableFuture<ChannelResult> result : backlog) {
+                assertTrue(result.get(5, TimeUnit.SECONDS).isSuccess());
+            }
+            assertEquals(List.of(1, 5), List.copyOf(posts));
+            assertEquals(0, scheduler.stats().get(0).getBudgetAvailable());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void queueWaitIsCappedByParallelDeadline() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getOutbound().setEnabled(true);
+        properties.getOutbound().getChannelBudgets().put("slow", 1);
+        properties.getOutbound().setMaxWaitMillis(120_000);
+        properties.getRouting().setMode(FeedbackProperties.Routing.Mode.PARALLEL);
+        properties.getRouting().setChannelTimeoutMillis(50);
+        MessageChannel channel = new MessageChannel() {
+            @Override
+            public ChannelResult send(MessageContext context) {
+                return ChannelResult.ok();
+            }
+
+            @Override
+            public String name() {
+                return "slow";
+            }
+        };
+        OutboundScheduler scheduler = new OutboundScheduler(new FeedbackConfigHolder(properties), new FeedbackMetrics());
+        MessageChannel scheduled = scheduler.wrap(channel);
+        try {
+            assertTrue(scheduled.send(MessageContext.builder().message("first").build()).isSuccess());
+            ChannelResult queued = scheduled.sendAsync(MessageContext.builder().message("second").build())
+                    .toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertEquals("slow outbound budget wait exceeded 50ms", queued.getMessage());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
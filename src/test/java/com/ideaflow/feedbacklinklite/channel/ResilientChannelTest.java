@@ -0,0 +1,211 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 重试与熔断包装：暂时性失败重试并计入熔断，业务错误不计入，熔断打开后不再调用渠道，冷却后由试探调用恢复，
+ * 试探调用被截止时间撤回时不会让熔断器停在半开状态
+ */
+class ResilientChannelTest {
+    private final Queue<ChannelResult> outcomes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final MessageChannel channel = new MessageChannel() {
+        @Override
+        public ChannelResult send(MessageContext context) {
+            calls.incrementAndGet();
+            ChannelResult next = outcomes.poll();
+            return next != null ? next : ChannelResult.ok();
+        }
+
+        @Override
+        public String name() {
+            return "stub";
+        }
+    };
+
+    private ResilientChannel resilient(int maxAttempts, int failureThreshold, long openMillis) {
+        return resilient(channel, maxAttempts, failureThreshold, openMillis);
+    }
+
+    private static ResilientChannel resilient(MessageChannel delegate, int maxAttempts, int failureThreshold, long openMillis) {
+        FeedbackProperties properties = new FeedbackProperties();
+        FeedbackProperties.Resilience resilience = properties.getResilience();
+        resilience.setMaxAttempts(maxAttempts);
+        resilience.setFailureThreshold(failureThreshold);
+        resilience.setOpenMillis(openMillis);
+        resilience.setBaseDelayMillis(1);
+        resilience.setMaxDelayMillis(1);
+        return new ResilientChannel(delegate, new FeedbackConfigHolder(properties));
+    }
+
+    private static MessageContext context() {
+        return MessageContext.builder().message("hello").build();
+    }
+
+    @Test
+    void retriesTransientFailureUntilSuccess() {
+        ResilientChannel resilient = resilient(3, 5, 60_000);
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+
+        ChannelResult result = resilient.send(context());
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getAttempts());
+        assertEquals(1, resilient.stats().getRetries());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.stats().getState());
+    }
+
+    @Test
+    void businessErrorIsNotRetriedAndDoesNotTrip() {
+        ResilientChannel resilient = resilient(3, 1, 60_000);
+        outcomes.add(ChannelResult.fail("stub bad request"));
+
+        ChannelResult result = resilient.send(context());
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.stats().getState());
+    }
+
+    @Test
+    void opensAfterThresholdAndShortCircuits() {
+        ResilientChannel resilient = resilient(1, 2, 60_000);
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+
+        resilient.send(context());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.stats().getState());
+        resilient.send(context());
+        assertEquals(CircuitBreaker.State.OPEN, resilient.stats().getState());
+
+        ChannelResult rejected = resilient.send(context());
+        assertFalse(rejected.isSuccess());
+        assertEquals("stub circuit open", rejected.getMessage());
+        assertEquals(2, calls.get());
+        assertEquals(1, resilient.stats().getShortCircuited());
+    }
+
+    @Test
+    void probeAfterCooldownClosesOnSuccess() throws InterruptedException {
+        ResilientChannel resilient = resilient(1, 1, 20);
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+        resilient.send(context());
+        assertEquals(CircuitBreaker.State.OPEN, resilient.stats().getState());
+
+        Thread.sleep(40);
+        assertTrue(resilient.send(context()).isSuccess());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.stats().getState());
+    }
+
+    @Test
+    void probeFailureReopens() throws InterruptedException {
+        ResilientChannel resilient = resilient(3, 1, 20);
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+        resilient.send(context());
+        // 熔断打开后不再重试
+        assertEquals(1, calls.get());
+
+        Thread.sleep(40);
+        assertFalse(resilient.send(context()).isSuccess());
+        assertEquals(2, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, resilient.stats().getState());
+    }
+
+    @Test
+    void resetClosesImmediately() {
+        ResilientChannel resilient = resilient(1, 1, 60_000);
+        outcomes.add(ChannelResult.retryableFail("stub 503"));
+        resilient.send(context());
+        resilient.reset();
+
+        assertTrue(resilient.send(context()).isSuccess());
+    }
+
+    private static MessageChannel hanging(Queue<CompletableFuture<ChannelResult>> pending) {
+        return new MessageChannel() {
+            @Override
+            public ChannelResult send(MessageContext context) {
+                return sendAsync(context).toCompletableFuture().join();
+            }
+
+            @Override
+            public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+                CompletableFuture<ChannelResult> call = new CompletableFuture<>();
+                pending.add(call);
+                return call;
+            }
+
+            @Override
+            public String name() {
+                return "stub";
+            }
+        };
+    }
+
+    @Test
+    void cancelledProbeReleasesHalfOpen() throws InterruptedException {
+        Queue<CompletableFuture<ChannelResult>> pending = new ConcurrentLinkedQueue<>();
+        ResilientChannel resilient = resilient(hanging(pending), 1, 1, 20);
+        CompletableFuture<ChannelResult> first = resilient.sendAsync(context()).toCompletableFuture();
+        pending.poll().complete(ChannelResult.retryableFail("stub 503"));
+        assertFalse(first.join().isSuccess());
+        assertEquals(CircuitBreaker.State.OPEN, resilient.stats().getState());
+
+        // 冷却后的试探调用挂起，路由截止时间到达时由调用方完成并撤回
+        Thread.sleep(40);
+        CompletableFuture<ChannelResult> probe = resilient.sendAsync(context()).toCompletableFuture();
+        CompletableFuture<ChannelResult> probeCall = pending.poll();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, resilient.stats().getState());
+        probe.complete(ChannelResult.retryableFail("stub deadline exceeded"));
+        assertTrue(probeCall.isCancelled());
+        assertEquals(CircuitBreaker.State.OPEN, resilient.stats().getState());
+
+        // 新的冷却结束后可以再次试探并恢复
+        Thread.sleep(40);
+        CompletableFuture<ChannelResult> recovered = resilient.sendAsync(context()).toCompletableFuture();
+        pending.poll().complete(ChannelResult.ok());
+        assertTrue(recovered.join().isSuccess());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.stats().getState());
+    }
+
+    @Test
+    void cancelledNonProbeCallKeepsHalfOpen() throws InterruptedException {
+        Queue<CompletableFuture<ChannelResult>> pending = new ConcurrentLinkedQueue<>();
+        ResilientChannel resilient = resilient(hanging(pending), 1, 1, 20);
+        // 熔断打开之前放行的慢调用
+        CompletableFuture<ChannelResult> slow = resilient.sendAsync(context()).toCompletableFuture();
+        CompletableFuture<ChannelResult> slowCall = pending.poll();
+        CompletableFuture<ChannelResult> first = resilient.sendAsync(context()).toCompletableFuture();
+        pending.poll().complete(ChannelResult.retryableFail("stub 503"));
+        assertFalse(first.join().isSuccess());
+        assertEquals(CircuitBreaker.State.OPEN, resilient.stats().getState());
+
+        Thread.sleep(40);
+        CompletableFuture<ChannelResult> probe = resilient.sendAsync(context()).toCompletableFuture();
+        CompletableFuture<ChannelResult> probeCall = pending.poll();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, resilient.stats().getState());
+
+        // 撤回慢调用不影响正在进行的试探
+        slow.complete(ChannelResult.retryableFail("stub deadline exceeded"));
+        assertTrue(slowCall.isCancelled());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, resilient.stats().getState());
+
+        probeCall.complete(ChannelResult.ok());
+        assertTrue(probe.join().isSuccess());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.stats().getState());
+    }
+}
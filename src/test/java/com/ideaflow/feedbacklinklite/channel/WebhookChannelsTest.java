@@ -0,0 +1,199 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 钉钉、飞书、企业微信与通用 webhook 渠道对本地桩服务的请求体、签名、请求头以及业务错误码的处理
+ */
+class WebhookChannelsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final AtomicReference<Reply> reply = new AtomicReference<>(new Reply(200, "{}", 0));
+
+    private HttpServer server;
+    private FeedbackProperties properties;
+    private WebhookHttpClient client;
+
+    private record Request(String path, String authorization, JsonNode body) {
+    }
+
+    private record Reply(int status, String body, long delayMillis) {
+    }
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            requests.add(new Request(exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders().getFirst("Authorization"), objectMapper.readTree(body)));
+            Reply current = reply.get();
+            try {
+                Thread.sleep(current.delayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = current.body().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(current.status(), response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.setExecutor(task -> Thread.ofVirtual().start(task));
+        server.start();
+        properties = new FeedbackProperties();
+        client = new WebhookHttpClient(new FeedbackConfigHolder(properties), new FeedbackMetrics());
+    }
+
+    @AfterEach
+    void stopStub() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static MessageContext context() {
+        return MessageContext.builder()
+                .message("按钮点了没反应 \"quoted\"")
+                .contact("13800000000")
+                .pageUrl("https://example.com/a")
+                .build();
+    }
+
+    @Test
+    void feishuSendsSignedCardAndDetectsErrorCode() throws Exception {
+        properties.getFeishu().setEnabled(true);
+        properties.getFeishu().setWebhook(url("/open-apis/bot/v2/hook/x"));
+        properties.getFeishu().setSecret("s3cret");
+        FeishuChannel channel = new FeishuChannel(new FeedbackConfigHolder(properties), client);
+        reply.set(new Reply(200, "{\"code\":0,\"msg\":\"success\"}", 0));
+
+        assertTrue(channel.send(context()).isSuccess());
+        JsonNode body = requests.poll(5, TimeUnit.SECONDS).body();
+        assertEquals("interactive", body.path("msg_type").asText());
+        assertEquals("收到新的用户反馈", body.path("card").path("header").path("title").path("content").asText());
+        assertTrue(body.path("card").path("elements").path(0).path("content").asText().contains("\"quoted\""));
+        long timestamp = Long.parseLong(body.path("timestamp").asText());
+        assertEquals(FeishuChannel.sign("s3cret", timestamp), body.path("sign").asText());
+
+        reply.set(new Reply(200, "{\"code\":19021,\"msg\":\"sign match fail\"}", 0));
+        ChannelResult rejected = channel.send(context());
+        assertFalse(rejected.isSuccess());
+        assertFalse(rejected.isRetryable());
+        assertTrue(rejected.getMessage().contains("19021"));
+    }
+
+    @Test
+    void weComSendsMarkdownAndTreatsErrcodeAsFailure() throws Exception {
+        properties.getWeCom().setEnabled(true);
+        properties.getWeCom().setWebhook(url("/cgi-bin/webhook/send"));
+        WeComChannel channel = new WeComChannel(new FeedbackConfigHolder(properties), client);
+        reply.set(new Reply(200, "{\"errcode\":0,\"errmsg\":\"ok\"}", 0));
+
+        assertTrue(channel.send(context()).isSuccess());
+        JsonNode body = requests.poll(5, TimeUnit.SECONDS).body();
+        assertEquals("markdown", body.path("msgtype").asText());
+        assertTrue(body.path("markdown").path("content").asText().startsWith("### 🔔 收到新的用户反馈"));
+
+        reply.set(new Reply(200, "{\"errcode\":45009,\"errmsg\":\"api freq out of limit\"}", 0));
+        assertFalse(channel.send(context()).isSuccess());
+    }
+
+    @Test
+    void dingTalkTreatsErrcodeAsFailureAndRetriesThrottling() throws Exception {
+        properties.getDingTalk().setWebhook(url("/robot/send"));
+        DingTalkChannel channel = new DingTalkChannel(new FeedbackConfigHolder(properties), client);
+        reply.set(new Reply(200, "{\"errcode\":0,\"errmsg\":\"ok\"}", 0));
+
+        assertTrue(channel.send(context()).isSuccess());
+        assertEquals("markdown", requests.poll(5, TimeUnit.SECONDS).body().path("msgtype").asText());
+
+        reply.set(new Reply(200, "{\"errcode\":310000,\"errmsg\":\"keywords not in content\"}", 0));
+        ChannelResult rejected = channel.send(context());
+        assertFalse(rejected.isSuccess());
+        assertFalse(rejected.isRetryable());
+        assertTrue(rejected.getMessage().contains("310000"));
+
+        reply.set(new Reply(200, "{\"errcode\":130101,\"errmsg\":\"send too fast\"}", 0));
+        ChannelResult throttled = channel.send(context());
+        assertFalse(throttled.isSuccess());
+        assertTrue(throttled.isRetryable());
+
+        reply.set(new Reply(200, "{\"errcode\":-1,\"errmsg\":\"系统繁忙\"}", 0));
+        assertTrue(channel.send(context()).isRetryable());
+    }
+
+    @Test
+    void genericWebhookSendsFieldsAndHeaders() throws Exception {
+        properties.getWebhook().setEnabled(true);
+        properties.getWebhook().setUrl(url("/hooks/feedback"));
+        properties.getWebhook().getHeaders().put("Authorization", "Bearer t0ken");
+        GenericWebhookChannel channel = new GenericWebhookChannel(new FeedbackConfigHolder(properties), client);
+
+        assertTrue(channel.send(context()).isSuccess());
+        Request request = requests.poll(5, TimeUnit.SECONDS);
+        assertEquals("Bearer t0ken", request.authorization());
+        assertEquals("按钮点了没反应 \"quoted\"", request.body().path("message").asText());
+        assertTrue(request.body().path("userAgent").isNull());
+        assertTrue(request.body().path("timestamp").asLong() > 0);
+
+        reply.set(new Reply(503, "busy", 0));
+        ChannelResult failed = channel.send(context());
+        assertFalse(failed.isSuccess());
+        assertTrue(failed.isRetryable());
+    }
+
+    @Test
+    void disabledOrUnconfiguredChannels() {
+        FeishuChannel feishu = new FeishuChannel(new FeedbackConfigHolder(properties), client);
+        assertFalse(feishu.isEnabled());
+        properties.getFeishu().setEnabled(true);
+        assertTrue(feishu.isEnabled());
+        assertEquals("Feishu webhook not configured", feishu.send(context()).getMessage());
+    }
+
+    @Test
+    void slowSendsOverlapWithoutBlockingCaller() throws Exception {
+        properties.getWebhook().setUrl(url("/slow"));
+        GenericWebhookChannel channel = new GenericWebhookChannel(new FeedbackConfigHolder(properties), client);
+        reply.set(new Reply(200, "{}", 300));
+
+        long start = System.nanoTime();
+        List<CompletableFuture<ChannelResult>> sends = List.of(
+                channel.sendAsync(context()).toCompletableFuture(),
+                channel.sendAsync(context()).toCompletableFuture(),
+                channel.sendAsync(context()).toCompletableFuture());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 300);
+        for (CompletableFuture<ChannelResult> send : sends) {
+            assertTrue(send.get(5, TimeUnit.SECONDS).isSuccess());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 900);
+    }
+}
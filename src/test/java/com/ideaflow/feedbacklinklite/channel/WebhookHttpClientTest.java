@@ -0,0 +1,141 @@
+package com.ideaflow.feedbacklinklite.channel;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 出站 HTTP 客户端：请求与响应、在途请求数上限、整体超时，以及不修改 JVM 全局参数
+ */
+class WebhookHttpClientTest {
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private HttpServer server;
+    private FeedbackProperties properties;
+    private WebhookHttpClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String reply = exchange.getRequestHeaders().getFirst("Content-Type") + "|"
+                    + exchange.getRequestHeaders().getFirst("X-Token") + "|" + new String(body, StandardCharsets.UTF_8);
+            respond(exchange, 200, reply);
+        });
+        server.createContext("/slow", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            respond(exchange, 200, "{}");
+        });
+        server.setExecutor(task -> Thread.ofVirtual().start(task));
+        server.start();
+        properties = new FeedbackProperties();
+        client = new WebhookHttpClient(new FeedbackConfigHolder(properties), new FeedbackMetrics());
+    }
+
+    @AfterEach
+    void stopStub() {
+        gate.countDown();
+        client.shutdown();
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    void postsJsonWithHeaders() throws Exception {
+        WebhookHttpClient.WebhookResponse response = client.postJsonAsync(url("/echo"),
+                "{\"a\":1}".getBytes(StandardCharsets.UTF_8), Map.of("X-Token", "t1")).get(5, TimeUnit.SECONDS);
+
+        assertTrue(response.is2xx());
+        assertEquals("application/json; charset=utf-8|t1|{\"a\":1}", response.body());
+    }
+
+    @Test
+    void capsRequestsInFlightAtMaxConnections() throws Exception {
+        properties.getHttp().setMaxConnections(2);
+        List<CompletableFuture<WebhookHttpClient.WebhookResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(client.postJsonAsync(url("/slow"), new byte[0], Map.of()));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (active.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // 额外等一会儿，确认排队的请求没有越过上限
+        Thread.sleep(200);
+        assertEquals(2, active.get());
+
+        gate.countDown();
+        for (CompletableFuture<WebhookHttpClient.WebhookResponse> call : calls) {
+            assertTrue(call.get(5, TimeUnit.SECONDS).is2xx());
+        }
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void totalTimeoutIncludesQueueing() {
+        properties.getHttp().setMaxConnections(1);
+        properties.getHttp().setTotalTimeoutMillis(300);
+        client.postJsonAsync(url("/slow"), new byte[0], Map.of());
+        CompletableFuture<WebhookHttpClient.WebhookResponse> queued = client.postJsonAsync(url("/slow"), new byte[0], Map.of());
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof HttpTimeoutException);
+        assertEquals(1, peak.get());
+    }
+
+    @Test
+    void leavesJvmWideSettingsUntouched() throws Exception {
+        properties.getHttp().setMaxConnections(3);
+        properties.getHttp().setKeepAliveSeconds(7);
+        client.postJsonAsync(url("/echo"), new byte[0], Map.of()).get(5, TimeUnit.SECONDS);
+
+        assertNull(System.getProperty("jdk.httpclient.connectionPoolSize"));
+        assertNull(System.getProperty("jdk.httpclient.keepalive.timeout"));
+    }
+}
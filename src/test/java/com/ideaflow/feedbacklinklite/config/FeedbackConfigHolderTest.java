@@ -0,0 +1,124 @@
+package com.ideaflow.feedbacklinklite.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeedbackConfigHolderTest {
+
+    @Test
+    void updateLeavesPublishedSnapshotUntouched() {
+        FeedbackConfigHolder holder = new FeedbackConfigHolder(new FeedbackProperties());
+        FeedbackProperties before = holder.current();
+        int maxRequests = before.getRateLimit().getMaxRequests();
+
+        FeedbackProperties after = holder.update(next -> {
+            next.getRateLimit().setMaxRequests(maxRequests + 1);
+            next.getDingTalk().getTemplate().getFields().add("${contact}");
+        });
+
+        assertNotSame(before, after);
+        assertEquals(maxRequests, before.getRateLimit().getMaxRequests());
+        assertEquals(maxRequests + 1, holder.current().getRateLimit().getMaxRequests());
+        assertEquals(before.getDingTalk().getTemplate().getFields().size() + 1,
+                after.getDingTalk().getTemplate().getFields().size());
+    }
+
+    @Test
+    void copyIsDetachedFromPublishedSnapshot() {
+        FeedbackConfigHolder holder = new FeedbackConfigHolder(new FeedbackProperties());
+        int maxRequests = holder.current().getRateLimit().getMaxRequests();
+
+        FeedbackProperties copy = holder.copy();
+        copy.getRateLimit().setMaxRequests(maxRequests + 1);
+        copy.getDingTalk().getTemplate().getFields().clear();
+
+        assertNotSame(holder.current(), copy);
+        assertEquals(maxRequests, holder.current().getRateLimit().getMaxRequests());
+        assertFalse(holder.current().getDingTalk().getTemplate().getFields().isEmpty());
+    }
+
+    @Test
+    void reloadStartsFromBoundValues() throws IOException {
+        FeedbackProperties bound = new FeedbackProperties();
+        bound.setConfigPath("/tmp/bound.json");
+        FeedbackConfigHolder holder = new FeedbackConfigHolder(bound);
+        holder.update(next -> next.setConfigPath("/tmp/updated.json"));
+
+        FeedbackProperties reloaded = holder.reload(json("{\"configPath\": null, \"rateLimit\": {\"maxRequests\": 42}}"));
+
+        assertEquals(42, reloaded.getRateLimit().getMaxRequests());
+        // 外部文件未记录路径时沿用启动参数，而不是上一次修改的值
+        assertEquals("/tmp/bound.json", reloaded.getConfigPath());
+        assertSame(reloaded, holder.current());
+    }
+
+    @Test
+    void reloadKeepsYmlValuesMissingFromFile() throws IOException {
+        FeedbackProperties bound = new FeedbackProperties();
+        bound.getDingTalk().setWebhook("https://yml.example.com/hook");
+        bound.getRateLimit().setEnabled(false);
+        bound.getDeadLetter().setReplayPerMinute(7);
+        FeedbackConfigHolder holder = new FeedbackConfigHolder(bound);
+
+        // 升级前保存的文件没有 deadLetter 段，rateLimit 段也只有部分字段
+        FeedbackProperties reloaded = holder.reload(json(
+                "{\"rateLimit\": {\"maxRequests\": 42}, \"dingTalk\": {\"template\": {\"fields\": [\"${contact}\"]}}}"));
+
+        assertEquals(42, reloaded.getRateLimit().getMaxRequests());
+        assertFalse(reloaded.getRateLimit().isEnabled());
+        assertEquals("https://yml.example.com/hook", reloaded.getDingTalk().getWebhook());
+        assertEquals(7, reloaded.getDeadLetter().getReplayPerMinute());
+        // 列表整体替换，不与默认值拼接
+        assertEquals(List.of("${contact}"), reloaded.getDingTalk().getTemplate().getFields());
+        assertEquals(new FeedbackProperties.Template().getBody(), reloaded.getDingTalk().getTemplate().getBody());
+    }
+
+    @Test
+    void invalidFileKeepsCurrentSnapshot() {
+        FeedbackConfigHolder holder = new FeedbackConfigHolder(new FeedbackProperties());
+        FeedbackProperties before = holder.current();
+
+        assertThrows(IOException.class, () -> holder.reload(json("{\"rateLimit\": {\"maxRequests\": \"many\"}}")));
+        assertSame(before, holder.current());
+    }
+
+    @Test
+    void saveRoundTripsThroughReload() throws IOException {
+        Path dir = Files.createTempDirectory("config-test");
+        Path file = dir.resolve("feedback_config.json");
+        try {
+            FeedbackProperties bound = new FeedbackProperties();
+            bound.setConfigPath(file.toString());
+            bound.getDingTalk().setWebhook("https://yml.example.com/hook");
+            FeedbackConfigHolder holder = new FeedbackConfigHolder(bound);
+            FeedbackConfigStorage storage = new FeedbackConfigStorage(new StandardEnvironment());
+
+            FeedbackProperties saved = holder.update(next -> next.getRateLimit().setMaxRequests(42));
+            storage.save(saved);
+
+            FeedbackProperties reloaded = holder.reload(storage.loadIfExists(holder.current()));
+            assertEquals(42, reloaded.getRateLimit().getMaxRequests());
+            assertEquals("https://yml.example.com/hook", reloaded.getDingTalk().getWebhook());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static JsonNode json(String text) throws IOException {
+        return new ObjectMapper().readTree(text);
+    }
+}
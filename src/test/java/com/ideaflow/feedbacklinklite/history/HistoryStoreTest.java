@@ -0,0 +1,123 @@
+package com.ideaflow.feedbacklinklite.history;
+
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.model.HistoryItem;
+import com.ideaflow.feedbacklinklite.model.HistoryPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryStoreTest {
+    private Path dir;
+    private HistoryStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("history-test");
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void keywordSearchPagesNewestFirstAcrossSegments() throws Exception {
+        for (int i = 1; i <= 250; i++) {
+            String message = i % 2 == 0 ? "第" + i + "次支付失败，请处理" : "Page " + i + " loads slowly on Safari";
+            store.offer(1_000L + i, MessageContext.builder().message(message).pageUrl("https://example.com/pay").build());
+        }
+        store.sync();
+
+        List<Long> ids = collectAll("支付失败", null);
+        assertEquals(125, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(250L - 2 * i, ids.get(i).longValue());
+        }
+        assertEquals(125, collectAll("SAFARI slowly", null).size());
+        assertEquals(0, collectAll("支付成功", null).size());
+    }
+
+    @Test
+    void filtersByPageUrlAndTime() throws Exception {
+        for (int i = 1; i <= 100; i++) {
+            String url = i % 4 == 0 ? "https://example.com/checkout?step=" + i : "https://example.com/home#top";
+            store.offer(10_000L * i, MessageContext.builder().message("反馈 " + i).pageUrl(url).build());
+        }
+        store.sync();
+
+        assertEquals(25, collectAll(null, "http://EXAMPLE.com/checkout/").size());
+        HistoryPage page = store.search(new HistoryQuery(null, "example.com/checkout", 200_000L, 400_000L, null, 100));
+        assertEquals(List.of(40L, 36L, 32L, 28L, 24L, 20L), page.getItems().stream().map(HistoryItem::getId).toList());
+        assertNull(page.getNextCursor());
+
+        HistoryPage recent = store.search(new HistoryQuery(null, null, 995_000L, null, null, 10));
+        assertEquals(List.of(100L), recent.getItems().stream().map(HistoryItem::getId).toList());
+    }
+
+    @Test
+    void rebuildsIndexFromRecordsAfterRestart() throws Exception {
+        for (int i = 1; i <= 120; i++) {
+            store.offer(i, MessageContext.builder().message("订单 " + i + " 无法退款").contact("user" + i).build());
+        }
+        store.sync();
+        store.close();
+        // 模拟索引丢失：只保留数据文件
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir, "index-*.seg")) {
+            for (Path segment : segments) {
+                Files.delete(segment);
+            }
+        }
+        store = open();
+        assertEquals(120, store.size());
+        assertEquals(120, collectAll("退款", null).size());
+        HistoryItem item = store.get(7);
+        assertEquals("user7", item.getContact());
+        assertNull(store.get(121));
+
+        store.offer(200, MessageContext.builder().message("新的退款问题").build());
+        store.sync();
+        assertEquals(121L, store.search(new HistoryQuery("退款", null, null, null, null, 1)).getItems().get(0).getId());
+    }
+
+    private HistoryStore open() throws IOException {
+        // 小分段与较低的分段上限，让测试覆盖刷盘与合并
+        HistoryStore opened = new HistoryStore(dir, 64 * 1024, 16, 3, 1000);
+        opened.open();
+        return opened;
+    }
+
+    private List<Long> collectAll(String keyword, String pageUrl) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        Long cursor = null;
+        do {
+            HistoryPage page = store.search(new HistoryQuery(keyword, pageUrl, null, null, cursor, 7));
+            for (HistoryItem item : page.getItems()) {
+                if (keyword != null) {
+                    assertTrue(HistoryTokenizer.normalize(item.getMessage())
+                            .contains(HistoryTokenizer.normalize(keyword.split(" ")[0])));
+                }
+                ids.add(item.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -0,0 +1,142 @@
+package com.ideaflow.feedbacklinklite.journal;
+
+import com.ideaflow.feedbacklinklite.channel.ChannelResult;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.metrics.PrometheusWriter;
+import com.ideaflow.feedbacklinklite.model.DeadLetter;
+import com.ideaflow.feedbacklinklite.model.DeadLetterPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadLetterStoreTest {
+    private Path dir;
+    private final FeedbackMetrics metrics = new FeedbackMetrics();
+    private FeedbackProperties properties;
+    private DeadLetterStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("dead-letter-test");
+        properties = new FeedbackProperties();
+        properties.getDeadLetter().setDir(dir.toString());
+        store = new DeadLetterStore(new FeedbackConfigHolder(properties), null, metrics);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static MessageContext context(int i) {
+        return MessageContext.builder().message("反馈 " + i).contact("c" + i).pageUrl("https://example.com/" + i).build();
+    }
+
+    private static RouteResult failed(String channel, String error, int attempts) {
+        Map<String, ChannelResult> results = new LinkedHashMap<>();
+        results.put("dingTalk", ChannelResult.ok());
+        results.put(channel, new ChannelResult(false, error, true, attempts));
+        return RouteResult.fail(error, results);
+    }
+
+    @Test
+    void recordsFailuresAndSurvivesRestart() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.record(context(i), failed("feishu", "Feishu send failed status=503", 3)).join() != null);
+        }
+        assertNull(store.record(context(9), RouteResult.fail("No channel configured")).join());
+
+        store.close();
+        store = new DeadLetterStore(new FeedbackConfigHolder(properties), null, metrics);
+        DeadLetterPage first = store.list(null, 3);
+        assertEquals(5, first.getTotal());
+        assertEquals(3, first.getItems().size());
+        assertEquals("反馈 4", first.getItems().get(0).getMessage());
+        DeadLetter letter = first.getItems().get(0);
+        assertEquals(List.of("dingTalk"), letter.getDelivered());
+        assertEquals(1, letter.getFailures().size());
+        assertEquals("feishu", letter.getFailures().get(0).getChannel());
+        assertEquals("Feishu send failed status=503", letter.getFailures().get(0).getError());
+        assertEquals(3, letter.getFailures().get(0).getAttempts());
+
+        DeadLetterPage second = store.list(first.getNextCursor(), 3);
+        assertEquals(2, second.getItems().size());
+        assertNull(second.getNextCursor());
+        assertEquals("反馈 0", second.getItems().get(1).getMessage());
+    }
+
+    @Test
+    void retryAccumulatesAttemptsUnderNewId() {
+        DeadLetter original = store.record(context(1), failed("feishu", "timeout", 3)).join();
+        Map<String, ChannelResult> results = new LinkedHashMap<>();
+        results.put("feishu", new ChannelResult(false, "Feishu send failed: 19021", false, 1));
+        DeadLetter retried = store.recordRetry(original, RouteResult.fail("Feishu send failed: 19021", results)).join();
+
+        assertTrue(retried.getId() > original.getId());
+        assertNull(store.get(original.getId()));
+        assertEquals(1, retried.getReplays());
+        assertEquals(4, retried.getFailures().get(0).getAttempts());
+        assertEquals("Feishu send failed: 19021", retried.getFailures().get(0).getError());
+        assertEquals(List.of("dingTalk"), retried.getDelivered());
+    }
+
+    @Test
+    void removeAndPurge() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(store.record(context(i), failed("weCom", "WeCom send failed", 1)).join().getId());
+        }
+        assertTrue(store.remove(ids.get(1)));
+        assertFalse(store.remove(ids.get(1)));
+        assertEquals(3, store.purge());
+        assertEquals(0, store.size());
+
+        store.close();
+        store = new DeadLetterStore(new FeedbackConfigHolder(properties), null, metrics);
+        assertEquals(0, store.list(null, 10).getTotal());
+    }
+
+    @Test
+    void evictsOldestBeyondMaxEntries() throws Exception {
+        properties.getDeadLetter().setMaxEntries(3);
+        for (int i = 0; i < 5; i++) {
+            store.record(context(i), failed("feishu", "timeout", 1)).join();
+        }
+        assertEquals(3, store.size());
+        assertEquals("反馈 2", store.get(store.ids().get(0)).getMessage());
+        PrometheusWriter out = new PrometheusWriter();
+        metrics.writeTo(out);
+        assertTrue(out.toString().contains("feedback_dead_letters_evicted_total 2"), out::toString);
+
+        // 被淘汰的死信已确认，重启后不会恢复；上限调低后重启时同样淘汰超出部分
+        store.close();
+        properties.getDeadLetter().setMaxEntries(2);
+        store = new DeadLetterStore(new FeedbackConfigHolder(properties), null, metrics);
+        DeadLetterPage page = store.list(null, 10);
+        assertEquals(2, page.getTotal());
+        assertEquals("反馈 4", page.getItems().get(0).getMessage());
+        assertEquals("反馈 3", page.getItems().get(1).getMessage());
+    }
+}
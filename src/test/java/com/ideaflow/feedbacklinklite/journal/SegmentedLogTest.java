@@ -0,0 +1,123 @@
+package com.ideaflow.feedbacklinklite.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 进程在写入中途崩溃后的恢复：残缺的长度前缀、残缺的记录体和校验失败的记录都只丢弃尾部，日志照常打开
+ */
+class SegmentedLogTest {
+    private Path dir;
+    private SegmentedLog log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("segmented-log-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private List<SegmentedLog.Entry> reopen() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+        log = new SegmentedLog(dir, 64 * 1024, 4);
+        return log.open();
+    }
+
+    private long append(String payload) throws Exception {
+        return log.append(payload.getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<String> payloads(List<SegmentedLog.Entry> entries) {
+        List<String> payloads = new ArrayList<>();
+        entries.forEach(entry -> payloads.add(new String(entry.payload(), StandardCharsets.UTF_8)));
+        return payloads;
+    }
+
+    /**
+     * 写入三条并确认第二条后关闭，返回唯一的分段文件
+     */
+    private Path writeThree() throws Exception {
+        reopen();
+        append("one");
+        long second = append("two");
+        append("three");
+        log.ack(second);
+        log.close();
+        log = null;
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static void appendBytes(Path segment, byte[] bytes) throws IOException {
+        Files.write(segment, bytes, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void tornLengthPrefixIsTruncated() throws Exception {
+        Path segment = writeThree();
+        long size = Files.size(segment);
+        appendBytes(segment, new byte[]{0, 0});
+
+        assertEquals(List.of("one", "three"), payloads(reopen()));
+        assertEquals(size, Files.size(segment));
+        // 新记录的 id 接在已有记录之后，再次重启时一并恢复
+        assertEquals(4, append("four"));
+        assertEquals(List.of("one", "three", "four"), payloads(reopen()));
+    }
+
+    @Test
+    void tornBodyIsTruncated() throws Exception {
+        Path segment = writeThree();
+        long size = Files.size(segment);
+        // 完整的长度前缀后只写了一部分记录体
+        appendBytes(segment, ByteBuffer.allocate(8).putInt(64).put((byte) 1).put(new byte[3]).array());
+
+        assertEquals(List.of("one", "three"), payloads(reopen()));
+        assertEquals(size, Files.size(segment));
+        append("four");
+        assertEquals(List.of("one", "three", "four"), payloads(reopen()));
+    }
+
+    @Test
+    void checksumMismatchDropsTheRestOfTheSegment() throws Exception {
+        Path segment = writeThree();
+        byte[] bytes = Files.readAllBytes(segment);
+        // 第一条记录：4 字节长度 + 1 字节类型 + 8 字节 id + "one" + 4 字节校验
+        int firstRecord = 4 + 1 + 8 + 3 + 4;
+        bytes[firstRecord + 4 + 1 + 8] ^= 0x20;
+        Files.write(segment, bytes);
+
+        assertEquals(List.of("one"), payloads(reopen()));
+        assertEquals(firstRecord, Files.size(segment));
+        append("four");
+        assertEquals(List.of("one", "four"), payloads(reopen()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.ideaflow.feedbacklinklite.metrics;
+
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedbackMetricsTest {
+
+    @Test
+    void histogramBucketsAreCumulative() {
+        FeedbackMetrics metrics = new FeedbackMetrics();
+        metrics.recordRequest(FeedbackStatus.SUCCESS, 500_000);
+        metrics.recordRequest(FeedbackStatus.SUCCESS, 20_000_000);
+        metrics.recordRequest(FeedbackStatus.TOO_FREQUENT, 60_000_000_000L);
+
+        String text = scrape(metrics);
+        assertTrue(text.contains("feedback_requests_total{status=\"success\"} 2\n"));
+        assertTrue(text.contains("feedback_requests_total{status=\"too_frequent\"} 1\n"));
+        assertTrue(text.contains("feedback_request_duration_seconds_bucket{le=\"0.001\"} 1\n"));
+        assertTrue(text.contains("feedback_request_duration_seconds_bucket{le=\"0.025\"} 2\n"));
+        assertTrue(text.contains("feedback_request_duration_seconds_bucket{le=\"10.0\"} 2\n"));
+        assertTrue(text.contains("feedback_request_duration_seconds_bucket{le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("feedback_request_duration_seconds_count 3\n"));
+    }
+
+    @Test
+    void channelSamplesCarryLabels() {
+        FeedbackMetrics metrics = new FeedbackMetrics();
+        metrics.recordChannelSend("ding\"talk", FeedbackStatus.FAILED, 1_000);
+        metrics.recordRateLimitDenied(true);
+        metrics.recordHttpError(FeedbackMetrics.HttpError.STATUS_5XX);
+
+        String text = scrape(metrics);
+        assertTrue(text.contains("feedback_channel_sends_total{channel=\"ding\\\"talk\",status=\"failed\"} 1\n"));
+        assertTrue(text.contains("feedback_channel_send_duration_seconds_bucket{channel=\"ding\\\"talk\",le=\"0.001\"} 1\n"));
+        assertTrue(text.contains("feedback_rate_limit_decisions_total{result=\"denied\",scope=\"subnet\"} 1\n"));
+        assertTrue(text.contains("feedback_http_errors_total{kind=\"5xx\"} 1\n"));
+        // 每个指标只声明一次类型
+        assertEquals(text.indexOf("# TYPE feedback_channel_sends_total"), text.lastIndexOf("# TYPE feedback_channel_sends_total"));
+    }
+
+    private static String scrape(FeedbackMetrics metrics) {
+        PrometheusWriter out = new PrometheusWriter();
+        metrics.writeTo(out);
+        return out.toString();
+    }
+}
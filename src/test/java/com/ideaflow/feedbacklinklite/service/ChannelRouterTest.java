@@ -0,0 +1,193 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.ChannelResilienceRegistry;
+import com.ideaflow.feedbacklinklite.channel.ChannelResult;
+import com.ideaflow.feedbacklinklite.channel.MessageChannel;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.OutboundScheduler;
+import com.ideaflow.feedbacklinklite.channel.RouteResult;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多渠道路由：ALL/ANY/BEST_EFFORT 在顺序与并发模式下的聚合结果、提前返回和单渠道截止时间
+ */
+class ChannelRouterTest {
+
+    /**
+     * 由测试控制完成时机的渠道
+     */
+    private static final class StubChannel implements MessageChannel {
+        private final String name;
+        private final CompletableFuture<ChannelResult> result = new CompletableFuture<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private StubChannel(String name) {
+            this.name = name;
+        }
+
+        private StubChannel succeed() {
+            result.complete(ChannelResult.ok());
+            return this;
+        }
+
+        private StubChannel fail() {
+            result.complete(ChannelResult.fail(name + " failed"));
+            return this;
+        }
+
+        @Override
+        public ChannelResult send(MessageContext context) {
+            return sendAsync(context).toCompletableFuture().join();
+        }
+
+        @Override
+        public CompletionStage<ChannelResult> sendAsync(MessageContext context) {
+            calls.incrementAndGet();
+            return result;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+    }
+
+    private static ChannelRouter router(FeedbackProperties.Routing.Mode mode, FeedbackProperties.Routing.Policy policy,
+                                        Map<String, Long> timeouts, MessageChannel... channels) {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getRouting().setMode(mode);
+        properties.getRouting().setPolicy(policy);
+        properties.getRouting().setChannelTimeouts(timeouts);
+        properties.getResilience().setEnabled(false);
+        FeedbackConfigHolder config = new FeedbackConfigHolder(properties);
+        FeedbackMetrics metrics = new FeedbackMetrics();
+        return new ChannelRouter(List.of(channels), config,
+                new ChannelResilienceRegistry(config, new OutboundScheduler(config, metrics)), metrics);
+    }
+
+    private static ChannelRouter parallel(FeedbackProperties.Routing.Policy policy, MessageChannel... channels) {
+        return router(FeedbackProperties.Routing.Mode.PARALLEL, policy, Map.of(), channels);
+    }
+
+    private static ChannelRouter sequential(FeedbackProperties.Routing.Policy policy, MessageChannel... channels) {
+        return router(FeedbackProperties.Routing.Mode.SEQUENTIAL, policy, Map.of(), channels);
+    }
+
+    private static RouteResult route(ChannelRouter router) throws Exception {
+        return router.routeAsync(MessageContext.builder().message("hello").build()).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void parallelAllSucceedsWhenEveryChannelSucceeds() throws Exception {
+        RouteResult result = route(parallel(FeedbackProperties.Routing.Policy.ALL,
+                new StubChannel("a").succeed(), new StubChannel("b").succeed()));
+
+        assertTrue(result.isSuccess());
+        assertEquals(Set.of("a", "b"), result.getChannelResults().keySet());
+    }
+
+    @Test
+    void parallelAllFailsOnFirstFailureWithoutWaitingForSlowChannel() throws Exception {
+        StubChannel slow = new StubChannel("slow");
+        RouteResult result = route(parallel(FeedbackProperties.Routing.Policy.ALL, slow, new StubChannel("broken").fail()));
+
+        assertFalse(result.isSuccess());
+        assertEquals("broken failed", result.getMessage());
+        assertEquals(Set.of("broken"), result.getChannelResults().keySet());
+        slow.succeed();
+    }
+
+    @Test
+    void parallelAnySucceedsOnFirstSuccessWithoutWaitingForSlowChannel() throws Exception {
+        StubChannel slow = new StubChannel("slow");
+        RouteResult result = route(parallel(FeedbackProperties.Routing.Policy.ANY, slow, new StubChannel("fast").succeed()));
+
+        assertTrue(result.isSuccess());
+        assertEquals(Set.of("fast"), result.getChannelResults().keySet());
+        slow.fail();
+    }
+
+    @Test
+    void parallelAnyFailsOnlyWhenEveryChannelFails() throws Exception {
+        RouteResult result = route(parallel(FeedbackProperties.Routing.Policy.ANY,
+                new StubChannel("a").fail(), new StubChannel("b").fail()));
+
+        assertFalse(result.isSuccess());
+        assertEquals(2, result.getChannelResults().size());
+    }
+
+    @Test
+    void channelDeadlineCountsAsFailure() throws Exception {
+        StubChannel hung = new StubChannel("hung");
+        ChannelRouter router = router(FeedbackProperties.Routing.Mode.PARALLEL, FeedbackProperties.Routing.Policy.ALL,
+                Map.of("hung", 50L), hung, new StubChannel("fast").succeed());
+
+        long start = System.nanoTime();
+        RouteResult result = route(router);
+
+        assertFalse(result.isSuccess());
+        assertEquals("hung send timeout after 50ms", result.getMessage());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void bestEffortSucceedsDespiteDeadlineFailure() throws Exception {
+        ChannelRouter router = router(FeedbackProperties.Routing.Mode.PARALLEL, FeedbackProperties.Routing.Policy.BEST_EFFORT,
+                Map.of("hung", 50L), new StubChannel("hung"), new StubChannel("fast").succeed());
+
+        RouteResult result = route(router);
+
+        assertTrue(result.isSuccess());
+        assertFalse(result.getChannelResults().get("hung").isSuccess());
+        assertTrue(result.getChannelResults().get("fast").isSuccess());
+    }
+
+    @Test
+    void sequentialAllStopsAtFirstFailure() throws Exception {
+        StubChannel untouched = new StubChannel("c").succeed();
+        RouteResult result = route(sequential(FeedbackProperties.Routing.Policy.ALL,
+                new StubChannel("a").succeed(), new StubChannel("b").fail(), untouched));
+
+        assertFalse(result.isSuccess());
+        assertEquals("b failed", result.getMessage());
+        assertEquals(0, untouched.calls.get());
+    }
+
+    @Test
+    void sequentialAnyStopsAtFirstSuccess() throws Exception {
+        StubChannel untouched = new StubChannel("c").succeed();
+        RouteResult result = route(sequential(FeedbackProperties.Routing.Policy.ANY,
+                new StubChannel("a").fail(), new StubChannel("b").succeed(), untouched));
+
+        assertTrue(result.isSuccess());
+        assertEquals(Set.of("a", "b"), result.getChannelResults().keySet());
+        assertEquals(0, untouched.calls.get());
+    }
+
+    @Test
+    void skippedChannelsAreNotCalled() throws Exception {
+        StubChannel skipped = new StubChannel("skipped").fail();
+        ChannelRouter router = parallel(FeedbackProperties.Routing.Policy.ALL, skipped, new StubChannel("other").succeed());
+
+        RouteResult result = router.routeAsync(MessageContext.builder().message("hello").build(), Set.of("skipped"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        assertEquals(0, skipped.calls.get());
+    }
+}
@@ -0,0 +1,126 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 测试用的 RESP 服务端替身：支持 AUTH / SELECT / PING / EVAL / EVALSHA，
+ * 用 Java 实现与 {@link RedisRateLimitBackend#SCRIPT} 等价的逻辑，时钟可由测试控制
+ */
+class FakeRespServer implements AutoCloseable {
+    final AtomicLong clock = new AtomicLong(1_000_000);
+    final AtomicInteger evalCalls = new AtomicInteger();
+    final AtomicInteger maxPipelined = new AtomicInteger();
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Long> tats = new ConcurrentHashMap<>();
+    private final Set<String> scripts = ConcurrentHashMap.newKeySet();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+    FakeRespServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                clients.add(socket);
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                Object request = RespClient.read(in);
+                int pipelined = 1;
+                reply(out, (List<?>) request);
+                // 统计一次读到的连续命令数，用于验证批量发送
+                while (in.available() > 0) {
+                    reply(out, (List<?>) RespClient.read(in));
+                    pipelined++;
+                }
+                out.flush();
+                maxPipelined.accumulateAndGet(pipelined, Math::max);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 连接关闭
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    private void reply(OutputStream out, List<?> command) throws IOException {
+        String name = ((String) command.get(0)).toUpperCase();
+        switch (name) {
+            case "PING", "AUTH", "SELECT" -> out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+            case "EVALSHA" -> {
+                if (!scripts.contains((String) command.get(1))) {
+                    out.write("-NOSCRIPT No matching script\r\n".getBytes(StandardCharsets.US_ASCII));
+                    return;
+                }
+                gcra(out, command);
+            }
+            case "EVAL" -> {
+                scripts.add(RedisRateLimitBackend.SCRIPT_SHA);
+                gcra(out, command);
+            }
+            default -> out.write(("-ERR unknown command " + name + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private void gcra(OutputStream out, List<?> command) throws IOException {
+        evalCalls.incrementAndGet();
+        String key = (String) command.get(3);
+        long interval = Long.parseLong((String) command.get(4));
+        long limit = Long.parseLong((String) command.get(5));
+        long want = Long.parseLong((String) command.get(6));
+        long refund = Long.parseLong((String) command.get(7));
+        long[] result = new long[2];
+        tats.compute(key, (k, stored) -> {
+            long now = clock.get();
+            long tat = stored == null ? now : stored;
+            tat = Math.max(now, tat - refund * interval);
+            long granted = Math.min(want, Math.floorDiv(limit - (tat - now), interval));
+            if (granted <= 0) {
+                result[1] = tat + interval - limit - now;
+                return tat > now ? tat : null;
+            }
+            result[0] = granted;
+            return tat + granted * interval;
+        });
+        out.write(("*2\r\n:" + result[0] + "\r\n:" + result[1] + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+}
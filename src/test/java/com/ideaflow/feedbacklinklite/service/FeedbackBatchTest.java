@@ -0,0 +1,247 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.analytics.FeedbackAnalytics;
+import com.ideaflow.feedbacklinklite.attachment.AttachmentStore;
+import com.ideaflow.feedbacklinklite.channel.ChannelResilienceRegistry;
+import com.ideaflow.feedbacklinklite.channel.ChannelResult;
+import com.ideaflow.feedbacklinklite.channel.MessageChannel;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.OutboundScheduler;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.history.FeedbackHistory;
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.model.BatchFeedbackResponse;
+import com.ideaflow.feedbacklinklite.model.FeedbackRequest;
+import com.ideaflow.feedbacklinklite.model.FeedbackResponse;
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量提交：JSON 数组与 NDJSON、条数上限、字节上限、中途格式错误，以及单条校验失败不影响其余条目；
+ * 单条、批量与 multipart 对不合法字段给出相同的结果；
+ * multipart 提交被拒绝或被重复检测抑制时不留下附件；过短的内容不参与重复检测
+ */
+class FeedbackBatchTest {
+    private static final String IP = "10.0.0.1";
+    private static final String BOUNDARY = "----FeedbackBoundary";
+
+    private final Queue<String> delivered = new ConcurrentLinkedQueue<>();
+    private Path attachmentDir;
+    private FeedbackProperties properties;
+    private FeedbackSubmissionService service;
+    private FeedbackDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        attachmentDir = Files.createTempDirectory("attachment-test");
+        properties = new FeedbackProperties();
+        properties.getRateLimit().setEnabled(false);
+        properties.getDedup().setEnabled(false);
+        properties.getResilience().setEnabled(false);
+        properties.getAttachments().setDir(attachmentDir.toString());
+        FeedbackConfigHolder config = new FeedbackConfigHolder(properties);
+        FeedbackMetrics metrics = new FeedbackMetrics();
+        MessageChannel channel = new MessageChannel() {
+            @Override
+            public ChannelResult send(MessageContext context) {
+                delivered.add(context.getMessage());
+                return ChannelResult.ok();
+            }
+
+            @Override
+            public String name() {
+                return "stub";
+            }
+        };
+        ChannelRouter router = new ChannelRouter(List.of(channel), config,
+                new ChannelResilienceRegistry(config, new OutboundScheduler(config, metrics)), metrics);
+        DeadLetterStore deadLetters = new DeadLetterStore(config, null, metrics);
+        dispatcher = new FeedbackDispatcher(router, config, null, deadLetters);
+        service = new FeedbackSubmissionService(router,
+                new RateLimiterService(config, List.of(new LocalRateLimitBackend(config)), metrics),
+                dispatcher, config, new DuplicateFilter(config, router, dispatcher, deadLetters),
+                new FeedbackHistory(config, null), deadLetters, new AttachmentStore(config, null), metrics,
+                new FeedbackAnalytics(config), Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(attachmentDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private BatchFeedbackResponse submit(String body) throws IOException {
+        return service.submitBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), IP);
+    }
+
+    private FeedbackResponse submitMultipart(String message, byte[] file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"message\"\r\n\r\n" + message + "\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"a.png\"\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        out.write(file);
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return service.submitMultipart(new ByteArrayInputStream(out.toByteArray()), BOUNDARY, IP, "https://fb.example.com");
+    }
+
+    private static byte[] png(int seed) {
+        byte[] data = new byte[1024];
+        new Random(seed).nextBytes(data);
+        byte[] magic = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+        System.arraycopy(magic, 0, data, 0, magic.length);
+        return data;
+    }
+
+    private long storedFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(attachmentDir)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static String items(int count) {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"message\":\"item ").append(i).append("\",\"pageUrl\":\"https://example.com/page\"}");
+        }
+        return body.append(']').toString();
+    }
+
+    @Test
+    void deliversEveryItemOfArray() throws IOException {
+        BatchFeedbackResponse response = submit(items(3));
+
+        assertNull(response.getError());
+        assertEquals(3, response.getResults().size());
+        response.getResults().forEach(result -> assertEquals(FeedbackStatus.SUCCESS, result.getStatus()));
+        assertEquals(List.of("item 0", "item 1", "item 2"), List.copyOf(delivered));
+    }
+
+    @Test
+    void acceptsNdjson() throws IOException {
+        BatchFeedbackResponse response = submit("{\"message\":\"first\"}\n{\"message\":\"second\"}\n");
+
+        assertNull(response.getError());
+        assertEquals(List.of("first", "second"), List.copyOf(delivered));
+    }
+
+    @Test
+    void stopsAtItemCap() throws IOException {
+        properties.getBatch().setMaxItems(2);
+
+        BatchFeedbackResponse response = submit(items(5));
+
+        assertEquals("Batch exceeds 2 items", response.getError());
+        assertEquals(2, response.getResults().size());
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    void stopsAtByteCapKeepingProcessedItems() throws IOException {
+        String body = items(500);
+        properties.getBatch().setMaxItems(1000);
+        properties.getBatch().setMaxBytes(body.length() / 2);
+
+        BatchFeedbackResponse response = submit(body);
+
+        assertEquals("Batch exceeds " + body.length() / 2 + " bytes", response.getError());
+        // 超限前已读入的条目照常处理，之后的条目不再读取
+        assertTrue(response.getResults().size() < 500, "results=" + response.getResults().size());
+        assertEquals(response.getResults().size(), delivered.size());
+    }
+
+    @Test
+    void reportsMalformedJsonMidStream() throws IOException {
+        BatchFeedbackResponse response = submit("[{\"message\":\"a\"},{\"message\":\"b\"},{\"message\": ]");
+
+        assertTrue(response.getError().startsWith("Malformed batch after 2 items"), response.getError());
+        assertEquals(List.of("a", "b"), List.copyOf(delivered));
+    }
+
+    @Test
+    void invalidItemDoesNotStopBatch() throws IOException {
+        BatchFeedbackResponse response = submit("[{\"message\":\"\"},{\"message\":\"ok\"}]");
+
+        assertNull(response.getError());
+        assertEquals(FeedbackStatus.FAILED, response.getResults().get(0).getStatus());
+        assertEquals("message must not be blank", response.getResults().get(0).getMessage());
+        assertEquals(FeedbackStatus.SUCCESS, response.getResults().get(1).getStatus());
+        assertEquals(List.of("ok"), List.copyOf(delivered));
+    }
+
+    @Test
+    void invalidInputFailsAlikeOnEveryPath() throws IOException {
+        FeedbackRequest request = new FeedbackRequest();
+        request.setMessage(" ");
+        FeedbackResponse single = service.submit(request, IP);
+        FeedbackResponse item = submit("[{\"message\":\" \"}]").getResults().get(0);
+        FeedbackResponse multipart = submitMultipart(" ", png(1));
+
+        assertEquals(FeedbackStatus.FAILED, single.getStatus());
+        assertEquals(single.getStatus(), item.getStatus());
+        assertEquals(single.getStatus(), multipart.getStatus());
+        assertEquals(single.getMessage(), item.getMessage());
+        assertEquals(single.getMessage(), multipart.getMessage());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    void rejectedMultipartLeavesNoAttachment() throws IOException {
+        FeedbackResponse invalid = submitMultipart(" ", png(1));
+        assertEquals(FeedbackStatus.FAILED, invalid.getStatus());
+        assertEquals(0, storedFiles());
+
+        properties.getDedup().setEnabled(true);
+        assertEquals(FeedbackStatus.SUCCESS, submitMultipart("截图里的按钮点了没反应", png(2)).getStatus());
+        assertEquals(1, storedFiles());
+        // 与上一条相同的反馈被重复检测抑制，附带的新附件不发布；SYNC 模式下对提交者表现为成功
+        assertEquals(FeedbackStatus.SUCCESS, submitMultipart("截图里的按钮点了没反应", png(3)).getStatus());
+        assertEquals(1, storedFiles());
+        assertEquals(1, delivered.size());
+    }
+
+    @Test
+    void busyQueueLeavesNoAttachment() throws IOException {
+        properties.getDelivery().setMode(FeedbackProperties.Delivery.Mode.ASYNC);
+        dispatcher.shutdown();
+
+        assertEquals(FeedbackStatus.SERVER_BUSY, submitMultipart("截图里的按钮点了没反应", png(4)).getStatus());
+        assertEquals(0, storedFiles());
+    }
+
+    @Test
+    void dedupSkipsShortMessages() throws IOException {
+        properties.getDedup().setEnabled(true);
+        BatchFeedbackResponse response = submit("[{\"message\":\"👍👍\"},{\"message\":\"？？？\"},"
+                + "{\"message\":\"无法登录\"},{\"message\":\"无法登录!!\"}]");
+
+        response.getResults().forEach(result -> assertEquals(FeedbackStatus.SUCCESS, result.getStatus()));
+        assertEquals(List.of("👍👍", "？？？", "无法登录", "无法登录!!"), List.copyOf(delivered));
+    }
+}
@@ -0,0 +1,176 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.ChannelResilienceRegistry;
+import com.ideaflow.feedbacklinklite.channel.ChannelResult;
+import com.ideaflow.feedbacklinklite.channel.MessageChannel;
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import com.ideaflow.feedbacklinklite.channel.OutboundScheduler;
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import com.ideaflow.feedbacklinklite.journal.DeadLetterStore;
+import com.ideaflow.feedbacklinklite.journal.FeedbackJournal;
+import com.ideaflow.feedbacklinklite.metrics.FeedbackMetrics;
+import com.ideaflow.feedbacklinklite.model.FeedbackStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步投递：先受理后投递、队列满时拒绝、投递失败转入死信、预写日志的完成标记，以及 SYNC 启动时延迟启动
+ */
+class FeedbackDispatcherTest {
+    private final Queue<String> delivered = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private volatile ChannelResult outcome = ChannelResult.ok();
+
+    private Path dir;
+    private FeedbackConfigHolder config;
+    private FeedbackJournal journal;
+    private DeadLetterStore deadLetters;
+    private FeedbackDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("dispatcher-test");
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getDelivery().setMode(FeedbackProperties.Delivery.Mode.ASYNC);
+        properties.getDelivery().setQueueCapacity(2);
+        properties.getDelivery().setWorkers(1);
+        properties.getJournal().setDir(dir.resolve("journal").toString());
+        properties.getDeadLetter().setDir(dir.resolve("dead-letter").toString());
+        properties.getResilience().setEnabled(false);
+        config = new FeedbackConfigHolder(properties);
+        FeedbackMetrics metrics = new FeedbackMetrics();
+        MessageChannel channel = new MessageChannel() {
+            @Override
+            public ChannelResult send(MessageContext context) {
+                entered.countDown();
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.add(context.getMessage());
+                return outcome;
+            }
+
+            @Override
+            public String name() {
+                return "stub";
+            }
+        };
+        ChannelRouter router = new ChannelRouter(List.of(channel), config,
+                new ChannelResilienceRegistry(config, new OutboundScheduler(config, metrics)), metrics);
+        journal = new FeedbackJournal(config, null);
+        deadLetters = new DeadLetterStore(config, null, metrics);
+        dispatcher = new FeedbackDispatcher(router, config, journal, deadLetters);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        gate.countDown();
+        dispatcher.shutdown();
+        journal.close();
+        deadLetters.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static MessageContext context(String message) {
+        return MessageContext.builder().message(message).pageUrl("https://example.com/a").build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void acceptsBeforeDeliveryAndAcksJournal() throws Exception {
+        dispatcher.run();
+        assertEquals(FeedbackStatus.ACCEPTED, dispatcher.submit(context("first")));
+        // 渠道还没有返回，记录已经落盘
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, journal.pendingCount());
+
+        gate.countDown();
+        await(() -> delivered.contains("first"));
+        await(() -> journal.pendingCount() == 0);
+        assertEquals(0, deadLetters.size());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        dispatcher.run();
+        assertEquals(FeedbackStatus.ACCEPTED, dispatcher.submit(context("in-flight")));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertEquals(FeedbackStatus.ACCEPTED, dispatcher.submit(context("queued-1")));
+        assertEquals(FeedbackStatus.ACCEPTED, dispatcher.submit(context("queued-2")));
+        assertEquals(FeedbackStatus.SERVER_BUSY, dispatcher.submit(context("rejected")));
+        assertEquals(2, dispatcher.getQueueSize());
+        // 被拒绝的一条没有写入日志；落盘由日志写线程完成，受理时不等待
+        await(() -> journal.pendingCount() == 3);
+
+        gate.countDown();
+        await(() -> delivered.size() == 3);
+        assertEquals(List.of("in-flight", "queued-1", "queued-2"), List.copyOf(delivered));
+        await(() -> journal.pendingCount() == 0);
+    }
+
+    @Test
+    void failedDeliveryMovesToDeadLetter() throws Exception {
+        dispatcher.run();
+        outcome = ChannelResult.fail("stub send failed");
+        gate.countDown();
+        assertEquals(FeedbackStatus.ACCEPTED, dispatcher.submit(context("lost")));
+
+        await(() -> deadLetters.size() == 1);
+        assertEquals("lost", deadLetters.list(null, 10).getItems().get(0).getMessage());
+        // 已转入死信的记录同样标记完成，下次启动不再重放
+        await(() -> journal.pendingCount() == 0);
+    }
+
+    @Test
+    void startsOnFirstSubmitWhenLaunchedInSync() throws Exception {
+        config.update(p -> p.getDelivery().setMode(FeedbackProperties.Delivery.Mode.SYNC));
+        dispatcher.run();
+        // SYNC 模式启动时不打开日志、不启动投递线程
+        assertFalse(journal.isOpen());
+
+        config.update(p -> p.getDelivery().setMode(FeedbackProperties.Delivery.Mode.ASYNC));
+        gate.countDown();
+        assertEquals(FeedbackStatus.ACCEPTED, dispatcher.submit(context("late")));
+        assertTrue(journal.isOpen());
+        await(() -> delivered.contains("late"));
+        await(() -> journal.pendingCount() == 0);
+    }
+
+    @Test
+    void rejectsAfterShutdown() throws Exception {
+        dispatcher.shutdown();
+        assertEquals(FeedbackStatus.SERVER_BUSY, dispatcher.submit(context("late")));
+        assertFalse(journal.isOpen());
+    }
+}
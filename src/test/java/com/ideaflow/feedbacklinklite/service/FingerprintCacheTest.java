@@ -0,0 +1,85 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.channel.MessageContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintCacheTest {
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void normalizationIgnoresCaseSpacingPunctuationAndDigits() {
+        assertEquals(1.0, similarity("Order 12345 never arrived!!!", "order   987 never arrived."));
+    }
+
+    @Test
+    void nearDuplicatesScoreAboveThreshold() {
+        String base = "您好，我在贵站购买的会员一直没有生效，已经付款三天了，请尽快处理，订单号 20240101";
+        String variant = "您好，我在贵站购买的会员一直没有生效，已经付款五天了，请尽快处理！订单号 20240202";
+        String other = "页面底部的联系方式链接打不开，点击后一直显示加载中";
+        assertTrue(similarity(base, variant) >= 0.7);
+        assertTrue(similarity(base, other) < 0.2);
+    }
+
+    @Test
+    void foldsSimilarMessagesWithinWindow() {
+        FingerprintCache cache = new FingerprintCache(64, 0.7);
+        long now = 1_000_000;
+        assertTrue(offer(cache, "买便宜会员请加微信 abc123，限时优惠", now));
+        for (int i = 0; i < 36; i++) {
+            assertFalse(offer(cache, "买便宜会员请加微信 abc" + i + "，限时优惠！", now + i));
+        }
+        assertTrue(offer(cache, "提交按钮在手机上点不了", now + 100));
+
+        assertTrue(cache.drainExpired(now + WINDOW - 1, WINDOW).isEmpty());
+        List<FingerprintCache.Folded> folded = cache.drainExpired(now + WINDOW, WINDOW);
+        assertEquals(1, folded.size());
+        assertEquals(36, folded.get(0).count());
+        assertTrue(cache.drainExpired(now + 2 * WINDOW, WINDOW).isEmpty());
+
+        // 窗口结束后同样的内容重新开始计算
+        assertTrue(offer(cache, "买便宜会员请加微信 abc123，限时优惠", now + 2 * WINDOW));
+    }
+
+    @Test
+    void memoryStaysBoundedUnderDistinctFlood() {
+        FingerprintCache cache = new FingerprintCache(16, 0.7);
+        long now = 0;
+        assertTrue(offer(cache, "repeat me please, this is spam", now));
+        assertFalse(offer(cache, "repeat me please, this is spam", now));
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 30; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            assertTrue(offer(cache, text.toString(), now));
+        }
+        // 被挤出缓存的折叠计数只记录数量，不会无限累积
+        assertEquals(1, cache.takeDroppedFolds());
+        assertTrue(offer(cache, "repeat me please, this is spam", now));
+    }
+
+    @Test
+    void exactThresholdOnlyFoldsIdenticalText() {
+        FingerprintCache cache = new FingerprintCache(64, 1.0);
+        assertTrue(offer(cache, "the quick brown fox jumps over the lazy dog", 0));
+        assertFalse(offer(cache, "The quick brown fox jumps over the lazy dog.", 0));
+        assertTrue(offer(cache, "the quick brown fox jumps over the lazy cat", 0));
+    }
+
+    private static boolean offer(FingerprintCache cache, String message, long now) {
+        MessageContext context = MessageContext.builder().message(message).build();
+        return cache.offer(MinHash.signature(message), context, now, WINDOW);
+    }
+
+    private static double similarity(String a, String b) {
+        return MinHash.similarity(MinHash.signature(a), 0, MinHash.signature(b));
+    }
+}
@@ -0,0 +1,50 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class IpKeysTest {
+
+    @Test
+    void ipv4IsTaggedAndMasked() {
+        assertEquals((1L << 32) | 0xC0A80101L, IpKeys.encode("192.168.1.1", 32, 64));
+        assertEquals((1L << 32) | 0xC0A80100L, IpKeys.encode("192.168.1.77", 24, 64));
+        assertEquals(1L << 32, IpKeys.encode("10.1.2.3", 0, 64));
+        assertNotEquals(IpKeys.encode("10.0.0.1", 32, 64), IpKeys.encode("10.0.0.2", 32, 64));
+    }
+
+    @Test
+    void ipv6IsGroupedByPrefix() {
+        long a = IpKeys.encode("2001:db8:1:2:aaaa::1", 32, 64);
+        long b = IpKeys.encode("2001:0db8:0001:0002:ffff:ffff:ffff:ffff", 32, 64);
+        assertEquals(0x20010db800010002L, a);
+        assertEquals(a, b);
+        assertNotEquals(a, IpKeys.encode("2001:db8:1:3::1", 32, 64));
+        assertEquals(IpKeys.encode("2001:db8:1:2::", 32, 48), IpKeys.encode("2001:db8:1:ffff::1", 32, 48));
+        assertEquals(0x20010db800000000L, IpKeys.encode("[2001:db8::1%eth0]", 32, 64));
+        assertEquals(0x000100020003L << 16 | 4, IpKeys.encode("1:2:3:4:5:6:7:8", 32, 64));
+        assertEquals(0L, IpKeys.encode("0:0:0:0:0:0:0:1", 32, 64));
+        assertEquals(0x0001000000000000L, IpKeys.encode("1::", 32, 64));
+    }
+
+    @Test
+    void ipv4MappedIpv6MatchesIpv4() {
+        long v4 = IpKeys.encode("203.0.113.9", 32, 64);
+        assertEquals(v4, IpKeys.encode("::ffff:203.0.113.9", 32, 64));
+        assertEquals(v4, IpKeys.encode("0:0:0:0:0:ffff:cb00:7109", 32, 64));
+    }
+
+    @Test
+    void malformedAddressesFallBackToHash() {
+        String[] malformed = {"", "1.2.3", "1.2.3.256", "1.2.3.4.5", "abc", ":::", "1:2:3:4:5:6:7:8:9",
+                "1::2::3", "12345::", "1:2:3:4:5:6:7:", "::1.2.3.4:5", "g::1"};
+        for (String ip : malformed) {
+            long key = IpKeys.encode(ip, 32, 64);
+            assertNotEquals(1L << 32, key & (0xFFFFFFFFL << 32), ip);
+            assertEquals(key, IpKeys.encode(ip, 32, 64), ip);
+        }
+        assertNotEquals(IpKeys.encode("abc", 32, 64), IpKeys.encode("abd", 32, 64));
+    }
+}
@@ -0,0 +1,179 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GCRA 与滑动窗口在突发上限、单窗口上限、长期速率上的对照
+ */
+class RateLimitAlgorithmTest {
+    private static final long WINDOW = 60 * 60 * 1000L;
+    private static final int MAX = 5;
+    private static final long IP_A = IpKeys.encode("1.1.1.1", 32, 64);
+    private static final long IP_B = IpKeys.encode("2.2.2.2", 32, 64);
+    private static final long KEY = 42;
+
+    @Test
+    void burstLimitMatchesSlidingWindow() {
+        RateLimitAlgorithm sliding = new SlidingWindowRateLimit(100);
+        RateLimitAlgorithm gcra = new GcraRateLimit(100);
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(sliding.tryAcquire(IP_A, 1000, MAX, WINDOW));
+            assertTrue(gcra.tryAcquire(IP_A, 1000, MAX, WINDOW));
+        }
+        assertFalse(sliding.tryAcquire(IP_A, 1000, MAX, WINDOW));
+        assertFalse(gcra.tryAcquire(IP_A, 1000, MAX, WINDOW));
+        // 其他 IP 不受影响
+        assertTrue(gcra.tryAcquire(IP_B, 1000, MAX, WINDOW));
+    }
+
+    @Test
+    void gcraRecoversOneRequestPerInterval() {
+        RateLimitAlgorithm gcra = new GcraRateLimit(100);
+        long interval = WINDOW / MAX;
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(gcra.tryAcquire(KEY, 0, MAX, WINDOW));
+        }
+        assertFalse(gcra.tryAcquire(KEY, interval - 1, MAX, WINDOW));
+        assertTrue(gcra.tryAcquire(KEY, interval, MAX, WINDOW));
+        assertFalse(gcra.tryAcquire(KEY, interval, MAX, WINDOW));
+        // 空闲满一个窗口后恢复全部突发额度
+        long later = WINDOW * 3;
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(gcra.tryAcquire(KEY, later, MAX, WINDOW));
+        }
+        assertFalse(gcra.tryAcquire(KEY, later, MAX, WINDOW));
+    }
+
+    @Test
+    void gcraAdmitsUpToTwiceMaxWithinOneWindow() {
+        RateLimitAlgorithm sliding = new SlidingWindowRateLimit(100);
+        RateLimitAlgorithm gcra = new GcraRateLimit(100);
+        long interval = WINDOW / MAX;
+        int slidingAdmitted = 0;
+        int gcraAdmitted = 0;
+        // 窗口开头突发，之后每个间隔各请求一次，全部落在同一个窗口内
+        for (int i = 0; i < MAX; i++) {
+            slidingAdmitted += sliding.tryAcquire(KEY, 0, MAX, WINDOW) ? 1 : 0;
+            gcraAdmitted += gcra.tryAcquire(KEY, 0, MAX, WINDOW) ? 1 : 0;
+        }
+        for (int i = 1; i < MAX; i++) {
+            slidingAdmitted += sliding.tryAcquire(KEY, i * interval, MAX, WINDOW) ? 1 : 0;
+            gcraAdmitted += gcra.tryAcquire(KEY, i * interval, MAX, WINDOW) ? 1 : 0;
+        }
+        assertEquals(MAX, slidingAdmitted);
+        assertEquals(2 * MAX - 1, gcraAdmitted);
+    }
+
+    @Test
+    void gcraNeverExceedsLongRunRate() {
+        RateLimitAlgorithm gcra = new GcraRateLimit(100);
+        // 窗口无法被 maxRequests 整除时也不能多放行
+        long window = 10;
+        int max = 4;
+        int allowed = 0;
+        for (long now = 0; now < window * 100; now++) {
+            for (int i = 0; i < 3; i++) {
+                if (gcra.tryAcquire(KEY, now, max, window)) {
+                    allowed++;
+                }
+            }
+        }
+        assertTrue(allowed <= max * 100 + max, "allowed=" + allowed);
+    }
+
+    @Test
+    void evictsIdleKeysOnCleanup() {
+        RateLimitAlgorithm gcra = new GcraRateLimit(100);
+        assertTrue(gcra.tryAcquire(1, 0, MAX, WINDOW));
+        assertTrue(gcra.tryAcquire(2, 0, MAX, WINDOW));
+        gcra.evictExpired(WINDOW, WINDOW);
+        assertEquals(0, gcra.size());
+    }
+
+    @Test
+    void newKeysAreAdmittedWhenTableIsFull() {
+        for (RateLimitAlgorithm algorithm : new RateLimitAlgorithm[]{new GcraRateLimit(1000), new SlidingWindowRateLimit(1000)}) {
+            // 模拟地址喷射：大量只访问一次的 key 填满表
+            for (long key = 1; key <= 50_000; key++) {
+                assertTrue(algorithm.tryAcquire(key, 0, MAX, WINDOW));
+            }
+            assertTrue(algorithm.size() <= 1000, () -> "size=" + algorithm.size());
+            assertTrue(algorithm.evictions() > 0);
+            // 新访客依然可以访问，并且照常受到限流
+            for (int i = 0; i < MAX; i++) {
+                assertTrue(algorithm.tryAcquire(-7, 0, MAX, WINDOW));
+            }
+            assertFalse(algorithm.tryAcquire(-7, 0, MAX, WINDOW));
+        }
+    }
+
+    @Test
+    void clockKeepsRecentlyUsedKeys() {
+        GcraKeyTable table = new GcraKeyTable(64);
+        long interval = WINDOW / MAX;
+        long limit = interval * MAX;
+        // 活跃 key 用满额度，之后持续访问
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(table.tryAcquire(-1, 0, interval, limit));
+        }
+        for (long key = 1; key <= 10_000; key++) {
+            table.tryAcquire(key, 0, interval, limit);
+            if (key % 16 == 0) {
+                assertFalse(table.tryAcquire(-1, 0, interval, limit), "active key lost its state at " + key);
+            }
+        }
+    }
+
+    @Test
+    void slidingWindowClockKeepsRecentlyUsedKeys() {
+        RateLimitAlgorithm sliding = new SlidingWindowRateLimit(64);
+        // 活跃 key 最早创建，按创建顺序淘汰时会第一个被挤掉
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(sliding.tryAcquire(-1, 0, MAX, WINDOW));
+        }
+        for (long key = 1; key <= 10_000; key++) {
+            sliding.tryAcquire(key, 0, MAX, WINDOW);
+            if (key % 16 == 0) {
+                assertFalse(sliding.tryAcquire(-1, 0, MAX, WINDOW), "active key lost its state at " + key);
+            }
+        }
+        assertTrue(sliding.size() <= 64, () -> "size=" + sliding.size());
+    }
+
+    @Test
+    void gcraConcurrentAcquiresNeverOverAdmit() throws InterruptedException {
+        GcraKeyTable table = new GcraKeyTable(4096);
+        int max = 500;
+        long interval = WINDOW / max;
+        AtomicInteger allowed = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long own = t + 1;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (table.tryAcquire(KEY, 0, interval, interval * max)) {
+                        allowed.incrementAndGet();
+                    }
+                    // 同时插入其他 key，让无锁更新与段内的插入交错
+                    table.tryAcquire(own * 100_000 + i, 0, interval, interval * max);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(max, allowed.get());
+    }
+
+    @Test
+    void zeroMaxRequestsAlwaysDenies() {
+        assertFalse(new GcraRateLimit(10).tryAcquire(KEY, 0, 0, WINDOW));
+        assertFalse(new SlidingWindowRateLimit(10).tryAcquire(KEY, 0, 0, WINDOW));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitSnapshotterTest {
+    private static final long WINDOW = 60 * 60 * 1000L;
+    private static final int MAX = 5;
+
+    @Test
+    void restoresStateOfAllAlgorithms() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        LocalRateLimitBackend before = new LocalRateLimitBackend(new FeedbackConfigHolder(properties));
+        long now = System.currentTimeMillis();
+        exhaust(before, RateLimitBackend.Scope.IP, 1, now);
+        properties.getRateLimit().setAlgorithm(FeedbackProperties.RateLimit.Algorithm.GCRA);
+        exhaust(before, RateLimitBackend.Scope.IP, 2, now);
+        exhaust(before, RateLimitBackend.Scope.SUBNET, 3, now);
+
+        byte[] snapshot = snapshot(properties, before);
+        LocalRateLimitBackend after = new LocalRateLimitBackend(new FeedbackConfigHolder(properties));
+        assertEquals(3, new RateLimitSnapshotter(new FeedbackConfigHolder(properties), null, after).restore(snapshot, now + 1000));
+
+        assertFalse(after.tryAcquire(RateLimitBackend.Scope.IP, 2, now + 1000, MAX, WINDOW));
+        assertFalse(after.tryAcquire(RateLimitBackend.Scope.SUBNET, 3, now + 1000, MAX, WINDOW));
+        properties.getRateLimit().setAlgorithm(FeedbackProperties.RateLimit.Algorithm.SLIDING_WINDOW);
+        assertFalse(after.tryAcquire(RateLimitBackend.Scope.IP, 1, now + 1000, MAX, WINDOW));
+        assertTrue(after.tryAcquire(RateLimitBackend.Scope.IP, 4, now + 1000, MAX, WINDOW));
+    }
+
+    @Test
+    void dropsEntriesThatExpiredDuringDowntime() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        properties.getRateLimit().setAlgorithm(FeedbackProperties.RateLimit.Algorithm.GCRA);
+        LocalRateLimitBackend before = new LocalRateLimitBackend(new FeedbackConfigHolder(properties));
+        long now = System.currentTimeMillis();
+        exhaust(before, RateLimitBackend.Scope.IP, 1, now);
+        properties.getRateLimit().setAlgorithm(FeedbackProperties.RateLimit.Algorithm.SLIDING_WINDOW);
+        exhaust(before, RateLimitBackend.Scope.IP, 2, now);
+
+        byte[] snapshot = snapshot(properties, before);
+        LocalRateLimitBackend after = new LocalRateLimitBackend(new FeedbackConfigHolder(properties));
+        assertEquals(0, new RateLimitSnapshotter(new FeedbackConfigHolder(properties), null, after).restore(snapshot, now + WINDOW + 1));
+        assertTrue(after.tryAcquire(RateLimitBackend.Scope.IP, 2, now + WINDOW + 1, MAX, WINDOW));
+    }
+
+    @Test
+    void ignoresCorruptedSnapshot() throws Exception {
+        FeedbackProperties properties = new FeedbackProperties();
+        LocalRateLimitBackend before = new LocalRateLimitBackend(new FeedbackConfigHolder(properties));
+        exhaust(before, RateLimitBackend.Scope.IP, 1, System.currentTimeMillis());
+        byte[] snapshot = snapshot(properties, before);
+        snapshot[20] ^= 1;
+        assertEquals(-1, new RateLimitSnapshotter(new FeedbackConfigHolder(properties), null, new LocalRateLimitBackend(new FeedbackConfigHolder(properties)))
+                .restore(snapshot, System.currentTimeMillis()));
+        assertEquals(-1, new RateLimitSnapshotter(new FeedbackConfigHolder(properties), null, new LocalRateLimitBackend(new FeedbackConfigHolder(properties)))
+                .restore(new byte[4], System.currentTimeMillis()));
+    }
+
+    private static void exhaust(LocalRateLimitBackend backend, RateLimitBackend.Scope scope, long key, long now) {
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(backend.tryAcquire(scope, key, now, MAX, WINDOW));
+        }
+        assertFalse(backend.tryAcquire(scope, key, now, MAX, WINDOW));
+    }
+
+    private static byte[] snapshot(FeedbackProperties properties, LocalRateLimitBackend backend) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RateLimitSnapshotter(new FeedbackConfigHolder(properties), null, backend).write(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,128 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用进程内的 RESP 服务端替身验证共享限流后端
+ */
+class RedisRateLimitBackendTest {
+    private static final long WINDOW = 60 * 60 * 1000L;
+    private static final int MAX = 5;
+
+    @Test
+    void limitIsSharedAcrossReplicas() throws Exception {
+        try (FakeRespServer server = new FakeRespServer()) {
+            RedisRateLimitBackend replicaA = backend(server.port(), 1);
+            RedisRateLimitBackend replicaB = backend(server.port(), 1);
+            int allowed = 0;
+            for (int i = 0; i < MAX * 2; i++) {
+                RedisRateLimitBackend replica = i % 2 == 0 ? replicaA : replicaB;
+                if (replica.tryAcquire(RateLimitBackend.Scope.IP, 7, 0, MAX, WINDOW)) {
+                    allowed++;
+                }
+            }
+            assertEquals(MAX, allowed);
+            replicaA.shutdown();
+            replicaB.shutdown();
+        }
+    }
+
+    @Test
+    void deniedKeysAreAnsweredFromNearCache() throws Exception {
+        try (FakeRespServer server = new FakeRespServer()) {
+            RedisRateLimitBackend backend = backend(server.port(), 1);
+            for (int i = 0; i < MAX; i++) {
+                assertTrue(backend.tryAcquire(RateLimitBackend.Scope.IP, 7, 0, MAX, WINDOW));
+            }
+            assertFalse(backend.tryAcquire(RateLimitBackend.Scope.IP, 7, 0, MAX, WINDOW));
+            int calls = server.evalCalls.get();
+            for (int i = 0; i < 100; i++) {
+                assertFalse(backend.tryAcquire(RateLimitBackend.Scope.IP, 7, 1000, MAX, WINDOW));
+            }
+            assertEquals(calls, server.evalCalls.get());
+            // 冷却结束后重新访问存储
+            server.clock.addAndGet(WINDOW / MAX);
+            assertTrue(backend.tryAcquire(RateLimitBackend.Scope.IP, 7, WINDOW / MAX, MAX, WINDOW));
+            backend.shutdown();
+        }
+    }
+
+    @Test
+    void leasedTokensAreServedLocallyAndRefunded() throws Exception {
+        try (FakeRespServer server = new FakeRespServer()) {
+            RedisRateLimitBackend leasing = backend(server.port(), 3);
+            RedisRateLimitBackend other = backend(server.port(), 1);
+            assertTrue(leasing.tryAcquire(RateLimitBackend.Scope.IP, 9, 0, MAX, WINDOW));
+            assertTrue(leasing.tryAcquire(RateLimitBackend.Scope.IP, 9, 10, MAX, WINDOW));
+            assertEquals(1, server.evalCalls.get());
+            // 租约占用了 3 个额度，另一个副本只剩 2 个
+            assertTrue(other.tryAcquire(RateLimitBackend.Scope.IP, 9, 10, MAX, WINDOW));
+            assertTrue(other.tryAcquire(RateLimitBackend.Scope.IP, 9, 10, MAX, WINDOW));
+            assertFalse(other.tryAcquire(RateLimitBackend.Scope.IP, 9, 10, MAX, WINDOW));
+            // 租约到期后未用的 1 个额度随下一次请求归还，并被这次请求使用
+            assertTrue(leasing.tryAcquire(RateLimitBackend.Scope.IP, 9, 5000, MAX, WINDOW));
+            assertFalse(leasing.tryAcquire(RateLimitBackend.Scope.IP, 9, 5000, MAX, WINDOW));
+            leasing.shutdown();
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentChecksArePipelined() throws Exception {
+        try (FakeRespServer server = new FakeRespServer()) {
+            RedisRateLimitBackend backend = backend(server.port(), 1);
+            backend.tryAcquire(RateLimitBackend.Scope.IP, 0, 0, MAX, WINDOW);
+            List<Future<Boolean>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 1; i <= 500; i++) {
+                    long key = i;
+                    results.add(executor.submit(() -> backend.tryAcquire(RateLimitBackend.Scope.SUBNET, key, 0, MAX, WINDOW)));
+                }
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            assertEquals(501, server.evalCalls.get());
+            // 500 个并发检查共用一条连接，至少有一批是连续写出的
+            assertTrue(server.maxPipelined.get() > 1, "max pipelined=" + server.maxPipelined.get());
+            backend.shutdown();
+        }
+    }
+
+    @Test
+    void fallsBackToLocalLimitingWhenUnreachable() throws Exception {
+        int port;
+        try (FakeRespServer server = new FakeRespServer()) {
+            port = server.port();
+        }
+        RedisRateLimitBackend backend = backend(port, 1);
+        for (int i = 0; i < MAX; i++) {
+            assertTrue(backend.tryAcquire(RateLimitBackend.Scope.IP, 3, 0, MAX, WINDOW));
+        }
+        assertFalse(backend.tryAcquire(RateLimitBackend.Scope.IP, 3, 0, MAX, WINDOW));
+        backend.shutdown();
+    }
+
+    private static RedisRateLimitBackend backend(int port, int leaseSize) {
+        FeedbackProperties properties = new FeedbackProperties();
+        FeedbackProperties.RateLimit.Redis redis = properties.getRateLimit().getRedis();
+        redis.setPort(port);
+        redis.setLeaseSize(leaseSize);
+        redis.setTimeoutMillis(2000);
+        redis.setConnectTimeoutMillis(200);
+        FeedbackConfigHolder config = new FeedbackConfigHolder(properties);
+        return new RedisRateLimitBackend(config, new LocalRateLimitBackend(config));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import com.ideaflow.feedbacklinklite.config.FeedbackConfigHolder;
+import com.ideaflow.feedbacklinklite.config.FeedbackProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 静态资源缓存只保存存在的资源，客户端构造的不存在路径和非规范路径不会占用缓存
+ */
+class StaticAssetStoreTest {
+    private final StaticAssetStore store = new StaticAssetStore(new FeedbackConfigHolder(new FeedbackProperties()));
+
+    @Test
+    void cachesExistingAsset() {
+        StaticAsset first = store.get("feedback.js");
+
+        assertNotNull(first);
+        assertSame(first, store.get("feedback.js"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void missingPathsAreNotCached() {
+        for (int i = 0; i < 1000; i++) {
+            assertNull(store.get("_nuxt/missing-" + i + ".js"));
+        }
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void rejectsNonCanonicalPaths() {
+        assertNull(store.get("./feedback.js"));
+        assertNull(store.get("_nuxt//../feedback.js"));
+        assertNull(store.get("config/./../feedback.js"));
+        assertNull(store.get("/feedback.js"));
+        assertNull(store.get("config//index.html"));
+        assertNull(store.get("config\\index.html"));
+        assertEquals(0, store.size());
+    }
+}
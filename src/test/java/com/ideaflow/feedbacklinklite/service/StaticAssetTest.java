@@ -0,0 +1,40 @@
+package com.ideaflow.feedbacklinklite.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticAssetTest {
+    private final StaticAsset asset = new StaticAsset("text/javascript", "abc123",
+            new byte[]{1, 2, 3}, new byte[]{4}, new byte[]{5});
+
+    @Test
+    void selectsBestAcceptedEncoding() {
+        assertEquals("br", asset.select("gzip, deflate, br").encoding());
+        assertEquals("gzip", asset.select("gzip, br;q=0").encoding());
+        assertEquals("gzip", asset.select("GZIP").encoding());
+        assertNull(asset.select("identity").encoding());
+        assertNull(asset.select(null).encoding());
+        assertEquals("\"abc123-gzip\"", asset.select("gzip").etag());
+        assertEquals("\"abc123\"", asset.select("deflate").etag());
+    }
+
+    @Test
+    void withoutVariantsServesIdentity() {
+        StaticAsset plain = new StaticAsset("image/png", "ff", new byte[]{1}, null, null);
+        assertNull(plain.select("br, gzip").encoding());
+    }
+
+    @Test
+    void ifNoneMatchAcceptsAnyVariant() {
+        assertTrue(asset.matches("\"abc123\""));
+        assertTrue(asset.matches("W/\"abc123-gzip\""));
+        assertTrue(asset.matches("\"old\", \"abc123-br\""));
+        assertTrue(asset.matches("*"));
+        assertFalse(asset.matches("\"abc124\""));
+        assertFalse(asset.matches(null));
+    }
+}